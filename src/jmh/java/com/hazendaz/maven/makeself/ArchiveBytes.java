@@ -0,0 +1,48 @@
+/*
+ *    Copyright 2011-2026 the original author or authors.
+ *
+ *    This program is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU General Public License
+ *    as published by the Free Software Foundation; either version 2
+ *    of the License, or (at your option) any later version.
+ *
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.gnu.org/licenses/old-licenses/gpl-2.0.en.html
+ *
+ *    This program is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ */
+package com.hazendaz.maven.makeself;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * The Class ArchiveBytes.
+ * <p>
+ * Counts the uncompressed bytes archived, which JMH reports next to the archives per second as the throughput in
+ * bytes per second. JMH reads the counter from a public field.
+ * </p>
+ */
+@State(Scope.Thread)
+@AuxCounters(AuxCounters.Type.OPERATIONS)
+public class ArchiveBytes {
+
+    /** The uncompressed bytes archived in this iteration. */
+    public long bytes;
+
+    /**
+     * Reset the counter for each iteration.
+     */
+    @Setup(Level.Iteration)
+    public void reset() {
+        this.bytes = 0;
+    }
+
+}
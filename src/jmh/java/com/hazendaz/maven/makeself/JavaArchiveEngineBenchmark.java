@@ -0,0 +1,133 @@
+/*
+ *    Copyright 2011-2026 the original author or authors.
+ *
+ *    This program is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU General Public License
+ *    as published by the Free Software Foundation; either version 2
+ *    of the License, or (at your option) any later version.
+ *
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.gnu.org/licenses/old-licenses/gpl-2.0.en.html
+ *
+ *    This program is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ */
+package com.hazendaz.maven.makeself;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.maven.plugin.testing.SilentLog;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The Class JavaArchiveEngineBenchmark.
+ * <p>
+ * Archive creation with the java engine for every compression, level and thread count, without the mojo around it.
+ * Run with {@code mvn -Pbenchmark verify -Djmh.args="JavaArchiveEngineBenchmark -p compression=zstd"} to narrow the
+ * matrix; the results are written to {@code target/jmh-result.json}.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 10)
+@Measurement(iterations = 3, time = 10)
+@Fork(1)
+public class JavaArchiveEngineBenchmark {
+
+    /** The payload. */
+    @Param
+    SyntheticPayload payload;
+
+    /** The compression, as makeself names it. */
+    @Param({ "gzip", "bzip2", "xz", "zstd", "none" })
+    String compression;
+
+    /** The compression level. */
+    @Param({ "1", "9" })
+    int level;
+
+    /** The compressor threads, 0 for all available processors. */
+    @Param({ "1", "0" })
+    int threads;
+
+    /** The working directory. */
+    private Path directory;
+
+    /** The archive directory. */
+    private Path archiveDir;
+
+    /** The size of the payload. */
+    private long payloadBytes;
+
+    /**
+     * Generate the payload.
+     *
+     * @throws IOException
+     *             Signals that an I/O exception has occurred.
+     */
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        this.directory = Files.createTempDirectory("makeself-benchmark");
+        this.archiveDir = this.directory.resolve("payload");
+        this.payloadBytes = this.payload.generate(this.archiveDir);
+    }
+
+    /**
+     * Remove the payload and archive.
+     *
+     * @throws IOException
+     *             Signals that an I/O exception has occurred.
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        FileUtils.deleteDirectory(this.directory.toFile());
+    }
+
+    /**
+     * Build the archive.
+     *
+     * @param bytes
+     *            the byte counter
+     *
+     * @return the archived entries
+     *
+     * @throws IOException
+     *             Signals that an I/O exception has occurred.
+     */
+    @Benchmark
+    public List<String> build(final ArchiveBytes bytes) throws IOException {
+        final JavaArchiveEngine engine = new JavaArchiveEngine(new SilentLog());
+        engine.setArchiveDir(this.archiveDir);
+        engine.setArchiveFile(this.directory.resolve("benchmark.sh"));
+        engine.setLabel("Benchmark");
+        engine.setStartupScript(SyntheticPayload.STARTUP_SCRIPT);
+        engine.setCompression(Compression.fromId(this.compression));
+        engine.setCompressionLevel(this.level);
+        engine.setThreads(this.threads);
+        final List<String> entries = engine.build();
+        bytes.bytes += this.payloadBytes;
+        return entries;
+    }
+
+}
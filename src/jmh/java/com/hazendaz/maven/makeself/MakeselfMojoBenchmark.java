@@ -0,0 +1,171 @@
+/*
+ *    Copyright 2011-2026 the original author or authors.
+ *
+ *    This program is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU General Public License
+ *    as published by the Free Software Foundation; either version 2
+ *    of the License, or (at your option) any later version.
+ *
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.gnu.org/licenses/old-licenses/gpl-2.0.en.html
+ *
+ *    This program is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ */
+package com.hazendaz.maven.makeself;
+
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.plugin.testing.SilentLog;
+import org.apache.maven.project.MavenProject;
+import org.apache.maven.project.MavenProjectHelper;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The Class MakeselfMojoBenchmark.
+ * <p>
+ * End to end archive creation through the makeself goal for both engines and every compression, at the plugin's
+ * default level and with all processors. The shell engine needs bash and the compressor commands on the path. Run
+ * with {@code mvn -Pbenchmark verify -Djmh.args="MakeselfMojoBenchmark -p engine=shell"}; the results are written to
+ * {@code target/jmh-result.json}.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 10)
+@Measurement(iterations = 3, time = 10)
+@Fork(1)
+public class MakeselfMojoBenchmark {
+
+    /** The engine. */
+    @Param({ MakeselfMojo.ENGINE_JAVA, MakeselfMojo.ENGINE_SHELL })
+    String engine;
+
+    /** The payload. */
+    @Param
+    SyntheticPayload payload;
+
+    /** The compression, as makeself names it. */
+    @Param({ "gzip", "bzip2", "xz", "zstd", "none" })
+    String compression;
+
+    /** The compression level. */
+    @Param({ "9" })
+    int level;
+
+    /** The compressor threads, 0 for all available processors. */
+    @Param({ "0" })
+    int threads;
+
+    /** The working directory. */
+    private Path directory;
+
+    /** The size of the payload. */
+    private long payloadBytes;
+
+    /** The mojo. */
+    private MakeselfMojo mojo;
+
+    /**
+     * Generate the payload and configure the mojo.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        this.directory = Files.createTempDirectory("makeself-benchmark");
+        this.payloadBytes = this.payload.generate(this.directory.resolve("payload"));
+
+        this.mojo = new MakeselfMojo();
+        this.mojo.setLog(new SilentLog());
+        MakeselfMojoBenchmark.setField(this.mojo, "buildTarget", this.directory.toString() + "/");
+        MakeselfMojoBenchmark.setField(this.mojo, "archiveDir", "payload");
+        MakeselfMojoBenchmark.setField(this.mojo, "startupScript", SyntheticPayload.STARTUP_SCRIPT);
+        MakeselfMojoBenchmark.setField(this.mojo, "fileName", "benchmark.sh");
+        MakeselfMojoBenchmark.setField(this.mojo, "label", "Benchmark");
+        MakeselfMojoBenchmark.setField(this.mojo, "makeselfTempDirectory",
+                this.directory.resolve("makeself-tmp").toFile());
+        MakeselfMojoBenchmark.setField(this.mojo, "engine", this.engine);
+        MakeselfMojoBenchmark.setField(this.mojo, "complevel", this.level);
+        MakeselfMojoBenchmark.setField(this.mojo, "threads", this.threads);
+        MakeselfMojoBenchmark.setField(this.mojo, "none".equals(this.compression) ? "nocomp" : this.compression,
+                Boolean.TRUE);
+        MakeselfMojoBenchmark.setField(this.mojo, "projectHelper",
+                Mockito.mock(MavenProjectHelper.class, Mockito.withSettings().stubOnly()));
+        MakeselfMojoBenchmark.setField(this.mojo, "project", new MavenProject());
+    }
+
+    /**
+     * Remove the payload and archive.
+     *
+     * @throws IOException
+     *             Signals that an I/O exception has occurred.
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        FileUtils.deleteDirectory(this.directory.toFile());
+    }
+
+    /**
+     * Run the makeself goal.
+     *
+     * @param bytes
+     *            the byte counter
+     *
+     * @throws MojoExecutionException
+     *             the mojo execution exception
+     * @throws MojoFailureException
+     *             the mojo failure exception
+     */
+    @Benchmark
+    public void execute(final ArchiveBytes bytes) throws MojoExecutionException, MojoFailureException {
+        this.mojo.execute();
+        bytes.bytes += this.payloadBytes;
+    }
+
+    /**
+     * Sets a private mojo parameter.
+     *
+     * @param mojo
+     *            the mojo
+     * @param name
+     *            the field name
+     * @param value
+     *            the value
+     *
+     * @throws ReflectiveOperationException
+     *             if the field does not exist
+     */
+    private static void setField(final MakeselfMojo mojo, final String name, final Object value)
+            throws ReflectiveOperationException {
+        final Field field = MakeselfMojo.class.getDeclaredField(name);
+        field.setAccessible(true);
+        field.set(mojo, value);
+    }
+
+}
@@ -0,0 +1,158 @@
+/*
+ *    Copyright 2011-2026 the original author or authors.
+ *
+ *    This program is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU General Public License
+ *    as published by the Free Software Foundation; either version 2
+ *    of the License, or (at your option) any later version.
+ *
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.gnu.org/licenses/old-licenses/gpl-2.0.en.html
+ *
+ *    This program is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ */
+package com.hazendaz.maven.makeself;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+/**
+ * The Enum SyntheticPayload.
+ * <p>
+ * Archive directories the benchmarks build from. The content is generated from a fixed seed, so every run archives
+ * the same bytes.
+ * </p>
+ */
+public enum SyntheticPayload {
+
+    /** Many small text files, as in an application distribution. */
+    SMALL_FILES(2000, 512, 8192, true),
+
+    /** A few large text files, such as logs or data exports. */
+    LARGE_FILES(2, 16 * 1024 * 1024, 16 * 1024 * 1024, true),
+
+    /** Already compressed blobs, which compressors cannot shrink. */
+    COMPRESSED(8, 2 * 1024 * 1024, 2 * 1024 * 1024, false);
+
+    /** The startup script written with every payload. */
+    public static final String STARTUP_SCRIPT = "./run.sh";
+
+    /** The files per directory. */
+    private static final int FILES_PER_DIRECTORY = 100;
+
+    /** The words text files are made of. */
+    private static final String[] WORDS = { "makeself", "archive", "payload", "header", "compress", "extract",
+            "maven", "plugin", "shell", "script", "tar", "gzip", "checksum", "target", "directory", "version", "java",
+            "engine", "thread", "stream", "0", "1", "42", "2048", "=", "{", "}", ";", "\n" };
+
+    /** The number of files. */
+    private final int files;
+
+    /** The smallest file size. */
+    private final int minSize;
+
+    /** The largest file size. */
+    private final int maxSize;
+
+    /** Whether the files are text rather than random bytes. */
+    private final boolean text;
+
+    /**
+     * Instantiates a new synthetic payload.
+     *
+     * @param files
+     *            the number of files
+     * @param minSize
+     *            the smallest file size
+     * @param maxSize
+     *            the largest file size
+     * @param text
+     *            whether the files are text rather than random bytes
+     */
+    SyntheticPayload(final int files, final int minSize, final int maxSize, final boolean text) {
+        this.files = files;
+        this.minSize = minSize;
+        this.maxSize = maxSize;
+        this.text = text;
+    }
+
+    /**
+     * Generate the payload and its startup script.
+     *
+     * @param directory
+     *            the archive directory to create
+     *
+     * @return the number of bytes generated
+     *
+     * @throws IOException
+     *             Signals that an I/O exception has occurred.
+     */
+    public long generate(final Path directory) throws IOException {
+        final Random random = new Random(this.ordinal());
+        long total = 0;
+        for (int i = 0; i < this.files; i++) {
+            final Path file = directory.resolve(String.format("data/%03d/file-%05d.%s",
+                    i / SyntheticPayload.FILES_PER_DIRECTORY, i, this.text ? "txt" : "bin"));
+            Files.createDirectories(file.getParent());
+            final int size = this.minSize + random.nextInt(this.maxSize - this.minSize + 1);
+            try (OutputStream output = Files.newOutputStream(file)) {
+                output.write(this.text ? SyntheticPayload.text(random, size) : SyntheticPayload.bytes(random, size));
+            }
+            total += size;
+        }
+        final byte[] script = "#!/bin/sh\necho Benchmark payload\n".getBytes(StandardCharsets.US_ASCII);
+        Files.write(directory.resolve(SyntheticPayload.STARTUP_SCRIPT.substring(2)), script);
+        return total + script.length;
+    }
+
+    /**
+     * Generate text of random words.
+     *
+     * @param random
+     *            the random
+     * @param size
+     *            the size
+     *
+     * @return the text
+     */
+    private static byte[] text(final Random random, final int size) {
+        final byte[] result = new byte[size];
+        int position = 0;
+        while (position < size) {
+            final byte[] word = SyntheticPayload.WORDS[random.nextInt(SyntheticPayload.WORDS.length)]
+                    .getBytes(StandardCharsets.US_ASCII);
+            final int length = Math.min(word.length, size - position);
+            System.arraycopy(word, 0, result, position, length);
+            position += length;
+            if (position < size) {
+                result[position++] = ' ';
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Generate random bytes.
+     *
+     * @param random
+     *            the random
+     * @param size
+     *            the size
+     *
+     * @return the bytes
+     */
+    private static byte[] bytes(final Random random, final int size) {
+        final byte[] result = new byte[size];
+        random.nextBytes(result);
+        return result;
+    }
+
+}
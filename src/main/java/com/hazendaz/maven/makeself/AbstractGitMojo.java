@@ -18,17 +18,22 @@
 package com.hazendaz.maven.makeself;
 
 import java.io.BufferedInputStream;
-import java.io.BufferedReader;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
-import java.nio.charset.StandardCharsets;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
 
 import javax.inject.Inject;
 
@@ -37,6 +42,7 @@ import org.apache.commons.compress.archivers.ArchiveInputStream;
 import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
 import org.apache.commons.compress.archivers.tar.TarArchiveInputStream;
 import org.apache.commons.compress.compressors.gzip.GzipCompressorInputStream;
+import org.apache.commons.io.FileUtils;
 import org.apache.maven.plugin.AbstractMojo;
 import org.apache.maven.plugin.MojoFailureException;
 import org.apache.maven.plugins.annotations.Parameter;
@@ -60,6 +66,12 @@ public abstract class AbstractGitMojo extends AbstractMojo {
     /** The Constant GIT_USER_BIN. */
     static final String GIT_USER_BIN = "/usr/bin/";
 
+    /** The marker written into a complete portable git install. */
+    static final String INSTALL_MARKER = ".makeself-installed";
+
+    /** Locks for installs in progress in this process; the lock file only excludes other processes. */
+    private static final Map<Path, Object> INSTALL_LOCKS = new ConcurrentHashMap<>();
+
     /**
      * Returns true if the current platform is Windows. Extracted as a method to allow test subclasses to override the
      * platform detection without modifying production code.
@@ -99,27 +111,121 @@ public abstract class AbstractGitMojo extends AbstractMojo {
      *             the mojo failure exception
      */
     protected void checkGitSetup() throws MojoFailureException {
+        final ToolchainCache toolchain = ToolchainCache.get(this.repoSession);
+
         // Get Portable Git Maven Information
-        this.portableGit = new PortableGit(this.getLog());
+        this.portableGit = toolchain.getPortableGit(this.getLog());
+
+        // Reuse an install already verified in this session
+        final String location = this.portableGitLocation();
+        if (toolchain.isGitInstalled(location)) {
+            this.getLog().debug("Using 'PortableGit' verified in this session at " + location);
+            this.gitPath = location + AbstractGitMojo.GIT_USER_BIN;
+            return;
+        }
 
         // Extract Portable Git
         this.extractPortableGit();
+        if ((location + AbstractGitMojo.GIT_USER_BIN).equals(this.gitPath)) {
+            toolchain.gitInstalled(location);
+        }
     }
 
     /**
-     * Extract Portable Git.
+     * Get the Portable Git install location in the local repository.
+     *
+     * @return the location
+     */
+    private String portableGitLocation() {
+        return this.repoSession.getLocalRepository().getBasedir() + File.separator + this.portableGit.getName()
+                + File.separator + this.portableGit.getVersion();
+    }
+
+    /**
+     * Extract Portable Git. The install is shared by every build using the local repository, so it is made under a lock
+     * file: other builds, in this process or another, wait for one extraction rather than repeat it. The installer
+     * writes to a staging directory that is marked complete and then renamed into place, so a partial install is
+     * never visible. An existing install without the marker may be partial, so it is removed and installed again.
      *
      * @throws MojoFailureException
      *             failure retrieving portable git
      */
     protected void extractPortableGit() throws MojoFailureException {
-        final String location = this.repoSession.getLocalRepository().getBasedir() + File.separator
-                + this.portableGit.getName() + File.separator + this.portableGit.getVersion();
-        if (Files.exists(Path.of(location))) {
+        final String location = this.portableGitLocation();
+        final Path installDirectory = Path.of(location);
+        if (Files.exists(installDirectory.resolve(AbstractGitMojo.INSTALL_MARKER))) {
+            this.getLog().debug("Existing 'PortableGit' folder found at " + location);
+            this.gitPath = location + AbstractGitMojo.GIT_USER_BIN;
+            return;
+        }
+
+        final Path lockFile = Path.of(location + ".lock");
+        try {
+            Files.createDirectories(lockFile.getParent());
+            final Object installLock = AbstractGitMojo.INSTALL_LOCKS.computeIfAbsent(lockFile.toAbsolutePath(),
+                    key -> new Object());
+            synchronized (installLock) {
+                try (FileChannel channel = FileChannel.open(lockFile, StandardOpenOption.CREATE,
+                        StandardOpenOption.WRITE)) {
+                    final FileLock lock = this.lockInstall(channel, location);
+                    try {
+                        this.installPortableGit(installDirectory);
+                    } finally {
+                        lock.release();
+                    }
+                }
+            }
+        } catch (final IOException e) {
+            throw new MojoFailureException("Unable to install portable git at " + location, e);
+        }
+    }
+
+    /**
+     * Lock the install, logging when another build holds it.
+     *
+     * @param channel
+     *            the lock file channel
+     * @param location
+     *            the install location
+     *
+     * @return the lock
+     *
+     * @throws IOException
+     *             Signals that an I/O exception has occurred.
+     */
+    private FileLock lockInstall(final FileChannel channel, final String location) throws IOException {
+        final FileLock lock = channel.tryLock();
+        if (lock != null) {
+            return lock;
+        }
+        this.getLog().info("Waiting for another build to finish installing portable git at " + location);
+        return channel.lock();
+    }
+
+    /**
+     * Install Portable Git unless another build did while this one waited for the lock. Called with the lock held. A
+     * directory left without the marker by an interrupted or failed install is deleted first.
+     *
+     * @param installDirectory
+     *            the install directory
+     *
+     * @throws MojoFailureException
+     *             failure retrieving portable git, or the installer did not complete
+     * @throws IOException
+     *             Signals that an I/O exception has occurred.
+     */
+    private void installPortableGit(final Path installDirectory) throws MojoFailureException, IOException {
+        final String location = installDirectory.toString();
+        final Path marker = installDirectory.resolve(AbstractGitMojo.INSTALL_MARKER);
+        if (Files.exists(marker)) {
             this.getLog().debug("Existing 'PortableGit' folder found at " + location);
             this.gitPath = location + AbstractGitMojo.GIT_USER_BIN;
             return;
         }
+        if (Files.exists(installDirectory)) {
+            this.getLog().warn("Removing incomplete 'PortableGit' folder at " + location);
+            FileUtils.deleteDirectory(installDirectory.toFile());
+        }
 
         this.getLog().info("Loading portable git");
         final Artifact artifact = new DefaultArtifact(this.portableGit.getGroupId(), this.portableGit.getArtifactId(),
@@ -139,7 +245,28 @@ public abstract class AbstractGitMojo extends AbstractMojo {
                     "Unable to resolve artifact: " + artifact.getGroupId() + ":" + artifact.getArtifactId() + ":"
                             + artifact.getVersion() + ":" + artifact.getClassifier() + ":" + artifact.getExtension());
         }
-        this.installGit(resolutionResult.getArtifact(), location);
+
+        final Path staging = Files.createTempDirectory(installDirectory.getParent(),
+                installDirectory.getFileName() + ".tmp-");
+        try {
+            final String stagingPath = staging.toString() + AbstractGitMojo.GIT_USER_BIN;
+            this.installGit(resolutionResult.getArtifact(), staging.toString());
+            boolean installed;
+            try (Stream<Path> files = Files.list(staging)) {
+                installed = stagingPath.equals(this.gitPath) && files.findAny().isPresent();
+            }
+            if (!installed) {
+                throw new MojoFailureException(
+                        "Portable git installer did not complete, nothing installed at " + location);
+            }
+            Files.createFile(staging.resolve(AbstractGitMojo.INSTALL_MARKER));
+            Files.move(staging, installDirectory, StandardCopyOption.ATOMIC_MOVE);
+            this.gitPath = location + AbstractGitMojo.GIT_USER_BIN;
+        } finally {
+            if (Files.exists(staging)) {
+                FileUtils.deleteDirectory(staging.toFile());
+            }
+        }
     }
 
     /**
@@ -149,8 +276,11 @@ public abstract class AbstractGitMojo extends AbstractMojo {
      *            the maven artifact representation for git
      * @param location
      *            the location in maven repository to store portable git
+     *
+     * @throws MojoFailureException
+     *             the tarball cannot be extracted, or the installer cannot be run or exited with a non-zero status
      */
-    protected void installGit(final Artifact artifact, final String location) {
+    protected void installGit(final Artifact artifact, final String location) throws MojoFailureException {
         Path currentFile = null;
 
         // Unzip 'git-for-windows-*-portable.tar.gz' from '.m2/repository/com/github/hazendaz/git/git-for-windows'
@@ -162,34 +292,40 @@ public abstract class AbstractGitMojo extends AbstractMojo {
             ArchiveEntry entry;
             final String directory = this.repoSession.getLocalRepository().getBasedir() + File.separator
                     + this.portableGit.getName();
+            // Parent directories already created, so each is only checked once
+            final Set<Path> directories = new HashSet<>();
             while ((entry = tarStream.getNextEntry()) != null) {
                 if (entry.isDirectory()) {
                     continue;
                 }
-                currentFile = Path.of(directory, entry.getName());
-                if (!currentFile.normalize().startsWith(directory)) {
+                final Path file = Path.of(directory, entry.getName());
+                if (!file.normalize().startsWith(directory)) {
                     throw new IOException("Bad zip entry, possible directory traversal");
                 }
-                final Path parent = currentFile.getParent();
-                if (!Files.exists(parent)) {
+                final Path parent = file.getParent();
+                if (directories.add(parent)) {
                     Files.createDirectories(parent);
                 }
-                this.getLog().debug("Current file: " + currentFile.getFileName());
-                Files.copy(tarStream, currentFile, StandardCopyOption.REPLACE_EXISTING);
+                this.getLog().debug("Current file: " + file.getFileName());
+                Files.copy(tarStream, file, StandardCopyOption.REPLACE_EXISTING);
+                currentFile = file;
             }
         } catch (final IOException e) {
-            this.getLog().error("", e);
+            throw new MojoFailureException("Unable to extract portable git from " + artifact.getFile(), e);
         }
 
         try {
             if (currentFile != null) {
                 // Extract Portable Git
                 this.getLog().debug("Extract Portable Git");
-                this.runInstaller(Arrays.asList(currentFile.toString(), "-y", "-o", location));
+                final int status = this.runInstaller(Arrays.asList(currentFile.toString(), "-y", "-o", location));
+                if (status != 0) {
+                    throw new MojoFailureException("Portable git installer failed with status " + status);
+                }
                 this.gitPath = location + AbstractGitMojo.GIT_USER_BIN;
             }
         } catch (final IOException e) {
-            this.getLog().error("", e);
+            throw new MojoFailureException("Unable to run portable git installer " + currentFile, e);
         } catch (final InterruptedException e) {
             this.getLog().error("", e);
             // restore interruption status of the corresponding thread
@@ -203,31 +339,17 @@ public abstract class AbstractGitMojo extends AbstractMojo {
      * @param command
      *            the command to run
      *
+     * @return the exit status
+     *
      * @throws IOException
      *             Signals that an I/O exception has occurred.
      * @throws InterruptedException
      *             the interrupted exception
      */
-    protected void runInstaller(final List<String> command) throws IOException, InterruptedException {
+    protected int runInstaller(final List<String> command) throws IOException, InterruptedException {
         this.getLog().debug("Execution commands: " + command);
 
-        final ProcessBuilder processBuilder = new ProcessBuilder(command);
-        processBuilder.redirectErrorStream(true);
-
-        final Process process = processBuilder.start();
-        try (BufferedReader reader = new BufferedReader(
-                new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
-            String line = "";
-            while ((line = reader.readLine()) != null) {
-                this.getLog().info(line);
-            }
-            this.getLog().info("");
-        }
-
-        final int status = process.waitFor();
-        if (status > 0) {
-            this.getLog().error(String.join(" ", "Process failed with error status:", String.valueOf(status)));
-        }
+        return ProcessUtils.run(new ProcessBuilder(command), this.getLog(), "Process failed with error status:");
     }
 
 }
@@ -0,0 +1,218 @@
+/*
+ *    Copyright 2011-2026 the original author or authors.
+ *
+ *    This program is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU General Public License
+ *    as published by the Free Software Foundation; either version 2
+ *    of the License, or (at your option) any later version.
+ *
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.gnu.org/licenses/old-licenses/gpl-2.0.en.html
+ *
+ *    This program is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ */
+package com.hazendaz.maven.makeself;
+
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * The Class ArchiveBuild.
+ * <p>
+ * The state of building one archive: the values that differ between the archives of an execution, the paths derived
+ * from them and what the build decides along the way. The configuration shared by all archives stays on the mojo, so
+ * archives built at the same time share nothing they change.
+ * </p>
+ */
+public class ArchiveBuild {
+
+    /** The directory that contains the files to be archived. */
+    private final String archiveDir;
+
+    /** The name of the archive to be created. */
+    private final String fileName;
+
+    /** The text describing the package. */
+    private final String label;
+
+    /** The command to be executed from within the directory of extracted files. */
+    private final String startupScript;
+
+    /** The additional arguments for the startup script, may be null. */
+    private final List<String> scriptArgs;
+
+    /** The classifier the archive is attached with, may be null. */
+    private final String classifier;
+
+    /** The compression threads, null for the compressor default. */
+    private final Integer threads;
+
+    /** The build target directory, ending with a separator. */
+    private final String buildTarget;
+
+    /** The metrics of the build, null when not recorded. */
+    private BuildMetrics metrics;
+
+    /** The compression auto compression chose, null to use the configured one. */
+    private Compression selectedCompression;
+
+    /** The level auto compression chose, null to use the configured one. */
+    private Integer selectedLevel;
+
+    /**
+     * Instantiates a new archive build.
+     *
+     * @param buildTarget
+     *            the build target directory, ending with a separator
+     * @param definition
+     *            the archive definition, with every value set
+     * @param threads
+     *            the compression threads, null for the compressor default
+     */
+    public ArchiveBuild(final String buildTarget, final ArchiveDefinition definition, final Integer threads) {
+        this.archiveDir = definition.getArchiveDir();
+        this.fileName = definition.getFileName();
+        this.label = definition.getLabel();
+        this.startupScript = definition.getStartupScript();
+        this.scriptArgs = definition.getScriptArgs();
+        this.classifier = definition.getClassifier();
+        this.threads = threads;
+        this.buildTarget = buildTarget;
+    }
+
+    /**
+     * Gets the archive directory.
+     *
+     * @return the archive directory
+     */
+    public String getArchiveDir() {
+        return this.archiveDir;
+    }
+
+    /**
+     * Gets the file name.
+     *
+     * @return the file name
+     */
+    public String getFileName() {
+        return this.fileName;
+    }
+
+    /**
+     * Gets the label.
+     *
+     * @return the label
+     */
+    public String getLabel() {
+        return this.label;
+    }
+
+    /**
+     * Gets the startup script.
+     *
+     * @return the startup script
+     */
+    public String getStartupScript() {
+        return this.startupScript;
+    }
+
+    /**
+     * Gets the script arguments.
+     *
+     * @return the script arguments, may be null
+     */
+    public List<String> getScriptArgs() {
+        return this.scriptArgs;
+    }
+
+    /**
+     * Gets the classifier.
+     *
+     * @return the classifier, may be null
+     */
+    public String getClassifier() {
+        return this.classifier;
+    }
+
+    /**
+     * Gets the compression threads.
+     *
+     * @return the threads, null for the compressor default
+     */
+    public Integer getThreads() {
+        return this.threads;
+    }
+
+    /**
+     * Gets the archive directory below the build target.
+     *
+     * @return the directory
+     */
+    public Path getDirectory() {
+        return Path.of(this.buildTarget.concat(this.archiveDir));
+    }
+
+    /**
+     * Gets the archive below the build target.
+     *
+     * @return the archive
+     */
+    public Path getArchive() {
+        return Path.of(this.buildTarget.concat(this.fileName));
+    }
+
+    /**
+     * Gets the metrics.
+     *
+     * @return the metrics, null when not recorded
+     */
+    public BuildMetrics getMetrics() {
+        return this.metrics;
+    }
+
+    /**
+     * Sets the metrics.
+     *
+     * @param metrics
+     *            the new metrics
+     */
+    public void setMetrics(final BuildMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * Gets the compression auto compression chose.
+     *
+     * @return the compression, null to use the configured one
+     */
+    public Compression getSelectedCompression() {
+        return this.selectedCompression;
+    }
+
+    /**
+     * Gets the level auto compression chose.
+     *
+     * @return the level, null to use the configured one
+     */
+    public Integer getSelectedLevel() {
+        return this.selectedLevel;
+    }
+
+    /**
+     * Record the compression and level auto compression chose.
+     *
+     * @param compression
+     *            the compression
+     * @param level
+     *            the level, null for the compressor default
+     */
+    public void select(final Compression compression, final Integer level) {
+        this.selectedCompression = compression;
+        this.selectedLevel = level;
+    }
+
+}
@@ -0,0 +1,163 @@
+/*
+ *    Copyright 2011-2026 the original author or authors.
+ *
+ *    This program is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU General Public License
+ *    as published by the Free Software Foundation; either version 2
+ *    of the License, or (at your option) any later version.
+ *
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.gnu.org/licenses/old-licenses/gpl-2.0.en.html
+ *
+ *    This program is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ */
+package com.hazendaz.maven.makeself;
+
+import java.util.List;
+
+/**
+ * The Class ArchiveDefinition.
+ * <p>
+ * One archive of a makeself execution configured with {@code archives}. Each value left unset is taken from the
+ * configuration of the execution.
+ * </p>
+ */
+public class ArchiveDefinition {
+
+    /** The directory that contains the files to be archived. */
+    private String archiveDir;
+
+    /** The name of the archive to be created. */
+    private String fileName;
+
+    /** The text describing the package. */
+    private String label;
+
+    /** The command to be executed from within the directory of extracted files. */
+    private String startupScript;
+
+    /** The additional arguments for the startup script. */
+    private List<String> scriptArgs;
+
+    /** The classifier the archive is attached with. */
+    private String classifier;
+
+    /**
+     * Gets the archive directory.
+     *
+     * @return the archive directory, null to use the one of the execution
+     */
+    public String getArchiveDir() {
+        return this.archiveDir;
+    }
+
+    /**
+     * Sets the archive directory.
+     *
+     * @param archiveDir
+     *            the new archive directory
+     */
+    public void setArchiveDir(final String archiveDir) {
+        this.archiveDir = archiveDir;
+    }
+
+    /**
+     * Gets the file name.
+     *
+     * @return the file name, null to use the one of the execution
+     */
+    public String getFileName() {
+        return this.fileName;
+    }
+
+    /**
+     * Sets the file name.
+     *
+     * @param fileName
+     *            the new file name
+     */
+    public void setFileName(final String fileName) {
+        this.fileName = fileName;
+    }
+
+    /**
+     * Gets the label.
+     *
+     * @return the label, null to use the one of the execution
+     */
+    public String getLabel() {
+        return this.label;
+    }
+
+    /**
+     * Sets the label.
+     *
+     * @param label
+     *            the new label
+     */
+    public void setLabel(final String label) {
+        this.label = label;
+    }
+
+    /**
+     * Gets the startup script.
+     *
+     * @return the startup script, null to use the one of the execution
+     */
+    public String getStartupScript() {
+        return this.startupScript;
+    }
+
+    /**
+     * Sets the startup script.
+     *
+     * @param startupScript
+     *            the new startup script
+     */
+    public void setStartupScript(final String startupScript) {
+        this.startupScript = startupScript;
+    }
+
+    /**
+     * Gets the script args.
+     *
+     * @return the script args, null to use the ones of the execution
+     */
+    public List<String> getScriptArgs() {
+        return this.scriptArgs;
+    }
+
+    /**
+     * Sets the script args.
+     *
+     * @param scriptArgs
+     *            the new script args
+     */
+    public void setScriptArgs(final List<String> scriptArgs) {
+        this.scriptArgs = scriptArgs;
+    }
+
+    /**
+     * Gets the classifier.
+     *
+     * @return the classifier, null to use the one of the execution
+     */
+    public String getClassifier() {
+        return this.classifier;
+    }
+
+    /**
+     * Sets the classifier.
+     *
+     * @param classifier
+     *            the new classifier
+     */
+    public void setClassifier(final String classifier) {
+        this.classifier = classifier;
+    }
+
+}
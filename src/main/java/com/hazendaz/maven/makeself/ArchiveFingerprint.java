@@ -0,0 +1,244 @@
+/*
+ *    Copyright 2011-2026 the original author or authors.
+ *
+ *    This program is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU General Public License
+ *    as published by the Free Software Foundation; either version 2
+ *    of the License, or (at your option) any later version.
+ *
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.gnu.org/licenses/old-licenses/gpl-2.0.en.html
+ *
+ *    This program is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ */
+package com.hazendaz.maven.makeself;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * The Class ArchiveFingerprint.
+ * <p>
+ * Fingerprints everything that goes into an archive: the archive directory (paths, sizes, modification times and
+ * optionally content hashes), additional input files and the effective options. The fingerprint is kept in a manifest
+ * together with the size and modification time of the archive it produced, so a later build can tell whether the
+ * existing archive is still current.
+ * </p>
+ */
+public class ArchiveFingerprint {
+
+    /** Manifest key of the fingerprint. */
+    private static final String FINGERPRINT = "fingerprint";
+
+    /** Manifest key of the archive size. */
+    private static final String ARCHIVE_SIZE = "archive.size";
+
+    /** Manifest key of the archive modification time. */
+    private static final String ARCHIVE_MODIFIED = "archive.modified";
+
+    /** The manifest file. */
+    private final Path manifest;
+
+    /** The archive file. */
+    private final Path archiveFile;
+
+    /** The running digest. */
+    private final MessageDigest digest;
+
+    /** The fingerprint, once computed. */
+    private String value;
+
+    /**
+     * Instantiates a new archive fingerprint.
+     *
+     * @param manifest
+     *            the manifest file
+     * @param archiveFile
+     *            the archive file
+     *
+     * @throws IOException
+     *             if SHA-256 is unavailable
+     */
+    public ArchiveFingerprint(final Path manifest, final Path archiveFile) throws IOException {
+        this.manifest = manifest;
+        this.archiveFile = archiveFile;
+        try {
+            this.digest = MessageDigest.getInstance("SHA-256");
+        } catch (final NoSuchAlgorithmException e) {
+            throw new IOException(e);
+        }
+    }
+
+    /**
+     * Add the options, in order.
+     *
+     * @param values
+     *            the values
+     */
+    public void addValues(final List<String> values) {
+        for (final String option : values) {
+            this.update("value", option);
+        }
+    }
+
+    /**
+     * Add every path under a directory. The tree is walked, and file content hashed, in parallel.
+     *
+     * @param directory
+     *            the directory
+     * @param follow
+     *            follow symbolic links, as the archive does
+     * @param hashContent
+     *            include the content of files, not only size and modification time
+     *
+     * @throws IOException
+     *             Signals that an I/O exception has occurred.
+     */
+    public void addDirectory(final Path directory, final boolean follow, final boolean hashContent)
+            throws IOException {
+        final ForkJoinPool pool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+        try {
+            for (final List<String> fields : pool.invoke(new FingerprintTask(directory, follow, hashContent))) {
+                this.update(fields.toArray(new String[0]));
+            }
+        } catch (final UncheckedIOException e) {
+            throw e.getCause();
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Add an input file outside the archive directory by content. Null or missing files are recorded as absent.
+     *
+     * @param file
+     *            the file, may be null
+     *
+     * @throws IOException
+     *             Signals that an I/O exception has occurred.
+     */
+    public void addFile(final Path file) throws IOException {
+        if (file == null || !Files.isRegularFile(file)) {
+            this.update("input", String.valueOf(file), "absent");
+        } else {
+            this.update("input", file.toString(), ArchiveFingerprint.hash(file));
+        }
+    }
+
+    /**
+     * Gets the fingerprint. No more content can be added afterwards.
+     *
+     * @return the fingerprint
+     */
+    public String getValue() {
+        if (this.value == null) {
+            this.value = ChecksumOutputStream.hex(this.digest.digest());
+        }
+        return this.value;
+    }
+
+    /**
+     * Checks if the archive was built from the same fingerprint and has not been changed since.
+     *
+     * @return true, if up to date
+     *
+     * @throws IOException
+     *             Signals that an I/O exception has occurred.
+     */
+    public boolean isUpToDate() throws IOException {
+        if (!Files.isRegularFile(this.manifest) || !Files.isRegularFile(this.archiveFile)) {
+            return false;
+        }
+        final Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(this.manifest, StandardCharsets.UTF_8)) {
+            properties.load(reader);
+        }
+        return this.getValue().equals(properties.getProperty(ArchiveFingerprint.FINGERPRINT))
+                && String.valueOf(Files.size(this.archiveFile))
+                        .equals(properties.getProperty(ArchiveFingerprint.ARCHIVE_SIZE))
+                && String.valueOf(Files.getLastModifiedTime(this.archiveFile).toMillis())
+                        .equals(properties.getProperty(ArchiveFingerprint.ARCHIVE_MODIFIED));
+    }
+
+    /**
+     * Record the fingerprint for the archive just built.
+     *
+     * @throws IOException
+     *             Signals that an I/O exception has occurred.
+     */
+    public void save() throws IOException {
+        final Properties properties = new Properties();
+        properties.setProperty(ArchiveFingerprint.FINGERPRINT, this.getValue());
+        properties.setProperty(ArchiveFingerprint.ARCHIVE_SIZE, String.valueOf(Files.size(this.archiveFile)));
+        properties.setProperty(ArchiveFingerprint.ARCHIVE_MODIFIED,
+                String.valueOf(Files.getLastModifiedTime(this.archiveFile).toMillis()));
+        Files.createDirectories(this.manifest.toAbsolutePath().getParent());
+        try (OutputStream output = Files.newOutputStream(this.manifest)) {
+            properties.store(output, "makeself archive fingerprint");
+        }
+    }
+
+    /**
+     * Delete the manifest, so the next build runs in full.
+     *
+     * @throws IOException
+     *             Signals that an I/O exception has occurred.
+     */
+    public void invalidate() throws IOException {
+        Files.deleteIfExists(this.manifest);
+    }
+
+    /**
+     * Add a record. Fields are length prefixed so different records never produce the same bytes.
+     *
+     * @param fields
+     *            the fields
+     */
+    private void update(final String... fields) {
+        for (final String field : fields) {
+            final byte[] bytes = field.getBytes(StandardCharsets.UTF_8);
+            this.digest.update((bytes.length + ":").getBytes(StandardCharsets.US_ASCII));
+            this.digest.update(bytes);
+        }
+        this.digest.update((byte) '\n');
+    }
+
+    /**
+     * Hash the content of a file.
+     *
+     * @param file
+     *            the file
+     *
+     * @return the hex SHA-256
+     *
+     * @throws IOException
+     *             Signals that an I/O exception has occurred.
+     */
+    static String hash(final Path file) throws IOException {
+        try (InputStream input = Files.newInputStream(file);
+                DigestOutputStream output = new DigestOutputStream(OutputStream.nullOutputStream(),
+                        MessageDigest.getInstance("SHA-256"))) {
+            input.transferTo(output);
+            return ChecksumOutputStream.hex(output.getMessageDigest().digest());
+        } catch (final NoSuchAlgorithmException e) {
+            throw new IOException(e);
+        }
+    }
+
+}
@@ -0,0 +1,268 @@
+/*
+ *    Copyright 2011-2026 the original author or authors.
+ *
+ *    This program is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU General Public License
+ *    as published by the Free Software Foundation; either version 2
+ *    of the License, or (at your option) any later version.
+ *
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.gnu.org/licenses/old-licenses/gpl-2.0.en.html
+ *
+ *    This program is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ */
+package com.hazendaz.maven.makeself;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * The Class ArchiveSplitter.
+ * <p>
+ * Splits a built archive into parts of a fixed size and writes a small launcher script in its place. Parts are named
+ * after the launcher the way Maven names artifacts with a classifier: {@code name.ext} has the parts
+ * {@code name-part1.ext}, {@code name-part2.ext} and so on, so the launcher finds them both next to the build output
+ * and in a repository. The launcher joins the parts in order into a temporary archive, checking each with
+ * {@code cksum} as it is copied, and runs the archive with its own arguments.
+ * </p>
+ */
+public class ArchiveSplitter {
+
+    /** The suffix of a part before its index. */
+    static final String PART = "-part";
+
+    /** The copy buffer size. */
+    private static final int BUFFER_SIZE = 1024 * 1024;
+
+    /** The extension of the archive, without the dot. */
+    private final String extension;
+
+    /** The maximum size of a part in bytes. */
+    private final long partSize;
+
+    /**
+     * Instantiates a new archive splitter.
+     *
+     * @param extension
+     *            the extension of the archive, without the dot
+     * @param partSize
+     *            the maximum size of a part in bytes
+     */
+    public ArchiveSplitter(final String extension, final long partSize) {
+        this.extension = extension;
+        this.partSize = partSize;
+    }
+
+    /**
+     * Split the archive into parts and write the launcher, replacing what the directory held for the same launcher.
+     *
+     * @param archive
+     *            the archive
+     * @param launcher
+     *            the launcher to write, its parts are written next to it
+     *
+     * @return the parts, in order
+     *
+     * @throws IOException
+     *             Signals that an I/O exception has occurred.
+     */
+    public List<Path> split(final Path archive, final Path launcher) throws IOException {
+        Files.createDirectories(launcher.toAbsolutePath().getParent());
+        for (final Path stale : this.parts(launcher)) {
+            Files.delete(stale);
+        }
+        final List<Path> parts = new ArrayList<>();
+        final List<String> sums = new ArrayList<>();
+        final byte[] buffer = new byte[ArchiveSplitter.BUFFER_SIZE];
+        try (InputStream input = Files.newInputStream(archive)) {
+            long remaining = Files.size(archive);
+            do {
+                final Path part = this.part(launcher, parts.size() + 1);
+                final PosixChecksum checksum = new PosixChecksum();
+                final long size = Math.min(remaining, this.partSize);
+                try (OutputStream output = Files.newOutputStream(part)) {
+                    for (long left = size; left > 0;) {
+                        final int read = input.readNBytes(buffer, 0, (int) Math.min(buffer.length, left));
+                        if (read == 0) {
+                            throw new IOException("Archive " + archive + " changed while it was split");
+                        }
+                        checksum.update(buffer, 0, read);
+                        output.write(buffer, 0, read);
+                        left -= read;
+                    }
+                }
+                parts.add(part);
+                sums.add(checksum.getValue() + " " + size);
+                remaining -= size;
+            } while (remaining > 0);
+        }
+        Files.writeString(launcher, this.launcher(archive.getFileName().toString(), Files.size(archive), sums),
+                StandardCharsets.UTF_8);
+        return parts;
+    }
+
+    /**
+     * Find the parts written next to a launcher, stopping at the first missing index.
+     *
+     * @param launcher
+     *            the launcher
+     *
+     * @return the parts, in order
+     */
+    public List<Path> parts(final Path launcher) {
+        final List<Path> parts = new ArrayList<>();
+        for (Path part = this.part(launcher, 1); Files.isRegularFile(part); part = this.part(launcher,
+                parts.size() + 1)) {
+            parts.add(part);
+        }
+        return parts;
+    }
+
+    /**
+     * Get the path of a part of a launcher.
+     *
+     * @param launcher
+     *            the launcher
+     * @param index
+     *            the part index, starting at 1
+     *
+     * @return the part
+     */
+    Path part(final Path launcher, final int index) {
+        return launcher.resolveSibling(this.base(launcher.getFileName().toString()) + ArchiveSplitter.PART + index
+                + "." + this.extension);
+    }
+
+    /**
+     * Get the classifier of a part, derived from the classifier of the archive the way the file name is.
+     *
+     * @param classifier
+     *            the classifier of the archive, may be null
+     * @param index
+     *            the part index, starting at 1
+     *
+     * @return the classifier of the part
+     */
+    static String classifier(final String classifier, final int index) {
+        final String part = ArchiveSplitter.PART.substring(1) + index;
+        return classifier == null || classifier.isEmpty() ? part : classifier + "-" + part;
+    }
+
+    /**
+     * Parse a size in bytes, optionally followed by k, m or g for KiB, MiB or GiB.
+     *
+     * @param size
+     *            the size
+     *
+     * @return the size in bytes
+     *
+     * @throws NumberFormatException
+     *             if the size is not a positive number with an optional suffix
+     */
+    static long parseSize(final String size) {
+        final String value = size.trim().toLowerCase(Locale.ROOT);
+        final int shift;
+        switch (value.isEmpty() ? ' ' : value.charAt(value.length() - 1)) {
+            case 'k':
+                shift = 10;
+                break;
+            case 'm':
+                shift = 20;
+                break;
+            case 'g':
+                shift = 30;
+                break;
+            default:
+                shift = 0;
+                break;
+        }
+        final long number = Long.parseLong(shift == 0 ? value : value.substring(0, value.length() - 1));
+        if (number <= 0 || number > Long.MAX_VALUE >> shift) {
+            throw new NumberFormatException("Size out of range: " + size);
+        }
+        return number << shift;
+    }
+
+    /**
+     * Get the name of a launcher without the archive extension.
+     *
+     * @param name
+     *            the file name
+     *
+     * @return the base name
+     */
+    private String base(final String name) {
+        final String suffix = "." + this.extension;
+        return name.endsWith(suffix) ? name.substring(0, name.length() - suffix.length()) : name;
+    }
+
+    /**
+     * Render the launcher script. The parts are joined into a complete copy rather than streamed to the archive,
+     * because the makeself header reads its payload again from {@code $0} by offset.
+     *
+     * @param name
+     *            the file name of the joined archive
+     * @param size
+     *            the size of the joined archive in bytes
+     * @param sums
+     *            the {@code cksum} output of each part
+     *
+     * @return the launcher
+     */
+    private String launcher(final String name, final long size, final List<String> sums) {
+        final StringBuilder builder = new StringBuilder(1024 + 32 * sums.size());
+        builder.append("#!/bin/sh\n");
+        builder.append("# Launcher of the makeself archive ").append(name).append(", split in ").append(sums.size())
+                .append(" parts\n");
+        builder.append("# The parts are joined in order, each checked with cksum, and the archive is run with the\n");
+        builder.append("# arguments of this script. TMPDIR selects where the archive is joined: makeself reads the\n");
+        builder.append("# archive again by offset, so it cannot be streamed from the parts.\n");
+        builder.append("base=\"${0%.").append(this.extension).append("}\"\n");
+        builder.append("tmpdir=`mktemp -d \"${TMPDIR:-/tmp}/makeself-split.XXXXXX\"` || exit 1\n");
+        builder.append("trap 'rm -rf \"$tmpdir\"; exit 1' 1 2 3 15\n");
+        builder.append("need=").append((size + 1023) / 1024).append('\n');
+        builder.append("free=`df -Pk \"$tmpdir\" 2>/dev/null | awk 'NR == 2 { print $4 }'`\n");
+        builder.append("if test -n \"$free\" && test \"$free\" -lt $need; then\n");
+        builder.append("    echo \"Not enough space to join the archive in ${TMPDIR:-/tmp}: $need KB needed,")
+                .append(" $free KB available\" >&2\n");
+        builder.append("    rm -rf \"$tmpdir\"\n");
+        builder.append("    exit 1\n");
+        builder.append("fi\n");
+        builder.append("archive=\"$tmpdir/").append(name).append("\"\n");
+        builder.append("MS_Part()\n");
+        builder.append("{\n");
+        builder.append("    part=\"$base").append(ArchiveSplitter.PART).append("$1.").append(this.extension)
+                .append("\"\n");
+        builder.append("    if test ! -f \"$part\"; then\n");
+        builder.append("        echo \"Missing part $part\" >&2\n");
+        builder.append("        return 1\n");
+        builder.append("    fi\n");
+        builder.append("    sum=`tee -a \"$archive\" < \"$part\" | cksum`\n");
+        builder.append("    if test \"$sum\" != \"$2\"; then\n");
+        builder.append("        echo \"Part $part is corrupted: cksum $sum, expected $2\" >&2\n");
+        builder.append("        return 1\n");
+        builder.append("    fi\n");
+        builder.append("}\n");
+        for (int i = 0; i < sums.size(); i++) {
+            builder.append("MS_Part ").append(i + 1).append(" \"").append(sums.get(i))
+                    .append("\" || { rm -rf \"$tmpdir\"; exit 1; }\n");
+        }
+        builder.append("sh \"$archive\" \"$@\"\n");
+        builder.append("res=$?\n");
+        builder.append("rm -rf \"$tmpdir\"\n");
+        builder.append("exit $res\n");
+        return builder.toString();
+    }
+
+}
@@ -0,0 +1,277 @@
+/*
+ *    Copyright 2011-2026 the original author or authors.
+ *
+ *    This program is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU General Public License
+ *    as published by the Free Software Foundation; either version 2
+ *    of the License, or (at your option) any later version.
+ *
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.gnu.org/licenses/old-licenses/gpl-2.0.en.html
+ *
+ *    This program is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ */
+package com.hazendaz.maven.makeself;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The Class BuildMetrics.
+ * <p>
+ * Collects where the time of one makeself execution goes: wall time per phase, bytes in and out, and the number of
+ * child processes started. Phases are recorded in the order they first occur; a phase recorded twice accumulates. The
+ * result is written as a small JSON document so builds can be compared over time.
+ * </p>
+ */
+public class BuildMetrics {
+
+    /** The phase the throughput is computed over. */
+    static final String BUILD = "build";
+
+    /** The start of the execution. */
+    private final long start = System.nanoTime();
+
+    /** Descriptive values, in insertion order. */
+    private final Map<String, Object> values = new LinkedHashMap<>();
+
+    /** The phase times in nanoseconds, in insertion order. */
+    private final Map<String, Long> phases = new LinkedHashMap<>();
+
+    /** The uncompressed payload size. */
+    private long bytesIn;
+
+    /** The compressed payload size. */
+    private long bytesOut;
+
+    /** The archive size. */
+    private long archiveBytes;
+
+    /** The child processes started. */
+    private int processes;
+
+    /**
+     * Set a descriptive value, a string, number or boolean.
+     *
+     * @param name
+     *            the name
+     * @param value
+     *            the value
+     */
+    public void set(final String name, final Object value) {
+        this.values.put(name, value);
+    }
+
+    /**
+     * Record a phase that started at the given time and ends now.
+     *
+     * @param name
+     *            the phase name
+     * @param startNanos
+     *            the {@link System#nanoTime()} at the start of the phase
+     */
+    public void phase(final String name, final long startNanos) {
+        this.addPhase(name, System.nanoTime() - startNanos);
+    }
+
+    /**
+     * Add time to a phase.
+     *
+     * @param name
+     *            the phase name
+     * @param nanos
+     *            the nanoseconds
+     */
+    public void addPhase(final String name, final long nanos) {
+        this.phases.merge(name, Math.max(0, nanos), Long::sum);
+    }
+
+    /**
+     * Gets the time of a phase.
+     *
+     * @param name
+     *            the phase name
+     *
+     * @return the milliseconds, 0 if the phase was not recorded
+     */
+    public long getPhaseMillis(final String name) {
+        return TimeUnit.NANOSECONDS.toMillis(this.phases.getOrDefault(name, 0L));
+    }
+
+    /**
+     * Sets the uncompressed payload size.
+     *
+     * @param bytesIn
+     *            the new bytes in
+     */
+    public void setBytesIn(final long bytesIn) {
+        this.bytesIn = bytesIn;
+    }
+
+    /**
+     * Sets the compressed payload size.
+     *
+     * @param bytesOut
+     *            the new bytes out
+     */
+    public void setBytesOut(final long bytesOut) {
+        this.bytesOut = bytesOut;
+    }
+
+    /**
+     * Sets the archive size, header included.
+     *
+     * @param archiveBytes
+     *            the new archive bytes
+     */
+    public void setArchiveBytes(final long archiveBytes) {
+        this.archiveBytes = archiveBytes;
+    }
+
+    /**
+     * Count a child process.
+     */
+    public void process() {
+        this.processes++;
+    }
+
+    /**
+     * Gets the child processes started.
+     *
+     * @return the processes
+     */
+    public int getProcesses() {
+        return this.processes;
+    }
+
+    /**
+     * Gets the compression ratio, uncompressed to compressed.
+     *
+     * @return the ratio, 0 when nothing was written
+     */
+    public double getCompressionRatio() {
+        return this.bytesOut == 0 ? 0 : (double) this.bytesIn / this.bytesOut;
+    }
+
+    /**
+     * Gets the throughput of the build phase over the uncompressed payload.
+     *
+     * @return the MB per second, 0 when unknown
+     */
+    public double getThroughput() {
+        final long nanos = this.phases.getOrDefault(BuildMetrics.BUILD, 0L);
+        return nanos == 0 ? 0 : this.bytesIn / 1_000_000.0 / (nanos / 1_000_000_000.0);
+    }
+
+    /**
+     * Describe the metrics on one line.
+     *
+     * @return the summary
+     */
+    public String summary() {
+        return String.format(Locale.ROOT,
+                "Makeself metrics: %d ms total, %d ms build, %.1f MB in, %.1f MB out, ratio %.2f, %.1f MB/s, "
+                        + "%d processes",
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - this.start), this.getPhaseMillis(BuildMetrics.BUILD),
+                this.bytesIn / 1_000_000.0, this.bytesOut / 1_000_000.0, this.getCompressionRatio(),
+                this.getThroughput(), this.processes);
+    }
+
+    /**
+     * Render the metrics as JSON.
+     *
+     * @return the JSON document
+     */
+    public String toJson() {
+        final StringBuilder builder = new StringBuilder(512).append("{\n");
+        for (final Map.Entry<String, Object> value : this.values.entrySet()) {
+            builder.append("  ").append(BuildMetrics.quote(value.getKey())).append(": ")
+                    .append(BuildMetrics.json(value.getValue())).append(",\n");
+        }
+        builder.append("  \"totalMillis\": ").append(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - this.start))
+                .append(",\n");
+        builder.append("  \"phases\": {");
+        String separator = "\n";
+        for (final Map.Entry<String, Long> phase : this.phases.entrySet()) {
+            builder.append(separator).append("    ").append(BuildMetrics.quote(phase.getKey() + "Millis")).append(": ")
+                    .append(TimeUnit.NANOSECONDS.toMillis(phase.getValue()));
+            separator = ",\n";
+        }
+        builder.append(this.phases.isEmpty() ? "},\n" : "\n  },\n");
+        builder.append("  \"bytesIn\": ").append(this.bytesIn).append(",\n");
+        builder.append("  \"bytesOut\": ").append(this.bytesOut).append(",\n");
+        builder.append("  \"archiveBytes\": ").append(this.archiveBytes).append(",\n");
+        builder.append("  \"compressionRatio\": ")
+                .append(String.format(Locale.ROOT, "%.3f", this.getCompressionRatio())).append(",\n");
+        builder.append("  \"throughputMBps\": ").append(String.format(Locale.ROOT, "%.3f", this.getThroughput()))
+                .append(",\n");
+        builder.append("  \"processes\": ").append(this.processes).append('\n');
+        return builder.append("}\n").toString();
+    }
+
+    /**
+     * Write the metrics as JSON.
+     *
+     * @param file
+     *            the file
+     *
+     * @throws IOException
+     *             Signals that an I/O exception has occurred.
+     */
+    public void write(final Path file) throws IOException {
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        Files.writeString(file, this.toJson(), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Render a value as JSON.
+     *
+     * @param value
+     *            the value
+     *
+     * @return the JSON value
+     */
+    private static String json(final Object value) {
+        if (value == null) {
+            return "null";
+        }
+        if (value instanceof Number || value instanceof Boolean) {
+            return value.toString();
+        }
+        return BuildMetrics.quote(value.toString());
+    }
+
+    /**
+     * Quote a JSON string.
+     *
+     * @param text
+     *            the text
+     *
+     * @return the quoted string
+     */
+    private static String quote(final String text) {
+        final StringBuilder builder = new StringBuilder(text.length() + 2).append('"');
+        for (int i = 0; i < text.length(); i++) {
+            final char c = text.charAt(i);
+            if (c == '"' || c == '\\') {
+                builder.append('\\').append(c);
+            } else if (c < 0x20) {
+                builder.append(String.format(Locale.ROOT, "\\u%04x", (int) c));
+            } else {
+                builder.append(c);
+            }
+        }
+        return builder.append('"').toString();
+    }
+
+}
@@ -0,0 +1,195 @@
+/*
+ *    Copyright 2011-2026 the original author or authors.
+ *
+ *    This program is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU General Public License
+ *    as published by the Free Software Foundation; either version 2
+ *    of the License, or (at your option) any later version.
+ *
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.gnu.org/licenses/old-licenses/gpl-2.0.en.html
+ *
+ *    This program is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ */
+package com.hazendaz.maven.makeself;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * The Class ChecksumOutputStream.
+ * <p>
+ * Tees everything written through it into the checksums the makeself header verifies: the POSIX {@code cksum} CRC,
+ * MD5 and SHA-256. Each enabled checksum is updated from the same buffer as the data is passed on, so the payload is
+ * never read back. Disabled checksums report the placeholder value makeself.sh writes for them.
+ * </p>
+ */
+public class ChecksumOutputStream extends FilterOutputStream {
+
+    /** Empty CRC as written by makeself.sh. */
+    static final String NO_CRC = "0000000000";
+
+    /** Empty MD5 as written by makeself.sh. */
+    static final String NO_MD5 = "00000000000000000000000000000000";
+
+    /** Empty SHA256 as written by makeself.sh. */
+    static final String NO_SHA256 = "0000000000000000000000000000000000000000000000000000000000000000";
+
+    /** The crc, null when disabled. */
+    private final PosixChecksum crc;
+
+    /** The md5 digest, null when disabled. */
+    private final MessageDigest md5;
+
+    /** The sha256 digest, null when disabled. */
+    private final MessageDigest sha256;
+
+    /** The number of bytes written. */
+    private long count;
+
+    /** The time spent computing checksums. */
+    private long nanos;
+
+    /**
+     * Instantiates a new checksum output stream.
+     *
+     * @param output
+     *            the output
+     * @param crc
+     *            compute the crc
+     * @param md5
+     *            compute the md5
+     * @param sha256
+     *            compute the sha256
+     *
+     * @throws IOException
+     *             if a digest algorithm is unavailable
+     */
+    public ChecksumOutputStream(final OutputStream output, final boolean crc, final boolean md5, final boolean sha256)
+            throws IOException {
+        super(output);
+        this.crc = crc ? new PosixChecksum() : null;
+        this.md5 = md5 ? ChecksumOutputStream.digest("MD5") : null;
+        this.sha256 = sha256 ? ChecksumOutputStream.digest("SHA-256") : null;
+    }
+
+    @Override
+    public void write(final int b) throws IOException {
+        this.out.write(b);
+        if (this.crc != null) {
+            this.crc.update(b);
+        }
+        if (this.md5 != null) {
+            this.md5.update((byte) b);
+        }
+        if (this.sha256 != null) {
+            this.sha256.update((byte) b);
+        }
+        this.count++;
+    }
+
+    @Override
+    public void write(final byte[] b, final int off, final int len) throws IOException {
+        this.out.write(b, off, len);
+        final long start = System.nanoTime();
+        if (this.crc != null) {
+            this.crc.update(b, off, len);
+        }
+        if (this.md5 != null) {
+            this.md5.update(b, off, len);
+        }
+        if (this.sha256 != null) {
+            this.sha256.update(b, off, len);
+        }
+        this.nanos += System.nanoTime() - start;
+        this.count += len;
+    }
+
+    /**
+     * Gets the number of bytes written.
+     *
+     * @return the count
+     */
+    public long getCount() {
+        return this.count;
+    }
+
+    /**
+     * Gets the time spent computing checksums, not counting the single byte writes.
+     *
+     * @return the nanoseconds
+     */
+    public long getNanos() {
+        return this.nanos;
+    }
+
+    /**
+     * Gets the crc as the header records it.
+     *
+     * @return the crc
+     */
+    public String getCrc() {
+        return this.crc == null ? ChecksumOutputStream.NO_CRC : String.valueOf(this.crc.getValue());
+    }
+
+    /**
+     * Gets the md5 as the header records it. Completes the digest, so call once after writing.
+     *
+     * @return the md5
+     */
+    public String getMd5() {
+        return this.md5 == null ? ChecksumOutputStream.NO_MD5 : ChecksumOutputStream.hex(this.md5.digest());
+    }
+
+    /**
+     * Gets the sha256 as the header records it. Completes the digest, so call once after writing.
+     *
+     * @return the sha256
+     */
+    public String getSha256() {
+        return this.sha256 == null ? ChecksumOutputStream.NO_SHA256 : ChecksumOutputStream.hex(this.sha256.digest());
+    }
+
+    /**
+     * Hex encode bytes in lower case, as md5sum and sha256sum print them.
+     *
+     * @param bytes
+     *            the bytes
+     *
+     * @return the hex string
+     */
+    static String hex(final byte[] bytes) {
+        final StringBuilder builder = new StringBuilder(bytes.length * 2);
+        for (final byte b : bytes) {
+            builder.append(Character.forDigit(b >> 4 & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Get a message digest.
+     *
+     * @param algorithm
+     *            the algorithm
+     *
+     * @return the message digest
+     *
+     * @throws IOException
+     *             if the algorithm is unavailable
+     */
+    private static MessageDigest digest(final String algorithm) throws IOException {
+        try {
+            return MessageDigest.getInstance(algorithm);
+        } catch (final NoSuchAlgorithmException e) {
+            throw new IOException(e);
+        }
+    }
+
+}
@@ -0,0 +1,254 @@
+/*
+ *    Copyright 2011-2026 the original author or authors.
+ *
+ *    This program is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU General Public License
+ *    as published by the Free Software Foundation; either version 2
+ *    of the License, or (at your option) any later version.
+ *
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.gnu.org/licenses/old-licenses/gpl-2.0.en.html
+ *
+ *    This program is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ */
+package com.hazendaz.maven.makeself;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.github.luben.zstd.Zstd;
+import org.apache.commons.compress.compressors.CompressorOutputStream;
+import org.tukaani.xz.LZMA2Options;
+
+/**
+ * The Class ChunkCacheOutputStream.
+ * <p>
+ * Compresses the payload as content defined chunks, each an independent stream of the compression (a gzip member, an xz
+ * stream, a zstd frame or a bzip2 stream) which the decompressors read back as one. Chunk boundaries come from a gear
+ * rolling hash over the last 64 bytes, so an insertion or change only moves the boundaries around it and the other
+ * chunks keep their content. Compressed chunks are kept in a cache directory under the SHA-256 of their content, the
+ * compression, the level and the version of the compressor libraries, so an upgrade that changes the compressed
+ * output does not mix chunks of two versions; a rebuild only compresses the chunks that changed and copies the others
+ * from the cache. The cache is never pruned.
+ * </p>
+ */
+public class ChunkCacheOutputStream extends ParallelBlockOutputStream {
+
+    /** The smallest chunk, except for the last one. */
+    static final int MIN_CHUNK_SIZE = 256 * 1024;
+
+    /** The largest chunk. */
+    static final int MAX_CHUNK_SIZE = 4 * 1024 * 1024;
+
+    /** The hash bits that must be zero to cut, for chunks of about 1 MiB past the minimum. */
+    private static final long CUT_MASK = ((1L << 20) - 1) << 44;
+
+    /** Random values for each byte value; fixed, as the boundaries must not change between builds. */
+    private static final long[] GEAR = new long[256];
+
+    static {
+        final Random random = new Random(0x6d616b6573656c66L);
+        for (int i = 0; i < ChunkCacheOutputStream.GEAR.length; i++) {
+            ChunkCacheOutputStream.GEAR[i] = random.nextLong();
+        }
+    }
+
+    /** The compression. */
+    private final Compression compression;
+
+    /** The compression level. */
+    private final int level;
+
+    /** The cache directory. */
+    private final Path cacheDirectory;
+
+    /** The version of the compressor libraries, part of the cache key. */
+    private final String version;
+
+    /** The rolling hash. */
+    private long hash;
+
+    /** The number of chunks written. */
+    private int chunks;
+
+    /** The number of chunks copied from the cache. */
+    private final AtomicInteger reused = new AtomicInteger();
+
+    /**
+     * Instantiates a new chunk cache output stream.
+     *
+     * @param out
+     *            the output
+     * @param compression
+     *            the compression of each chunk
+     * @param level
+     *            the compression level
+     * @param threads
+     *            the number of compression threads
+     * @param cacheDirectory
+     *            the cache directory, created when missing
+     *
+     * @throws IOException
+     *             Signals that an I/O exception has occurred.
+     */
+    public ChunkCacheOutputStream(final OutputStream out, final Compression compression, final int level,
+            final int threads, final Path cacheDirectory) throws IOException {
+        super(out, threads, ChunkCacheOutputStream.MAX_CHUNK_SIZE, "chunk");
+        this.compression = compression;
+        this.level = level;
+        this.cacheDirectory = Files.createDirectories(cacheDirectory);
+        this.version = ChunkCacheOutputStream.libraryVersion(compression);
+    }
+
+    /**
+     * Gets the version of the libraries compressing with a compression: commons-compress and, below it, the JDK for
+     * gzip, xz for java or zstd-jni.
+     *
+     * @param compression
+     *            the compression
+     *
+     * @return the version
+     */
+    static String libraryVersion(final Compression compression) {
+        final String compress = ChunkCacheOutputStream.version(CompressorOutputStream.class);
+        switch (compression) {
+            case GZIP:
+            case PIGZ:
+                return compress + "-java" + System.getProperty("java.version");
+            case XZ:
+                return compress + "-xz" + ChunkCacheOutputStream.version(LZMA2Options.class);
+            case ZSTD:
+                return compress + "-zstd" + ChunkCacheOutputStream.version(Zstd.class);
+            case NONE:
+                return "none";
+            default:
+                return compress;
+        }
+    }
+
+    /**
+     * Gets the implementation version of the jar holding a class.
+     *
+     * @param type
+     *            the class
+     *
+     * @return the version, {@code unknown} when the jar does not record it
+     */
+    private static String version(final Class<?> type) {
+        final Package library = type.getPackage();
+        final String version = library == null ? null : library.getImplementationVersion();
+        return version == null ? "unknown" : version;
+    }
+
+    /**
+     * Gets the number of chunks written.
+     *
+     * @return the chunks
+     */
+    public int getChunks() {
+        return this.chunks;
+    }
+
+    /**
+     * Gets the number of chunks copied from the cache rather than compressed. Complete once the stream is closed.
+     *
+     * @return the reused chunks
+     */
+    public int getReused() {
+        return this.reused.get();
+    }
+
+    @Override
+    protected int cut(final byte[] block, final int from, final int to) {
+        for (int i = from; i < to; i++) {
+            this.hash = (this.hash << 1) + ChunkCacheOutputStream.GEAR[block[i] & 0xff];
+            if (i + 1 >= ChunkCacheOutputStream.MIN_CHUNK_SIZE && (this.hash & ChunkCacheOutputStream.CUT_MASK) == 0) {
+                return i + 1;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    protected Callable<byte[]> compressBlock(final byte[] input, final int length, final boolean last) {
+        // An empty last chunk adds nothing, unless the whole payload is empty
+        if (length == 0 && last && this.chunks > 0) {
+            return () -> new byte[0];
+        }
+        this.chunks++;
+        return () -> this.chunk(input, length);
+    }
+
+    /**
+     * Get a compressed chunk from the cache, compressing and caching it when missing.
+     *
+     * @param input
+     *            the input
+     * @param length
+     *            the input length
+     *
+     * @return the compressed chunk
+     *
+     * @throws IOException
+     *             Signals that an I/O exception has occurred.
+     */
+    private byte[] chunk(final byte[] input, final int length) throws IOException {
+        final MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (final NoSuchAlgorithmException e) {
+            throw new IOException(e);
+        }
+        digest.update(input, 0, length);
+        final String key = ChecksumOutputStream.hex(digest.digest());
+        final Path cached = this.cacheDirectory.resolve(key.substring(0, 2))
+                .resolve(key + "." + this.compression.getId() + "-" + this.level + "-" + this.version);
+        try {
+            final byte[] bytes = Files.readAllBytes(cached);
+            this.reused.incrementAndGet();
+            return bytes;
+        } catch (final NoSuchFileException e) {
+            // Not cached yet
+        }
+
+        final ByteArrayOutputStream output = new ByteArrayOutputStream(length / 2 + 64);
+        try (OutputStream compressed = this.compression.compress(output, this.level, 1)) {
+            compressed.write(input, 0, length);
+        }
+        final byte[] bytes = output.toByteArray();
+
+        // Publish complete files only, another build may share the cache
+        Files.createDirectories(cached.getParent());
+        final Path temp = Files.createTempFile(cached.getParent(), key, ".tmp");
+        try {
+            Files.write(temp, bytes);
+            try {
+                Files.move(temp, cached, StandardCopyOption.ATOMIC_MOVE);
+            } catch (final AtomicMoveNotSupportedException e) {
+                Files.move(temp, cached, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (final FileAlreadyExistsException e) {
+            // Cached concurrently with the same content
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+        return bytes;
+    }
+
+}
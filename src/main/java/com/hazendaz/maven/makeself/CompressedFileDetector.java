@@ -0,0 +1,103 @@
+/*
+ *    Copyright 2011-2026 the original author or authors.
+ *
+ *    This program is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU General Public License
+ *    as published by the Free Software Foundation; either version 2
+ *    of the License, or (at your option) any later version.
+ *
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.gnu.org/licenses/old-licenses/gpl-2.0.en.html
+ *
+ *    This program is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ */
+package com.hazendaz.maven.makeself;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * The Class CompressedFileDetector.
+ * <p>
+ * Recognizes files that are already compressed, by extension or by the magic bytes at their start, so they can be
+ * stored rather than compressed again.
+ * </p>
+ */
+public class CompressedFileDetector {
+
+    /** The extensions of compressed files recognized by default. */
+    static final Set<String> DEFAULT_EXTENSIONS = Set.of("7z", "apk", "bz2", "docx", "ear", "gif", "gz", "jar", "jpeg",
+            "jpg", "lz4", "lzma", "mp3", "mp4", "odt", "ogg", "png", "pptx", "rar", "tbz2", "tgz", "txz", "war",
+            "webp", "whl", "woff", "woff2", "xlsx", "xz", "zip", "zst");
+
+    /** The magic bytes of compressed formats: zip, gzip, bzip2, xz, zstd, 7z, png, jpeg and gif. */
+    private static final byte[][] SIGNATURES = { { 'P', 'K', 3, 4 }, { 0x1f, (byte) 0x8b }, { 'B', 'Z', 'h' },
+            { (byte) 0xfd, '7', 'z', 'X', 'Z', 0 }, { 0x28, (byte) 0xb5, 0x2f, (byte) 0xfd },
+            { '7', 'z', (byte) 0xbc, (byte) 0xaf, 0x27, 0x1c }, { (byte) 0x89, 'P', 'N', 'G' },
+            { (byte) 0xff, (byte) 0xd8, (byte) 0xff }, { 'G', 'I', 'F', '8' } };
+
+    /** The longest signature. */
+    private static final int SIGNATURE_LENGTH = 6;
+
+    /** The extensions, lower case without the dot. */
+    private final Set<String> extensions;
+
+    /**
+     * Instantiates a new compressed file detector.
+     *
+     * @param extensions
+     *            the extensions of compressed files, with or without the dot, null for the defaults
+     */
+    public CompressedFileDetector(final Collection<String> extensions) {
+        if (extensions == null) {
+            this.extensions = CompressedFileDetector.DEFAULT_EXTENSIONS;
+            return;
+        }
+        this.extensions = new HashSet<>();
+        for (final String extension : extensions) {
+            this.extensions.add(extension.trim().replaceFirst("^\\.", "").toLowerCase(Locale.ROOT));
+        }
+    }
+
+    /**
+     * Checks if a file is already compressed.
+     *
+     * @param path
+     *            the path
+     *
+     * @return true, if the extension or the magic bytes are those of a compressed format
+     *
+     * @throws IOException
+     *             Signals that an I/O exception has occurred.
+     */
+    public boolean isCompressed(final Path path) throws IOException {
+        final String name = path.getFileName().toString();
+        final int dot = name.lastIndexOf('.');
+        if (dot >= 0 && this.extensions.contains(name.substring(dot + 1).toLowerCase(Locale.ROOT))) {
+            return true;
+        }
+        final byte[] head;
+        try (InputStream input = Files.newInputStream(path)) {
+            head = input.readNBytes(CompressedFileDetector.SIGNATURE_LENGTH);
+        }
+        for (final byte[] signature : CompressedFileDetector.SIGNATURES) {
+            if (head.length >= signature.length
+                    && Arrays.equals(head, 0, signature.length, signature, 0, signature.length)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+}
@@ -0,0 +1,289 @@
+/*
+ *    Copyright 2011-2026 the original author or authors.
+ *
+ *    This program is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU General Public License
+ *    as published by the Free Software Foundation; either version 2
+ *    of the License, or (at your option) any later version.
+ *
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.gnu.org/licenses/old-licenses/gpl-2.0.en.html
+ *
+ *    This program is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ */
+package com.hazendaz.maven.makeself;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import org.apache.commons.compress.compressors.bzip2.BZip2CompressorInputStream;
+import org.apache.commons.compress.compressors.bzip2.BZip2CompressorOutputStream;
+import org.apache.commons.compress.compressors.gzip.GzipCompressorInputStream;
+import org.apache.commons.compress.compressors.gzip.GzipCompressorOutputStream;
+import org.apache.commons.compress.compressors.gzip.GzipParameters;
+import org.apache.commons.compress.compressors.xz.XZCompressorInputStream;
+import org.apache.commons.compress.compressors.xz.XZCompressorOutputStream;
+import org.apache.commons.compress.compressors.zstandard.ZstdCompressorInputStream;
+import org.apache.commons.compress.compressors.zstandard.ZstdCompressorOutputStream;
+import org.tukaani.xz.LZMA2Options;
+
+/**
+ * The Enum Compression.
+ * <p>
+ * Payload compressors available to the java engine. Each produces the same stream format as the command makeself.sh
+ * would run, so the header decompresses it with the same {@code GUNZIP_CMD}, and can decompress it again to read an
+ * existing archive.
+ * </p>
+ */
+public enum Compression {
+
+    /** gzip. */
+    GZIP("gzip", "gzip -cd", "gzip -cdf") {
+        @Override
+        public OutputStream compress(final OutputStream output, final int level, final int threads)
+                throws IOException {
+            final int poolSize = Compression.poolSize(threads);
+            if (poolSize > 1) {
+                return new ParallelGzipOutputStream(output, level, poolSize);
+            }
+            final GzipParameters parameters = new GzipParameters();
+            parameters.setCompressionLevel(level);
+            return new GzipCompressorOutputStream(output, parameters);
+        }
+
+        @Override
+        public InputStream decompress(final InputStream input) throws IOException {
+            return GzipCompressorInputStream.builder().setInputStream(input).setDecompressConcatenated(true).get();
+        }
+    },
+
+    /** pigz, which writes gzip and is compressed in parallel the same way. */
+    PIGZ("pigz", "gzip -cd", "gzip -cdf") {
+        @Override
+        public OutputStream compress(final OutputStream output, final int level, final int threads)
+                throws IOException {
+            return Compression.GZIP.compress(output, level, threads);
+        }
+
+        @Override
+        public InputStream decompress(final InputStream input) throws IOException {
+            return Compression.GZIP.decompress(input);
+        }
+    },
+
+    /** bzip2. */
+    BZIP2("bzip2", "bzip2 -d", null) {
+        @Override
+        public OutputStream compress(final OutputStream output, final int level, final int threads)
+                throws IOException {
+            return new BZip2CompressorOutputStream(output, Math.max(BZip2CompressorOutputStream.MIN_BLOCKSIZE,
+                    Math.min(level, BZip2CompressorOutputStream.MAX_BLOCKSIZE)));
+        }
+
+        @Override
+        public InputStream decompress(final InputStream input) throws IOException {
+            return new BZip2CompressorInputStream(input, true);
+        }
+    },
+
+    /** pbzip2, which writes bzip2. */
+    PBZIP2("pbzip2", "bzip2 -d", null) {
+        @Override
+        public OutputStream compress(final OutputStream output, final int level, final int threads)
+                throws IOException {
+            return Compression.BZIP2.compress(output, level, threads);
+        }
+
+        @Override
+        public InputStream decompress(final InputStream input) throws IOException {
+            return Compression.BZIP2.decompress(input);
+        }
+    },
+
+    /** xz, compressed as concatenated streams when more than one thread is used. */
+    XZ("xz", "xz -d", "xz -dcf") {
+        @Override
+        public OutputStream compress(final OutputStream output, final int level, final int threads)
+                throws IOException {
+            final int preset = Math.max(LZMA2Options.PRESET_MIN, Math.min(level, LZMA2Options.PRESET_MAX));
+            final LZMA2Options options = new LZMA2Options(preset);
+            if (Compression.poolSize(threads) > 1) {
+                // Like xz, use fewer threads rather than exceed the memory available; the blocks, and so the output,
+                // stay the same
+                final long memory = Runtime.getRuntime().maxMemory() / 2;
+                final int poolSize = (int) Math.max(1, Math.min(Compression.poolSize(threads),
+                        memory / ParallelXzOutputStream.memoryPerThread(options)));
+                return new ParallelXzOutputStream(output, options, poolSize);
+            }
+            return XZCompressorOutputStream.builder().setOutputStream(output).setLzma2Options(options).get();
+        }
+
+        @Override
+        public InputStream decompress(final InputStream input) throws IOException {
+            return XZCompressorInputStream.builder().setInputStream(input).setDecompressConcatenated(true).get();
+        }
+    },
+
+    /** zstd, using the native zstd worker threads. */
+    ZSTD("zstd", "zstd -cd", null) {
+        @Override
+        public OutputStream compress(final OutputStream output, final int level, final int threads)
+                throws IOException {
+            final int poolSize = Compression.poolSize(threads);
+            return ZstdCompressorOutputStream.builder().setOutputStream(output).setLevel(level).setChecksum(true)
+                    .setWorkers(poolSize > 1 ? poolSize : 0).get();
+        }
+
+        @Override
+        public InputStream decompress(final InputStream input) throws IOException {
+            return new ZstdCompressorInputStream(input);
+        }
+    },
+
+    /** No compression. */
+    NONE("none", "cat", "cat") {
+        @Override
+        public OutputStream compress(final OutputStream output, final int level, final int threads) {
+            return output;
+        }
+
+        @Override
+        public InputStream decompress(final InputStream input) {
+            return input;
+        }
+    };
+
+    /** The name makeself.sh records as COMPRESS. */
+    private final String id;
+
+    /** The command the header uses to decompress. */
+    private final String gunzipCommand;
+
+    /** The decompress command that copies data it does not recognize unchanged, null if there is none. */
+    private final String passThroughCommand;
+
+    /**
+     * Instantiates a new compression.
+     *
+     * @param id
+     *            the makeself name
+     * @param gunzipCommand
+     *            the decompress command
+     * @param passThroughCommand
+     *            the decompress command passing unrecognized data through, null if there is none
+     */
+    Compression(final String id, final String gunzipCommand, final String passThroughCommand) {
+        this.id = id;
+        this.gunzipCommand = gunzipCommand;
+        this.passThroughCommand = passThroughCommand;
+    }
+
+    /**
+     * Gets the makeself name.
+     *
+     * @return the id
+     */
+    public String getId() {
+        return this.id;
+    }
+
+    /**
+     * Gets the decompress command used in the header.
+     *
+     * @return the gunzip command
+     */
+    public String getGunzipCommand() {
+        return this.gunzipCommand;
+    }
+
+    /**
+     * Gets the decompress command that copies data it does not recognize unchanged, so a payload can mix compressed
+     * and stored segments.
+     *
+     * @return the pass through command, null if the decompressor cannot pass data through
+     */
+    public String getPassThroughCommand() {
+        return this.passThroughCommand;
+    }
+
+    /**
+     * Wrap an output stream with this compressor. Closing the returned stream finishes the compressed stream and closes
+     * the given output.
+     *
+     * @param output
+     *            the output
+     * @param level
+     *            the compression level
+     * @param threads
+     *            the thread count, 0 for all available processors
+     *
+     * @return the compressing output stream
+     *
+     * @throws IOException
+     *             Signals that an I/O exception has occurred.
+     */
+    public abstract OutputStream compress(OutputStream output, int level, int threads) throws IOException;
+
+    /**
+     * Wrap an input stream with the matching decompressor. Concatenated streams, as written by the parallel
+     * compressors, are read as one.
+     *
+     * @param input
+     *            the input
+     *
+     * @return the decompressing input stream
+     *
+     * @throws IOException
+     *             Signals that an I/O exception has occurred.
+     */
+    public abstract InputStream decompress(InputStream input) throws IOException;
+
+    /**
+     * Find the compression makeself.sh records under the given name.
+     *
+     * @param id
+     *            the makeself name
+     *
+     * @return the compression, null if the java engine does not support it
+     */
+    public static Compression fromId(final String id) {
+        for (final Compression compression : Compression.values()) {
+            if (compression.id.equals(id)) {
+                return compression;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Resolve the threads so the compressed output does not depend on the machine. The parallel compressors cut the
+     * input into fixed size blocks, so their output is the same for any number of threads above one, but differs from
+     * the single threaded stream; the processor count must not decide between the two.
+     *
+     * @param threads
+     *            the requested threads, 0 or less for all available processors
+     *
+     * @return 1 when single threaded compression was requested, otherwise at least 2
+     */
+    static int reproducibleThreads(final int threads) {
+        return threads == 1 ? 1 : Math.max(2, Compression.poolSize(threads));
+    }
+
+    /**
+     * Resolve the number of compression threads.
+     *
+     * @param threads
+     *            the requested threads, 0 or less for all available processors
+     *
+     * @return the pool size
+     */
+    static int poolSize(final int threads) {
+        return threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+    }
+
+}
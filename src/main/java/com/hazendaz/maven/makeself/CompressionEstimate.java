@@ -0,0 +1,138 @@
+/*
+ *    Copyright 2011-2026 the original author or authors.
+ *
+ *    This program is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU General Public License
+ *    as published by the Free Software Foundation; either version 2
+ *    of the License, or (at your option) any later version.
+ *
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.gnu.org/licenses/old-licenses/gpl-2.0.en.html
+ *
+ *    This program is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ */
+package com.hazendaz.maven.makeself;
+
+import java.util.Locale;
+
+/**
+ * The Class CompressionEstimate.
+ * <p>
+ * What one compression and level is expected to do to a whole payload, extrapolated from a sample.
+ * </p>
+ */
+public class CompressionEstimate {
+
+    /** The compression. */
+    private final Compression compression;
+
+    /** The compression level. */
+    private final int level;
+
+    /** The ratio of uncompressed to compressed size on the sample. */
+    private final double ratio;
+
+    /** The single threaded compression speed on the sample, in bytes per second, 0 when not compressed. */
+    private final double bytesPerSecond;
+
+    /** The estimated compressed size of the payload. */
+    private final long estimatedSize;
+
+    /** The estimated compression time of the payload. */
+    private final double estimatedSeconds;
+
+    /**
+     * Instantiates a new compression estimate.
+     *
+     * @param compression
+     *            the compression
+     * @param level
+     *            the compression level
+     * @param ratio
+     *            the ratio of uncompressed to compressed size
+     * @param bytesPerSecond
+     *            the single threaded compression speed
+     * @param estimatedSize
+     *            the estimated compressed size of the payload
+     * @param estimatedSeconds
+     *            the estimated compression time of the payload
+     */
+    public CompressionEstimate(final Compression compression, final int level, final double ratio,
+            final double bytesPerSecond, final long estimatedSize, final double estimatedSeconds) {
+        this.compression = compression;
+        this.level = level;
+        this.ratio = ratio;
+        this.bytesPerSecond = bytesPerSecond;
+        this.estimatedSize = estimatedSize;
+        this.estimatedSeconds = estimatedSeconds;
+    }
+
+    /**
+     * Gets the compression.
+     *
+     * @return the compression
+     */
+    public Compression getCompression() {
+        return this.compression;
+    }
+
+    /**
+     * Gets the compression level.
+     *
+     * @return the level
+     */
+    public int getLevel() {
+        return this.level;
+    }
+
+    /**
+     * Gets the ratio of uncompressed to compressed size.
+     *
+     * @return the ratio
+     */
+    public double getRatio() {
+        return this.ratio;
+    }
+
+    /**
+     * Gets the single threaded compression speed.
+     *
+     * @return the bytes per second
+     */
+    public double getBytesPerSecond() {
+        return this.bytesPerSecond;
+    }
+
+    /**
+     * Gets the estimated compressed size of the payload.
+     *
+     * @return the estimated size
+     */
+    public long getEstimatedSize() {
+        return this.estimatedSize;
+    }
+
+    /**
+     * Gets the estimated compression time of the payload.
+     *
+     * @return the estimated seconds
+     */
+    public double getEstimatedSeconds() {
+        return this.estimatedSeconds;
+    }
+
+    @Override
+    public String toString() {
+        if (this.compression == Compression.NONE) {
+            return String.format(Locale.ROOT, "none: stored, %.1f MB", this.estimatedSize / 1_000_000.0);
+        }
+        return String.format(Locale.ROOT, "%s level %d: ratio %.2f, %.1f MB/s, about %.1f MB in %.1f s",
+                this.compression.getId(), this.level, this.ratio, this.bytesPerSecond / 1_000_000,
+                this.estimatedSize / 1_000_000.0, this.estimatedSeconds);
+    }
+
+}
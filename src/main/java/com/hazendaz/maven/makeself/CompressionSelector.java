@@ -0,0 +1,332 @@
+/*
+ *    Copyright 2011-2026 the original author or authors.
+ *
+ *    This program is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU General Public License
+ *    as published by the Free Software Foundation; either version 2
+ *    of the License, or (at your option) any later version.
+ *
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.gnu.org/licenses/old-licenses/gpl-2.0.en.html
+ *
+ *    This program is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ */
+package com.hazendaz.maven.makeself;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.FileVisitOption;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.apache.commons.io.output.CountingOutputStream;
+import org.apache.commons.io.output.NullOutputStream;
+import org.apache.maven.plugin.logging.Log;
+
+/**
+ * The Class CompressionSelector.
+ * <p>
+ * Picks a compression and level for an archive directory. A sample is taken from every file, in proportion to its size,
+ * and compressed by each candidate to measure its ratio and speed; both are then extrapolated to the whole payload.
+ * With the {@value #TARGET_SIZE} target the smallest archive whose estimated compression time fits the time budget
+ * wins, among the candidates reaching a ratio of {@value #MIN_SIZE_RATIO}; with the {@value #TARGET_SPEED} target the
+ * fastest candidate reaching the minimum ratio wins. Payloads that are already compressed, such as jars and zips, do
+ * not reach either ratio with any candidate and are stored without compression rather than spending CPU on them.
+ * </p>
+ */
+public class CompressionSelector {
+
+    /** Target the smallest archive within the time budget. */
+    static final String TARGET_SIZE = "size";
+
+    /** Target the fastest compression reaching the minimum ratio. */
+    static final String TARGET_SPEED = "speed";
+
+    /** The sample size. */
+    static final int SAMPLE_SIZE = 2 * 1024 * 1024;
+
+    /** The smallest ratio the size target compresses for, below it the saving is not worth the time. */
+    static final double MIN_SIZE_RATIO = 1.05;
+
+    /** The smallest part of a file taken into the sample, so small files are represented. */
+    private static final int MIN_FILE_SAMPLE = 512;
+
+    /** The candidate compressions, each supported by both engines. */
+    private static final Compression[] CANDIDATES = { Compression.NONE, Compression.GZIP, Compression.GZIP,
+            Compression.GZIP, Compression.ZSTD, Compression.ZSTD, Compression.BZIP2, Compression.XZ };
+
+    /** The level of each candidate. */
+    private static final int[] CANDIDATE_LEVELS = { 0, 1, 6, 9, 3, 19, 9, 6 };
+
+    /** The log. */
+    private final Log log;
+
+    /** The target. */
+    private String target = CompressionSelector.TARGET_SIZE;
+
+    /** The time budget of the size target. */
+    private double maxSeconds = 30;
+
+    /** The minimum ratio of the speed target. */
+    private double minRatio = 1.5;
+
+    /** The threads the parallel compressors will use. */
+    private int parallelism = 1;
+
+    /** Whether only compressions run by standard tools are candidates. */
+    private boolean standardTools;
+
+    /**
+     * Instantiates a new compression selector.
+     *
+     * @param log
+     *            the log
+     */
+    public CompressionSelector(final Log log) {
+        this.log = log;
+    }
+
+    /**
+     * Sets the target.
+     *
+     * @param target
+     *            the target, {@value #TARGET_SIZE} or {@value #TARGET_SPEED}
+     */
+    public void setTarget(final String target) {
+        this.target = target;
+    }
+
+    /**
+     * Sets the time budget of the size target.
+     *
+     * @param maxSeconds
+     *            the estimated compression seconds allowed
+     */
+    public void setMaxSeconds(final double maxSeconds) {
+        this.maxSeconds = maxSeconds;
+    }
+
+    /**
+     * Sets the minimum ratio of the speed target.
+     *
+     * @param minRatio
+     *            the ratio of uncompressed to compressed size required
+     */
+    public void setMinRatio(final double minRatio) {
+        this.minRatio = minRatio;
+    }
+
+    /**
+     * Sets the threads the parallel compressors will use, so their estimated time can be divided accordingly.
+     *
+     * @param parallelism
+     *            the threads
+     */
+    public void setParallelism(final int parallelism) {
+        this.parallelism = Math.max(1, parallelism);
+    }
+
+    /**
+     * Sets whether only compressions run by standard tools (none, gzip and bzip2) are candidates, leaving out zstd and
+     * xz which makeself.sh needs installed.
+     *
+     * @param standardTools
+     *            whether only standard tools are candidates
+     */
+    public void setStandardTools(final boolean standardTools) {
+        this.standardTools = standardTools;
+    }
+
+    /**
+     * Sample the archive directory and pick a compression.
+     *
+     * @param archiveDir
+     *            the archive directory
+     * @param follow
+     *            whether symbolic links are followed
+     *
+     * @return the chosen estimate
+     *
+     * @throws IOException
+     *             Signals that an I/O exception has occurred.
+     */
+    public CompressionEstimate select(final Path archiveDir, final boolean follow) throws IOException {
+        final List<Path> files;
+        try (Stream<Path> walk = follow ? Files.walk(archiveDir, FileVisitOption.FOLLOW_LINKS)
+                : Files.walk(archiveDir)) {
+            files = walk.filter(Files::isRegularFile).sorted().collect(Collectors.toList());
+        }
+        long total = 0;
+        for (final Path file : files) {
+            total += Files.size(file);
+        }
+        final byte[] sample = CompressionSelector.sample(files, total);
+        if (sample.length == 0) {
+            this.log.info("Auto compression found nothing to sample, using gzip level 9");
+            return new CompressionEstimate(Compression.GZIP, 9, 1, 0, 0, 0);
+        }
+
+        final List<CompressionEstimate> estimates = new ArrayList<>(CompressionSelector.CANDIDATES.length);
+        for (int i = 0; i < CompressionSelector.CANDIDATES.length; i++) {
+            if (this.standardTools && (CompressionSelector.CANDIDATES[i] == Compression.ZSTD
+                    || CompressionSelector.CANDIDATES[i] == Compression.XZ)) {
+                continue;
+            }
+            final CompressionEstimate estimate = this.estimate(CompressionSelector.CANDIDATES[i],
+                    CompressionSelector.CANDIDATE_LEVELS[i], sample, total);
+            this.log.debug("Auto compression estimate " + estimate);
+            estimates.add(estimate);
+        }
+        return this.choose(estimates, sample.length, total);
+    }
+
+    /**
+     * Choose among the estimates for the target.
+     *
+     * @param estimates
+     *            the estimates
+     * @param sampleSize
+     *            the sample size
+     * @param total
+     *            the payload size
+     *
+     * @return the chosen estimate
+     */
+    CompressionEstimate choose(final List<CompressionEstimate> estimates, final int sampleSize, final long total) {
+        final String sampled = String.format(Locale.ROOT, "sampled %.1f MB of %.1f MB", sampleSize / 1_000_000.0,
+                total / 1_000_000.0);
+        final Comparator<CompressionEstimate> bySize = Comparator.comparingLong(CompressionEstimate::getEstimatedSize)
+                .thenComparingDouble(CompressionEstimate::getEstimatedSeconds);
+        final Comparator<CompressionEstimate> byTime = Comparator
+                .comparingDouble(CompressionEstimate::getEstimatedSeconds)
+                .thenComparingLong(CompressionEstimate::getEstimatedSize);
+        final String reason;
+        CompressionEstimate chosen;
+        if (CompressionSelector.TARGET_SPEED.equals(this.target)) {
+            chosen = estimates.stream().filter(estimate -> estimate.getRatio() >= this.minRatio).min(byTime)
+                    .orElse(null);
+            if (chosen == null) {
+                chosen = CompressionSelector.find(estimates, Compression.NONE);
+                reason = String.format(Locale.ROOT, "no compression reaches ratio %.2f", this.minRatio);
+            } else {
+                reason = String.format(Locale.ROOT, "fastest reaching ratio %.2f", this.minRatio);
+            }
+        } else {
+            chosen = estimates.stream().filter(estimate -> estimate.getEstimatedSeconds() <= this.maxSeconds)
+                    .filter(estimate -> estimate.getCompression() == Compression.NONE
+                            || estimate.getRatio() >= CompressionSelector.MIN_SIZE_RATIO)
+                    .min(bySize).orElse(null);
+            if (chosen == null) {
+                chosen = estimates.stream().min(byTime).orElseThrow();
+                reason = String.format(Locale.ROOT, "nothing fits %.0f s, fastest", this.maxSeconds);
+            } else if (chosen.getCompression() == Compression.NONE) {
+                reason = String.format(Locale.ROOT, "no compression within %.0f s reaches ratio %.2f", this.maxSeconds,
+                        CompressionSelector.MIN_SIZE_RATIO);
+            } else {
+                reason = String.format(Locale.ROOT, "smallest within %.0f s", this.maxSeconds);
+            }
+        }
+        this.log.info("Auto compression chose " + chosen + " (" + reason + ", " + sampled + ")");
+        return chosen;
+    }
+
+    /**
+     * Compress the sample with a candidate.
+     *
+     * @param compression
+     *            the compression
+     * @param level
+     *            the level
+     * @param sample
+     *            the sample
+     * @param total
+     *            the payload size
+     *
+     * @return the estimate
+     *
+     * @throws IOException
+     *             Signals that an I/O exception has occurred.
+     */
+    private CompressionEstimate estimate(final Compression compression, final int level, final byte[] sample,
+            final long total) throws IOException {
+        if (compression == Compression.NONE) {
+            return new CompressionEstimate(compression, level, 1, 0, total, 0);
+        }
+        final CountingOutputStream counter = new CountingOutputStream(NullOutputStream.INSTANCE);
+        final long start = System.nanoTime();
+        try (OutputStream output = compression.compress(counter, level, 1)) {
+            output.write(sample);
+        }
+        final double seconds = Math.max(1, System.nanoTime() - start) / 1_000_000_000.0;
+        final double ratio = (double) sample.length / Math.max(1, counter.getByteCount());
+        final double bytesPerSecond = sample.length / seconds;
+        final int threads = compression == Compression.BZIP2 ? 1 : this.parallelism;
+        return new CompressionEstimate(compression, level, ratio, bytesPerSecond, (long) (total / ratio),
+                total / bytesPerSecond / threads);
+    }
+
+    /**
+     * Take the sample: the start of every file, in proportion to its size.
+     *
+     * @param files
+     *            the files
+     * @param total
+     *            the payload size
+     *
+     * @return the sample
+     *
+     * @throws IOException
+     *             Signals that an I/O exception has occurred.
+     */
+    private static byte[] sample(final List<Path> files, final long total) throws IOException {
+        final ByteArrayOutputStream sample = new ByteArrayOutputStream(
+                (int) Math.min(total, CompressionSelector.SAMPLE_SIZE));
+        final byte[] buffer = new byte[8192];
+        for (final Path file : files) {
+            final long size = Files.size(file);
+            long share = Math.max(Math.min(size, CompressionSelector.MIN_FILE_SAMPLE),
+                    size * CompressionSelector.SAMPLE_SIZE / Math.max(1, total));
+            share = Math.min(share, CompressionSelector.SAMPLE_SIZE - sample.size());
+            try (InputStream input = Files.newInputStream(file)) {
+                int read;
+                while (share > 0 && (read = input.read(buffer, 0, (int) Math.min(buffer.length, share))) > 0) {
+                    sample.write(buffer, 0, read);
+                    share -= read;
+                }
+            }
+            if (sample.size() >= CompressionSelector.SAMPLE_SIZE) {
+                break;
+            }
+        }
+        return sample.toByteArray();
+    }
+
+    /**
+     * Find the estimate of a compression.
+     *
+     * @param estimates
+     *            the estimates
+     * @param compression
+     *            the compression
+     *
+     * @return the estimate
+     */
+    private static CompressionEstimate find(final List<CompressionEstimate> estimates,
+            final Compression compression) {
+        return estimates.stream().filter(estimate -> estimate.getCompression() == compression).findFirst()
+                .orElseThrow();
+    }
+
+}
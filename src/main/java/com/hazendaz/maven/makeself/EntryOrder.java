@@ -0,0 +1,165 @@
+/*
+ *    Copyright 2011-2026 the original author or authors.
+ *
+ *    This program is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU General Public License
+ *    as published by the Free Software Foundation; either version 2
+ *    of the License, or (at your option) any later version.
+ *
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.gnu.org/licenses/old-licenses/gpl-2.0.en.html
+ *
+ *    This program is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ */
+package com.hazendaz.maven.makeself;
+
+import java.io.IOException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+
+/**
+ * The Class EntryOrder.
+ * <p>
+ * Orders the entries of the tar payload. Entries matching the first patterns come first, in pattern order, so the files
+ * needed at startup are early in the stream; the others follow by name, by type to put similar content next to each
+ * other for the compressor, or by size. Ties are always broken by name, so the order does not depend on the file
+ * system.
+ * </p>
+ */
+public class EntryOrder {
+
+    /** Order by name, as makeself.sh does. */
+    public static final String NAME = "name";
+
+    /** Order by extension, then name. */
+    public static final String TYPE = "type";
+
+    /** Order by size, smallest first, then name. */
+    public static final String SIZE = "size";
+
+    /** The strategy. */
+    private final String strategy;
+
+    /** The patterns of entries to put first. */
+    private final List<PathMatcher> first;
+
+    /**
+     * Instantiates a new entry order.
+     *
+     * @param strategy
+     *            the strategy, name, type or size, null for name
+     * @param first
+     *            the glob patterns, relative to the archive directory, of entries to put first; null for none
+     *
+     * @throws IOException
+     *             if the strategy is unknown
+     */
+    public EntryOrder(final String strategy, final List<String> first) throws IOException {
+        this.strategy = strategy == null ? EntryOrder.NAME : strategy;
+        if (!EntryOrder.isStrategy(this.strategy)) {
+            throw new IOException("Unknown entry order: " + strategy);
+        }
+        if (first == null) {
+            this.first = Collections.emptyList();
+            return;
+        }
+        this.first = new ArrayList<>(first.size());
+        for (final String pattern : first) {
+            this.first.add(FileSystems.getDefault().getPathMatcher("glob:" + pattern.trim().replaceFirst("^\\./", "")));
+        }
+    }
+
+    /**
+     * Checks if the text names an order strategy.
+     *
+     * @param strategy
+     *            the strategy
+     *
+     * @return true, if it is name, type or size
+     */
+    public static boolean isStrategy(final String strategy) {
+        return EntryOrder.NAME.equals(strategy) || EntryOrder.TYPE.equals(strategy) || EntryOrder.SIZE.equals(strategy);
+    }
+
+    /**
+     * Sort the entries.
+     *
+     * @param files
+     *            the files to sort in place
+     * @param names
+     *            the entry name of a file, as {@code ./relative/path}
+     * @param sizes
+     *            the size of a file
+     */
+    public void sort(final List<Path> files, final Function<Path, String> names, final ToLongFunction<Path> sizes) {
+        // Compute each key once rather than on every comparison
+        final Map<Path, String> nameKeys = new HashMap<>();
+        final Map<Path, Integer> firstKeys = new HashMap<>();
+        final Map<Path, Long> sizeKeys = new HashMap<>();
+        for (final Path file : files) {
+            final String name = names.apply(file);
+            nameKeys.put(file, name);
+            firstKeys.put(file, this.firstIndex(name));
+            if (EntryOrder.SIZE.equals(this.strategy)) {
+                sizeKeys.put(file, sizes.applyAsLong(file));
+            }
+        }
+        Comparator<Path> comparator = Comparator.comparing(firstKeys::get);
+        if (EntryOrder.TYPE.equals(this.strategy)) {
+            comparator = comparator.thenComparing(file -> EntryOrder.extension(nameKeys.get(file)));
+        } else if (EntryOrder.SIZE.equals(this.strategy)) {
+            comparator = comparator.thenComparing(sizeKeys::get);
+        }
+        files.sort(comparator.thenComparing(nameKeys::get));
+    }
+
+    /**
+     * Index of the first pattern matching an entry.
+     *
+     * @param name
+     *            the entry name
+     *
+     * @return the pattern index, the number of patterns when none matches
+     */
+    private int firstIndex(final String name) {
+        if (this.first.isEmpty()) {
+            return 0;
+        }
+        final Path relative = Path.of(name.startsWith("./") ? name.substring(2) : name);
+        for (int i = 0; i < this.first.size(); i++) {
+            if (this.first.get(i).matches(relative)) {
+                return i;
+            }
+        }
+        return this.first.size();
+    }
+
+    /**
+     * Lower case extension of an entry name.
+     *
+     * @param name
+     *            the entry name
+     *
+     * @return the extension without the dot, empty when there is none
+     */
+    static String extension(final String name) {
+        final String fileName = name.substring(name.lastIndexOf('/') + 1);
+        final int dot = fileName.lastIndexOf('.');
+        return dot <= 0 ? "" : fileName.substring(dot + 1).toLowerCase(Locale.ROOT);
+    }
+
+}
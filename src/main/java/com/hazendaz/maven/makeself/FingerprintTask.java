@@ -0,0 +1,175 @@
+/*
+ *    Copyright 2011-2026 the original author or authors.
+ *
+ *    This program is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU General Public License
+ *    as published by the Free Software Foundation; either version 2
+ *    of the License, or (at your option) any later version.
+ *
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.gnu.org/licenses/old-licenses/gpl-2.0.en.html
+ *
+ *    This program is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ */
+package com.hazendaz.maven.makeself;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileSystemLoopException;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * The Class FingerprintTask.
+ * <p>
+ * Walks a directory tree on a fork/join pool and produces one fingerprint record per path. Subdirectories are walked
+ * and files are hashed as forked tasks, while results are joined back in sorted name order, so the records are the
+ * same for every run regardless of scheduling. I/O errors are rethrown as {@link UncheckedIOException}.
+ * </p>
+ */
+public class FingerprintTask extends RecursiveTask<List<List<String>>> {
+
+    /** The serial version uid. */
+    private static final long serialVersionUID = 1L;
+
+    /** The root of the walk, records are named relative to it. */
+    private final transient Path root;
+
+    /** The path this task covers. */
+    private final transient Path path;
+
+    /** The attributes of the path. */
+    private final transient BasicFileAttributes attributes;
+
+    /** Follow symbolic links. */
+    private final boolean follow;
+
+    /** Hash file content. */
+    private final boolean hashContent;
+
+    /** File keys of the directories above, to detect link loops when following links. */
+    private final transient Set<Object> ancestors;
+
+    /**
+     * Instantiates a new fingerprint task for the root of a walk.
+     *
+     * @param root
+     *            the root directory
+     * @param follow
+     *            follow symbolic links
+     * @param hashContent
+     *            hash file content
+     *
+     * @throws IOException
+     *             Signals that an I/O exception has occurred.
+     */
+    public FingerprintTask(final Path root, final boolean follow, final boolean hashContent) throws IOException {
+        this(root, root, Files.readAttributes(root, BasicFileAttributes.class), follow, hashContent, new HashSet<>());
+    }
+
+    /**
+     * Instantiates a new fingerprint task.
+     *
+     * @param root
+     *            the root directory
+     * @param path
+     *            the path
+     * @param attributes
+     *            the attributes of the path
+     * @param follow
+     *            follow symbolic links
+     * @param hashContent
+     *            hash file content
+     * @param ancestors
+     *            the file keys of the directories above
+     */
+    private FingerprintTask(final Path root, final Path path, final BasicFileAttributes attributes,
+            final boolean follow, final boolean hashContent, final Set<Object> ancestors) {
+        this.root = root;
+        this.path = path;
+        this.attributes = attributes;
+        this.follow = follow;
+        this.hashContent = hashContent;
+        this.ancestors = ancestors;
+    }
+
+    @Override
+    protected List<List<String>> compute() {
+        try {
+            final String name = this.root.relativize(this.path).toString().replace('\\', '/');
+            if (this.attributes.isSymbolicLink()) {
+                return List.of(Arrays.asList("link", name, Files.readSymbolicLink(this.path).toString()));
+            }
+            if (!this.attributes.isDirectory()) {
+                return List.of(Arrays.asList("file", name, String.valueOf(this.attributes.size()),
+                        String.valueOf(this.attributes.lastModifiedTime().toMillis()),
+                        this.hashContent ? ArchiveFingerprint.hash(this.path) : ""));
+            }
+            return this.walkDirectory(name);
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Record the directory and fork a task per child.
+     *
+     * @param name
+     *            the directory name
+     *
+     * @return the records of the directory and everything below it
+     *
+     * @throws IOException
+     *             Signals that an I/O exception has occurred.
+     */
+    private List<List<String>> walkDirectory(final String name) throws IOException {
+        final Set<Object> above = new HashSet<>(this.ancestors);
+        final Object key = this.attributes.fileKey();
+        if (this.follow && key != null && !above.add(key)) {
+            throw new FileSystemLoopException(this.path.toString());
+        }
+
+        final List<Path> children = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(this.path)) {
+            stream.forEach(children::add);
+        }
+        children.sort(null);
+
+        final LinkOption[] options = this.follow ? new LinkOption[0] : new LinkOption[] { LinkOption.NOFOLLOW_LINKS };
+        final List<FingerprintTask> tasks = new ArrayList<>(children.size());
+        for (final Path child : children) {
+            final BasicFileAttributes childAttributes = Files.readAttributes(child, BasicFileAttributes.class,
+                    options);
+            final FingerprintTask task = new FingerprintTask(this.root, child, childAttributes, this.follow,
+                    this.hashContent, above);
+            // Only subdirectories and hashing are worth forking, other records are made in place
+            if (childAttributes.isDirectory() || this.hashContent && childAttributes.isRegularFile()) {
+                task.fork();
+            } else {
+                task.invoke();
+            }
+            tasks.add(task);
+        }
+
+        final List<List<String>> records = new ArrayList<>();
+        records.add(Arrays.asList("directory", name));
+        for (final FingerprintTask task : tasks) {
+            records.addAll(task.join());
+        }
+        return records;
+    }
+
+}
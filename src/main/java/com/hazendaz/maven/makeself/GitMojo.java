@@ -37,7 +37,7 @@ import org.apache.maven.plugins.annotations.Parameter;
  * On non-Windows systems this goal is a no-op since makeself and bash are natively available.
  * </p>
  */
-@Mojo(name = "git", defaultPhase = LifecyclePhase.NONE, requiresProject = false)
+@Mojo(name = "git", defaultPhase = LifecyclePhase.NONE, requiresProject = false, threadSafe = true)
 public class GitMojo extends AbstractGitMojo {
 
     /** Skip run of plugin. */
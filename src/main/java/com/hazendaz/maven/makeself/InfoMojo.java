@@ -0,0 +1,82 @@
+/*
+ *    Copyright 2011-2026 the original author or authors.
+ *
+ *    This program is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU General Public License
+ *    as published by the Free Software Foundation; either version 2
+ *    of the License, or (at your option) any later version.
+ *
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.gnu.org/licenses/old-licenses/gpl-2.0.en.html
+ *
+ *    This program is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ */
+package com.hazendaz.maven.makeself;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
+import org.apache.maven.plugin.AbstractMojo;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugins.annotations.LifecyclePhase;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
+
+/**
+ * The Class InfoMojo.
+ * <p>
+ * Prints what an archive's {@code --info} and {@code --list} would, without running the archive or needing bash. The
+ * header is parsed in process and only the tar entry headers of the payload are read, so the goal works on any platform
+ * and for any archive built with gzip, pigz, bzip2, pbzip2, xz, zstd or no compression.
+ * </p>
+ *
+ * @since 1.12.1
+ */
+@Mojo(name = "info", defaultPhase = LifecyclePhase.NONE, requiresProject = false, threadSafe = true)
+public class InfoMojo extends AbstractMojo {
+
+    /** The makeself archive to describe. */
+    @Parameter(defaultValue = "${project.build.directory}/makeself.sh", property = "makeself.file", required = true)
+    private File file;
+
+    /** List the payload entries as well as the header info. */
+    @Parameter(defaultValue = "true", property = "makeself.list")
+    private boolean list;
+
+    /** Skip run of plugin. */
+    @Parameter(defaultValue = "false", property = "makeself.skip")
+    private boolean skip;
+
+    @Override
+    public void execute() throws MojoExecutionException {
+        // Check if plugin run should be skipped
+        if (this.skip) {
+            this.getLog().info("Makeself info is skipped");
+            return;
+        }
+
+        if (this.file == null || !this.file.isFile()) {
+            throw new MojoExecutionException("File: missing '" + this.file + "'");
+        }
+
+        try {
+            final MakeselfArchiveReader reader = new MakeselfArchiveReader(this.file.toPath());
+            for (final String line : reader.info()) {
+                this.getLog().info(line);
+            }
+            if (this.list) {
+                for (final TarArchiveEntry entry : reader.list()) {
+                    this.getLog().info(MakeselfArchiveReader.describe(entry));
+                }
+            }
+        } catch (final IOException e) {
+            throw new MojoExecutionException("Unable to read makeself archive '" + this.file + "'", e);
+        }
+    }
+
+}
@@ -0,0 +1,1426 @@
+/*
+ *    Copyright 2011-2026 the original author or authors.
+ *
+ *    This program is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU General Public License
+ *    as published by the Free Software Foundation; either version 2
+ *    of the License, or (at your option) any later version.
+ *
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.gnu.org/licenses/old-licenses/gpl-2.0.en.html
+ *
+ *    This program is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ */
+package com.hazendaz.maven.makeself;
+
+import java.io.BufferedOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileVisitOption;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.nio.file.attribute.PosixFileAttributes;
+import java.nio.file.attribute.PosixFilePermission;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.StringJoiner;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
+import org.apache.commons.compress.archivers.tar.TarArchiveOutputStream;
+import org.apache.commons.compress.archivers.tar.TarConstants;
+import org.apache.commons.io.FileUtils;
+import org.apache.maven.plugin.logging.Log;
+
+/**
+ * The Class JavaArchiveEngine.
+ * <p>
+ * Builds a makeself archive in process: the tar payload is written with commons-compress straight into the compressor
+ * while the checksums are computed on the same stream, and the header stub is rendered from the makeself header
+ * template with the same variables makeself.sh would set. No external process is started.
+ * </p>
+ */
+public class JavaArchiveEngine {
+
+    /** Date format of {@code LC_ALL=C date}. */
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("EEE MMM ppd HH:mm:ss zzz yyyy",
+            Locale.ROOT);
+
+    /** The log. */
+    private final Log log;
+
+    /** The archive directory. */
+    private Path archiveDir;
+
+    /** The archive file to create. */
+    private Path archiveFile;
+
+    /** The label. */
+    private String label = "";
+
+    /** The startup script. */
+    private String startupScript = "";
+
+    /** The script args. */
+    private List<String> scriptArgs = Collections.emptyList();
+
+    /** The compression. */
+    private Compression compression = Compression.GZIP;
+
+    /** The compression level. */
+    private int compressionLevel = 9;
+
+    /** The compressor threads, 0 for the compressor default. */
+    private int threads;
+
+    /** The tar format. */
+    private String tarFormat = "ustar";
+
+    /** The untar extra options. */
+    private String untarExtra = "";
+
+    /** Skip the MD5. */
+    private boolean nomd5;
+
+    /** Skip the CRC. */
+    private boolean nocrc;
+
+    /** Compute a SHA256. */
+    private boolean sha256;
+
+    /** Extract in a directory which is kept. */
+    private boolean notemp;
+
+    /** Extract in the current directory. */
+    private boolean current;
+
+    /** The extraction target directory. */
+    private String targetDir;
+
+    /** Do not extract over an existing target. */
+    private boolean nooverwrite;
+
+    /** Require root. */
+    private boolean needRoot;
+
+    /** Copy before extracting. */
+    private boolean copy;
+
+    /** Disable xterm. */
+    private boolean nox11;
+
+    /** Do not wait in xterm. */
+    private boolean nowait;
+
+    /** Do not show progress. */
+    private boolean noprogress;
+
+    /** Follow symbolic links. */
+    private boolean follow;
+
+    /** Quiet. */
+    private boolean quiet;
+
+    /** Do not list each file added. */
+    private boolean tarQuietly;
+
+    /** Keep the umask. */
+    private boolean keepUmask;
+
+    /** Export the configuration. */
+    private boolean exportConf;
+
+    /** Give the files to the extracting user. */
+    private boolean ownership;
+
+    /** The packaging date. */
+    private String packagingDate;
+
+    /** The license file. */
+    private Path licenseFile;
+
+    /** The help header file. */
+    private Path helpHeaderFile;
+
+    /** The pre-extraction script. */
+    private Path preextractScript;
+
+    /** The cleanup script. */
+    private String cleanupScript;
+
+    /** The LSM file. */
+    private Path lsmFile;
+
+    /** The header file, null for the bundled header. */
+    private Path headerFile;
+
+    /** The build command recorded in the header. */
+    private List<String> command = Collections.emptyList();
+
+    /** The makeself version recorded in the header, null to read it from the bundled makeself.sh. */
+    private MakeselfVersion makeselfVersion;
+
+    /** The metrics to record the build phases in, null to not record them. */
+    private BuildMetrics metrics;
+
+    /** Store already compressed files in a segment of their own without compressing them again. */
+    private boolean storeCompressed;
+
+    /** The extensions of already compressed files, null for the defaults. */
+    private Collection<String> storedExtensions;
+
+    /** The entry order strategy, null for name. */
+    private String entryOrder;
+
+    /** The glob patterns of entries to put first, null for none. */
+    private List<String> entryOrderFirst;
+
+    /** The fixed time of a reproducible build, null for a regular build. */
+    private Instant reproducibleTime;
+
+    /** The directory caching compressed payload chunks, null to compress the payload as one stream. */
+    private Path chunkCacheDirectory;
+
+    /** The segment shared with archives built from overlapping directories, null to write every file. */
+    private SharedBaseSegment sharedBase;
+
+    /**
+     * Instantiates a new java archive engine.
+     *
+     * @param log
+     *            the log
+     */
+    public JavaArchiveEngine(final Log log) {
+        this.log = log;
+    }
+
+    /**
+     * Sets the archive directory.
+     *
+     * @param archiveDir
+     *            the new archive directory
+     */
+    public void setArchiveDir(final Path archiveDir) {
+        this.archiveDir = archiveDir;
+    }
+
+    /**
+     * Sets the archive file.
+     *
+     * @param archiveFile
+     *            the new archive file
+     */
+    public void setArchiveFile(final Path archiveFile) {
+        this.archiveFile = archiveFile;
+    }
+
+    /**
+     * Sets the label.
+     *
+     * @param label
+     *            the new label
+     */
+    public void setLabel(final String label) {
+        this.label = label;
+    }
+
+    /**
+     * Sets the startup script.
+     *
+     * @param startupScript
+     *            the new startup script
+     */
+    public void setStartupScript(final String startupScript) {
+        this.startupScript = startupScript;
+    }
+
+    /**
+     * Sets the script args.
+     *
+     * @param scriptArgs
+     *            the new script args
+     */
+    public void setScriptArgs(final List<String> scriptArgs) {
+        this.scriptArgs = scriptArgs == null ? Collections.emptyList() : scriptArgs;
+    }
+
+    /**
+     * Sets the compression.
+     *
+     * @param compression
+     *            the new compression
+     */
+    public void setCompression(final Compression compression) {
+        this.compression = compression;
+    }
+
+    /**
+     * Sets the compression level.
+     *
+     * @param compressionLevel
+     *            the new compression level
+     */
+    public void setCompressionLevel(final int compressionLevel) {
+        this.compressionLevel = compressionLevel;
+    }
+
+    /**
+     * Sets the compressor threads.
+     *
+     * @param threads
+     *            the new threads, 0 for the compressor default
+     */
+    public void setThreads(final int threads) {
+        this.threads = threads;
+    }
+
+    /**
+     * Sets the tar format.
+     *
+     * @param tarFormat
+     *            the new tar format
+     */
+    public void setTarFormat(final String tarFormat) {
+        this.tarFormat = tarFormat;
+    }
+
+    /**
+     * Sets the untar extra options.
+     *
+     * @param untarExtra
+     *            the new untar extra
+     */
+    public void setUntarExtra(final String untarExtra) {
+        this.untarExtra = untarExtra;
+    }
+
+    /**
+     * Sets the nomd5.
+     *
+     * @param nomd5
+     *            the new nomd5
+     */
+    public void setNomd5(final boolean nomd5) {
+        this.nomd5 = nomd5;
+    }
+
+    /**
+     * Sets the nocrc.
+     *
+     * @param nocrc
+     *            the new nocrc
+     */
+    public void setNocrc(final boolean nocrc) {
+        this.nocrc = nocrc;
+    }
+
+    /**
+     * Sets the sha256.
+     *
+     * @param sha256
+     *            the new sha256
+     */
+    public void setSha256(final boolean sha256) {
+        this.sha256 = sha256;
+    }
+
+    /**
+     * Sets the notemp.
+     *
+     * @param notemp
+     *            the new notemp
+     */
+    public void setNotemp(final boolean notemp) {
+        this.notemp = notemp;
+    }
+
+    /**
+     * Sets the current.
+     *
+     * @param current
+     *            the new current
+     */
+    public void setCurrent(final boolean current) {
+        this.current = current;
+    }
+
+    /**
+     * Sets the target dir.
+     *
+     * @param targetDir
+     *            the new target dir
+     */
+    public void setTargetDir(final String targetDir) {
+        this.targetDir = targetDir;
+    }
+
+    /**
+     * Sets the nooverwrite.
+     *
+     * @param nooverwrite
+     *            the new nooverwrite
+     */
+    public void setNooverwrite(final boolean nooverwrite) {
+        this.nooverwrite = nooverwrite;
+    }
+
+    /**
+     * Sets the need root.
+     *
+     * @param needRoot
+     *            the new need root
+     */
+    public void setNeedRoot(final boolean needRoot) {
+        this.needRoot = needRoot;
+    }
+
+    /**
+     * Sets the copy.
+     *
+     * @param copy
+     *            the new copy
+     */
+    public void setCopy(final boolean copy) {
+        this.copy = copy;
+    }
+
+    /**
+     * Sets the nox11.
+     *
+     * @param nox11
+     *            the new nox11
+     */
+    public void setNox11(final boolean nox11) {
+        this.nox11 = nox11;
+    }
+
+    /**
+     * Sets the nowait.
+     *
+     * @param nowait
+     *            the new nowait
+     */
+    public void setNowait(final boolean nowait) {
+        this.nowait = nowait;
+    }
+
+    /**
+     * Sets the noprogress.
+     *
+     * @param noprogress
+     *            the new noprogress
+     */
+    public void setNoprogress(final boolean noprogress) {
+        this.noprogress = noprogress;
+    }
+
+    /**
+     * Sets the follow.
+     *
+     * @param follow
+     *            the new follow
+     */
+    public void setFollow(final boolean follow) {
+        this.follow = follow;
+    }
+
+    /**
+     * Sets the quiet.
+     *
+     * @param quiet
+     *            the new quiet
+     */
+    public void setQuiet(final boolean quiet) {
+        this.quiet = quiet;
+    }
+
+    /**
+     * Sets the tar quietly.
+     *
+     * @param tarQuietly
+     *            the new tar quietly
+     */
+    public void setTarQuietly(final boolean tarQuietly) {
+        this.tarQuietly = tarQuietly;
+    }
+
+    /**
+     * Sets the keep umask.
+     *
+     * @param keepUmask
+     *            the new keep umask
+     */
+    public void setKeepUmask(final boolean keepUmask) {
+        this.keepUmask = keepUmask;
+    }
+
+    /**
+     * Sets the export conf.
+     *
+     * @param exportConf
+     *            the new export conf
+     */
+    public void setExportConf(final boolean exportConf) {
+        this.exportConf = exportConf;
+    }
+
+    /**
+     * Sets the ownership.
+     *
+     * @param ownership
+     *            the new ownership
+     */
+    public void setOwnership(final boolean ownership) {
+        this.ownership = ownership;
+    }
+
+    /**
+     * Sets the packaging date.
+     *
+     * @param packagingDate
+     *            the new packaging date
+     */
+    public void setPackagingDate(final String packagingDate) {
+        this.packagingDate = packagingDate;
+    }
+
+    /**
+     * Sets the license file.
+     *
+     * @param licenseFile
+     *            the new license file
+     */
+    public void setLicenseFile(final Path licenseFile) {
+        this.licenseFile = licenseFile;
+    }
+
+    /**
+     * Sets the help header file.
+     *
+     * @param helpHeaderFile
+     *            the new help header file
+     */
+    public void setHelpHeaderFile(final Path helpHeaderFile) {
+        this.helpHeaderFile = helpHeaderFile;
+    }
+
+    /**
+     * Sets the preextract script.
+     *
+     * @param preextractScript
+     *            the new preextract script
+     */
+    public void setPreextractScript(final Path preextractScript) {
+        this.preextractScript = preextractScript;
+    }
+
+    /**
+     * Sets the cleanup script.
+     *
+     * @param cleanupScript
+     *            the new cleanup script
+     */
+    public void setCleanupScript(final String cleanupScript) {
+        this.cleanupScript = cleanupScript;
+    }
+
+    /**
+     * Sets the lsm file.
+     *
+     * @param lsmFile
+     *            the new lsm file
+     */
+    public void setLsmFile(final Path lsmFile) {
+        this.lsmFile = lsmFile;
+    }
+
+    /**
+     * Sets the header file.
+     *
+     * @param headerFile
+     *            the new header file, null for the bundled header
+     */
+    public void setHeaderFile(final Path headerFile) {
+        this.headerFile = headerFile;
+    }
+
+    /**
+     * Sets the build command recorded in the header as {@code MS_COMMAND}.
+     *
+     * @param command
+     *            the command, first element being the script name
+     */
+    public void setCommand(final List<String> command) {
+        this.command = command;
+    }
+
+    /**
+     * Sets the makeself version recorded in the header.
+     *
+     * @param makeselfVersion
+     *            the makeself version, null to read it from the bundled makeself.sh
+     */
+    public void setMakeselfVersion(final MakeselfVersion makeselfVersion) {
+        this.makeselfVersion = makeselfVersion;
+    }
+
+    /**
+     * Sets the metrics to record the build phases in.
+     *
+     * @param metrics
+     *            the metrics, null to not record them
+     */
+    public void setMetrics(final BuildMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * Sets whether already compressed files are stored in a segment of their own without compressing them again.
+     *
+     * @param storeCompressed
+     *            the new store compressed
+     */
+    public void setStoreCompressed(final boolean storeCompressed) {
+        this.storeCompressed = storeCompressed;
+    }
+
+    /**
+     * Sets the extensions of already compressed files.
+     *
+     * @param storedExtensions
+     *            the extensions, null for the defaults
+     */
+    public void setStoredExtensions(final Collection<String> storedExtensions) {
+        this.storedExtensions = storedExtensions;
+    }
+
+    /**
+     * Sets the entry order strategy.
+     *
+     * @param entryOrder
+     *            the strategy, name, type or size, null for name
+     */
+    public void setEntryOrder(final String entryOrder) {
+        this.entryOrder = entryOrder;
+    }
+
+    /**
+     * Sets the glob patterns of entries to put first, relative to the archive directory.
+     *
+     * @param entryOrderFirst
+     *            the patterns, null for none
+     */
+    public void setEntryOrderFirst(final List<String> entryOrderFirst) {
+        this.entryOrderFirst = entryOrderFirst;
+    }
+
+    /**
+     * Sets the fixed time of a reproducible build. Entries then get this modification time, owner and group 0 and
+     * permissions 0644 or 0755, the header is dated with it unless a packaging date is set, and the compressed stream
+     * does not depend on the number of processors, so the same inputs give the same archive bytes.
+     *
+     * @param reproducibleTime
+     *            the time, null for a regular build
+     */
+    public void setReproducibleTime(final Instant reproducibleTime) {
+        this.reproducibleTime = reproducibleTime;
+    }
+
+    /**
+     * Sets the directory caching compressed payload chunks. The payload is then compressed as content defined chunks,
+     * and chunks found in the cache are copied rather than compressed again.
+     *
+     * @param chunkCacheDirectory
+     *            the cache directory, null to compress the payload as one stream
+     */
+    public void setChunkCacheDirectory(final Path chunkCacheDirectory) {
+        this.chunkCacheDirectory = chunkCacheDirectory;
+    }
+
+    /**
+     * Sets the segment shared with archives built from overlapping directories. The files it holds are not written
+     * again; it is placed before the segments of this archive. The first archive built writes it with its own settings,
+     * so every archive sharing it must be configured the same apart from the archive directory.
+     *
+     * @param sharedBase
+     *            the shared base segment, null to write every file
+     */
+    public void setSharedBase(final SharedBaseSegment sharedBase) {
+        this.sharedBase = sharedBase;
+    }
+
+    /**
+     * Build the archive.
+     *
+     * @return the names of the entries written to the payload, in order
+     *
+     * @throws IOException
+     *             Signals that an I/O exception has occurred.
+     */
+    public List<String> build() throws IOException {
+        long start = System.nanoTime();
+        MakeselfHeader header = MakeselfHeader.load(this.headerFile);
+        PayloadSegment base = null;
+        if (this.sharedBase != null) {
+            this.sharedBase.write(this);
+            base = this.sharedBase.getSegment();
+        }
+        final List<Path> files = this.collectFiles();
+        if (base != null) {
+            files.removeIf(path -> this.sharedBase.contains(this.entryName(path)));
+        }
+        final List<Path> storedFiles = this.storedFiles(files);
+        files.removeAll(new HashSet<>(storedFiles));
+
+        final long size;
+        try (Stream<Path> walk = Files.walk(this.archiveDir)) {
+            size = walk.filter(Files::isRegularFile).mapToLong(JavaArchiveEngine::sizeOf).sum();
+        }
+        this.info("About to compress " + (size + 1023) / 1024 + " KB of data...");
+        this.info("Adding files to archive named \"" + this.archiveFile + "\"...");
+
+        final Path parent = this.archiveFile.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        this.phase("build.scan", start);
+        final List<PayloadSegment> segments = new ArrayList<>(3);
+        try {
+            final List<String> entries = new ArrayList<>(files.size() + storedFiles.size());
+            if (base != null) {
+                this.info("Reusing " + this.sharedBase.getEntries().size() + " files shared with other archives");
+                entries.addAll(this.sharedBase.getEntries());
+            }
+            if (!files.isEmpty() || storedFiles.isEmpty() && base == null) {
+                segments.add(this.writeSegment(files, this.compression, parent, entries));
+            }
+            if (!storedFiles.isEmpty()) {
+                this.info("Storing " + storedFiles.size() + " compressed files without compression");
+                segments.add(this.writeSegment(storedFiles, Compression.NONE, parent, entries));
+            }
+            start = System.nanoTime();
+
+            // Checksums were computed while the payload was written
+            final List<PayloadSegment> payload = new ArrayList<>(segments);
+            if (base != null) {
+                payload.add(0, base);
+            }
+            long tarSize = 0;
+            long payloadSize = 0;
+            final StringJoiner fileSizes = new StringJoiner(" ");
+            final StringJoiner crcSums = new StringJoiner(" ");
+            final StringJoiner md5Sums = new StringJoiner(" ");
+            final StringJoiner shaSums = new StringJoiner(" ");
+            for (final PayloadSegment segment : payload) {
+                if (!this.nocrc) {
+                    this.info("CRC: " + segment.getCrc());
+                }
+                if (this.sha256) {
+                    this.info("SHA256: " + segment.getSha256());
+                }
+                if (!this.nomd5) {
+                    this.info("MD5: " + segment.getMd5());
+                }
+                tarSize += segment.getTarSize();
+                payloadSize += segment.getSize();
+                fileSizes.add(String.valueOf(segment.getSize()));
+                crcSums.add(segment.getCrc());
+                md5Sums.add(segment.getMd5());
+                shaSums.add(segment.getSha256());
+            }
+
+            if (payload.size() > 1) {
+                header = header.exactSkip();
+            }
+            final Map<String, String> variables = this.headerVariables();
+            if (!storedFiles.isEmpty()) {
+                // Stored segments are plain tar, which the pass through decompressor copies unchanged, also when the
+                // payload holds nothing but a stored segment
+                variables.put("GUNZIP_CMD", this.compression.getPassThroughCommand());
+            }
+            variables.put("USIZE", String.valueOf((tarSize + 4095) / 4096 * 4));
+            variables.put("filesizes", fileSizes.toString());
+            variables.put("totalsize", String.valueOf(payloadSize));
+            variables.put("CRCsum", crcSums.toString());
+            variables.put("MD5sum", md5Sums.toString());
+            variables.put("SHAsum", shaSums.toString());
+            variables.put("SKIP", "0");
+            final String lsm = this.lsm();
+            final int skip = MakeselfHeader.countLines(header.render(variables, lsm));
+            this.info("Header is " + skip + " lines long");
+            variables.put("SKIP", String.valueOf(skip));
+            final byte[] stub = header.render(variables, lsm).getBytes(StandardCharsets.UTF_8);
+            this.phase("build.header", start);
+
+            start = System.nanoTime();
+            // Join with channel transfers so the payload does not pass through user space
+            try (FileChannel output = FileChannel.open(this.archiveFile, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                final ByteBuffer buffer = ByteBuffer.wrap(stub);
+                while (buffer.hasRemaining()) {
+                    output.write(buffer);
+                }
+                for (final PayloadSegment segment : payload) {
+                    JavaArchiveEngine.append(segment.getFile(), output);
+                }
+            }
+            JavaArchiveEngine.setExecutable(this.archiveFile);
+            this.phase("build.assemble", start);
+            if (this.metrics != null) {
+                this.metrics.setBytesIn(tarSize);
+                this.metrics.setBytesOut(payloadSize);
+                this.metrics.setArchiveBytes(stub.length + payloadSize);
+            }
+            this.info("Self-extractable archive \"" + this.archiveFile + "\" successfully created.");
+            return entries;
+        } finally {
+            for (final PayloadSegment segment : segments) {
+                Files.deleteIfExists(segment.getFile());
+            }
+        }
+    }
+
+    /**
+     * Write the shared base segment: the files of this archive directory that every other directory of the segment
+     * holds with the same content and tar entry, except files stored without compression. Symbolic links and empty
+     * directories stay with each archive.
+     *
+     * @param base
+     *            the shared base segment
+     *
+     * @throws IOException
+     *             Signals that an I/O exception has occurred.
+     */
+    void writeBase(final SharedBaseSegment base) throws IOException {
+        final List<Path> common = new ArrayList<>();
+        for (final Path path : this.collectFiles()) {
+            if (this.isShared(path, base.getArchiveDirs())) {
+                common.add(path);
+            }
+        }
+        common.removeAll(new HashSet<>(this.storedFiles(common)));
+        if (common.isEmpty()) {
+            base.set(null, Collections.emptyList());
+            return;
+        }
+        this.info("Writing " + common.size() + " files shared by " + base.getArchiveDirs().size() + " archives");
+        final List<String> entries = new ArrayList<>(common.size());
+        base.set(this.writeSegment(common, this.compression, base.getDirectory(), entries), entries);
+    }
+
+    /**
+     * Checks if every other archive directory holds the same regular file, with the same tar entry, at the same path.
+     *
+     * @param path
+     *            the file in this archive directory
+     * @param archiveDirs
+     *            the archive directories
+     *
+     * @return true, if the file can be shared
+     *
+     * @throws IOException
+     *             Signals that an I/O exception has occurred.
+     */
+    private boolean isShared(final Path path, final List<Path> archiveDirs) throws IOException {
+        if (!this.follow && Files.isSymbolicLink(path) || !Files.isRegularFile(path, this.linkOptions())) {
+            return false;
+        }
+        final String name = this.entryName(path);
+        final TarArchiveEntry entry = this.newEntry(path, name);
+        final String relative = this.archiveDir.relativize(path).toString();
+        for (final Path directory : archiveDirs) {
+            if (directory.toAbsolutePath().normalize().equals(this.archiveDir.toAbsolutePath().normalize())) {
+                continue;
+            }
+            final Path other = directory.resolve(relative);
+            if (!this.follow && Files.isSymbolicLink(other) || !Files.isRegularFile(other, this.linkOptions())) {
+                return false;
+            }
+            final TarArchiveEntry otherEntry = this.newEntry(other, name);
+            if (entry.getSize() != otherEntry.getSize() || entry.getMode() != otherEntry.getMode()
+                    || !entry.getModTime().equals(otherEntry.getModTime())
+                    || !Objects.equals(entry.getUserName(), otherEntry.getUserName())
+                    || !Objects.equals(entry.getGroupName(), otherEntry.getGroupName())
+                    || entry.getLongUserId() != otherEntry.getLongUserId()
+                    || entry.getLongGroupId() != otherEntry.getLongGroupId()
+                    || !FileUtils.contentEquals(path.toFile(), other.toFile())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Select the files to store without compression, when storing compressed files is enabled and the compression can
+     * pass a stored segment through.
+     *
+     * @param files
+     *            the files to archive
+     *
+     * @return the files already compressed
+     *
+     * @throws IOException
+     *             Signals that an I/O exception has occurred.
+     */
+    private List<Path> storedFiles(final List<Path> files) throws IOException {
+        if (!this.storeCompressed || this.compression == Compression.NONE) {
+            return Collections.emptyList();
+        }
+        if (this.compression.getPassThroughCommand() == null) {
+            this.log.warn("Compression '" + this.compression.getId()
+                    + "' cannot extract stored files, compressing all files; use gzip, pigz or xz to store them");
+            return Collections.emptyList();
+        }
+        final CompressedFileDetector detector = new CompressedFileDetector(this.storedExtensions);
+        final List<Path> stored = new ArrayList<>();
+        for (final Path path : files) {
+            if (Files.isRegularFile(path, this.linkOptions()) && detector.isCompressed(path)) {
+                stored.add(path);
+            }
+        }
+        return stored;
+    }
+
+    /**
+     * Write one payload segment to a temporary file next to the archive, computing its checksums as it is written.
+     *
+     * @param files
+     *            the files of the segment
+     * @param segmentCompression
+     *            the compression of the segment
+     * @param parent
+     *            the directory of the archive
+     * @param entries
+     *            the entry names written, added to in order
+     *
+     * @return the payload segment
+     *
+     * @throws IOException
+     *             Signals that an I/O exception has occurred.
+     */
+    private PayloadSegment writeSegment(final List<Path> files, final Compression segmentCompression,
+            final Path parent, final List<String> entries) throws IOException {
+        final long start = System.nanoTime();
+        final Path payload = Files.createTempFile(parent, "mkself", ".tmp");
+        final ChecksumOutputStream checksums;
+        final TimedOutputStream ioTimer;
+        final TimedOutputStream compressorTimer;
+        final OutputStream compressor;
+        final long tarSize;
+        try (TimedOutputStream file = new TimedOutputStream(Files.newOutputStream(payload));
+                ChecksumOutputStream checksumStream = new ChecksumOutputStream(file, !this.nocrc, !this.nomd5,
+                        this.sha256);
+                OutputStream buffered = new BufferedOutputStream(checksumStream, 65536);
+                OutputStream compressed = this.newCompressor(buffered, segmentCompression);
+                TimedOutputStream timedCompressed = new TimedOutputStream(compressed);
+                TarArchiveOutputStream tar = this.newTarStream(timedCompressed)) {
+            checksums = checksumStream;
+            ioTimer = file;
+            compressorTimer = timedCompressed;
+            compressor = compressed;
+            for (final Path path : files) {
+                entries.add(this.writeEntry(tar, path));
+            }
+            tar.finish();
+            tarSize = tar.getBytesWritten();
+        } catch (final IOException e) {
+            Files.deleteIfExists(payload);
+            throw e;
+        }
+        if (compressor instanceof ChunkCacheOutputStream) {
+            final ChunkCacheOutputStream chunks = (ChunkCacheOutputStream) compressor;
+            this.info("Reused " + chunks.getReused() + " of " + chunks.getChunks() + " compressed chunks from "
+                    + this.chunkCacheDirectory);
+            if (this.metrics != null) {
+                this.metrics.set("chunks", chunks.getChunks());
+                this.metrics.set("chunksReused", chunks.getReused());
+            }
+        }
+        if (this.metrics != null) {
+            // Each stage's time includes the stages below it, so subtract to attribute time to one stage
+            final long total = System.nanoTime() - start;
+            this.metrics.addPhase("build.tar", total - compressorTimer.getNanos());
+            this.metrics.addPhase("build.compression",
+                    compressorTimer.getNanos() - checksums.getNanos() - ioTimer.getNanos());
+            this.metrics.addPhase("build.checksum", checksums.getNanos());
+            this.metrics.addPhase("build.write", ioTimer.getNanos());
+        }
+        return new PayloadSegment(payload, tarSize, checksums);
+    }
+
+    /**
+     * Wrap the segment output with its compressor: chunked through the chunk cache when one is configured, otherwise
+     * one compressed stream.
+     *
+     * @param output
+     *            the output
+     * @param segmentCompression
+     *            the compression of the segment
+     *
+     * @return the compressing output stream
+     *
+     * @throws IOException
+     *             Signals that an I/O exception has occurred.
+     */
+    private OutputStream newCompressor(final OutputStream output, final Compression segmentCompression)
+            throws IOException {
+        final int compressorThreads = this.reproducibleTime == null ? this.threads
+                : Compression.reproducibleThreads(this.threads);
+        if (this.chunkCacheDirectory == null || segmentCompression == Compression.NONE) {
+            return segmentCompression.compress(output, this.compressionLevel, compressorThreads);
+        }
+        // Chunks are compressed independently, so the thread count never changes the output
+        return new ChunkCacheOutputStream(output, segmentCompression, this.compressionLevel,
+                Compression.poolSize(this.threads), this.chunkCacheDirectory);
+    }
+
+    /**
+     * Record a build phase when metrics are collected.
+     *
+     * @param name
+     *            the phase name
+     * @param start
+     *            the {@link System#nanoTime()} at the start of the phase
+     */
+    private void phase(final String name, final long start) {
+        if (this.metrics != null) {
+            this.metrics.phase(name, start);
+        }
+    }
+
+    /**
+     * Collect the files the way makeself.sh feeds them to tar: every non-directory plus empty directories, sorted
+     * bytewise ({@code LC_ALL=C sort}) unless another entry order is configured.
+     *
+     * @return the paths
+     *
+     * @throws IOException
+     *             Signals that an I/O exception has occurred, or the entry order is unknown.
+     */
+    private List<Path> collectFiles() throws IOException {
+        final EntryOrder order = new EntryOrder(this.entryOrder, this.entryOrderFirst);
+        final Set<FileVisitOption> options = this.follow ? EnumSet.of(FileVisitOption.FOLLOW_LINKS)
+                : EnumSet.noneOf(FileVisitOption.class);
+        final List<Path> files;
+        try (Stream<Path> walk = Files.walk(this.archiveDir, Integer.MAX_VALUE,
+                options.toArray(new FileVisitOption[0]))) {
+            files = walk.filter(this::isArchived).collect(Collectors.toCollection(ArrayList::new));
+        }
+        order.sort(files, this::entryName, JavaArchiveEngine::sizeOf);
+        return files;
+    }
+
+    /**
+     * Checks if a path becomes a tar entry.
+     *
+     * @param path
+     *            the path
+     *
+     * @return true, if archived
+     */
+    private boolean isArchived(final Path path) {
+        if (!Files.isDirectory(path, this.linkOptions())) {
+            return true;
+        }
+        try (Stream<Path> children = Files.list(path)) {
+            return children.findAny().isEmpty();
+        } catch (final IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Entry name relative to the archive directory, as {@code find .} prints it.
+     *
+     * @param path
+     *            the path
+     *
+     * @return the entry name
+     */
+    String entryName(final Path path) {
+        final String relative = this.archiveDir.relativize(path).toString().replace('\\', '/');
+        return relative.isEmpty() ? "./" : "./" + relative;
+    }
+
+    /**
+     * Create the tar stream for the configured format.
+     *
+     * @param output
+     *            the output
+     *
+     * @return the tar archive output stream
+     *
+     * @throws IOException
+     *             if the format is not supported
+     */
+    private TarArchiveOutputStream newTarStream(final OutputStream output) throws IOException {
+        final TarArchiveOutputStream tar = new TarArchiveOutputStream(output, StandardCharsets.UTF_8.name());
+        switch (this.tarFormat) {
+            case "ustar":
+            case "posix":
+            case "pax":
+                tar.setLongFileMode(TarArchiveOutputStream.LONGFILE_POSIX);
+                tar.setBigNumberMode(TarArchiveOutputStream.BIGNUMBER_POSIX);
+                tar.setAddPaxHeadersForNonAsciiNames(!"ustar".equals(this.tarFormat));
+                break;
+            case "gnu":
+            case "oldgnu":
+                tar.setLongFileMode(TarArchiveOutputStream.LONGFILE_GNU);
+                tar.setBigNumberMode(TarArchiveOutputStream.BIGNUMBER_STAR);
+                break;
+            default:
+                tar.close();
+                throw new IOException("Unsupported tar format for java engine: " + this.tarFormat);
+        }
+        return tar;
+    }
+
+    /**
+     * Write a tar entry.
+     *
+     * @param tar
+     *            the tar
+     * @param path
+     *            the path
+     *
+     * @return the entry name
+     *
+     * @throws IOException
+     *             Signals that an I/O exception has occurred.
+     */
+    private String writeEntry(final TarArchiveOutputStream tar, final Path path) throws IOException {
+        final String name = this.entryName(path);
+        final TarArchiveEntry entry = this.newEntry(path, name);
+        if (!this.quiet && !this.tarQuietly) {
+            this.log.info(name);
+        }
+        tar.putArchiveEntry(entry);
+        if (entry.isFile() && !entry.isSymbolicLink()) {
+            try (InputStream input = Files.newInputStream(path)) {
+                input.transferTo(tar);
+            }
+        }
+        tar.closeArchiveEntry();
+        return name;
+    }
+
+    /**
+     * Create a tar entry carrying the mode, owner and modification time of the file, as tar records them.
+     *
+     * @param path
+     *            the path
+     * @param name
+     *            the entry name
+     *
+     * @return the tar archive entry
+     *
+     * @throws IOException
+     *             Signals that an I/O exception has occurred.
+     */
+    private TarArchiveEntry newEntry(final Path path, final String name) throws IOException {
+        final LinkOption[] options = this.linkOptions();
+        final TarArchiveEntry entry;
+        final int type;
+        if (!this.follow && Files.isSymbolicLink(path)) {
+            entry = new TarArchiveEntry(name, TarConstants.LF_SYMLINK);
+            entry.setLinkName(Files.readSymbolicLink(path).toString().replace('\\', '/'));
+            type = 0120000;
+        } else if (Files.isDirectory(path, options)) {
+            entry = new TarArchiveEntry(name.endsWith("/") ? name : name + "/");
+            type = 040000;
+        } else {
+            entry = new TarArchiveEntry(name);
+            entry.setSize(Files.size(path));
+            type = 0100000;
+        }
+        if (this.reproducibleTime != null) {
+            // Like tar --mtime --owner=0 --group=0 --numeric-owner with a 022 umask
+            entry.setModTime(FileTime.from(this.reproducibleTime));
+            final boolean executable = type == 040000 || type == 0100000 && Files.isExecutable(path);
+            entry.setMode(type | (type == 0120000 ? 0777 : 0644 | (executable ? 0111 : 0)));
+            return entry;
+        }
+        entry.setModTime(Files.getLastModifiedTime(path, options));
+
+        final PosixFileAttributeView posix = Files.getFileAttributeView(path, PosixFileAttributeView.class, options);
+        if (posix == null) {
+            final boolean executable = type != 0100000 || Files.isExecutable(path);
+            entry.setMode(type | (executable ? 0755 : 0644));
+            return entry;
+        }
+        final PosixFileAttributes attributes = posix.readAttributes();
+        int mode = 0;
+        for (final PosixFilePermission permission : attributes.permissions()) {
+            mode |= 0400 >> permission.ordinal();
+        }
+        entry.setMode(type | (type == 0120000 ? 0777 : mode));
+        entry.setUserName(attributes.owner().getName());
+        entry.setGroupName(attributes.group().getName());
+        try {
+            entry.setUserId(((Number) Files.getAttribute(path, "unix:uid", options)).longValue());
+            entry.setGroupId(((Number) Files.getAttribute(path, "unix:gid", options)).longValue());
+        } catch (final UnsupportedOperationException | IllegalArgumentException e) {
+            // Numeric ids are only available on unix file systems
+        }
+        return entry;
+    }
+
+    /**
+     * Build the shell variables makeself.sh sets before sourcing the header.
+     *
+     * @return the variables
+     *
+     * @throws IOException
+     *             Signals that an I/O exception has occurred.
+     */
+    private Map<String, String> headerVariables() throws IOException {
+        final MakeselfVersion makeselfVersion = this.makeselfVersion == null ? new MakeselfVersion()
+                : this.makeselfVersion;
+        final boolean keep = this.notemp || this.current || this.targetDir != null;
+
+        final Map<String, String> variables = new HashMap<>();
+        variables.put("MS_VERSION", makeselfVersion.getVersion());
+        variables.put("MS_PLUGIN_VERSION", makeselfVersion.getPluginVersion());
+        variables.put("MS_COMMAND", JavaArchiveEngine.msCommand(this.command));
+        variables.put("LABEL", this.label);
+        variables.put("SCRIPT", this.startupScript);
+        variables.put("SCRIPTARGS", String.join(" ", this.scriptArgs));
+        variables.put("CLEANUP_SCRIPT", this.cleanupScript == null ? "" : this.cleanupScript);
+        final String archdirname;
+        if (this.current) {
+            archdirname = ".";
+        } else if (this.targetDir != null) {
+            archdirname = this.targetDir;
+        } else {
+            archdirname = this.archiveDir.toAbsolutePath().normalize().getFileName().toString();
+        }
+        variables.put("archdirname", archdirname);
+        variables.put("KEEP", JavaArchiveEngine.yesNo(keep));
+        variables.put("NOOVERWRITE", JavaArchiveEngine.yesNo(this.nooverwrite));
+        variables.put("EXPORT_CONF", JavaArchiveEngine.yesNo(this.exportConf));
+        variables.put("KEEP_UMASK", JavaArchiveEngine.yesNo(this.keepUmask));
+        variables.put("NOPROGRESS", JavaArchiveEngine.yesNo(this.noprogress));
+        variables.put("NOX11", JavaArchiveEngine.yesNo(this.nox11));
+        variables.put("NOWAIT", JavaArchiveEngine.yesNo(this.nowait));
+        variables.put("NEED_ROOT", JavaArchiveEngine.yesNo(this.needRoot));
+        variables.put("OWNERSHIP", JavaArchiveEngine.yesNo(this.ownership));
+        variables.put("COPY", this.copy ? "copy" : "none");
+        variables.put("COMPRESS", this.compression.getId());
+        variables.put("GUNZIP_CMD", this.compression.getGunzipCommand());
+        variables.put("UNTAR_EXTRA", this.untarExtra == null ? "" : this.untarExtra);
+        variables.put("ENCRYPT", "n");
+        variables.put("DECRYPT_CMD", "");
+        variables.put("Signature", "");
+        if (this.packagingDate != null) {
+            variables.put("DATE", this.packagingDate);
+        } else if (this.reproducibleTime != null) {
+            variables.put("DATE", ZonedDateTime.ofInstant(this.reproducibleTime, ZoneId.of("UTC"))
+                    .format(JavaArchiveEngine.DATE_FORMAT));
+        } else {
+            variables.put("DATE", ZonedDateTime.now().format(JavaArchiveEngine.DATE_FORMAT));
+        }
+
+        // --license : sed 's/\\/\\\\/g; s/"/\\\"/g; s/`/\\\`/g; s/\$/\\\$/g'
+        if (this.licenseFile != null) {
+            final String license = JavaArchiveEngine.stripTrailingNewlines(
+                    Files.readString(this.licenseFile, StandardCharsets.UTF_8)).replace("\\", "\\\\")
+                    .replace("\"", "\\\"").replace("`", "\\`").replace("$", "\\$");
+            variables.put("LICENSE", license);
+        }
+
+        // --help-header : sed -e "s/'/'\\\\''/g" followed by a newline when not empty
+        if (this.helpHeaderFile != null) {
+            final String helpHeader = JavaArchiveEngine
+                    .stripTrailingNewlines(Files.readString(this.helpHeaderFile, StandardCharsets.UTF_8))
+                    .replace("'", "'\\''");
+            variables.put("HELPHEADER", helpHeader.isEmpty() ? "" : helpHeader + "\n");
+        }
+
+        // --preextract : base64 < file
+        if (this.preextractScript != null) {
+            final String encoded = Base64.getMimeEncoder(76, new byte[] { '\n' })
+                    .encodeToString(Files.readAllBytes(this.preextractScript));
+            variables.put("PREEXTRACT_ENCODED", encoded);
+        }
+        return variables;
+    }
+
+    /**
+     * The LSM text, {@code awk 1 file} or the default when no LSM file is set.
+     *
+     * @return the lsm
+     *
+     * @throws IOException
+     *             Signals that an I/O exception has occurred.
+     */
+    private String lsm() throws IOException {
+        if (this.lsmFile == null) {
+            return "No LSM.\n";
+        }
+        final String text = Files.readString(this.lsmFile, StandardCharsets.UTF_8);
+        return text.isEmpty() || text.endsWith("\n") ? text : text + "\n";
+    }
+
+    /**
+     * Build MS_COMMAND the way makeself.sh does, masking the signing passphrase.
+     *
+     * @param command
+     *            the command, first element being the script name
+     *
+     * @return the recorded command
+     */
+    static String msCommand(final List<String> command) {
+        if (command.isEmpty()) {
+            return "";
+        }
+        final StringBuilder builder = new StringBuilder(command.get(0));
+        boolean signNext = false;
+        for (final String arg : command.subList(1, command.size())) {
+            String value = arg;
+            if (signNext) {
+                value = "XXXX";
+                signNext = false;
+            } else if ("--sign".equals(arg)) {
+                signNext = true;
+            } else if (arg.startsWith("--sign=")) {
+                value = "--sign=XXXX";
+            }
+            builder.append(" \\\\\n    \\\"").append(value).append("\\\"");
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Link options for the follow setting.
+     *
+     * @return the link options
+     */
+    private LinkOption[] linkOptions() {
+        return this.follow ? new LinkOption[0] : new LinkOption[] { LinkOption.NOFOLLOW_LINKS };
+    }
+
+    /**
+     * Log a makeself progress message unless quiet.
+     *
+     * @param message
+     *            the message
+     */
+    private void info(final String message) {
+        if (!this.quiet) {
+            this.log.info(message);
+        }
+    }
+
+    /**
+     * Append a file to the end of a channel with {@code transferTo}, which lets the operating system copy the bytes
+     * directly between the files where it can.
+     *
+     * @param source
+     *            the file to append
+     * @param target
+     *            the channel to append to
+     *
+     * @return the number of bytes appended
+     *
+     * @throws IOException
+     *             Signals that an I/O exception has occurred.
+     */
+    static long append(final Path source, final FileChannel target) throws IOException {
+        try (FileChannel input = FileChannel.open(source, StandardOpenOption.READ)) {
+            final long size = input.size();
+            long position = 0;
+            // transferTo may move fewer bytes than requested, notably above 2 GB on some platforms
+            while (position < size) {
+                final long transferred = input.transferTo(position, size - position, target);
+                if (transferred <= 0) {
+                    throw new EOFException("Unable to append " + source + " at byte " + position + " of " + size);
+                }
+                position += transferred;
+            }
+            return size;
+        }
+    }
+
+    /**
+     * Make the archive executable.
+     *
+     * @param path
+     *            the path
+     */
+    private static void setExecutable(final Path path) {
+        if (!path.toFile().setExecutable(true, false)) {
+            path.toFile().setExecutable(true, true);
+        }
+    }
+
+    /**
+     * Size of a file, 0 when unreadable.
+     *
+     * @param path
+     *            the path
+     *
+     * @return the size
+     */
+    private static long sizeOf(final Path path) {
+        try {
+            return Files.size(path);
+        } catch (final IOException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * Shell yes/no flag.
+     *
+     * @param value
+     *            the value
+     *
+     * @return y or n
+     */
+    private static String yesNo(final boolean value) {
+        return value ? "y" : "n";
+    }
+
+    /**
+     * Strip trailing newlines as command substitution does.
+     *
+     * @param text
+     *            the text
+     *
+     * @return the stripped text
+     */
+    private static String stripTrailingNewlines(final String text) {
+        int end = text.length();
+        while (end > 0 && text.charAt(end - 1) == '\n') {
+            end--;
+        }
+        return text.substring(0, end);
+    }
+
+}
@@ -0,0 +1,543 @@
+/*
+ *    Copyright 2011-2026 the original author or authors.
+ *
+ *    This program is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU General Public License
+ *    as published by the Free Software Foundation; either version 2
+ *    of the License, or (at your option) any later version.
+ *
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.gnu.org/licenses/old-licenses/gpl-2.0.en.html
+ *
+ *    This program is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ */
+package com.hazendaz.maven.makeself;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
+import org.apache.commons.compress.archivers.tar.TarArchiveInputStream;
+import org.apache.commons.compress.compressors.CompressorException;
+import org.apache.commons.compress.compressors.CompressorStreamFactory;
+import org.apache.commons.io.input.BoundedInputStream;
+import org.apache.commons.io.input.CloseShieldInputStream;
+
+/**
+ * The Class MakeselfArchiveReader.
+ * <p>
+ * Reads an existing makeself archive without running it. The header variables and the {@code --info} text are parsed
+ * from the first {@code skip} lines, and the payload is listed by streaming only the tar entry headers of each
+ * {@code filesizes} segment. Entry bodies are skipped as the tar stream goes, which for uncompressed payloads is a
+ * seek rather than a read. Encrypted payloads and compressors the java engine does not support can be described but not
+ * listed.
+ * </p>
+ */
+public class MakeselfArchiveReader {
+
+    /** A top level header assignment. */
+    private static final Pattern ASSIGNMENT = Pattern.compile("([A-Za-z_][A-Za-z0-9_]*)=\"(.*)\"");
+
+    /** The uncompressed size from the {@code --info} text. */
+    private static final Pattern USIZE = Pattern.compile("\\s*echo Uncompressed size: (\\d+) KB");
+
+    /** The compression from the {@code --info} text. */
+    private static final Pattern COMPRESS = Pattern.compile("\\s*echo Compression: (\\S+)");
+
+    /** The packaging date from the {@code --info} text. */
+    private static final Pattern DATE = Pattern.compile("\\s*echo Date of packaging: (.*)");
+
+    /** The versions from the {@code --info} text. */
+    private static final Pattern VERSION = Pattern
+            .compile("\\s*echo Built with Makeself version (.*) via makeself-maven-plugin (.*)");
+
+    /** The header lines never exceed this, guarding against reading a file that is not an archive. */
+    private static final int MAX_HEADER_SIZE = 16 * 1024 * 1024;
+
+    /** The archive. */
+    private final Path archive;
+
+    /** The header variables, first assignment wins. */
+    private final Map<String, String> variables = new HashMap<>();
+
+    /** The header size in bytes, i.e. the payload offset. */
+    private long headerSize;
+
+    /** The uncompressed size in KB. */
+    private long uncompressedSize;
+
+    /** The compression. */
+    private String compression = "";
+
+    /** The packaging date. */
+    private String packagingDate = "";
+
+    /** The makeself version. */
+    private String makeselfVersion = "";
+
+    /** The plugin version. */
+    private String pluginVersion = "";
+
+    /**
+     * Instantiates a new makeself archive reader and parses the header.
+     *
+     * @param archive
+     *            the archive
+     *
+     * @throws IOException
+     *             if the file cannot be read or is not a makeself archive
+     */
+    public MakeselfArchiveReader(final Path archive) throws IOException {
+        this.archive = archive;
+        this.readHeader();
+    }
+
+    /**
+     * Read the header lines up to {@code skip}.
+     *
+     * @throws IOException
+     *             Signals that an I/O exception has occurred.
+     */
+    private void readHeader() throws IOException {
+        try (InputStream input = new BufferedInputStream(Files.newInputStream(this.archive), 65536)) {
+            final ByteArrayOutputStream line = new ByteArrayOutputStream(256);
+            long skip = -1;
+            long lines = 0;
+            long offset = 0;
+            while (skip < 0 || lines < skip) {
+                final int b = input.read();
+                if (b < 0) {
+                    throw new EOFException("Not a makeself archive: " + this.archive);
+                }
+                offset++;
+                if (offset > MakeselfArchiveReader.MAX_HEADER_SIZE) {
+                    throw new IOException("Not a makeself archive: " + this.archive);
+                }
+                if (b != '\n') {
+                    line.write(b);
+                    continue;
+                }
+                lines++;
+                this.parseLine(line.toString(StandardCharsets.UTF_8));
+                line.reset();
+                if (skip < 0 && this.variables.containsKey("skip")) {
+                    skip = MakeselfArchiveReader.parseLong(this.variables.get("skip"), "skip");
+                }
+            }
+            this.headerSize = offset;
+        }
+    }
+
+    /**
+     * Parse one header line.
+     *
+     * @param line
+     *            the line
+     */
+    private void parseLine(final String line) {
+        Matcher matcher = MakeselfArchiveReader.ASSIGNMENT.matcher(line);
+        if (matcher.matches()) {
+            this.variables.putIfAbsent(matcher.group(1), MakeselfArchiveReader.unescape(matcher.group(2)));
+            return;
+        }
+        matcher = MakeselfArchiveReader.USIZE.matcher(line);
+        if (matcher.matches()) {
+            this.uncompressedSize = Long.parseLong(matcher.group(1));
+            return;
+        }
+        matcher = MakeselfArchiveReader.COMPRESS.matcher(line);
+        if (matcher.matches()) {
+            this.compression = matcher.group(1);
+            return;
+        }
+        matcher = MakeselfArchiveReader.DATE.matcher(line);
+        if (matcher.matches()) {
+            this.packagingDate = matcher.group(1);
+            return;
+        }
+        matcher = MakeselfArchiveReader.VERSION.matcher(line);
+        if (matcher.matches()) {
+            this.makeselfVersion = matcher.group(1);
+            this.pluginVersion = matcher.group(2);
+        }
+    }
+
+    /**
+     * Gets the label.
+     *
+     * @return the label
+     */
+    public String getLabel() {
+        return this.variables.getOrDefault("label", "");
+    }
+
+    /**
+     * Gets the target directory.
+     *
+     * @return the target directory
+     */
+    public String getTargetDirectory() {
+        return this.variables.getOrDefault("targetdir", "");
+    }
+
+    /**
+     * Gets the startup script.
+     *
+     * @return the script
+     */
+    public String getScript() {
+        return this.variables.getOrDefault("script", "");
+    }
+
+    /**
+     * Gets the startup script arguments.
+     *
+     * @return the script arguments
+     */
+    public String getScriptArgs() {
+        return this.variables.getOrDefault("scriptargs", "");
+    }
+
+    /**
+     * Checks if the extracted directory is kept.
+     *
+     * @return true, if kept
+     */
+    public boolean isKeep() {
+        return "y".equals(this.variables.get("keep"));
+    }
+
+    /**
+     * Checks if the payload is encrypted or encoded.
+     *
+     * @return true, if encrypted
+     */
+    public boolean isEncrypted() {
+        return !this.variables.getOrDefault("decrypt_cmd", "").isEmpty();
+    }
+
+    /**
+     * Gets the compression makeself.sh recorded.
+     *
+     * @return the compression
+     */
+    public String getCompression() {
+        return this.compression;
+    }
+
+    /**
+     * Gets the uncompressed size in KB.
+     *
+     * @return the uncompressed size
+     */
+    public long getUncompressedSize() {
+        return this.uncompressedSize;
+    }
+
+    /**
+     * Gets the packaging date.
+     *
+     * @return the packaging date
+     */
+    public String getPackagingDate() {
+        return this.packagingDate;
+    }
+
+    /**
+     * Gets the makeself version.
+     *
+     * @return the makeself version
+     */
+    public String getMakeselfVersion() {
+        return this.makeselfVersion;
+    }
+
+    /**
+     * Gets the plugin version.
+     *
+     * @return the plugin version
+     */
+    public String getPluginVersion() {
+        return this.pluginVersion;
+    }
+
+    /**
+     * Gets the header size in bytes, which is the payload offset.
+     *
+     * @return the header size
+     */
+    public long getHeaderSize() {
+        return this.headerSize;
+    }
+
+    /**
+     * Gets the size of each payload segment.
+     *
+     * @return the file sizes
+     *
+     * @throws IOException
+     *             if the header records an invalid size
+     */
+    public List<Long> getFileSizes() throws IOException {
+        final List<Long> sizes = new ArrayList<>();
+        for (final String size : MakeselfArchiveReader.split(this.variables.get("filesizes"))) {
+            sizes.add(MakeselfArchiveReader.parseLong(size, "filesizes"));
+        }
+        return sizes;
+    }
+
+    /**
+     * Gets the CRC of each payload segment, "0000000000" when none was computed.
+     *
+     * @return the CRC checksums
+     */
+    public List<String> getCrc() {
+        return MakeselfArchiveReader.split(this.variables.get("CRCsum"));
+    }
+
+    /**
+     * Gets the MD5 of each payload segment, all zeros when none was computed.
+     *
+     * @return the MD5 checksums
+     */
+    public List<String> getMd5() {
+        return MakeselfArchiveReader.split(this.variables.get("MD5"));
+    }
+
+    /**
+     * Gets the SHA-256 of each payload segment, empty when none was computed.
+     *
+     * @return the SHA-256 checksums
+     */
+    public List<String> getSha256() {
+        return MakeselfArchiveReader.split(this.variables.get("SHA"));
+    }
+
+    /**
+     * Describe the archive the way {@code --info} does, without the build command.
+     *
+     * @return the info lines
+     */
+    public List<String> info() {
+        final List<String> lines = new ArrayList<>();
+        lines.add("Identification: " + this.getLabel());
+        lines.add("Target directory: " + this.getTargetDirectory());
+        lines.add("Uncompressed size: " + this.uncompressedSize + " KB");
+        lines.add("Compression: " + this.compression);
+        if (this.isEncrypted()) {
+            lines.add("Decryption: " + this.variables.get("decrypt_cmd"));
+        }
+        lines.add("Date of packaging: " + this.packagingDate);
+        lines.add("Built with Makeself version " + this.makeselfVersion + " via makeself-maven-plugin "
+                + this.pluginVersion);
+        if (this.getScript().isEmpty()) {
+            lines.add("No script run after extraction.");
+        } else {
+            lines.add("Script run after extraction:");
+            lines.add("     " + this.getScript() + " " + this.getScriptArgs());
+        }
+        if (this.isKeep()) {
+            lines.add("directory " + this.getTargetDirectory() + " is permanent");
+        } else {
+            lines.add(this.getTargetDirectory() + " will be removed after extraction");
+        }
+        lines.add("Header size: " + this.headerSize + " bytes");
+        lines.add("Payload sizes: " + this.variables.getOrDefault("filesizes", ""));
+        if (!this.getSha256().isEmpty()) {
+            lines.add("SHA256: " + String.join(" ", this.getSha256()));
+        }
+        return lines;
+    }
+
+    /**
+     * List the entries of every payload segment.
+     *
+     * @return the entries
+     *
+     * @throws IOException
+     *             if the payload is encrypted, uses an unsupported compressor or cannot be read
+     */
+    public List<TarArchiveEntry> list() throws IOException {
+        if (this.isEncrypted()) {
+            throw new IOException("Listing encrypted payloads is not supported: " + this.archive);
+        }
+        final Compression codec = Compression.fromId(this.compression);
+        if (codec == null) {
+            throw new IOException("Listing '" + this.compression + "' payloads is not supported: " + this.archive);
+        }
+        final List<TarArchiveEntry> entries = new ArrayList<>();
+        try (FileChannel channel = FileChannel.open(this.archive, StandardOpenOption.READ)) {
+            long offset = this.headerSize;
+            for (final long size : this.getFileSizes()) {
+                channel.position(offset);
+                final InputStream segment = BoundedInputStream.builder()
+                        .setInputStream(CloseShieldInputStream.wrap(Channels.newInputStream(channel)))
+                        .setMaxCount(size).get();
+                final InputStream input = codec == Compression.NONE ? segment
+                        : new BufferedInputStream(segment, 65536);
+                try (TarArchiveInputStream tar = new TarArchiveInputStream(
+                        MakeselfArchiveReader.decompress(codec, input))) {
+                    TarArchiveEntry entry;
+                    while ((entry = tar.getNextEntry()) != null) {
+                        entries.add(entry);
+                    }
+                }
+                offset += size;
+            }
+        }
+        return Collections.unmodifiableList(entries);
+    }
+
+    /**
+     * Decompress a segment. A segment the compression does not recognize was stored and is read as it is, as the pass
+     * through decompress command of the header does.
+     *
+     * @param codec
+     *            the compression
+     * @param input
+     *            the segment, supporting mark unless not compressed
+     *
+     * @return the tar stream
+     *
+     * @throws IOException
+     *             Signals that an I/O exception has occurred.
+     */
+    private static InputStream decompress(final Compression codec, final InputStream input) throws IOException {
+        if (codec == Compression.NONE) {
+            return input;
+        }
+        try {
+            CompressorStreamFactory.detect(input);
+        } catch (final CompressorException e) {
+            return input;
+        }
+        return codec.decompress(input);
+    }
+
+    /**
+     * Describe an entry the way {@code tar tv} does.
+     *
+     * @param entry
+     *            the entry
+     *
+     * @return the description
+     */
+    public static String describe(final TarArchiveEntry entry) {
+        final StringBuilder builder = new StringBuilder(128);
+        if (entry.isDirectory()) {
+            builder.append('d');
+        } else if (entry.isSymbolicLink()) {
+            builder.append('l');
+        } else if (entry.isLink()) {
+            builder.append('h');
+        } else {
+            builder.append('-');
+        }
+        final String permissions = "rwxrwxrwx";
+        for (int i = 0; i < permissions.length(); i++) {
+            builder.append((entry.getMode() & 1 << 8 - i) == 0 ? '-' : permissions.charAt(i));
+        }
+        final String user = entry.getUserName().isEmpty() ? String.valueOf(entry.getLongUserId())
+                : entry.getUserName();
+        final String group = entry.getGroupName().isEmpty() ? String.valueOf(entry.getLongGroupId())
+                : entry.getGroupName();
+        builder.append(' ').append(user).append('/').append(group);
+        builder.append(String.format(Locale.ROOT, " %9d ", entry.getSize()));
+        builder.append(new SimpleDateFormat("yyyy-MM-dd HH:mm", Locale.ROOT).format(entry.getModTime()));
+        builder.append(' ').append(entry.getName());
+        if (entry.isSymbolicLink()) {
+            builder.append(" -> ").append(entry.getLinkName());
+        } else if (entry.isLink()) {
+            builder.append(" link to ").append(entry.getLinkName());
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Split a space separated header value.
+     *
+     * @param value
+     *            the value, may be null
+     *
+     * @return the parts
+     */
+    private static List<String> split(final String value) {
+        final List<String> parts = new ArrayList<>();
+        if (value != null) {
+            for (final String part : value.trim().split("\\s+")) {
+                if (!part.isEmpty()) {
+                    parts.add(part);
+                }
+            }
+        }
+        return parts;
+    }
+
+    /**
+     * Parse a numeric header value.
+     *
+     * @param value
+     *            the value
+     * @param name
+     *            the variable name for the error message
+     *
+     * @return the number
+     *
+     * @throws IOException
+     *             if the value is not a number
+     */
+    private static long parseLong(final String value, final String name) throws IOException {
+        try {
+            return Long.parseLong(value.trim());
+        } catch (final NumberFormatException e) {
+            throw new IOException("Invalid " + name + " in makeself header: " + value, e);
+        }
+    }
+
+    /**
+     * Remove the backslash escapes the header uses inside double quotes.
+     *
+     * @param value
+     *            the value
+     *
+     * @return the unescaped value
+     */
+    private static String unescape(final String value) {
+        if (value.indexOf('\\') < 0) {
+            return value;
+        }
+        final StringBuilder builder = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            final char c = value.charAt(i);
+            if (c == '\\' && i + 1 < value.length() && "\"\\$`".indexOf(value.charAt(i + 1)) >= 0) {
+                builder.append(value.charAt(++i));
+            } else {
+                builder.append(c);
+            }
+        }
+        return builder.toString();
+    }
+
+}
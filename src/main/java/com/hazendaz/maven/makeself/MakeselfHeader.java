@@ -0,0 +1,342 @@
+/*
+ *    Copyright 2011-2026 the original author or authors.
+ *
+ *    This program is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU General Public License
+ *    as published by the Free Software Foundation; either version 2
+ *    of the License, or (at your option) any later version.
+ *
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.gnu.org/licenses/old-licenses/gpl-2.0.en.html
+ *
+ *    This program is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ */
+package com.hazendaz.maven.makeself;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * The Class MakeselfHeader.
+ * <p>
+ * Renders a makeself header stub ({@code makeself-header.sh}) without a shell. The header is a script that makeself.sh
+ * sources with all of its settings as shell variables; it consists of here-documents written to {@code $archname} and
+ * an {@code eval "$LSM_CMD"} line. This class evaluates exactly that subset of shell: here-document bodies with
+ * backslash escapes and {@code $NAME} / {@code ${NAME}} expansion. Anything else (command substitution, parameter
+ * operators, other statements) is rejected rather than silently rendered differently from makeself.sh.
+ * </p>
+ */
+public class MakeselfHeader {
+
+    /** The classpath location of the header bundled with the plugin. */
+    static final String RESOURCE = "META-INF/makeself/makeself-header.sh";
+
+    /** The start of a here-document writing to the archive. */
+    private static final Pattern HEREDOC_START = Pattern.compile("cat\\s*<<\\s*EOF\\s*>>?\\s*\"\\$archname\"\\s*");
+
+    /** The here-document terminator. */
+    private static final String HEREDOC_END = "EOF";
+
+    /**
+     * The header skip in {@code MS_dd_Progress} as makeself ships it. Copying one block after the skip emits payload
+     * bytes before the progress loop, which only goes unnoticed while a single segment is read to the end of the file.
+     */
+    private static final String DD_SKIP = "dd ibs=\\$offset skip=1 count=1 ";
+
+    /** The header skip that copies nothing, so every payload segment is read exactly. */
+    private static final String DD_SKIP_EXACT = "dd ibs=\\$offset skip=1 count=0 ";
+
+    /** The LSM statement. */
+    private static final String LSM_EVAL = "eval \"$LSM_CMD\"";
+
+    /** The parsed parts, each either a here-document body or {@code null} for the LSM insertion point. */
+    private final List<String> parts;
+
+    /**
+     * Instantiates a new makeself header from template text.
+     *
+     * @param template
+     *            the header template text
+     *
+     * @throws IOException
+     *             if the template uses shell constructs that cannot be rendered without a shell
+     */
+    public MakeselfHeader(final String template) throws IOException {
+        this.parts = MakeselfHeader.parse(template);
+    }
+
+    /**
+     * Instantiates a new makeself header from parsed parts.
+     *
+     * @param parts
+     *            the parsed parts
+     */
+    private MakeselfHeader(final List<String> parts) {
+        this.parts = parts;
+    }
+
+    /**
+     * Returns this header with the header skip in {@code MS_dd_Progress} corrected, for payloads of more than one
+     * segment. The correction is made here rather than in the bundled file, which is kept identical to the upstream
+     * download, and only where it is needed, so a single segment renders byte for byte as makeself.sh would.
+     *
+     * @return the header with the exact skip
+     */
+    public MakeselfHeader exactSkip() {
+        final List<String> exact = new ArrayList<>(this.parts.size());
+        for (final String part : this.parts) {
+            exact.add(part == null ? null : part.replace(MakeselfHeader.DD_SKIP, MakeselfHeader.DD_SKIP_EXACT));
+        }
+        return new MakeselfHeader(exact);
+    }
+
+    /**
+     * Load the header from a file, or the bundled header when the file is null.
+     *
+     * @param headerFile
+     *            the header file, may be null
+     *
+     * @return the makeself header
+     *
+     * @throws IOException
+     *             Signals that an I/O exception has occurred.
+     */
+    public static MakeselfHeader load(final Path headerFile) throws IOException {
+        if (headerFile != null) {
+            return new MakeselfHeader(Files.readString(headerFile, StandardCharsets.UTF_8));
+        }
+        try (InputStream input = MakeselfHeader.class.getClassLoader().getResourceAsStream(MakeselfHeader.RESOURCE)) {
+            if (input == null) {
+                throw new IOException("Unable to locate " + MakeselfHeader.RESOURCE);
+            }
+            return new MakeselfHeader(new String(input.readAllBytes(), StandardCharsets.UTF_8));
+        }
+    }
+
+    /**
+     * Render the header with the given shell variables. Unset variables expand to an empty string as they would in the
+     * shell.
+     *
+     * @param variables
+     *            the shell variables
+     * @param lsm
+     *            the LSM text inserted at {@code eval "$LSM_CMD"}, including its trailing newline
+     *
+     * @return the rendered header
+     *
+     * @throws IOException
+     *             if the template references an unsupported expansion
+     */
+    public String render(final Map<String, String> variables, final String lsm) throws IOException {
+        final StringBuilder builder = new StringBuilder(32768);
+        for (final String part : this.parts) {
+            if (part == null) {
+                builder.append(lsm);
+            } else {
+                MakeselfHeader.expand(part, variables, builder);
+            }
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Count lines the same way {@code wc -l} does.
+     *
+     * @param text
+     *            the text
+     *
+     * @return the number of newline characters
+     */
+    public static int countLines(final String text) {
+        int lines = 0;
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) == '\n') {
+                lines++;
+            }
+        }
+        return lines;
+    }
+
+    /**
+     * Parse the template into here-document bodies and LSM insertion points.
+     *
+     * @param template
+     *            the template
+     *
+     * @return the parts
+     *
+     * @throws IOException
+     *             if a statement other than a here-document or the LSM eval is found
+     */
+    private static List<String> parse(final String template) throws IOException {
+        final List<String> result = new ArrayList<>();
+        final String[] lines = template.split("\n", -1);
+        StringBuilder body = null;
+        for (int i = 0; i < lines.length; i++) {
+            final String line = lines[i];
+            if (body != null) {
+                if (MakeselfHeader.HEREDOC_END.equals(line)) {
+                    result.add(body.toString());
+                    body = null;
+                } else {
+                    body.append(line).append('\n');
+                }
+                continue;
+            }
+            final String trimmed = line.trim();
+            if (trimmed.isEmpty() || trimmed.startsWith("#")) {
+                continue;
+            }
+            if (MakeselfHeader.HEREDOC_START.matcher(trimmed).matches()) {
+                body = new StringBuilder(16384);
+            } else if (MakeselfHeader.LSM_EVAL.equals(trimmed)) {
+                result.add(null);
+            } else {
+                throw new IOException("Unsupported header statement at line " + (i + 1) + ": " + line);
+            }
+        }
+        if (body != null) {
+            throw new IOException("Unterminated here-document in header");
+        }
+        if (result.isEmpty()) {
+            throw new IOException("Header does not contain any here-document");
+        }
+        return result;
+    }
+
+    /**
+     * Expand a here-document body.
+     *
+     * @param body
+     *            the body
+     * @param variables
+     *            the variables
+     * @param builder
+     *            the output
+     *
+     * @throws IOException
+     *             if an unsupported expansion is found
+     */
+    private static void expand(final String body, final Map<String, String> variables, final StringBuilder builder)
+            throws IOException {
+        final int length = body.length();
+        int i = 0;
+        while (i < length) {
+            final char c = body.charAt(i);
+            if (c == '\\' && i + 1 < length) {
+                final char next = body.charAt(i + 1);
+                if (next == '$' || next == '`' || next == '\\') {
+                    builder.append(next);
+                    i += 2;
+                } else if (next == '\n') {
+                    i += 2;
+                } else {
+                    builder.append(c);
+                    i++;
+                }
+            } else if (c == '`') {
+                throw new IOException(
+                        "Command substitution is not supported in header: " + MakeselfHeader.context(body, i));
+            } else if (c == '$' && i + 1 < length) {
+                i = MakeselfHeader.expandVariable(body, i, variables, builder);
+            } else {
+                builder.append(c);
+                i++;
+            }
+        }
+    }
+
+    /**
+     * Expand the variable reference starting at the given {@code $}.
+     *
+     * @param body
+     *            the body
+     * @param start
+     *            the index of the {@code $}
+     * @param variables
+     *            the variables
+     * @param builder
+     *            the output
+     *
+     * @return the index after the reference
+     *
+     * @throws IOException
+     *             if the reference is not a plain variable
+     */
+    private static int expandVariable(final String body, final int start, final Map<String, String> variables,
+            final StringBuilder builder) throws IOException {
+        final char next = body.charAt(start + 1);
+        if (next == '{') {
+            final int end = body.indexOf('}', start);
+            final String name = end < 0 ? "" : body.substring(start + 2, end);
+            if (!MakeselfHeader.isName(name)) {
+                throw new IOException(
+                        "Unsupported parameter expansion in header: " + MakeselfHeader.context(body, start));
+            }
+            builder.append(variables.getOrDefault(name, ""));
+            return end + 1;
+        }
+        if (Character.isLetter(next) || next == '_') {
+            int end = start + 1;
+            while (end < body.length()
+                    && (Character.isLetterOrDigit(body.charAt(end)) || body.charAt(end) == '_')) {
+                end++;
+            }
+            builder.append(variables.getOrDefault(body.substring(start + 1, end), ""));
+            return end;
+        }
+        if (next == '(' || Character.isDigit(next) || "*@#?!-$".indexOf(next) >= 0) {
+            throw new IOException("Unsupported expansion in header: " + MakeselfHeader.context(body, start));
+        }
+        builder.append('$');
+        return start + 1;
+    }
+
+    /**
+     * Checks if the text is a shell variable name.
+     *
+     * @param name
+     *            the name
+     *
+     * @return true, if it is a name
+     */
+    private static boolean isName(final String name) {
+        if (name.isEmpty() || !(Character.isLetter(name.charAt(0)) || name.charAt(0) == '_')) {
+            return false;
+        }
+        for (int i = 1; i < name.length(); i++) {
+            if (!Character.isLetterOrDigit(name.charAt(i)) && name.charAt(i) != '_') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Get the line surrounding a position for error messages.
+     *
+     * @param body
+     *            the body
+     * @param index
+     *            the index
+     *
+     * @return the line
+     */
+    private static String context(final String body, final int index) {
+        final int from = body.lastIndexOf('\n', index) + 1;
+        final int to = body.indexOf('\n', index);
+        return body.substring(from, to < 0 ? body.length() : to).trim();
+    }
+
+}
@@ -17,24 +17,34 @@
  */
 package com.hazendaz.maven.makeself;
 
-import java.io.BufferedReader;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
-import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.nio.file.attribute.PosixFilePermission;
 import java.nio.file.attribute.PosixFilePermissions;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import javax.inject.Inject;
 
+import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
 import org.apache.commons.io.FilenameUtils;
 import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.plugin.MojoFailureException;
@@ -47,14 +57,33 @@ import org.apache.maven.project.MavenProjectHelper;
 /**
  * The Class MakeselfMojo.
  */
-@Mojo(name = "makeself", defaultPhase = LifecyclePhase.VERIFY, requiresProject = false)
+@Mojo(name = "makeself", defaultPhase = LifecyclePhase.VERIFY, requiresProject = false, threadSafe = true)
 public class MakeselfMojo extends AbstractGitMojo {
 
     /** Permissions for makeself script results. */
     private static final String PERMISSIONS = "rwxr-xr--";
 
-    /** Static ATTACH_ARTIFACT to maven lifecycle. */
-    private static final boolean ATTACH_ARTIFACT = true;
+
+    /** Engine running makeself.sh through bash. */
+    static final String ENGINE_SHELL = "shell";
+
+    /** Engine building the archive in process. */
+    static final String ENGINE_JAVA = "java";
+
+    /** The number of archive threads created, for thread names. */
+    private static final AtomicInteger THREAD_COUNT = new AtomicInteger();
+
+    /** Header template bundled as makeself-header.sh. */
+    static final String HEADER_STANDARD = "standard";
+
+    /** Header template bundled as makeself-header-fast.sh. */
+    static final String HEADER_FAST = "fast";
+
+    /** The directory below buildTarget holding the launcher and parts of a split archive. */
+    static final String SPLIT_DIRECTORY = "makeself-split";
+
+    /** The time of a reproducible archive without outputTimestamp, the earliest time zip can record. */
+    static final Instant DEFAULT_OUTPUT_TIMESTAMP = Instant.parse("1980-01-01T00:00:02Z");
 
     /**
      * archive_dir is the name of the directory that contains the files to be archived.
@@ -317,7 +346,8 @@ public class MakeselfMojo extends AbstractGitMojo {
      * --threads : Specify the number of threads to be used by compressors that support parallelization. Omit to use
      * compressor's default. Most useful (and required) for opting into xz's threading, usually with --threads=0 for all
      * available cores. pbzip2 and pigz are parallel by default, and setting this value allows limiting the number of
-     * threads they use.
+     * threads they use. With engine 'java', gzip, pigz, xz and zstd are compressed in parallel in process on all
+     * available cores by default; set to 1 for single threaded compression.
      */
     @Parameter(property = "threads")
     private Integer threads;
@@ -453,7 +483,8 @@ public class MakeselfMojo extends AbstractGitMojo {
 
     /**
      * --tar-format opt :Specify the tar archive format (default is ustar); you may use any value accepted by your tar
-     * command (such as posix, v7, etc).
+     * command (such as posix, v7, etc). With engine 'java' only ustar, posix, pax, gnu and oldgnu are supported, and
+     * ustar writes names over 100 characters and sizes over 8 GB as PAX extended headers where tar fails the build.
      */
     @Parameter(property = "tarFormatOpt")
     private String tarFormatOpt;
@@ -518,6 +549,259 @@ public class MakeselfMojo extends AbstractGitMojo {
     @Parameter(property = "helpHeaderFile")
     private String helpHeaderFile;
 
+    /**
+     * engine selects how the archive is built. 'shell' (default) runs makeself.sh through bash. 'java' builds the
+     * archive in process: the tar payload is written with commons-compress, checksums are computed while the payload is
+     * streamed and the header stub is rendered from makeself-header.sh, so no external process is needed. The java
+     * engine supports gzip, pigz, bzip2, pbzip2, xz, zstd and nocomp; options that need external tools (encryption,
+     * signing, base64, append, tar-extra, comp-extra and the remaining compressors) fail the build when used with it.
+     * The header is rendered byte for byte as makeself.sh would, except for payloads of more than one segment
+     * (storeCompressed, sharedBase): there the header skip in MS_dd_Progress copies no block ('count=0' instead of
+     * 'count=1'), in the bundled header and a headerFile alike, so each segment is read exactly.
+     *
+     * @since 1.12.1
+     */
+    @Parameter(defaultValue = MakeselfMojo.ENGINE_SHELL, property = "makeself.engine")
+    private String engine;
+
+    /**
+     * incremental skips the build when neither the archive directory, the options nor the archive have changed since
+     * the last build, and only attaches the existing archive. The fingerprint of the last build is kept next to the
+     * extracted makeself scripts. Files are compared by path, size and modification time unless
+     * incrementalHashContent is set. The info, list and auto run steps are skipped along with the build.
+     *
+     * @since 1.12.1
+     */
+    @Parameter(defaultValue = "false", property = "makeself.incremental")
+    private boolean incremental;
+
+    /**
+     * incrementalHashContent is the strict mode of incremental: the content of every file in the archive directory is
+     * compared as well, for file systems or tools that do not maintain modification times. Without it, unchanged size
+     * and modification time are trusted. Either way the directory is walked, and files hashed, in parallel.
+     *
+     * @since 1.12.1
+     */
+    @Parameter(defaultValue = "false", property = "makeself.incrementalHashContent")
+    private boolean incrementalHashContent;
+
+    /**
+     * diagnostics logs the created archive's info and entry list after the build, as '--info' and '--list' would. Both
+     * are read in process, on any platform, from the header and the tar entry headers of the payload. With the shell
+     * engine it also forks 'bash --version' and 'makeself.sh --version' before the build. Without it the makeself
+     * version is read from the bundled script, and the build itself is the only process started by the shell engine,
+     * while the java engine starts none.
+     *
+     * @since 1.12.1
+     */
+    @Parameter(defaultValue = "false", property = "makeself.diagnostics")
+    private boolean diagnostics;
+
+    /**
+     * metrics records where the time of the execution goes: wall time per phase (setup, fingerprint, build, describe,
+     * auto run, and for the java engine the tar, compression, checksum and write stages of the build), the uncompressed
+     * and compressed payload sizes, the compression ratio, the build throughput and the number of processes started.
+     * The report is written as JSON to 'makeself-metrics/[fileName].json' in the build directory and summarized in the
+     * log.
+     *
+     * @since 1.12.1
+     */
+    @Parameter(defaultValue = "false", property = "makeself.metrics")
+    private boolean metrics;
+
+    /**
+     * autoCompress picks the compression and level for the payload instead of gzip, bzip2, pbzip2, xz, zstd, pigz,
+     * nocomp and complevel. A sample of every file in the archive directory is compressed by each candidate (none, gzip
+     * 1, 6 and 9, zstd 3 and 19, bzip2 9 and xz 6) and the measured ratio and speed are extrapolated to the whole
+     * payload, as selected by autoCompressTarget. The choice and the reason for it are logged. Payloads of already
+     * compressed files, such as jars and zips, are stored without compression with either target, as no candidate
+     * reaches the required ratio. With engine 'shell' zstd and xz are not candidates, as makeself.sh only runs them
+     * when they are installed.
+     *
+     * @since 1.12.1
+     */
+    @Parameter(defaultValue = "false", property = "makeself.autoCompress")
+    private boolean autoCompress;
+
+    /**
+     * autoCompressTarget is what autoCompress optimizes. 'size' (default) picks the smallest archive whose estimated
+     * compression time is within autoCompressMaxSeconds, compressing only when the estimated ratio of uncompressed to
+     * compressed size is at least 1.05. 'speed' picks the fastest compression whose estimated ratio of
+     * uncompressed to compressed size is at least autoCompressMinRatio.
+     *
+     * @since 1.12.1
+     */
+    @Parameter(defaultValue = CompressionSelector.TARGET_SIZE, property = "makeself.autoCompressTarget")
+    private String autoCompressTarget;
+
+    /**
+     * autoCompressMaxSeconds is the estimated compression time allowed by the 'size' target of autoCompress.
+     *
+     * @since 1.12.1
+     */
+    @Parameter(defaultValue = "30", property = "makeself.autoCompressMaxSeconds")
+    private int autoCompressMaxSeconds;
+
+    /**
+     * autoCompressMinRatio is the ratio of uncompressed to compressed size required by the 'speed' target of
+     * autoCompress.
+     *
+     * @since 1.12.1
+     */
+    @Parameter(defaultValue = "1.5", property = "makeself.autoCompressMinRatio")
+    private double autoCompressMinRatio;
+
+    /**
+     * storeCompressed splits the payload in two segments with engine 'java': files that are already compressed, such as
+     * jars, zips and images, are stored in a tar segment of their own and only the other files are compressed. Files
+     * are recognized by the extensions in storedExtensions or by the magic bytes of zip, gzip, bzip2, xz, zstd, 7z,
+     * png, jpeg and gif. The header extracts both segments with a decompressor that passes stored data through, which
+     * gzip, pigz and xz provide; with other compressions all files are compressed.
+     *
+     * @since 1.12.1
+     */
+    @Parameter(defaultValue = "false", property = "makeself.storeCompressed")
+    private boolean storeCompressed;
+
+    /**
+     * storedExtensions are the extensions of already compressed files for storeCompressed, replacing the defaults (7z,
+     * apk, bz2, docx, ear, gif, gz, jar, jpeg, jpg, lz4, lzma, mp3, mp4, odt, ogg, png, pptx, rar, tbz2, tgz, txz, war,
+     * webp, whl, woff, woff2, xlsx, xz, zip and zst).
+     *
+     * @since 1.12.1
+     */
+    @Parameter(property = "makeself.storedExtensions")
+    private List<String> storedExtensions;
+
+    /**
+     * entryOrder orders the payload entries with engine 'java': 'name' like makeself.sh, 'type' to group files by
+     * extension so similar content compresses together, or 'size' for the smallest files first. Ties are broken by name
+     * so the order is the same on every machine.
+     *
+     * @since 1.12.1
+     */
+    @Parameter(defaultValue = EntryOrder.NAME, property = "makeself.entryOrder")
+    private String entryOrder;
+
+    /**
+     * entryOrderFirst are glob patterns, relative to archiveDir, of entries to put at the start of the payload in the
+     * order of the patterns, such as the startup script and the files it reads first (e.g. run.sh, conf/**).
+     *
+     * @since 1.12.1
+     */
+    @Parameter(property = "makeself.entryOrderFirst")
+    private List<String> entryOrderFirst;
+
+    /**
+     * reproducible builds the same archive bytes from the same inputs with engine 'java': entries get the time of
+     * outputTimestamp, owner and group 0 and permissions 0644 or 0755, the header is dated with outputTimestamp unless
+     * packagingDate is set, and the compressed stream does not depend on the number of processors. autoCompress decides
+     * from timings, so set the compression explicitly when archives must match across machines.
+     *
+     * @since 1.12.1
+     */
+    @Parameter(defaultValue = "false", property = "makeself.reproducible")
+    private boolean reproducible;
+
+    /**
+     * outputTimestamp is the time of a reproducible archive, as ISO-8601 (e.g. 2026-01-01T00:00:00Z) or seconds since
+     * the epoch, like the other reproducible build plugins.
+     *
+     * @since 1.12.1
+     */
+    @Parameter(defaultValue = "${project.build.outputTimestamp}", property = "makeself.outputTimestamp")
+    private String outputTimestamp;
+
+    /**
+     * chunkCacheDirectory enables the chunk cache with engine 'java': the payload is compressed as content defined
+     * chunks of about 1 MB, each an independent gzip member, xz stream, zstd frame or bzip2 stream, and compressed
+     * chunks are kept in this directory by content. A rebuild where only a few files changed compresses only the chunks
+     * around them. Keep it outside the build directory (e.g. ${user.home}/.m2/makeself-chunks) so it survives a clean.
+     * The cache is unbounded: nothing is ever removed from it, not even chunks of older compressor versions, so delete
+     * it when it grows too large; it can be deleted at any time.
+     *
+     * @since 1.12.1
+     */
+    @Parameter(property = "makeself.chunkCacheDirectory")
+    private File chunkCacheDirectory;
+
+    /**
+     * headerTemplate selects the bundled header stub. 'standard' (default) is makeself-header.sh. 'fast' is
+     * makeself-header-fast.sh: it checks the archive size with {@code wc -c} instead of reading the whole archive, and
+     * computes the checksums while extracting, through a fifo and tee, so the payload is read once. A mismatch exits
+     * with status 2 after the files are extracted: they are removed from the temporary directory, but when extracting
+     * to a kept directory (run with --keep or --target, or built with notemp, current or extractTargetDir) the files
+     * extracted from the corrupt payload remain there. It also decompresses with pigz, lbzip2, pbzip2 or
+     * multi-threaded xz when they are installed. Without mkfifo or tee it falls back to checking before extracting.
+     * The archive built with it is checked with {@code bash -n}. Ignored when headerFile is set.
+     *
+     * @since 1.12.1
+     */
+    @Parameter(defaultValue = MakeselfMojo.HEADER_STANDARD, property = "makeself.headerTemplate")
+    private String headerTemplate;
+
+    /**
+     * splitSize attaches the archive as a small launcher plus parts of at most this size, in bytes or with a k, m or g
+     * suffix (e.g. 2g), for repositories that limit the artifact size and so parts transfer in parallel. The launcher
+     * is attached with the classifier and the parts with the classifier followed by -part1, -part2 and so on (part1,
+     * part2 without a classifier), so they are named next to the launcher in a repository the same way they are in
+     * ${project.build.directory}/makeself-split. Run the launcher with the parts in its directory: it joins them in
+     * order into TMPDIR, checking each with cksum, and runs the archive with its arguments. TMPDIR needs room for the
+     * whole archive, which the launcher checks before joining. The complete archive stays at fileName for local use.
+     *
+     * @since 1.12.1
+     */
+    @Parameter(property = "makeself.splitSize")
+    private String splitSize;
+
+    /**
+     * archives builds several archives in one execution, for flavours of the same installer. Each definition may set
+     * archiveDir, fileName, label, startupScript, scriptArgs and classifier; every other option, and each of these
+     * left unset, comes from the execution. The archives are built concurrently, each attached under its own
+     * classifier, so fileName and classifier must differ between them. The makeself scripts are extracted and git is
+     * checked once for all of them.
+     *
+     * <pre>
+     * {@code
+     * <archives>
+     *   <archive>
+     *     <archiveDir>linux</archiveDir>
+     *     <fileName>installer-linux.sh</fileName>
+     *     <label>Installer for Linux</label>
+     *     <classifier>linux</classifier>
+     *   </archive>
+     * </archives>
+     * }
+     * </pre>
+     *
+     * @since 1.12.1
+     */
+    @Parameter
+    private List<ArchiveDefinition> archives;
+
+    /**
+     * archiveThreads is the number of archives built at the same time when archives is set, 0 (default) for as many as
+     * there are archives, up to the available processors. With engine 'java' and threads unset, the processors are
+     * shared between the archives built at the same time.
+     *
+     * @since 1.12.1
+     */
+    @Parameter(defaultValue = "0", property = "makeself.archiveThreads")
+    private int archiveThreads;
+
+    /**
+     * sharedBase writes the files the archives have in common once, with engine 'java' and archives set. Files found at
+     * the same path with the same content, mode, owner and modification time in every archive directory are tarred and
+     * compressed once as a base segment; each archive copies it and only compresses its own files as a second segment,
+     * extracted after the base into the same directory. The build time then grows with the content unique to each
+     * archive rather than with the number of archives. Not used with autoCompress, which may pick a different
+     * compression for each archive.
+     *
+     * @since 1.12.1
+     */
+    @Parameter(defaultValue = "false", property = "makeself.sharedBase")
+    private boolean sharedBase;
+
     /** Skip run of plugin. */
     @Parameter(defaultValue = "false", property = "makeself.skip")
     private boolean skip;
@@ -545,6 +829,18 @@ public class MakeselfMojo extends AbstractGitMojo {
     /** The makeself. */
     private Path makeself;
 
+    /** The time of a reproducible archive for this execution, null for a regular build. */
+    private Instant reproducibleTime;
+
+    /** The maximum part size of a split archive for this execution, 0 to attach the archive whole. */
+    private long splitBytes;
+
+    /** Whether gitPath is resolved, so archives built from this execution do not resolve it again. */
+    private boolean gitPathResolved;
+
+    /** The segment shared by the archives of this execution, null when each archive is written whole. */
+    private SharedBaseSegment sharedBaseSegment;
+
     @Override
     public void execute() throws MojoExecutionException, MojoFailureException {
         // Ensure gitPath is never null
@@ -558,57 +854,204 @@ public class MakeselfMojo extends AbstractGitMojo {
             return;
         }
 
+        // Validate engine
+        if (this.engine == null) {
+            this.engine = MakeselfMojo.ENGINE_SHELL;
+        }
+        if (!MakeselfMojo.ENGINE_SHELL.equals(this.engine) && !MakeselfMojo.ENGINE_JAVA.equals(this.engine)) {
+            throw new MojoExecutionException("Engine: unknown '" + this.engine + "', expected 'shell' or 'java'");
+        }
+        if (MakeselfMojo.ENGINE_JAVA.equals(this.engine)) {
+            this.checkJavaEngineSupport();
+        } else {
+            if (this.storeCompressed) {
+                this.getLog().warn("StoreCompressed requires engine 'java', compressing all files");
+            }
+            if (this.isEntryOrderSet()) {
+                this.getLog().warn("EntryOrder requires engine 'java', makeself.sh orders entries by name");
+            }
+            if (this.reproducible) {
+                this.getLog().warn("Reproducible requires engine 'java', archive entries keep their metadata");
+            }
+            if (this.chunkCacheDirectory != null) {
+                this.getLog().warn("ChunkCacheDirectory requires engine 'java', compressing the whole payload");
+            }
+        }
+
+        // Validate entry order
+        if (this.entryOrder == null) {
+            this.entryOrder = EntryOrder.NAME;
+        }
+        if (!EntryOrder.isStrategy(this.entryOrder)) {
+            throw new MojoExecutionException(
+                    "EntryOrder: unknown '" + this.entryOrder + "', expected 'name', 'type' or 'size'");
+        }
+
+        // Validate header template
+        if (this.headerTemplate == null) {
+            this.headerTemplate = MakeselfMojo.HEADER_STANDARD;
+        }
+        if (!MakeselfMojo.HEADER_STANDARD.equals(this.headerTemplate)
+                && !MakeselfMojo.HEADER_FAST.equals(this.headerTemplate)) {
+            throw new MojoExecutionException(
+                    "HeaderTemplate: unknown '" + this.headerTemplate + "', expected 'standard' or 'fast'");
+        }
+        if (this.headerFile != null && !MakeselfMojo.HEADER_STANDARD.equals(this.headerTemplate)) {
+            this.getLog().warn("HeaderTemplate '" + this.headerTemplate + "' is ignored, headerFile is used");
+        }
+
+        // Validate split size
+        try {
+            this.splitBytes = this.splitSize == null ? 0 : ArchiveSplitter.parseSize(this.splitSize);
+        } catch (final NumberFormatException e) {
+            throw new MojoExecutionException(
+                    "SplitSize: invalid '" + this.splitSize + "', expected bytes or a size with suffix k, m or g", e);
+        }
+
+        // Validate reproducible output timestamp
+        this.reproducibleTime = this.reproducible ? this.parseOutputTimestamp() : null;
+
+        // Validate auto compression target
+        if (this.autoCompressTarget == null) {
+            this.autoCompressTarget = CompressionSelector.TARGET_SIZE;
+        }
+        if (this.autoCompress && !CompressionSelector.TARGET_SIZE.equals(this.autoCompressTarget)
+                && !CompressionSelector.TARGET_SPEED.equals(this.autoCompressTarget)) {
+            throw new MojoExecutionException(
+                    "AutoCompressTarget: unknown '" + this.autoCompressTarget + "', expected 'size' or 'speed'");
+        }
+
+        // Build each archive definition with the validated configuration, version and help are only printed once
+        if (this.archives != null && !this.archives.isEmpty() && !this.isTrue(this.version)
+                && !this.isTrue(this.help)) {
+            this.executeArchives();
+            return;
+        }
+
+        final ArchiveBuild build = this.archiveBuild(new ArchiveDefinition(), this.threads);
+        this.prepare(build);
+
+        // Setup make self files
+        final long start = System.nanoTime();
+        this.extractMakeself();
+        this.phase(build, "setup", start);
+
+        // Version is read from the bundled makeself.sh unless diagnostics are requested
+        if (this.isTrue(this.version) && !this.diagnostics) {
+            this.getLog().info(this.makeselfVersion());
+            return;
+        }
+
+        this.build(build);
+    }
+
+    /**
+     * Validate the archive directory and startup script of an archive and start recording its metrics.
+     *
+     * @param build
+     *            the archive build
+     *
+     * @throws MojoExecutionException
+     *             if the archive directory or startup script is missing
+     */
+    private void prepare(final ArchiveBuild build) throws MojoExecutionException {
         // Validate archive directory exists
-        Path path = Path.of(this.buildTarget.concat(this.archiveDir));
-        if (!Files.exists(path)) {
-            throw new MojoExecutionException("ArchiveDir: missing '" + this.buildTarget.concat(this.archiveDir) + "'");
+        if (!Files.exists(build.getDirectory())) {
+            throw new MojoExecutionException(
+                    "ArchiveDir: missing '" + this.buildTarget.concat(build.getArchiveDir()) + "'");
         }
 
         // Validate inline script or startup script file
         if (this.inlineScript) {
             // Validate inline script has script args
-            if (this.scriptArgs == null) {
+            if (build.getScriptArgs() == null) {
                 throw new MojoExecutionException("ScriptArgs required when running inlineScript");
             }
         } else {
             // Validate startupScript file starts with './'
-            if (!this.startupScript.startsWith("./")) {
+            if (!build.getStartupScript().startsWith("./")) {
                 throw new MojoExecutionException("StartupScript required to start with './'");
             }
 
             // Validate startupScript file exists
-            path = Path.of(this.buildTarget.concat(this.archiveDir).concat(this.startupScript.substring(1)));
-            if (!Files.exists(path)) {
-                throw new MojoExecutionException("StartupScript: missing '"
-                        + this.buildTarget.concat(this.archiveDir).concat(this.startupScript.substring(1)) + "'");
+            final String script = this.buildTarget.concat(build.getArchiveDir())
+                    .concat(build.getStartupScript().substring(1));
+            if (!Files.exists(Path.of(script))) {
+                throw new MojoExecutionException("StartupScript: missing '" + script + "'");
             }
         }
 
-        // Setup make self files
-        this.extractMakeself();
+        // Record metrics of the archive when requested
+        if (this.metrics) {
+            final BuildMetrics buildMetrics = new BuildMetrics();
+            buildMetrics.set("archive", FilenameUtils.getName(build.getFileName()));
+            buildMetrics.set("engine", this.engine);
+            buildMetrics.set("level", this.complevel == null ? 9 : this.complevel);
+            buildMetrics.set("threads", build.getThreads() == null ? 0 : build.getThreads());
+            build.setMetrics(buildMetrics);
+        }
+    }
 
-        // Check git setup
-        if (this.isWindows()) {
-            if (!this.gitPath.isEmpty() && Files.exists(Path.of(this.gitPath))) {
-                this.getLog().debug("Using existing 'Git' found at " + this.gitPath);
-                this.gitPath = this.gitPath + AbstractGitMojo.GIT_USER_BIN;
-            } else {
-                this.checkGitSetup();
+    /**
+     * Build an archive unless its fingerprint is up to date, then attach it.
+     *
+     * @param build
+     *            the archive build
+     *
+     * @throws MojoExecutionException
+     *             the mojo execution exception
+     * @throws MojoFailureException
+     *             the mojo failure exception
+     */
+    private void build(final ArchiveBuild build) throws MojoExecutionException, MojoFailureException {
+        // Skip the build when nothing changed since the last one
+        long start = System.nanoTime();
+        final ArchiveFingerprint fingerprint = this.fingerprint(build);
+        if (fingerprint != null) {
+            try {
+                if (fingerprint.isUpToDate()) {
+                    this.phase(build, "fingerprint", start);
+                    this.getLog().info("Archive '" + build.getFileName() + "' is up to date, skipping makeself build");
+                    this.attachArchive(build, false);
+                    this.reportMetrics(build, true);
+                    return;
+                }
+                fingerprint.invalidate();
+            } catch (final IOException e) {
+                throw new MojoExecutionException("Unable to check archive fingerprint", e);
             }
-        } else {
-            // Do not use git path when not windows
-            this.gitPath = "";
+            this.phase(build, "fingerprint", start);
         }
 
-        try {
-            // Output version of bash
-            this.getLog().debug("Execute Bash Version");
-            this.execute(Arrays.asList(this.gitPath + "bash", "--version"), !MakeselfMojo.ATTACH_ARTIFACT);
+        // Pick the compression from a sample of the payload
+        if (this.autoCompress && !this.isTrue(this.version) && !this.isTrue(this.help)) {
+            start = System.nanoTime();
+            this.selectCompression(build);
+            this.phase(build, "autoCompress", start);
+        }
+
+        // Build in process, version and help still come from makeself.sh
+        if (MakeselfMojo.ENGINE_JAVA.equals(this.engine) && !this.isTrue(this.version) && !this.isTrue(this.help)) {
+            this.executeJavaEngine(build, fingerprint);
+            return;
+        }
+
+        // Check git setup
+        this.setupGitPath();
 
-            // Output version of makeself.sh
-            this.getLog().debug("Execute Makeself Version");
-            this.execute(Arrays.asList(this.gitPath + "bash", this.makeself.toAbsolutePath().toString(), "--version"),
-                    !MakeselfMojo.ATTACH_ARTIFACT);
+        try {
+            if (this.diagnostics) {
+                // Output version of bash
+                this.getLog().debug("Execute Bash Version");
+                this.execute(build, Arrays.asList(this.gitPath + "bash", "--version"));
+
+                // Output version of makeself.sh
+                this.getLog().debug("Execute Makeself Version");
+                this.execute(build,
+                        Arrays.asList(this.gitPath + "bash", this.makeself.toAbsolutePath().toString(), "--version"));
+            } else {
+                this.getLog().debug(this.makeselfVersion());
+            }
 
             // If version arguments supplied, exit as we just printed version.
             if (this.isTrue(this.version)) {
@@ -618,49 +1061,46 @@ public class MakeselfMojo extends AbstractGitMojo {
             // If help arguments supplied, write output and get out of code.
             if (this.isTrue(this.help)) {
                 this.getLog().debug("Execute Makeself Help");
-                this.execute(Arrays.asList(this.gitPath + "bash", this.makeself.toAbsolutePath().toString(), "--help"),
-                        !MakeselfMojo.ATTACH_ARTIFACT);
+                this.execute(build,
+                        Arrays.asList(this.gitPath + "bash", this.makeself.toAbsolutePath().toString(), "--help"));
                 return;
             }
 
             // Basic Configuration
             this.getLog().debug("Loading Makeself Basic Configuration");
-            final List<String> target = new ArrayList<>(
-                    Arrays.asList(this.gitPath + "bash", this.makeself.toAbsolutePath().toString()));
-            target.addAll(this.loadArgs());
-            target.add(this.buildTarget.concat(this.archiveDir));
-            target.add(this.buildTarget.concat(this.fileName));
-            target.add(this.label);
-            target.add(this.startupScript);
-            if (this.scriptArgs != null) {
-                target.addAll(this.scriptArgs);
-            }
+            final List<String> target = new ArrayList<>(Arrays.asList(this.gitPath + "bash"));
+            target.addAll(this.makeselfCommand(build));
 
             // Indicate makeself running
             this.getLog().info("Running makeself build");
 
             // Execute main run of makeself.sh
             this.getLog().debug("Execute Makeself Build");
-            this.execute(target, MakeselfMojo.ATTACH_ARTIFACT);
-
-            // Output info on file makeself created
-            this.getLog().debug("Execute Makeself Info on Resulting Shell Script");
-            this.execute(Arrays.asList(this.gitPath + "bash", this.buildTarget.concat(this.fileName), "--info"),
-                    !MakeselfMojo.ATTACH_ARTIFACT);
-
-            // Output list on file makeself created (non windows need)
-            if (!this.isWindows()) {
-                this.getLog().debug("Execute Makeself List on Resulting Shell Script");
-                this.execute(Arrays.asList(this.gitPath + "bash", this.buildTarget.concat(this.fileName), "--list"),
-                        !MakeselfMojo.ATTACH_ARTIFACT);
+            start = System.nanoTime();
+            if (this.execute(build, target) == 0) {
+                if (fingerprint != null) {
+                    fingerprint.save();
+                }
+                this.phase(build, "build", start);
+                this.validateHeader(build);
+                this.measureCreatedScript(build);
+
+                // Attach artifact to maven build for install/deploy/release on success
+                this.attachArchive(build, true);
+
+                // Output info and list on file makeself created
+                if (this.diagnostics) {
+                    start = System.nanoTime();
+                    this.describeCreatedScript(build);
+                    this.phase(build, "describe", start);
+                }
             }
 
-            // auto run script
-            if (this.autoRun) {
-                this.getLog().info("Auto-run created shell (this may take a few minutes)");
-                this.execute(Arrays.asList(this.gitPath + "bash", this.buildTarget.concat(this.fileName)),
-                        !MakeselfMojo.ATTACH_ARTIFACT);
-            }
+            // Auto run file makeself created
+            start = System.nanoTime();
+            this.runCreatedScript(build);
+            this.phase(build, "autoRun", start);
+            this.reportMetrics(build, false);
         } catch (final IOException e) {
             this.getLog().error("", e);
         } catch (final InterruptedException e) {
@@ -670,14 +1110,13 @@ public class MakeselfMojo extends AbstractGitMojo {
         }
     }
 
-    private void execute(final List<String> target, final boolean attach) throws IOException, InterruptedException {
+    private int execute(final ArchiveBuild build, final List<String> target) throws IOException, InterruptedException {
 
         // Log execution target
         this.getLog().debug("Execution commands: " + target);
 
         // Create Process Builder
         final ProcessBuilder processBuilder = new ProcessBuilder(target);
-        processBuilder.redirectErrorStream(true);
 
         // Add portable git to windows environment
         if (this.isWindows()) {
@@ -713,74 +1152,840 @@ public class MakeselfMojo extends AbstractGitMojo {
             }
         }
 
-        // Create Process
-        final Process process = processBuilder.start();
+        // Run process, writing its output
+        if (build.getMetrics() != null) {
+            build.getMetrics().process();
+        }
+        return ProcessUtils.run(processBuilder, this.getLog(), "makeself failed with error status:");
+    }
+
+    /**
+     * Setup the git path, on windows bash is provided by git.
+     *
+     * @throws MojoFailureException
+     *             the mojo failure exception
+     */
+    private void setupGitPath() throws MojoFailureException {
+        if (this.gitPathResolved) {
+            return;
+        }
+        this.gitPathResolved = true;
+        if (this.isWindows()) {
+            if (!this.gitPath.isEmpty() && Files.exists(Path.of(this.gitPath))) {
+                this.getLog().debug("Using existing 'Git' found at " + this.gitPath);
+                this.gitPath = this.gitPath + AbstractGitMojo.GIT_USER_BIN;
+            } else {
+                this.checkGitSetup();
+            }
+        } else {
+            // Do not use git path when not windows
+            this.gitPath = "";
+        }
+    }
+
+    /**
+     * Build every archive definition on a bounded executor. The makeself scripts are extracted and git is set up once,
+     * then each archive is built from an archive build holding the values of its definition, while the configuration
+     * of this execution is shared read only. All archives are built even when one fails; the first failure fails the
+     * execution.
+     *
+     * @throws MojoExecutionException
+     *             the mojo execution exception
+     * @throws MojoFailureException
+     *             the mojo failure exception
+     */
+    private void executeArchives() throws MojoExecutionException, MojoFailureException {
+        // Validate each archive is written and attached under its own name
+        final Set<String> fileNames = new HashSet<>();
+        final Set<String> classifiers = new HashSet<>();
+        for (final ArchiveDefinition definition : this.archives) {
+            final String name = definition.getFileName() == null ? this.fileName : definition.getFileName();
+            if (!fileNames.add(name)) {
+                throw new MojoExecutionException("Archives: duplicate fileName '" + name + "'");
+            }
+            final String archiveClassifier = definition.getClassifier() == null ? this.classifier
+                    : definition.getClassifier();
+            if (!classifiers.add(String.valueOf(archiveClassifier))) {
+                throw new MojoExecutionException("Archives: duplicate classifier '" + archiveClassifier + "'");
+            }
+        }
+
+        // Shared setup
+        this.extractMakeself();
+        if (!MakeselfMojo.ENGINE_JAVA.equals(this.engine) || this.autoRun) {
+            this.setupGitPath();
+        }
+
+        // Files the archives have in common are written once
+        if (this.sharedBase) {
+            if (!MakeselfMojo.ENGINE_JAVA.equals(this.engine)) {
+                this.getLog().warn("SharedBase requires engine 'java', each archive is built whole");
+            } else if (this.autoCompress) {
+                this.getLog().warn("SharedBase is not used with autoCompress, each archive is built whole");
+            } else {
+                final List<Path> archiveDirs = new ArrayList<>(this.archives.size());
+                for (final ArchiveDefinition definition : this.archives) {
+                    archiveDirs.add(Path.of(this.buildTarget.concat(
+                            definition.getArchiveDir() == null ? this.archiveDir : definition.getArchiveDir())));
+                }
+                this.sharedBaseSegment = new SharedBaseSegment(archiveDirs, this.makeselfTempDirectory.toPath());
+            }
+        }
+
+        final int concurrency = Math.min(this.archives.size(),
+                this.archiveThreads > 0 ? this.archiveThreads : Runtime.getRuntime().availableProcessors());
+        this.getLog().info("Building " + this.archives.size() + " archives, " + concurrency + " at a time");
+        final ExecutorService executor = Executors.newFixedThreadPool(concurrency, runnable -> {
+            final Thread thread = new Thread(runnable,
+                    "makeself-archive-" + MakeselfMojo.THREAD_COUNT.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            final List<Future<?>> builds = new ArrayList<>();
+            // With the java engine and threads unset, the processors are shared between the archives
+            final Integer archiveThreads = MakeselfMojo.ENGINE_JAVA.equals(this.engine) && this.threads == null
+                    ? Integer.valueOf(Math.max(1, Runtime.getRuntime().availableProcessors() / concurrency))
+                    : this.threads;
+            for (final ArchiveDefinition definition : this.archives) {
+                final ArchiveBuild build = this.archiveBuild(definition, archiveThreads);
+                builds.add(executor.submit(() -> {
+                    this.prepare(build);
+                    this.build(build);
+                    return null;
+                }));
+            }
+            Exception failure = null;
+            for (int i = 0; i < builds.size(); i++) {
+                try {
+                    builds.get(i).get();
+                } catch (final ExecutionException e) {
+                    final String name = this.archives.get(i).getFileName() == null ? this.fileName
+                            : this.archives.get(i).getFileName();
+                    this.getLog().error("Archive '" + name + "' failed: " + e.getCause().getMessage());
+                    if (failure == null) {
+                        failure = e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+                    }
+                }
+            }
+            if (failure instanceof MojoFailureException) {
+                throw (MojoFailureException) failure;
+            }
+            if (failure instanceof MojoExecutionException) {
+                throw (MojoExecutionException) failure;
+            }
+            if (failure != null) {
+                throw new MojoExecutionException("Unable to build archives", failure);
+            }
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new MojoExecutionException("Interrupted building archives", e);
+        } finally {
+            executor.shutdownNow();
+            if (this.sharedBaseSegment != null) {
+                try {
+                    this.sharedBaseSegment.delete();
+                } catch (final IOException e) {
+                    this.getLog().debug("Unable to delete shared base segment", e);
+                }
+                this.sharedBaseSegment = null;
+            }
+        }
+    }
+
+    /**
+     * Create the build of one archive definition, taking each value it leaves unset from this execution.
+     *
+     * @param definition
+     *            the archive definition
+     * @param archiveThreads
+     *            the compression threads of the archive, null for the compressor default
+     *
+     * @return the archive build
+     */
+    private ArchiveBuild archiveBuild(final ArchiveDefinition definition, final Integer archiveThreads) {
+        final ArchiveDefinition resolved = new ArchiveDefinition();
+        resolved.setArchiveDir(definition.getArchiveDir() == null ? this.archiveDir : definition.getArchiveDir());
+        resolved.setFileName(definition.getFileName() == null ? this.fileName : definition.getFileName());
+        resolved.setLabel(definition.getLabel() == null ? this.label : definition.getLabel());
+        resolved.setStartupScript(
+                definition.getStartupScript() == null ? this.startupScript : definition.getStartupScript());
+        resolved.setScriptArgs(definition.getScriptArgs() == null ? this.scriptArgs : definition.getScriptArgs());
+        resolved.setClassifier(definition.getClassifier() == null ? this.classifier : definition.getClassifier());
+        return new ArchiveBuild(this.buildTarget, resolved, archiveThreads);
+    }
+
+    /**
+     * The makeself.sh command line for the configured archive, without the shell.
+     *
+     * @param build
+     *            the archive build
+     *
+     * @return the makeself command
+     */
+    private List<String> makeselfCommand(final ArchiveBuild build) {
+        final List<String> target = new ArrayList<>(Arrays.asList(this.makeself.toAbsolutePath().toString()));
+        target.addAll(this.loadArgs(build));
+        target.add(this.buildTarget.concat(build.getArchiveDir()));
+        target.add(this.buildTarget.concat(build.getFileName()));
+        target.add(build.getLabel());
+        target.add(build.getStartupScript());
+        if (build.getScriptArgs() != null) {
+            target.addAll(build.getScriptArgs());
+        }
+        return target;
+    }
+
+    /**
+     * Fingerprint the inputs of the archive for an incremental build.
+     *
+     * @param build
+     *            the archive build
+     *
+     * @return the archive fingerprint, null when not building incrementally
+     *
+     * @throws MojoExecutionException
+     *             the mojo execution exception
+     */
+    private ArchiveFingerprint fingerprint(final ArchiveBuild build) throws MojoExecutionException {
+        if (!this.incremental || this.isTrue(this.version) || this.isTrue(this.help)) {
+            return null;
+        }
+        try {
+            final String name = FilenameUtils.getName(build.getFileName());
+            final ArchiveFingerprint fingerprint = new ArchiveFingerprint(
+                    this.makeselfTempDirectory.toPath().resolve(name + ".fingerprint"),
+                    Path.of(this.buildTarget, name));
+            final MakeselfVersion makeselfVersion = ToolchainCache.get(this.repoSession).getMakeselfVersion();
+            fingerprint.addValues(Arrays.asList(this.engine, makeselfVersion.getVersion(),
+                    makeselfVersion.getPluginVersion()));
+            fingerprint.addValues(this.makeselfCommand(build));
+            if (this.storeCompressed) {
+                fingerprint.addValues(Arrays.asList("storeCompressed", String.valueOf(this.storedExtensions)));
+            }
+            if (this.isEntryOrderSet()) {
+                fingerprint.addValues(Arrays.asList(this.entryOrder, String.valueOf(this.entryOrderFirst)));
+            }
+            if (this.reproducibleTime != null) {
+                fingerprint.addValues(Arrays.asList("reproducible", this.reproducibleTime.toString()));
+            }
+            if (this.chunkCacheDirectory != null) {
+                fingerprint.addValues(Arrays.asList("chunkCache"));
+            }
+            if (!MakeselfMojo.HEADER_STANDARD.equals(this.headerTemplate)) {
+                fingerprint.addValues(Arrays.asList("headerTemplate", this.headerTemplate));
+            }
+            if (this.splitBytes > 0) {
+                fingerprint.addValues(Arrays.asList("split", String.valueOf(this.splitBytes)));
+            }
+            if (this.autoCompress) {
+                fingerprint.addValues(Arrays.asList(this.autoCompressTarget,
+                        String.valueOf(this.autoCompressMaxSeconds), String.valueOf(this.autoCompressMinRatio)));
+            }
+            for (final String file : Arrays.asList(this.headerFile, this.licenseFile, this.helpHeaderFile,
+                    this.preextractScript, this.lsmFile)) {
+                fingerprint.addFile(file == null ? null : Path.of(file));
+            }
+            fingerprint.addDirectory(build.getDirectory(), this.isTrue(this.follow), this.incrementalHashContent);
+            return fingerprint;
+        } catch (final IOException e) {
+            throw new MojoExecutionException("Unable to fingerprint archive inputs", e);
+        }
+    }
+
+    /**
+     * Build the archive in process. No external process is started unless auto run is requested.
+     *
+     * @param build
+     *            the archive build
+     * @param fingerprint
+     *            the fingerprint to record once built, may be null
+     *
+     * @throws MojoExecutionException
+     *             the mojo execution exception
+     * @throws MojoFailureException
+     *             the mojo failure exception
+     */
+    private void executeJavaEngine(final ArchiveBuild build, final ArchiveFingerprint fingerprint)
+            throws MojoExecutionException, MojoFailureException {
+        try {
+            this.getLog().debug(this.makeselfVersion());
+
+            // Indicate makeself running
+            this.getLog().info("Running makeself build");
+
+            // Build archive in process
+            this.getLog().debug("Execute Java Engine Build");
+            final long start = System.nanoTime();
+            this.buildWithJavaEngine(build, this.makeselfCommand(build));
+            if (fingerprint != null) {
+                fingerprint.save();
+            }
+            this.phase(build, "build", start);
+        } catch (final IOException e) {
+            throw new MojoExecutionException("Java engine failed to build '" + build.getFileName() + "'", e);
+        }
+
+        if (!this.diagnostics && !this.autoRun) {
+            this.reportMetrics(build, false);
+            return;
+        }
+        try {
+            // Output info and list on file makeself created
+            if (this.diagnostics) {
+                final long start = System.nanoTime();
+                this.describeCreatedScript(build);
+                this.phase(build, "describe", start);
+            }
+
+            // Only auto run needs bash
+            if (this.autoRun) {
+                final long start = System.nanoTime();
+                this.setupGitPath();
+                this.runCreatedScript(build);
+                this.phase(build, "autoRun", start);
+            }
+            this.reportMetrics(build, false);
+        } catch (final IOException e) {
+            this.getLog().error("", e);
+        } catch (final InterruptedException e) {
+            this.getLog().error("", e);
+            // restore interruption status of the corresponding thread
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Log the info and entry list of the created archive, read in process rather than by running it.
+     *
+     * @param build
+     *            the archive build
+     *
+     * @throws IOException
+     *             Signals that an I/O exception has occurred.
+     */
+    private void describeCreatedScript(final ArchiveBuild build) throws IOException {
+        final MakeselfArchiveReader reader = new MakeselfArchiveReader(build.getArchive());
+
+        // Output info on file makeself created
+        this.getLog().debug("Read Makeself Info on Resulting Shell Script");
+        for (final String line : reader.info()) {
+            this.getLog().info(line);
+        }
+
+        // Output list on file makeself created
+        this.getLog().debug("Read Makeself List on Resulting Shell Script");
+        for (final TarArchiveEntry entry : reader.list()) {
+            this.getLog().info(MakeselfArchiveReader.describe(entry));
+        }
+    }
+
+    /**
+     * The header stub makeself.sh is told to use: headerFile when set, otherwise the extracted fast header when that
+     * template is selected.
+     *
+     * @return the header file, null for the header next to makeself.sh
+     */
+    private String effectiveHeaderFile() {
+        if (this.headerFile != null) {
+            return this.headerFile;
+        }
+        if (MakeselfMojo.HEADER_FAST.equals(this.headerTemplate)) {
+            return this.makeselfTempDirectory.toPath().resolve("makeself-header-fast.sh").toAbsolutePath().toString();
+        }
+        return null;
+    }
 
-        // Write process output
-        try (BufferedReader reader = new BufferedReader(
-                new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
-            String line = "";
-            while ((line = reader.readLine()) != null) {
-                this.getLog().info(line);
+    /**
+     * Check the archive built with the fast header: the segment sizes recorded in the header must add up to the archive
+     * and bash must be able to parse the header stub, so a broken stub fails the build rather than the extraction. The
+     * syntax check is skipped on Windows when no Git bash is configured.
+     *
+     * @param build
+     *            the archive build
+     *
+     * @throws MojoExecutionException
+     *             if the archive is inconsistent or the header stub does not parse
+     */
+    private void validateHeader(final ArchiveBuild build) throws MojoExecutionException {
+        if (this.headerFile != null || !MakeselfMojo.HEADER_FAST.equals(this.headerTemplate)) {
+            return;
+        }
+        final Path archive = build.getArchive();
+        Path stub = null;
+        try {
+            final MakeselfArchiveReader reader = new MakeselfArchiveReader(archive);
+            final long payload = reader.getFileSizes().stream().mapToLong(Long::longValue).sum();
+            if (reader.getHeaderSize() + payload != Files.size(archive)) {
+                throw new MojoExecutionException("Header of '" + build.getFileName() + "' records " + payload
+                        + " payload bytes after " + reader.getHeaderSize() + " header bytes, archive has "
+                        + Files.size(archive));
+            }
+            if (this.isWindows() && this.gitPath.isEmpty()) {
+                return;
+            }
+            stub = Files.createTempFile(this.makeselfTempDirectory.toPath(), "header", ".sh");
+            try (InputStream input = Files.newInputStream(archive)) {
+                Files.write(stub, input.readNBytes((int) reader.getHeaderSize()));
+            }
+            if (this.execute(build,
+                    Arrays.asList(this.gitPath + "bash", "-n", stub.toAbsolutePath().toString())) != 0) {
+                throw new MojoExecutionException("Header of '" + build.getFileName() + "' does not parse with bash -n");
+            }
+        } catch (final IOException e) {
+            throw new MojoExecutionException("Unable to validate header of '" + build.getFileName() + "'", e);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new MojoExecutionException("Interrupted validating header of '" + build.getFileName() + "'", e);
+        } finally {
+            if (stub != null) {
+                try {
+                    Files.deleteIfExists(stub);
+                } catch (final IOException e) {
+                    this.getLog().debug("Unable to delete " + stub, e);
+                }
             }
-            this.getLog().info("");
         }
+    }
+
+    /**
+     * Record the payload sizes of the archive makeself.sh created, read from its header.
+     *
+     * @param build
+     *            the archive build
+     *
+     * @throws IOException
+     *             Signals that an I/O exception has occurred.
+     */
+    private void measureCreatedScript(final ArchiveBuild build) throws IOException {
+        if (build.getMetrics() == null) {
+            return;
+        }
+        final Path archive = build.getArchive();
+        final MakeselfArchiveReader reader = new MakeselfArchiveReader(archive);
+        build.getMetrics().set("compression", reader.getCompression());
+        build.getMetrics().setBytesIn(reader.getUncompressedSize() * 1024);
+        build.getMetrics().setBytesOut(reader.getFileSizes().stream().mapToLong(Long::longValue).sum());
+        build.getMetrics().setArchiveBytes(Files.size(archive));
+    }
+
+    /**
+     * Record a phase of this execution when metrics are recorded.
+     *
+     * @param build
+     *            the archive build
+     * @param name
+     *            the phase name
+     * @param start
+     *            the {@link System#nanoTime()} at the start of the phase
+     */
+    private void phase(final ArchiveBuild build, final String name, final long start) {
+        if (build.getMetrics() != null) {
+            build.getMetrics().phase(name, start);
+        }
+    }
+
+    /**
+     * Write the metrics of this execution and log their summary when metrics are recorded. A report that cannot be
+     * written does not fail the build.
+     *
+     * @param build
+     *            the archive build
+     * @param upToDate
+     *            whether the build was skipped as up to date
+     */
+    private void reportMetrics(final ArchiveBuild build, final boolean upToDate) {
+        if (build.getMetrics() == null) {
+            return;
+        }
+        build.getMetrics().set("upToDate", upToDate);
+        final Path report = Path.of(this.buildTarget, "makeself-metrics",
+                FilenameUtils.getName(build.getFileName()) + ".json");
+        try {
+            build.getMetrics().write(report);
+        } catch (final IOException e) {
+            this.getLog().warn("Unable to write makeself metrics to " + report, e);
+        }
+        this.getLog().info(build.getMetrics().summary());
+    }
+
+    /**
+     * Run the created archive without arguments when auto run is set.
+     *
+     * @param build
+     *            the archive build
+     *
+     * @throws IOException
+     *             Signals that an I/O exception has occurred.
+     * @throws InterruptedException
+     *             the interrupted exception
+     */
+    private void runCreatedScript(final ArchiveBuild build) throws IOException, InterruptedException {
+        if (this.autoRun) {
+            this.getLog().info("Auto-run created shell (this may take a few minutes)");
+            this.execute(build, Arrays.asList(this.gitPath + "bash", this.buildTarget.concat(build.getFileName())));
+        }
+    }
 
-        // Wait for process completion
-        final int status = process.waitFor();
-        if (status > 0) {
-            this.getLog().error(String.join(" ", "makeself failed with error status:", String.valueOf(status)));
+    /**
+     * Describe the bundled makeself version, read from the script rather than by running it.
+     *
+     * @return the version message
+     *
+     * @throws MojoExecutionException
+     *             if the bundled script cannot be read
+     */
+    private String makeselfVersion() throws MojoExecutionException {
+        try {
+            final MakeselfVersion makeselfVersion = ToolchainCache.get(this.repoSession).getMakeselfVersion();
+            return "Makeself version " + makeselfVersion.getVersion() + " (plugin "
+                    + makeselfVersion.getPluginVersion() + ")";
+        } catch (final IOException e) {
+            throw new MojoExecutionException("Unable to read makeself version", e);
         }
+    }
+
+    /**
+     * Build the archive with the java engine and attach it.
+     *
+     * @param build
+     *            the archive build
+     * @param target
+     *            the equivalent makeself.sh command line, recorded in the archive as the build command
+     *
+     * @throws IOException
+     *             Signals that an I/O exception has occurred.
+     * @throws MojoExecutionException
+     *             if the archive fails header validation
+     */
+    private void buildWithJavaEngine(final ArchiveBuild build, final List<String> target)
+            throws IOException, MojoExecutionException {
+        final JavaArchiveEngine javaEngine = new JavaArchiveEngine(this.getLog());
+        javaEngine.setMakeselfVersion(ToolchainCache.get(this.repoSession).getMakeselfVersion());
+        javaEngine.setArchiveDir(build.getDirectory());
+        javaEngine.setArchiveFile(build.getArchive());
+        javaEngine.setLabel(build.getLabel());
+        javaEngine.setStartupScript(build.getStartupScript());
+        javaEngine.setScriptArgs(build.getScriptArgs());
+        javaEngine.setCompression(this.resolveCompression(build));
+        javaEngine.setCompressionLevel(this.compressionLevel(build) == null ? 9 : this.compressionLevel(build));
+        javaEngine.setThreads(build.getThreads() == null ? 0 : build.getThreads());
+        javaEngine.setTarFormat(this.tarFormatOpt == null ? "ustar" : this.tarFormatOpt);
+        javaEngine.setUntarExtra(this.untarExtraOpt);
+        javaEngine.setNomd5(this.isTrue(this.nomd5));
+        javaEngine.setNocrc(this.isTrue(this.nocrc));
+        javaEngine.setSha256(this.isTrue(this.sha256));
+        javaEngine.setNotemp(this.isTrue(this.notemp));
+        javaEngine.setCurrent(this.isTrue(this.current));
+        javaEngine.setTargetDir(this.extractTargetDir);
+        javaEngine.setNooverwrite(this.isTrue(this.nooverwrite));
+        javaEngine.setNeedRoot(this.isTrue(this.needroot));
+        javaEngine.setCopy(this.isTrue(this.copy));
+        javaEngine.setNox11(this.isTrue(this.nox11));
+        javaEngine.setNowait(this.isTrue(this.nowait));
+        javaEngine.setNoprogress(this.isTrue(this.noprogress));
+        javaEngine.setFollow(this.isTrue(this.follow));
+        javaEngine.setQuiet(this.isTrue(this.quiet));
+        javaEngine.setTarQuietly(this.isTrue(this.tarQuietly));
+        javaEngine.setKeepUmask(this.isTrue(this.keepUmask));
+        javaEngine.setExportConf(this.isTrue(this.exportConf));
+        javaEngine.setOwnership(this.isTrue(this.chown));
+        javaEngine.setPackagingDate(this.packagingDate);
+        javaEngine.setLicenseFile(this.licenseFile == null ? null : Path.of(this.licenseFile));
+        javaEngine.setHelpHeaderFile(this.helpHeaderFile == null ? null : Path.of(this.helpHeaderFile));
+        javaEngine.setPreextractScript(this.preextractScript == null ? null : Path.of(this.preextractScript));
+        javaEngine.setCleanupScript(this.cleanupScript);
+        javaEngine.setLsmFile(this.lsmFile == null ? null : Path.of(this.lsmFile));
+        // Like makeself.sh, default to the header next to the script
+        final String header = this.effectiveHeaderFile();
+        javaEngine.setHeaderFile(
+                header == null ? this.makeself.resolveSibling("makeself-header.sh") : Path.of(header));
+        javaEngine.setCommand(target);
+        javaEngine.setMetrics(build.getMetrics());
+        javaEngine.setStoreCompressed(this.storeCompressed);
+        javaEngine.setStoredExtensions(this.storedExtensions);
+        javaEngine.setEntryOrder(this.entryOrder);
+        javaEngine.setEntryOrderFirst(this.entryOrderFirst);
+        javaEngine.setReproducibleTime(this.reproducibleTime);
+        javaEngine.setChunkCacheDirectory(this.chunkCacheDirectory == null ? null : this.chunkCacheDirectory.toPath());
+        javaEngine.setSharedBase(this.sharedBaseSegment);
+        if (build.getMetrics() != null) {
+            build.getMetrics().set("compression", this.resolveCompression(build).getId());
+        }
+        javaEngine.build();
+        this.validateHeader(build);
 
         // Attach artifact to maven build for install/deploy/release on success
-        if (status == 0 && attach) {
-            this.projectHelper.attachArtifact(this.project, this.extension, this.classifier,
-                    Path.of(this.buildTarget, FilenameUtils.getName(this.fileName)).toFile());
+        this.attachArchive(build, true);
+    }
+
+    /**
+     * Attach the archive, or its launcher and parts when splitSize is set. The archive is split again when it was just
+     * built or when the launcher is missing.
+     *
+     * @param build
+     *            the archive build
+     * @param built
+     *            whether the archive was built by this execution
+     *
+     * @throws MojoExecutionException
+     *             if the archive cannot be split
+     */
+    private void attachArchive(final ArchiveBuild build, final boolean built) throws MojoExecutionException {
+        final Path archive = Path.of(this.buildTarget, FilenameUtils.getName(build.getFileName()));
+        if (this.splitBytes <= 0) {
+            synchronized (this.project) {
+                this.projectHelper.attachArtifact(this.project, this.extension, build.getClassifier(),
+                        archive.toFile());
+            }
+            return;
+        }
+        final ArchiveSplitter splitter = new ArchiveSplitter(this.extension, this.splitBytes);
+        final Path launcher = Path.of(this.buildTarget, MakeselfMojo.SPLIT_DIRECTORY, archive.getFileName().toString());
+        final List<Path> parts;
+        try {
+            if (built || !Files.isRegularFile(launcher)) {
+                parts = splitter.split(archive, launcher);
+                this.setFilePermissions(launcher.toFile());
+                this.setPosixFilePermissions(launcher);
+                this.getLog().info("Split '" + build.getFileName() + "' into " + parts.size() + " parts of at most "
+                        + this.splitBytes + " bytes");
+            } else {
+                parts = splitter.parts(launcher);
+            }
+        } catch (final IOException e) {
+            throw new MojoExecutionException("Unable to split archive '" + build.getFileName() + "'", e);
+        }
+        if (build.getMetrics() != null) {
+            build.getMetrics().set("parts", parts.size());
+        }
+        // Archives of one execution are attached concurrently
+        synchronized (this.project) {
+            this.projectHelper.attachArtifact(this.project, this.extension, build.getClassifier(), launcher.toFile());
+            for (int i = 0; i < parts.size(); i++) {
+                this.projectHelper.attachArtifact(this.project, this.extension,
+                        ArchiveSplitter.classifier(build.getClassifier(), i + 1), parts.get(i).toFile());
+            }
+        }
+    }
+
+    /**
+     * Sample the archive directory and pick the compression and level for this execution.
+     *
+     * @param build
+     *            the archive build
+     *
+     * @throws MojoExecutionException
+     *             if the archive directory cannot be sampled
+     */
+    private void selectCompression(final ArchiveBuild build) throws MojoExecutionException {
+        final CompressionSelector selector = new CompressionSelector(this.getLog());
+        selector.setTarget(this.autoCompressTarget);
+        selector.setMaxSeconds(this.autoCompressMaxSeconds);
+        selector.setMinRatio(this.autoCompressMinRatio);
+        selector.setStandardTools(MakeselfMojo.ENGINE_SHELL.equals(this.engine));
+        // The java engine compresses on all processors by default, compressors run by makeself.sh on one
+        if (MakeselfMojo.ENGINE_JAVA.equals(this.engine) || build.getThreads() != null) {
+            selector.setParallelism(Compression.poolSize(build.getThreads() == null ? 0 : build.getThreads()));
+        }
+        final CompressionEstimate estimate;
+        try {
+            estimate = selector.select(build.getDirectory(), this.isTrue(this.follow));
+        } catch (final IOException e) {
+            throw new MojoExecutionException("Unable to sample archive directory for auto compression", e);
+        }
+        build.select(estimate.getCompression(),
+                estimate.getCompression() == Compression.NONE ? null : estimate.getLevel());
+        if (build.getMetrics() != null) {
+            build.getMetrics().set("compression", build.getSelectedCompression().getId());
+            build.getMetrics().set("level", this.compressionLevel(build) == null ? 9 : this.compressionLevel(build));
+        }
+    }
+
+    /**
+     * Checks if a compression option is in effect. The compression chosen by auto compression replaces the configured
+     * options.
+     *
+     * @param build
+     *            the archive build
+     * @param option
+     *            the configured option
+     * @param compression
+     *            the compression the option selects, null if auto compression never chooses it
+     *
+     * @return true, if the compression is used
+     */
+    private boolean isCompression(final ArchiveBuild build, final Boolean option, final Compression compression) {
+        if (build.getSelectedCompression() != null) {
+            return build.getSelectedCompression() == compression;
+        }
+        return this.isTrue(option);
+    }
+
+    /**
+     * Gets the compression level in effect, chosen by auto compression or configured.
+     *
+     * @param build
+     *            the archive build
+     *
+     * @return the compression level, null for the compressor default
+     */
+    private Integer compressionLevel(final ArchiveBuild build) {
+        return build.getSelectedLevel() == null ? this.complevel : build.getSelectedLevel();
+    }
+
+    /**
+     * Resolve the compression the same way makeself.sh does, where the last compression flag on the command line wins.
+     *
+     * @param build
+     *            the archive build
+     *
+     * @return the compression
+     */
+    private Compression resolveCompression(final ArchiveBuild build) {
+        Compression compression = Compression.GZIP;
+        if (this.isCompression(build, this.bzip2, Compression.BZIP2)) {
+            compression = Compression.BZIP2;
+        }
+        if (this.isCompression(build, this.pbzip2, Compression.PBZIP2)) {
+            compression = Compression.PBZIP2;
+        }
+        if (this.isCompression(build, this.xz, Compression.XZ)) {
+            compression = Compression.XZ;
+        }
+        if (this.isCompression(build, this.zstd, Compression.ZSTD)) {
+            compression = Compression.ZSTD;
+        }
+        if (this.isCompression(build, this.pigz, Compression.PIGZ)) {
+            compression = Compression.PIGZ;
+        }
+        if (this.isCompression(build, this.nocomp, Compression.NONE)) {
+            compression = Compression.NONE;
+        }
+        return compression;
+    }
+
+    /**
+     * Check the configuration only uses options the java engine can honor.
+     *
+     * @throws MojoExecutionException
+     *             if an unsupported option is set
+     */
+    private void checkJavaEngineSupport() throws MojoExecutionException {
+        final List<String> unsupported = new ArrayList<>();
+        if (this.isTrue(this.bzip3)) {
+            unsupported.add("bzip3");
+        }
+        if (this.isTrue(this.lzo)) {
+            unsupported.add("lzo");
+        }
+        if (this.isTrue(this.lz4)) {
+            unsupported.add("lz4");
+        }
+        if (this.isTrue(this.compress)) {
+            unsupported.add("compress");
+        }
+        if (this.isTrue(this.base64)) {
+            unsupported.add("base64");
+        }
+        if (this.isTrue(this.gpgEncrypt) || this.isTrue(this.gpgAsymmetricEncryptSign) || this.gpgExtraOpt != null) {
+            unsupported.add("gpg");
+        }
+        if (this.isTrue(this.sslEncrypt) || this.sslPasswd != null || this.sslPassSrc != null) {
+            unsupported.add("ssl");
+        }
+        if (this.signPassphrase != null) {
+            unsupported.add("signPassphrase");
+        }
+        if (this.isTrue(this.append)) {
+            unsupported.add("append");
+        }
+        if (this.compExtra != null) {
+            unsupported.add("compExtra");
+        }
+        if (this.tarExtraOpt != null) {
+            unsupported.add("tarExtraOpt");
+        }
+        if (!unsupported.isEmpty()) {
+            throw new MojoExecutionException("Engine 'java' does not support: " + String.join(", ", unsupported)
+                    + "; use engine 'shell' for these options");
         }
     }
 
     /**
-     * Extract makeself.
+     * Extract makeself. Executions running in parallel may share the temp directory, so each script is written to a
+     * temporary file of its own and moved into place atomically; a script that exists is always complete.
      */
     private void extractMakeself() {
-        this.getLog().debug("Extracting Makeself");
+        this.makeself = this.makeselfTempDirectory.toPath().resolve("makeself.sh");
 
-        // Create makeself directory
+        // Scripts already written in this session
+        final ToolchainCache toolchain = ToolchainCache.get(this.repoSession);
         final Path makeselfTemp = Path.of(this.makeselfTempDirectory.getAbsolutePath());
-        if (!Files.exists(makeselfTemp) && !makeselfTemp.toFile().mkdirs()) {
+        if (toolchain.isMakeselfExtracted(makeselfTemp)) {
+            this.getLog().debug("Makeself already extracted to " + makeselfTemp);
+            return;
+        }
+        this.getLog().debug("Extracting Makeself");
+
+        // Create makeself directory, another execution may be creating it too
+        try {
+            Files.createDirectories(makeselfTemp);
+        } catch (final IOException e) {
             this.getLog()
                     .error(String.join(" ", "Unable to make directory", this.makeselfTempDirectory.getAbsolutePath()));
             return;
         }
         this.getLog().debug(String.join(" ", "Created directory for", this.makeselfTempDirectory.getAbsolutePath()));
 
-        final ClassLoader classloader = this.getClass().getClassLoader();
-
-        // Write makeself script
-        this.makeself = this.makeselfTempDirectory.toPath().resolve("makeself.sh");
-        if (!Files.exists(this.makeself)) {
-            this.getLog().debug("Writing makeself.sh");
-            try (InputStream link = classloader.getResourceAsStream("META-INF/makeself/makeself.sh")) {
-                final Path path = this.makeself.toAbsolutePath();
-                Files.copy(link, path);
-                this.setFilePermissions(this.makeself.toFile());
-                this.setPosixFilePermissions(path);
-            } catch (final IOException e) {
-                this.getLog().error("", e);
-            }
+        // Write makeself script and makeself-header script
+        final boolean scriptExtracted = this.extractScript("META-INF/makeself/makeself.sh", this.makeself);
+        final boolean headerExtracted = this.extractScript("META-INF/makeself/makeself-header.sh",
+                this.makeselfTempDirectory.toPath().resolve("makeself-header.sh"));
+        final boolean fastHeaderExtracted = this.extractScript("META-INF/makeself/makeself-header-fast.sh",
+                this.makeselfTempDirectory.toPath().resolve("makeself-header-fast.sh"));
+        if (scriptExtracted && headerExtracted && fastHeaderExtracted) {
+            toolchain.makeselfExtracted(makeselfTemp);
         }
+    }
 
-        // Write makeself-header script
-        final Path makeselfHeader = this.makeselfTempDirectory.toPath().resolve("makeself-header.sh");
-        if (!Files.exists(makeselfHeader)) {
-            this.getLog().debug("Writing makeself-header.sh");
-            try (InputStream link = classloader.getResourceAsStream("META-INF/makeself/makeself-header.sh")) {
-                final Path path = makeselfHeader.toAbsolutePath();
-                Files.copy(link, path);
-                this.setFilePermissions(makeselfHeader.toFile());
-                this.setPosixFilePermissions(path);
-            } catch (final IOException e) {
-                this.getLog().error("", e);
+    /**
+     * Write a bundled script unless it exists, through a temporary file moved into place.
+     *
+     * @param resource
+     *            the classpath resource
+     * @param script
+     *            the script path
+     *
+     * @return true, if the script exists afterwards
+     */
+    private boolean extractScript(final String resource, final Path script) {
+        if (Files.exists(script)) {
+            return true;
+        }
+        this.getLog().debug("Writing " + script.getFileName());
+        Path temp = null;
+        try (InputStream link = this.getClass().getClassLoader().getResourceAsStream(resource)) {
+            temp = Files.createTempFile(script.toAbsolutePath().getParent(), script.getFileName().toString(), ".tmp");
+            Files.copy(link, temp, StandardCopyOption.REPLACE_EXISTING);
+            this.setFilePermissions(temp.toFile());
+            this.setPosixFilePermissions(temp);
+            try {
+                Files.move(temp, script.toAbsolutePath(), StandardCopyOption.ATOMIC_MOVE);
+            } catch (final AtomicMoveNotSupportedException e) {
+                Files.move(temp, script.toAbsolutePath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+            return true;
+        } catch (final IOException e) {
+            this.getLog().error("", e);
+            return false;
+        } finally {
+            if (temp != null) {
+                try {
+                    Files.deleteIfExists(temp);
+                } catch (final IOException e) {
+                    this.getLog().debug("Unable to delete " + temp, e);
+                }
             }
         }
     }
@@ -811,9 +2016,12 @@ public class MakeselfMojo extends AbstractGitMojo {
     /**
      * Load args.
      *
+     * @param build
+     *            the archive build
+     *
      * @return the string
      */
-    private List<String> loadArgs() {
+    private List<String> loadArgs(final ArchiveBuild build) {
         this.getLog().debug("Loading arguments");
 
         final List<String> args = new ArrayList<>(50);
@@ -829,59 +2037,59 @@ public class MakeselfMojo extends AbstractGitMojo {
         }
 
         // --gzip : Use gzip for compression (the default on platforms on which gzip is commonly available, like Linux)
-        if (this.isTrue(this.gzip)) {
+        if (this.isCompression(build, this.gzip, Compression.GZIP)) {
             args.add("--gzip");
         }
 
         // --bzip2 : Use bzip2 instead of gzip for better compression. The bzip2 command must be available in the
         // command path. It is recommended that the archive prefix be set to something like '.bz2.run', so that
         // potential users know that they'll need bzip2 to extract it.
-        if (this.isTrue(this.bzip2)) {
+        if (this.isCompression(build, this.bzip2, Compression.BZIP2)) {
             args.add("--bzip2");
         }
 
         // --bzip3 : Use bzip3 instead of gzip for better compression. The bzip3 command must be available in the
         // command path. It is recommended that the archive prefix be set to something like '.bz3.run', so that
         // potential users know that they'll need bzip3 to extract it.
-        if (this.isTrue(this.bzip3)) {
+        if (this.isCompression(build, this.bzip3, null)) {
             args.add("--bzip3");
         }
 
         // --pbzip2 : Use pbzip2 instead of gzip for better and faster compression on machines having multiple CPUs.
         // The pbzip2 command must be available in the command path. It is recommended that the archive prefix be
         // set to something like '.pbz2.run', so that potential users know that they'll need bzip2 to extract it.
-        if (this.isTrue(this.pbzip2)) {
+        if (this.isCompression(build, this.pbzip2, Compression.PBZIP2)) {
             args.add("--pbzip2");
         }
 
         // --xz : Use xz instead of gzip for better compression. The xz command must be available in the command path.
         // It is recommended that the archive prefix be set to something like '.xz.run' for the archive, so that
         // potential users know that they'll need xz to extract it.
-        if (this.isTrue(this.xz)) {
+        if (this.isCompression(build, this.xz, Compression.XZ)) {
             args.add("--xz");
         }
 
         // --lzo : Use lzop instead of gzip for better compression. The lzop command must be available in the command
         // path. It is recommended that the archive prefix be set to something like '.lzo.run' for the archive, so
         // that potential users know that they'll need lzop to extract it.
-        if (this.isTrue(this.lzo)) {
+        if (this.isCompression(build, this.lzo, null)) {
             args.add("--lzo");
         }
 
         // --lz4 : Use lz4 instead of gzip for better compression. The lz4 command must be available in the command
         // path. It is recommended that the archive prefix be set to something like '.lz4.run' for the archive, so
         // that potential users know that they'll need lz4 to extract it.
-        if (this.isTrue(this.lz4)) {
+        if (this.isCompression(build, this.lz4, null)) {
             args.add("--lz4");
         }
 
         // --zstd : Use zstd for compression.
-        if (this.isTrue(this.zstd)) {
+        if (this.isCompression(build, this.zstd, Compression.ZSTD)) {
             args.add("--zstd");
         }
 
         // --pigz : Use pigz for compression.
-        if (this.isTrue(this.pigz)) {
+        if (this.isCompression(build, this.pigz, Compression.PIGZ)) {
             args.add("--pigz");
         }
 
@@ -928,14 +2136,14 @@ public class MakeselfMojo extends AbstractGitMojo {
 
         // --compress : Use the UNIX compress command to compress the data. This should be the default on all platforms
         // that don't have gzip available.
-        if (this.isTrue(this.compress)) {
+        if (this.isCompression(build, this.compress, null)) {
             args.add("--compress");
         }
 
         // --complevel : Specify the compression level for gzip, bzip2, bzip3, pbzip2, xz, lzo or lz4. (defaults to 9)
-        if (this.complevel != null) {
+        if (this.compressionLevel(build) != null) {
             args.add("--complevel");
-            args.add(this.complevel.toString());
+            args.add(this.compressionLevel(build).toString());
         }
 
         // --comp-extra : Append extra options to the chosen compressor"
@@ -955,7 +2163,7 @@ public class MakeselfMojo extends AbstractGitMojo {
         }
 
         // --nocomp : Do not use any compression for the archive, which will then be an uncompressed TAR.
-        if (this.isTrue(this.nocomp)) {
+        if (this.isCompression(build, this.nocomp, Compression.NONE)) {
             args.add("--nocomp");
         }
 
@@ -963,9 +2171,9 @@ public class MakeselfMojo extends AbstractGitMojo {
         // Omit to use compressor's default. Most useful (and required) for opting into xz's threading,
         // usually with '--threads=0' for all available cores.pbzip2 and pigz are parallel by default,
         // and setting this value allows limiting the number of threads they use.
-        if (this.threads != null) {
+        if (build.getThreads() != null) {
             args.add("--threads");
-            args.add(this.threads.toString());
+            args.add(build.getThreads().toString());
         }
 
         // --notemp : The generated archive will not extract the files to a temporary directory, but in a new directory
@@ -1007,9 +2215,10 @@ public class MakeselfMojo extends AbstractGitMojo {
         // --header : Makeself 2.0 uses a separate file to store the header stub, called makeself-header.sh. By default,
         // it is assumed that it is stored in the same location as makeself.sh. This option can be used to specify its
         // actual location if it is stored someplace else.
-        if (this.headerFile != null) {
+        final String header = this.effectiveHeaderFile();
+        if (header != null) {
             args.add("--header");
-            args.add(this.headerFile);
+            args.add(header);
         }
 
         // --preextract : Specify a pre-extraction script. The script is executed with the same environment and initial
@@ -1147,6 +2356,44 @@ public class MakeselfMojo extends AbstractGitMojo {
         return args;
     }
 
+    /**
+     * Parse outputTimestamp the way the other reproducible build plugins do: seconds since the epoch or ISO-8601.
+     * Without a timestamp, the fixed time the zip format starts at is used so the archive is still reproducible.
+     *
+     * @return the time, truncated to seconds
+     *
+     * @throws MojoExecutionException
+     *             if the timestamp cannot be parsed
+     */
+    private Instant parseOutputTimestamp() throws MojoExecutionException {
+        // A single character, such as the '-' some projects use, disables the timestamp like in maven-archiver
+        if (this.outputTimestamp == null || this.outputTimestamp.trim().length() < 2) {
+            this.getLog().warn("Reproducible archive without project.build.outputTimestamp, using "
+                    + MakeselfMojo.DEFAULT_OUTPUT_TIMESTAMP);
+            return MakeselfMojo.DEFAULT_OUTPUT_TIMESTAMP;
+        }
+        final String value = this.outputTimestamp.trim();
+        try {
+            if (value.chars().allMatch(Character::isDigit)) {
+                return Instant.ofEpochSecond(Long.parseLong(value));
+            }
+            return OffsetDateTime.parse(value).toInstant().truncatedTo(ChronoUnit.SECONDS);
+        } catch (final DateTimeParseException | NumberFormatException e) {
+            throw new MojoExecutionException("OutputTimestamp: invalid '" + value
+                    + "', expected ISO-8601 such as 2026-01-01T00:00:00Z or seconds since the epoch", e);
+        }
+    }
+
+    /**
+     * Checks if an entry order other than makeself.sh's order by name is configured.
+     *
+     * @return true, if the entries are ordered by type or size, or some are put first
+     */
+    private boolean isEntryOrderSet() {
+        return this.entryOrder != null && !EntryOrder.NAME.equals(this.entryOrder)
+                || this.entryOrderFirst != null && !this.entryOrderFirst.isEmpty();
+    }
+
     private boolean isTrue(final Boolean value) {
         if (value != null) {
             return value.booleanValue();
@@ -0,0 +1,85 @@
+/*
+ *    Copyright 2011-2026 the original author or authors.
+ *
+ *    This program is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU General Public License
+ *    as published by the Free Software Foundation; either version 2
+ *    of the License, or (at your option) any later version.
+ *
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.gnu.org/licenses/old-licenses/gpl-2.0.en.html
+ *
+ *    This program is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ */
+package com.hazendaz.maven.makeself;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * The Class MakeselfVersion.
+ * <p>
+ * Reads {@code MS_VERSION} and {@code MS_PLUGIN_VERSION} from the bundled makeself.sh so they can be used without
+ * running the script.
+ * </p>
+ */
+public class MakeselfVersion {
+
+    /** The classpath location of the bundled makeself script. */
+    static final String RESOURCE = "META-INF/makeself/makeself.sh";
+
+    /** The makeself version. */
+    private String version = "";
+
+    /** The plugin version. */
+    private String pluginVersion = "";
+
+    /**
+     * Gets the makeself version.
+     *
+     * @return the makeself version
+     */
+    public String getVersion() {
+        return this.version;
+    }
+
+    /**
+     * Gets the plugin version.
+     *
+     * @return the plugin version
+     */
+    public String getPluginVersion() {
+        return this.pluginVersion;
+    }
+
+    /**
+     * Load the versions from the bundled makeself.sh. Missing values are left empty.
+     *
+     * @throws IOException
+     *             Signals that an I/O exception has occurred.
+     */
+    public MakeselfVersion() throws IOException {
+        try (InputStream input = this.getClass().getClassLoader().getResourceAsStream(MakeselfVersion.RESOURCE)) {
+            if (input == null) {
+                return;
+            }
+            final BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.startsWith("MS_VERSION=")) {
+                    this.version = line.substring("MS_VERSION=".length()).trim();
+                } else if (line.startsWith("MS_PLUGIN_VERSION=")) {
+                    this.pluginVersion = line.substring("MS_PLUGIN_VERSION=".length()).trim();
+                }
+            }
+        }
+    }
+
+}
@@ -0,0 +1,227 @@
+/*
+ *    Copyright 2011-2026 the original author or authors.
+ *
+ *    This program is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU General Public License
+ *    as published by the Free Software Foundation; either version 2
+ *    of the License, or (at your option) any later version.
+ *
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.gnu.org/licenses/old-licenses/gpl-2.0.en.html
+ *
+ *    This program is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ */
+package com.hazendaz.maven.makeself;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The Class ParallelBlockOutputStream.
+ * <p>
+ * Base for compressors that cut their input into blocks, compress the blocks concurrently and write the results in
+ * input order. Blocks have a fixed size unless the subclass chooses where to cut them, up to that size. Blocks are
+ * handed to the subclass on the writing thread, in order, so any state that has to follow the data (checksums,
+ * dictionaries) can be kept there; only the returned task runs on the pool. At most two blocks per thread are in
+ * flight, which bounds memory to a few blocks per thread.
+ * </p>
+ */
+public abstract class ParallelBlockOutputStream extends OutputStream {
+
+    /** Thread counter for pool thread names. */
+    private static final AtomicInteger THREAD_COUNT = new AtomicInteger();
+
+    /** The output. */
+    protected final OutputStream out;
+
+    /** The compression pool. */
+    private final ExecutorService executor;
+
+    /** Blocks being compressed, in output order. */
+    private final Deque<Future<byte[]>> pending = new ArrayDeque<>();
+
+    /** The maximum number of blocks in flight. */
+    private final int maxPending;
+
+    /** The block being filled. */
+    private byte[] block;
+
+    /** The bytes in the current block. */
+    private int blockLength;
+
+    /** The closed flag. */
+    private boolean closed;
+
+    /**
+     * Instantiates a new parallel block output stream.
+     *
+     * @param out
+     *            the output
+     * @param threads
+     *            the number of compression threads
+     * @param blockSize
+     *            the uncompressed block size
+     * @param name
+     *            the compressor name used for thread names
+     */
+    protected ParallelBlockOutputStream(final OutputStream out, final int threads, final int blockSize,
+            final String name) {
+        if (threads < 1 || blockSize < 1) {
+            throw new IllegalArgumentException("threads and blockSize must be positive");
+        }
+        this.out = out;
+        this.block = new byte[blockSize];
+        this.maxPending = threads * 2;
+        this.executor = Executors.newFixedThreadPool(threads, runnable -> {
+            final Thread thread = new Thread(runnable,
+                    "makeself-" + name + "-" + ParallelBlockOutputStream.THREAD_COUNT.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Create the task compressing one block. Called on the writing thread in input order. The block array is not
+     * reused by this stream once handed over.
+     *
+     * @param input
+     *            the input
+     * @param length
+     *            the input length
+     * @param last
+     *            true for the final block, which may be empty
+     *
+     * @return the task producing the compressed block
+     */
+    protected abstract Callable<byte[]> compressBlock(byte[] input, int length, boolean last);
+
+    /**
+     * Find where to cut the current block, for blocks of varying size. Called on the writing thread, in order, for
+     * every byte added to the block.
+     *
+     * @param block
+     *            the block being filled
+     * @param from
+     *            the index of the first new byte
+     * @param to
+     *            the index after the last new byte
+     *
+     * @return the block length to cut at, after one of the new bytes; -1 to keep filling the block
+     */
+    protected int cut(final byte[] block, final int from, final int to) {
+        return -1;
+    }
+
+    /**
+     * Write anything that follows the last block. Called once all blocks are written.
+     *
+     * @throws IOException
+     *             Signals that an I/O exception has occurred.
+     */
+    protected void finish() throws IOException {
+        // Nothing by default
+    }
+
+    @Override
+    public void write(final int b) throws IOException {
+        this.write(new byte[] { (byte) b }, 0, 1);
+    }
+
+    @Override
+    public void write(final byte[] b, final int off, final int len) throws IOException {
+        if (this.closed) {
+            throw new IOException("Stream closed");
+        }
+        int offset = off;
+        int remaining = len;
+        while (remaining > 0) {
+            int count = Math.min(remaining, this.block.length - this.blockLength);
+            System.arraycopy(b, offset, this.block, this.blockLength, count);
+            final int cut = this.cut(this.block, this.blockLength, this.blockLength + count);
+            if (cut >= 0) {
+                // The bytes after the cut are copied again into the next block
+                count = cut - this.blockLength;
+            }
+            this.blockLength += count;
+            offset += count;
+            remaining -= count;
+            if (cut >= 0 || this.blockLength == this.block.length) {
+                this.submit(false);
+            }
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        this.out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (this.closed) {
+            return;
+        }
+        this.closed = true;
+        try {
+            this.submit(true);
+            while (!this.pending.isEmpty()) {
+                this.writeNext();
+            }
+            this.finish();
+            this.out.flush();
+        } finally {
+            this.executor.shutdownNow();
+            this.out.close();
+        }
+    }
+
+    /**
+     * Hand the current block to the pool, writing finished blocks once too many are in flight.
+     *
+     * @param last
+     *            true for the final block
+     *
+     * @throws IOException
+     *             Signals that an I/O exception has occurred.
+     */
+    private void submit(final boolean last) throws IOException {
+        this.pending.add(this.executor.submit(this.compressBlock(this.block, this.blockLength, last)));
+        if (!last) {
+            this.block = new byte[this.block.length];
+            this.blockLength = 0;
+        }
+        while (this.pending.size() > this.maxPending) {
+            this.writeNext();
+        }
+    }
+
+    /**
+     * Wait for the oldest block and write it.
+     *
+     * @throws IOException
+     *             Signals that an I/O exception has occurred.
+     */
+    private void writeNext() throws IOException {
+        try {
+            this.out.write(this.pending.removeFirst().get());
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while compressing", e);
+        } catch (final ExecutionException e) {
+            throw new IOException("Compression failed", e.getCause());
+        }
+    }
+
+}
@@ -0,0 +1,177 @@
+/*
+ *    Copyright 2011-2026 the original author or authors.
+ *
+ *    This program is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU General Public License
+ *    as published by the Free Software Foundation; either version 2
+ *    of the License, or (at your option) any later version.
+ *
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.gnu.org/licenses/old-licenses/gpl-2.0.en.html
+ *
+ *    This program is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ */
+package com.hazendaz.maven.makeself;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.concurrent.Callable;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * The Class ParallelGzipOutputStream.
+ * <p>
+ * Writes a single gzip member the way pigz does: the input is cut into fixed size blocks that are deflated
+ * concurrently, each primed with the last 32 KiB of the previous block as preset dictionary so the ratio stays close
+ * to plain gzip. Every block but the last ends with a sync flush, which leaves the deflate stream byte aligned so the
+ * blocks can be concatenated in order. The CRC32 is computed on the writing thread as data arrives.
+ * </p>
+ */
+public class ParallelGzipOutputStream extends ParallelBlockOutputStream {
+
+    /** The default block size, same as pigz. */
+    static final int DEFAULT_BLOCK_SIZE = 128 * 1024;
+
+    /** The deflate window, the most a dictionary can be used for. */
+    private static final int DICTIONARY_SIZE = 32 * 1024;
+
+    /** The compression level. */
+    private final int level;
+
+    /** The crc of the uncompressed data. */
+    private final CRC32 crc = new CRC32();
+
+    /** The dictionary for the next block, null for the first one. */
+    private byte[] dictionary;
+
+    /** The uncompressed size. */
+    private long size;
+
+    /**
+     * Instantiates a new parallel gzip output stream with pigz sized blocks.
+     *
+     * @param out
+     *            the output
+     * @param level
+     *            the compression level
+     * @param threads
+     *            the number of compression threads
+     *
+     * @throws IOException
+     *             Signals that an I/O exception has occurred.
+     */
+    public ParallelGzipOutputStream(final OutputStream out, final int level, final int threads) throws IOException {
+        this(out, level, threads, ParallelGzipOutputStream.DEFAULT_BLOCK_SIZE);
+    }
+
+    /**
+     * Instantiates a new parallel gzip output stream.
+     *
+     * @param out
+     *            the output
+     * @param level
+     *            the compression level
+     * @param threads
+     *            the number of compression threads
+     * @param blockSize
+     *            the uncompressed block size
+     *
+     * @throws IOException
+     *             Signals that an I/O exception has occurred.
+     */
+    public ParallelGzipOutputStream(final OutputStream out, final int level, final int threads, final int blockSize)
+            throws IOException {
+        super(out, threads, blockSize, "gzip");
+        this.level = level;
+        this.writeHeader();
+    }
+
+    @Override
+    protected Callable<byte[]> compressBlock(final byte[] input, final int length, final boolean last) {
+        final byte[] preset = this.dictionary;
+        this.crc.update(input, 0, length);
+        this.size += length;
+        this.dictionary = Arrays.copyOfRange(input, Math.max(0, length - ParallelGzipOutputStream.DICTIONARY_SIZE),
+                length);
+        return () -> this.deflate(input, length, preset, last);
+    }
+
+    @Override
+    protected void finish() throws IOException {
+        final long value = this.crc.getValue();
+        final byte[] trailer = new byte[8];
+        for (int i = 0; i < 4; i++) {
+            trailer[i] = (byte) (value >>> 8 * i);
+            trailer[i + 4] = (byte) (this.size >>> 8 * i);
+        }
+        this.out.write(trailer);
+    }
+
+    /**
+     * Deflate one block as raw deflate data.
+     *
+     * @param input
+     *            the input
+     * @param length
+     *            the input length
+     * @param preset
+     *            the dictionary, may be null
+     * @param last
+     *            true to finish the deflate stream, otherwise the block ends with a sync flush
+     *
+     * @return the compressed block
+     */
+    private byte[] deflate(final byte[] input, final int length, final byte[] preset, final boolean last) {
+        final Deflater deflater = new Deflater(this.level, true);
+        try {
+            if (preset != null) {
+                deflater.setDictionary(preset);
+            }
+            deflater.setInput(input, 0, length);
+            final ByteArrayOutputStream output = new ByteArrayOutputStream(length / 2 + 64);
+            final byte[] buffer = new byte[Math.max(length / 4, 8192)];
+            if (last) {
+                deflater.finish();
+                while (!deflater.finished()) {
+                    output.write(buffer, 0, deflater.deflate(buffer));
+                }
+            } else {
+                int count;
+                do {
+                    count = deflater.deflate(buffer, 0, buffer.length, Deflater.SYNC_FLUSH);
+                    output.write(buffer, 0, count);
+                } while (count == buffer.length);
+            }
+            return output.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    /**
+     * Write the gzip member header.
+     *
+     * @throws IOException
+     *             Signals that an I/O exception has occurred.
+     */
+    private void writeHeader() throws IOException {
+        final int extraFlags;
+        if (this.level == Deflater.BEST_COMPRESSION) {
+            extraFlags = 2;
+        } else if (this.level == Deflater.BEST_SPEED) {
+            extraFlags = 4;
+        } else {
+            extraFlags = 0;
+        }
+        // magic, deflate, no flags, no mtime, extra flags, unix
+        this.out.write(new byte[] { 0x1f, (byte) 0x8b, 8, 0, 0, 0, 0, 0, (byte) extraFlags, 3 });
+    }
+
+}
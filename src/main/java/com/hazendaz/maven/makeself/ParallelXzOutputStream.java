@@ -0,0 +1,102 @@
+/*
+ *    Copyright 2011-2026 the original author or authors.
+ *
+ *    This program is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU General Public License
+ *    as published by the Free Software Foundation; either version 2
+ *    of the License, or (at your option) any later version.
+ *
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.gnu.org/licenses/old-licenses/gpl-2.0.en.html
+ *
+ *    This program is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ */
+package com.hazendaz.maven.makeself;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.util.concurrent.Callable;
+
+import org.tukaani.xz.LZMA2Options;
+import org.tukaani.xz.XZOutputStream;
+
+/**
+ * The Class ParallelXzOutputStream.
+ * <p>
+ * Compresses blocks of three times the dictionary size (what {@code xz --threads} uses) concurrently, each as an
+ * independent xz stream. The xz format allows streams to be concatenated and {@code xz -d} decompresses them as one.
+ * </p>
+ */
+public class ParallelXzOutputStream extends ParallelBlockOutputStream {
+
+    /** The smallest block size used. */
+    private static final int MIN_BLOCK_SIZE = 1024 * 1024;
+
+    /** The compression options. */
+    private final LZMA2Options options;
+
+    /** Whether a stream was produced yet. */
+    private boolean started;
+
+    /**
+     * Instantiates a new parallel xz output stream.
+     *
+     * @param out
+     *            the output
+     * @param options
+     *            the compression options
+     * @param threads
+     *            the number of compression threads
+     */
+    public ParallelXzOutputStream(final OutputStream out, final LZMA2Options options, final int threads) {
+        super(out, threads, ParallelXzOutputStream.blockSize(options), "xz");
+        this.options = options;
+    }
+
+    /**
+     * Gets the block size for the options, three times the dictionary size.
+     *
+     * @param options
+     *            the options
+     *
+     * @return the block size
+     */
+    static int blockSize(final LZMA2Options options) {
+        return (int) Math.min(Integer.MAX_VALUE - 8,
+                Math.max(ParallelXzOutputStream.MIN_BLOCK_SIZE, 3L * options.getDictSize()));
+    }
+
+    /**
+     * Estimate the memory one compression thread needs: the encoder plus an input and an output block.
+     *
+     * @param options
+     *            the options
+     *
+     * @return the memory in bytes
+     */
+    static long memoryPerThread(final LZMA2Options options) {
+        return options.getEncoderMemoryUsage() * 1024L + 2L * ParallelXzOutputStream.blockSize(options);
+    }
+
+    @Override
+    protected Callable<byte[]> compressBlock(final byte[] input, final int length, final boolean last) {
+        // An empty final block adds nothing, unless the whole input was empty
+        if (length == 0 && this.started) {
+            return () -> new byte[0];
+        }
+        this.started = true;
+        final LZMA2Options blockOptions = (LZMA2Options) this.options.clone();
+        return () -> {
+            final ByteArrayOutputStream output = new ByteArrayOutputStream(length / 2 + 1024);
+            try (XZOutputStream xz = new XZOutputStream(output, blockOptions)) {
+                xz.write(input, 0, length);
+            }
+            return output.toByteArray();
+        };
+    }
+
+}
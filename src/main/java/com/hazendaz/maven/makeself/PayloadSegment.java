@@ -0,0 +1,122 @@
+/*
+ *    Copyright 2011-2026 the original author or authors.
+ *
+ *    This program is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU General Public License
+ *    as published by the Free Software Foundation; either version 2
+ *    of the License, or (at your option) any later version.
+ *
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.gnu.org/licenses/old-licenses/gpl-2.0.en.html
+ *
+ *    This program is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ */
+package com.hazendaz.maven.makeself;
+
+import java.nio.file.Path;
+
+/**
+ * The Class PayloadSegment.
+ * <p>
+ * One tar stream of the payload, written to a temporary file with its checksums. makeself archives concatenate
+ * segments after the header and list their sizes and checksums in order, each extracted by its own tar.
+ * </p>
+ */
+public class PayloadSegment {
+
+    /** The temporary file holding the segment. */
+    private final Path file;
+
+    /** The uncompressed tar size. */
+    private final long tarSize;
+
+    /** The size of the segment. */
+    private final long size;
+
+    /** The crc. */
+    private final String crc;
+
+    /** The md5. */
+    private final String md5;
+
+    /** The sha256. */
+    private final String sha256;
+
+    /**
+     * Instantiates a new payload segment.
+     *
+     * @param file
+     *            the temporary file holding the segment
+     * @param tarSize
+     *            the uncompressed tar size
+     * @param checksums
+     *            the checksums computed while the segment was written
+     */
+    public PayloadSegment(final Path file, final long tarSize, final ChecksumOutputStream checksums) {
+        this.file = file;
+        this.tarSize = tarSize;
+        this.size = checksums.getCount();
+        this.crc = checksums.getCrc();
+        this.md5 = checksums.getMd5();
+        this.sha256 = checksums.getSha256();
+    }
+
+    /**
+     * Gets the temporary file holding the segment.
+     *
+     * @return the file
+     */
+    public Path getFile() {
+        return this.file;
+    }
+
+    /**
+     * Gets the uncompressed tar size.
+     *
+     * @return the tar size
+     */
+    public long getTarSize() {
+        return this.tarSize;
+    }
+
+    /**
+     * Gets the size of the segment.
+     *
+     * @return the size
+     */
+    public long getSize() {
+        return this.size;
+    }
+
+    /**
+     * Gets the crc as the header records it.
+     *
+     * @return the crc
+     */
+    public String getCrc() {
+        return this.crc;
+    }
+
+    /**
+     * Gets the md5 as the header records it.
+     *
+     * @return the md5
+     */
+    public String getMd5() {
+        return this.md5;
+    }
+
+    /**
+     * Gets the sha256 as the header records it.
+     *
+     * @return the sha256
+     */
+    public String getSha256() {
+        return this.sha256;
+    }
+
+}
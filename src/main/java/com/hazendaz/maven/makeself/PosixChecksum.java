@@ -0,0 +1,82 @@
+/*
+ *    Copyright 2011-2026 the original author or authors.
+ *
+ *    This program is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU General Public License
+ *    as published by the Free Software Foundation; either version 2
+ *    of the License, or (at your option) any later version.
+ *
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.gnu.org/licenses/old-licenses/gpl-2.0.en.html
+ *
+ *    This program is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ */
+package com.hazendaz.maven.makeself;
+
+import java.util.zip.Checksum;
+
+/**
+ * The Class PosixChecksum.
+ * <p>
+ * Computes the same value as the POSIX {@code cksum} command, which is what the makeself header uses to verify the
+ * archive CRC. This is not the zlib CRC32: the polynomial is processed MSB first and the data length is folded into the
+ * value before the final complement.
+ * </p>
+ */
+public class PosixChecksum implements Checksum {
+
+    /** The CRC lookup table for polynomial 0x04C11DB7. */
+    private static final int[] TABLE = new int[256];
+
+    static {
+        for (int i = 0; i < 256; i++) {
+            int crc = i << 24;
+            for (int j = 0; j < 8; j++) {
+                crc = (crc & 0x80000000) != 0 ? crc << 1 ^ 0x04C11DB7 : crc << 1;
+            }
+            PosixChecksum.TABLE[i] = crc;
+        }
+    }
+
+    /** The running crc. */
+    private int crc;
+
+    /** The number of bytes processed. */
+    private long length;
+
+    @Override
+    public void update(final int b) {
+        this.crc = this.crc << 8 ^ PosixChecksum.TABLE[(this.crc >>> 24 ^ b) & 0xFF];
+        this.length++;
+    }
+
+    @Override
+    public void update(final byte[] b, final int off, final int len) {
+        int value = this.crc;
+        for (int i = off; i < off + len; i++) {
+            value = value << 8 ^ PosixChecksum.TABLE[(value >>> 24 ^ b[i]) & 0xFF];
+        }
+        this.crc = value;
+        this.length += len;
+    }
+
+    @Override
+    public long getValue() {
+        int value = this.crc;
+        for (long remaining = this.length; remaining != 0; remaining >>>= 8) {
+            value = value << 8 ^ PosixChecksum.TABLE[(int) ((value >>> 24 ^ remaining) & 0xFF)];
+        }
+        return ~value & 0xFFFFFFFFL;
+    }
+
+    @Override
+    public void reset() {
+        this.crc = 0;
+        this.length = 0;
+    }
+
+}
@@ -17,11 +17,149 @@
  */
 package com.hazendaz.maven.makeself;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.apache.maven.plugin.logging.Log;
+
 /**
  * The Class ProcessUtils.
+ * <p>
+ * Runs child processes for the mojos. Output is drained on a dedicated daemon thread into a bounded ring buffer, so a
+ * chatty child (verbose tar output for instance) never waits on the Maven log. The calling thread logs whatever has
+ * accumulated as one batch; if the log falls behind by more than the buffer, the oldest lines are dropped and counted.
+ * The last lines are kept regardless and repeated when the process fails.
+ * </p>
  */
 public class ProcessUtils {
 
-    // TODO Future usage to cleanup build setup
+    /** Lines buffered between the output thread and the log. */
+    static final int BUFFER_LINES = 8192;
+
+    /** Lines logged per batch. */
+    static final int BATCH_LINES = 512;
+
+    /** Lines kept to show on failure. */
+    static final int TAIL_LINES = 50;
+
+    /** How long the log waits for output before checking the process again. */
+    private static final long POLL_MILLIS = 100;
+
+    /**
+     * Run a process, logging its combined output at info level, and an error when it exits with a non-zero status.
+     *
+     * @param processBuilder
+     *            the process builder, its error stream is redirected to its output
+     * @param log
+     *            the log
+     * @param failureMessage
+     *            the message logged with the exit status on failure
+     *
+     * @return the exit status
+     *
+     * @throws IOException
+     *             Signals that an I/O exception has occurred.
+     * @throws InterruptedException
+     *             the interrupted exception
+     */
+    public static int run(final ProcessBuilder processBuilder, final Log log, final String failureMessage)
+            throws IOException, InterruptedException {
+        processBuilder.redirectErrorStream(true);
+        final Process process = processBuilder.start();
+
+        final BlockingQueue<String> lines = new ArrayBlockingQueue<>(ProcessUtils.BUFFER_LINES);
+        final Deque<String> tail = new ArrayDeque<>(ProcessUtils.TAIL_LINES);
+        final AtomicLong dropped = new AtomicLong();
+        final AtomicReference<IOException> failure = new AtomicReference<>();
+        final Thread pump = new Thread(() -> ProcessUtils.pump(process, lines, tail, dropped, failure),
+                "makeself-process-output");
+        pump.setDaemon(true);
+        pump.start();
+
+        try {
+            // Write process output
+            final List<String> batch = new ArrayList<>(ProcessUtils.BATCH_LINES);
+            while (pump.isAlive() || !lines.isEmpty()) {
+                final String line = lines.poll(ProcessUtils.POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (line == null) {
+                    continue;
+                }
+                batch.add(line);
+                lines.drainTo(batch, ProcessUtils.BATCH_LINES - 1);
+                final long skipped = dropped.getAndSet(0);
+                if (skipped > 0) {
+                    log.info("... " + skipped + " lines of output skipped ...");
+                }
+                log.info(String.join(System.lineSeparator(), batch));
+                batch.clear();
+            }
+            pump.join();
+            log.info("");
+            if (failure.get() != null) {
+                throw failure.get();
+            }
+
+            // Wait for process completion
+            final int status = process.waitFor();
+            if (status != 0) {
+                log.error(String.join(" ", failureMessage, String.valueOf(status)));
+                if (!tail.isEmpty()) {
+                    log.error("Last " + tail.size() + " lines of output:" + System.lineSeparator()
+                            + String.join(System.lineSeparator(), tail));
+                }
+            }
+            return status;
+        } finally {
+            if (process.isAlive()) {
+                process.destroy();
+            }
+        }
+    }
+
+    /**
+     * Read the process output into the ring buffer and the tail, never blocking on a full buffer.
+     *
+     * @param process
+     *            the process
+     * @param lines
+     *            the ring buffer
+     * @param tail
+     *            the last lines, only read once the pump has finished
+     * @param dropped
+     *            the count of lines dropped from the ring buffer
+     * @param failure
+     *            the read failure, if any
+     */
+    private static void pump(final Process process, final BlockingQueue<String> lines, final Deque<String> tail,
+            final AtomicLong dropped, final AtomicReference<IOException> failure) {
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                while (!lines.offer(line)) {
+                    if (lines.poll() != null) {
+                        dropped.incrementAndGet();
+                    }
+                }
+                if (tail.size() == ProcessUtils.TAIL_LINES) {
+                    tail.removeFirst();
+                }
+                tail.addLast(line);
+            }
+        } catch (final IOException e) {
+            failure.set(e);
+        }
+    }
 
 }
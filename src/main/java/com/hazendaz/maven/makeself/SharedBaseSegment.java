@@ -0,0 +1,161 @@
+/*
+ *    Copyright 2011-2026 the original author or authors.
+ *
+ *    This program is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU General Public License
+ *    as published by the Free Software Foundation; either version 2
+ *    of the License, or (at your option) any later version.
+ *
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.gnu.org/licenses/old-licenses/gpl-2.0.en.html
+ *
+ *    This program is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ */
+package com.hazendaz.maven.makeself;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * The Class SharedBaseSegment.
+ * <p>
+ * The payload segment shared by archives built from overlapping directories. It holds the files every archive directory
+ * contains with the same content and tar metadata, tarred and compressed once by the first archive built; each archive
+ * then writes its own files as a further segment after it. makeself extracts the segments in order into the same
+ * directory, so the result is the same as one segment with all files.
+ * </p>
+ */
+public class SharedBaseSegment {
+
+    /** The archive directories sharing the segment. */
+    private final List<Path> archiveDirs;
+
+    /** The directory the segment is written to. */
+    private final Path directory;
+
+    /** Whether the segment was written. */
+    private boolean written;
+
+    /** The segment, null when the directories have no file in common. */
+    private PayloadSegment segment;
+
+    /** The entry names of the segment, in order. */
+    private List<String> entries = Collections.emptyList();
+
+    /** The entry names of the segment. */
+    private Set<String> names = Collections.emptySet();
+
+    /**
+     * Instantiates a new shared base segment.
+     *
+     * @param archiveDirs
+     *            the archive directories sharing the segment
+     * @param directory
+     *            the directory the segment is written to
+     */
+    public SharedBaseSegment(final List<Path> archiveDirs, final Path directory) {
+        this.archiveDirs = archiveDirs;
+        this.directory = directory;
+    }
+
+    /**
+     * Gets the archive directories sharing the segment.
+     *
+     * @return the archive directories
+     */
+    public List<Path> getArchiveDirs() {
+        return this.archiveDirs;
+    }
+
+    /**
+     * Gets the directory the segment is written to.
+     *
+     * @return the directory
+     */
+    public Path getDirectory() {
+        return this.directory;
+    }
+
+    /**
+     * Write the segment with the given engine unless another archive already did. Archives built concurrently wait
+     * for the first one.
+     *
+     * @param engine
+     *            the engine of the archive asking for the segment
+     *
+     * @throws IOException
+     *             Signals that an I/O exception has occurred.
+     */
+    public synchronized void write(final JavaArchiveEngine engine) throws IOException {
+        if (!this.written) {
+            engine.writeBase(this);
+            this.written = true;
+        }
+    }
+
+    /**
+     * Set the written segment.
+     *
+     * @param segment
+     *            the segment, null when the directories have no file in common
+     * @param entries
+     *            the entry names of the segment, in order
+     */
+    synchronized void set(final PayloadSegment segment, final List<String> entries) {
+        this.segment = segment;
+        this.entries = Collections.unmodifiableList(entries);
+        this.names = new HashSet<>(entries);
+    }
+
+    /**
+     * Gets the segment.
+     *
+     * @return the segment, null when the directories have no file in common
+     */
+    public synchronized PayloadSegment getSegment() {
+        return this.segment;
+    }
+
+    /**
+     * Gets the entry names of the segment, in order.
+     *
+     * @return the entries
+     */
+    public synchronized List<String> getEntries() {
+        return this.entries;
+    }
+
+    /**
+     * Checks if an entry is written by the segment.
+     *
+     * @param name
+     *            the entry name
+     *
+     * @return true, if the segment contains the entry
+     */
+    public synchronized boolean contains(final String name) {
+        return this.names.contains(name);
+    }
+
+    /**
+     * Delete the segment once every archive is built.
+     *
+     * @throws IOException
+     *             Signals that an I/O exception has occurred.
+     */
+    public synchronized void delete() throws IOException {
+        if (this.segment != null) {
+            Files.deleteIfExists(this.segment.getFile());
+        }
+    }
+
+}
@@ -0,0 +1,86 @@
+/*
+ *    Copyright 2011-2026 the original author or authors.
+ *
+ *    This program is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU General Public License
+ *    as published by the Free Software Foundation; either version 2
+ *    of the License, or (at your option) any later version.
+ *
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.gnu.org/licenses/old-licenses/gpl-2.0.en.html
+ *
+ *    This program is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ */
+package com.hazendaz.maven.makeself;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * The Class TimedOutputStream.
+ * <p>
+ * Measures the wall time spent in the wrapped stream, so the stages of a streamed pipeline can be told apart by
+ * subtracting the time of the stage below.
+ * </p>
+ */
+public class TimedOutputStream extends FilterOutputStream {
+
+    /** The time spent in the wrapped stream. */
+    private long nanos;
+
+    /**
+     * Instantiates a new timed output stream.
+     *
+     * @param output
+     *            the output
+     */
+    public TimedOutputStream(final OutputStream output) {
+        super(output);
+    }
+
+    @Override
+    public void write(final int b) throws IOException {
+        final long start = System.nanoTime();
+        this.out.write(b);
+        this.nanos += System.nanoTime() - start;
+    }
+
+    @Override
+    public void write(final byte[] b, final int off, final int len) throws IOException {
+        final long start = System.nanoTime();
+        this.out.write(b, off, len);
+        this.nanos += System.nanoTime() - start;
+    }
+
+    @Override
+    public void flush() throws IOException {
+        final long start = System.nanoTime();
+        this.out.flush();
+        this.nanos += System.nanoTime() - start;
+    }
+
+    @Override
+    public void close() throws IOException {
+        final long start = System.nanoTime();
+        try {
+            this.out.close();
+        } finally {
+            this.nanos += System.nanoTime() - start;
+        }
+    }
+
+    /**
+     * Gets the time spent in the wrapped stream.
+     *
+     * @return the nanoseconds
+     */
+    public long getNanos() {
+        return this.nanos;
+    }
+
+}
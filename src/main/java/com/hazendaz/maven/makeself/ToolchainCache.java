@@ -0,0 +1,169 @@
+/*
+ *    Copyright 2011-2026 the original author or authors.
+ *
+ *    This program is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU General Public License
+ *    as published by the Free Software Foundation; either version 2
+ *    of the License, or (at your option) any later version.
+ *
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.gnu.org/licenses/old-licenses/gpl-2.0.en.html
+ *
+ *    This program is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ */
+package com.hazendaz.maven.makeself;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.plugin.logging.Log;
+import org.eclipse.aether.RepositorySystemSession;
+import org.eclipse.aether.SessionData;
+
+/**
+ * The Class ToolchainCache.
+ * <p>
+ * Holds the toolchain setup shared by every execution of the plugin in one Maven session: the portable git
+ * coordinates, the verified portable git installs and the makeself script directories already written. It is stored in
+ * the session data of the repository session, so it lives exactly as long as the session (also under a long running
+ * daemon) and is shared by parallel builder threads. The session data key is this class, which is specific to the
+ * plugin version's class realm, so different plugin versions never share a cache. Portable git installs are keyed by
+ * their location, which includes the git version. All methods are thread safe.
+ * </p>
+ */
+public class ToolchainCache {
+
+    /** The portable git coordinates. */
+    private volatile PortableGit portableGit;
+
+    /** The bundled makeself version. */
+    private volatile MakeselfVersion makeselfVersion;
+
+    /** The verified portable git install locations. */
+    private final Set<String> gitLocations = ConcurrentHashMap.newKeySet();
+
+    /** The makeself script directories already written. */
+    private final Set<Path> makeselfDirectories = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Get the cache of the session, creating it on first use. Without session data, for instance outside of Maven, a
+     * new cache is returned that is not shared.
+     *
+     * @param session
+     *            the repository session, may be null
+     *
+     * @return the toolchain cache
+     */
+    public static ToolchainCache get(final RepositorySystemSession session) {
+        final SessionData data = session == null ? null : session.getData();
+        if (data == null) {
+            return new ToolchainCache();
+        }
+        final Object cache = data.get(ToolchainCache.class);
+        if (cache != null) {
+            return (ToolchainCache) cache;
+        }
+        // Compare and set, computeIfAbsent is not available in the resolver of older Maven versions
+        data.set(ToolchainCache.class, null, new ToolchainCache());
+        return (ToolchainCache) data.get(ToolchainCache.class);
+    }
+
+    /**
+     * Gets the portable git coordinates, read once.
+     *
+     * @param log
+     *            the log
+     *
+     * @return the portable git
+     *
+     * @throws MojoFailureException
+     *             the mojo failure exception
+     */
+    public PortableGit getPortableGit(final Log log) throws MojoFailureException {
+        PortableGit result = this.portableGit;
+        if (result == null) {
+            synchronized (this) {
+                result = this.portableGit;
+                if (result == null) {
+                    result = new PortableGit(log);
+                    this.portableGit = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Gets the bundled makeself version, read once.
+     *
+     * @return the makeself version
+     *
+     * @throws IOException
+     *             Signals that an I/O exception has occurred.
+     */
+    public MakeselfVersion getMakeselfVersion() throws IOException {
+        MakeselfVersion result = this.makeselfVersion;
+        if (result == null) {
+            synchronized (this) {
+                result = this.makeselfVersion;
+                if (result == null) {
+                    result = new MakeselfVersion();
+                    this.makeselfVersion = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Checks if a portable git install was verified in this session.
+     *
+     * @param location
+     *            the install location
+     *
+     * @return true, if verified
+     */
+    public boolean isGitInstalled(final String location) {
+        return this.gitLocations.contains(location);
+    }
+
+    /**
+     * Record a verified portable git install.
+     *
+     * @param location
+     *            the install location
+     */
+    public void gitInstalled(final String location) {
+        this.gitLocations.add(location);
+    }
+
+    /**
+     * Checks if the makeself scripts were written to a directory in this session.
+     *
+     * @param directory
+     *            the directory
+     *
+     * @return true, if written
+     */
+    public boolean isMakeselfExtracted(final Path directory) {
+        return this.makeselfDirectories.contains(directory);
+    }
+
+    /**
+     * Record the makeself scripts written to a directory.
+     *
+     * @param directory
+     *            the directory
+     */
+    public void makeselfExtracted(final Path directory) {
+        this.makeselfDirectories.add(directory);
+    }
+
+}
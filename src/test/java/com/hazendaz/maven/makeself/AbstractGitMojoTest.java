@@ -20,14 +20,22 @@ package com.hazendaz.maven.makeself;
 import java.lang.reflect.Field;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
 
 import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
 import org.apache.commons.compress.archivers.tar.TarArchiveOutputStream;
 import org.apache.commons.compress.compressors.gzip.GzipCompressorOutputStream;
 import org.apache.maven.plugin.MojoFailureException;
 import org.apache.maven.plugin.logging.Log;
+import org.eclipse.aether.DefaultSessionData;
 import org.eclipse.aether.RepositorySystem;
 import org.eclipse.aether.RepositorySystemSession;
 import org.eclipse.aether.artifact.Artifact;
@@ -142,14 +150,15 @@ class AbstractGitMojoTest {
         final List<String> command = AbstractGitMojo.WINDOWS ? Arrays.asList("cmd", "/c", "echo", "hello")
                 : Arrays.asList("echo", "hello");
 
-        mojo.runInstaller(command);
+        Assertions.assertEquals(0, mojo.runInstaller(command));
 
         // runInstaller always logs an empty line after draining the process output
         Mockito.verify(log).info("");
     }
 
     /**
-     * Test runInstaller with a process that exits with a non-zero status. Verifies the error is logged.
+     * Test runInstaller with a process that exits with a non-zero status. Verifies the status is returned and the error
+     * is logged.
      *
      * @throws Exception
      *             the exception
@@ -161,13 +170,13 @@ class AbstractGitMojoTest {
         final GitMojo mojo = new GitMojo();
         mojo.setLog(log);
 
-        mojo.runInstaller(Arrays.asList("bash", "-c", "exit 1"));
+        Assertions.assertEquals(1, mojo.runInstaller(Arrays.asList("bash", "-c", "exit 1")));
 
         Mockito.verify(log).error(Mockito.contains("Process failed with error status:"));
     }
 
     /**
-     * Test extractPortableGit when the expected local directory already exists. Verifies gitPath is set to the existing
+     * Test extractPortableGit when a complete install already exists. Verifies gitPath is set to the existing
      * location and no artifact resolution is attempted.
      *
      * @throws Exception
@@ -185,6 +194,7 @@ class AbstractGitMojoTest {
         // Create the directory that extractPortableGit looks for
         final Path existingLocation = tempDir.resolve(portableGit.getName()).resolve(portableGit.getVersion());
         Files.createDirectories(existingLocation);
+        Files.createFile(existingLocation.resolve(AbstractGitMojo.INSTALL_MARKER));
 
         final LocalRepository localRepository = new LocalRepository(tempDir.toFile());
         Mockito.when(repoSession.getLocalRepository()).thenReturn(localRepository);
@@ -271,6 +281,7 @@ class AbstractGitMojoTest {
         final PortableGit portableGit = new PortableGit(log);
         final Path existingLocation = tempDir.resolve(portableGit.getName()).resolve(portableGit.getVersion());
         Files.createDirectories(existingLocation);
+        Files.createFile(existingLocation.resolve(AbstractGitMojo.INSTALL_MARKER));
 
         final LocalRepository localRepository = new LocalRepository(tempDir.toFile());
         Mockito.when(repoSession.getLocalRepository()).thenReturn(localRepository);
@@ -323,8 +334,7 @@ class AbstractGitMojoTest {
 
     /**
      * Test installGit extracts files from a synthetic tar.gz to the configured local repository directory. Verifies
-     * that the content is extracted even though the subsequent "installer" call will fail on non-Windows (the error is
-     * caught and logged rather than re-thrown).
+     * that the content is extracted even though the subsequent "installer" call fails on non-Windows.
      *
      * @throws Exception
      *             the exception
@@ -354,8 +364,8 @@ class AbstractGitMojoTest {
         final String location = tempDir.toFile().getAbsolutePath() + java.io.File.separator + portableGit.getName()
                 + java.io.File.separator + portableGit.getVersion();
 
-        // Should not throw; any IOException from running the "installer" is caught and logged
-        mojo.installGit(artifact, location);
+        // The extracted install.sh is not executable
+        Assertions.assertThrows(MojoFailureException.class, () -> mojo.installGit(artifact, location));
 
         // Verify that at least one file was extracted to the PortableGit directory
         final Path extractedDir = tempDir.resolve(portableGit.getName());
@@ -363,7 +373,7 @@ class AbstractGitMojoTest {
     }
 
     /**
-     * Test installGit gracefully handles an IOException from a bad tar.gz (empty file).
+     * Test installGit fails on an IOException from a bad tar.gz (empty file).
      *
      * @throws Exception
      *             the exception
@@ -386,14 +396,14 @@ class AbstractGitMojoTest {
         final String location = tempDir.toFile().getAbsolutePath() + java.io.File.separator + portableGit.getName()
                 + java.io.File.separator + portableGit.getVersion();
 
-        // Should not throw – IOException from bad gzip is caught and logged
-        Assertions.assertDoesNotThrow(() -> mojo.installGit(artifact, location));
-        Mockito.verify(log).error(Mockito.eq(""), Mockito.any(Exception.class));
+        final MojoFailureException e = Assertions.assertThrows(MojoFailureException.class,
+                () -> mojo.installGit(artifact, location));
+        Assertions.assertEquals("Unable to extract portable git from " + emptyFile, e.getMessage());
+        Assertions.assertNull(getField(mojo, "gitPath"));
     }
 
     /**
-     * Test installGit detects a directory-traversal attempt and throws an IOException that is caught internally.
-     * Verifies that the error is logged and no exception escapes.
+     * Test installGit detects a directory-traversal attempt and fails without writing the entry or running it.
      *
      * @throws Exception
      *             the exception
@@ -429,9 +439,10 @@ class AbstractGitMojoTest {
         final String location = tempDir.toFile().getAbsolutePath() + java.io.File.separator + portableGit.getName()
                 + java.io.File.separator + portableGit.getVersion();
 
-        // Should not throw – the traversal IOException is caught and logged
-        Assertions.assertDoesNotThrow(() -> mojo.installGit(artifact, location));
-        Mockito.verify(log, Mockito.atLeastOnce()).error(Mockito.eq(""), Mockito.any(Exception.class));
+        final MojoFailureException e = Assertions.assertThrows(MojoFailureException.class,
+                () -> mojo.installGit(artifact, location));
+        Assertions.assertEquals("Bad zip entry, possible directory traversal", e.getCause().getMessage());
+        Assertions.assertNull(getField(mojo, "gitPath"));
     }
 
     /**
@@ -445,9 +456,10 @@ class AbstractGitMojoTest {
     void testInstallGitRunsInstaller() throws Exception {
         final GitMojo mojo = new GitMojo() {
             @Override
-            protected void runInstaller(final java.util.List<String> command)
+            protected int runInstaller(final java.util.List<String> command)
                     throws java.io.IOException, InterruptedException {
                 // Simulate successful installer execution without spawning a process
+                return 0;
             }
         };
         mojo.setLog(log);
@@ -478,8 +490,8 @@ class AbstractGitMojoTest {
     }
 
     /**
-     * Test extractPortableGit calls installGit when the artifact is successfully resolved. Verifies that the code path
-     * after isResolved()=true is exercised (lines that call installGit).
+     * Test extractPortableGit calls installGit when the artifact is successfully resolved, and fails when the installer
+     * cannot be run.
      *
      * @throws Exception
      *             the exception
@@ -514,8 +526,233 @@ class AbstractGitMojoTest {
         Mockito.when(repositorySystem.resolveArtifact(Mockito.any(), Mockito.any())).thenReturn(resolvedResult);
         setField(mojo, "repositorySystem", repositorySystem);
 
-        // extractPortableGit should call installGit without throwing
-        Assertions.assertDoesNotThrow(mojo::extractPortableGit);
+        // The extracted install.sh is not executable
+        final MojoFailureException e = Assertions.assertThrows(MojoFailureException.class, mojo::extractPortableGit);
+        Assertions.assertTrue(e.getMessage().startsWith("Unable to run portable git installer "));
+    }
+
+    /**
+     * Create a mojo resolving a synthetic portable git artifact, whose installer run is counted and, when requested,
+     * writes a bash stub to the output directory as the real installer would.
+     *
+     * @param installs
+     *            the installer run count
+     * @param install
+     *            true to write files to the output directory
+     *
+     * @return the git mojo
+     *
+     * @throws Exception
+     *             the exception
+     */
+    private GitMojo resolvedMojo(final AtomicInteger installs, final boolean install) throws Exception {
+        return this.resolvedMojo(installs, install, 0);
+    }
+
+    /**
+     * Create a mojo resolving a synthetic portable git artifact, whose installer exits with the given status.
+     *
+     * @param installs
+     *            the installer run count
+     * @param install
+     *            true to write files to the output directory
+     * @param status
+     *            the installer exit status
+     *
+     * @return the git mojo
+     *
+     * @throws Exception
+     *             the exception
+     */
+    private GitMojo resolvedMojo(final AtomicInteger installs, final boolean install, final int status)
+            throws Exception {
+        final GitMojo mojo = new GitMojo() {
+            @Override
+            protected int runInstaller(final List<String> command) throws java.io.IOException {
+                installs.incrementAndGet();
+                if (install) {
+                    final Path bin = Files.createDirectories(Path.of(command.get(3), "usr", "bin"));
+                    Files.writeString(bin.resolve("bash"), "bash");
+                }
+                return status;
+            }
+        };
+        mojo.setLog(log);
+        setField(mojo, "portableGit", new PortableGit(log));
+        setField(mojo, "remoteRepositories", List.of());
+
+        final LocalRepository localRepository = new LocalRepository(tempDir.toFile());
+        Mockito.lenient().when(repoSession.getLocalRepository()).thenReturn(localRepository);
+        setField(mojo, "repoSession", repoSession);
+
+        final Path tarGzPath = tempDir.resolve("installer-portable-git.tar.gz");
+        if (!Files.exists(tarGzPath)) {
+            createTarGz(tarGzPath, "installer.exe", new byte[] { 1 });
+        }
+        final Artifact resolvedArtifact = Mockito.mock(Artifact.class);
+        Mockito.lenient().when(resolvedArtifact.getFile()).thenReturn(tarGzPath.toFile());
+        final ArtifactResult resolvedResult = Mockito.mock(ArtifactResult.class);
+        Mockito.lenient().when(resolvedResult.isResolved()).thenReturn(true);
+        Mockito.lenient().when(resolvedResult.getArtifact()).thenReturn(resolvedArtifact);
+        Mockito.lenient().when(repositorySystem.resolveArtifact(Mockito.any(), Mockito.any()))
+                .thenReturn(resolvedResult);
+        setField(mojo, "repositorySystem", repositorySystem);
+        return mojo;
+    }
+
+    /**
+     * Test the installer runs into a staging directory that is marked complete and renamed into place.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    void testExtractPortableGitStagesAndMarks() throws Exception {
+        final AtomicInteger installs = new AtomicInteger();
+        final GitMojo mojo = this.resolvedMojo(installs, true);
+        final PortableGit portableGit = new PortableGit(log);
+        final Path location = tempDir.resolve(portableGit.getName()).resolve(portableGit.getVersion());
+
+        mojo.extractPortableGit();
+
+        Assertions.assertEquals(1, installs.get());
+        Assertions.assertTrue(Files.exists(location.resolve("usr/bin/bash")));
+        Assertions.assertTrue(Files.exists(location.resolve(AbstractGitMojo.INSTALL_MARKER)));
+        Assertions.assertEquals(location + AbstractGitMojo.GIT_USER_BIN, getField(mojo, "gitPath"));
+        try (Stream<Path> files = Files.list(location.getParent())) {
+            Assertions.assertTrue(files.noneMatch(file -> file.getFileName().toString().contains(".tmp-")),
+                    "staging directory must be renamed");
+        }
+
+        // A second build finds the marker and does not install again
+        this.resolvedMojo(installs, true).extractPortableGit();
+        Assertions.assertEquals(1, installs.get());
+    }
+
+    /**
+     * Test builds extracting at the same time wait for one install rather than each running it.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    void testExtractPortableGitConcurrent() throws Exception {
+        final AtomicInteger installs = new AtomicInteger();
+        final List<GitMojo> mojos = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            mojos.add(this.resolvedMojo(installs, true));
+        }
+        final ExecutorService executor = Executors.newFixedThreadPool(mojos.size());
+        try {
+            final List<Future<Object>> results = new ArrayList<>();
+            for (final GitMojo mojo : mojos) {
+                results.add(executor.submit(() -> {
+                    mojo.extractPortableGit();
+                    return null;
+                }));
+            }
+            for (final Future<Object> result : results) {
+                result.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        Assertions.assertEquals(1, installs.get());
+        for (final GitMojo mojo : mojos) {
+            final String gitPath = getField(mojo, "gitPath");
+            Assertions.assertTrue(gitPath.endsWith(AbstractGitMojo.GIT_USER_BIN));
+        }
+    }
+
+    /**
+     * Test a failed installer leaves neither a partial install nor its staging directory.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    void testExtractPortableGitInstallerWroteNothing() throws Exception {
+        final GitMojo mojo = this.resolvedMojo(new AtomicInteger(), false);
+        final PortableGit portableGit = new PortableGit(log);
+        final Path location = tempDir.resolve(portableGit.getName()).resolve(portableGit.getVersion());
+
+        final MojoFailureException e = Assertions.assertThrows(MojoFailureException.class, mojo::extractPortableGit);
+
+        Assertions.assertEquals("Portable git installer did not complete, nothing installed at " + location,
+                e.getMessage());
+        Assertions.assertFalse(Files.exists(location));
+        try (Stream<Path> files = Files.list(location.getParent())) {
+            Assertions.assertTrue(files.noneMatch(file -> file.getFileName().toString().contains(".tmp-")));
+        }
+    }
+
+    /**
+     * Test an installer exiting with a non-zero status fails the build and installs nothing, even when it wrote files.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    void testExtractPortableGitInstallerFailedStatus() throws Exception {
+        final GitMojo mojo = this.resolvedMojo(new AtomicInteger(), true, 2);
+        final PortableGit portableGit = new PortableGit(log);
+        final Path location = tempDir.resolve(portableGit.getName()).resolve(portableGit.getVersion());
+
+        final MojoFailureException e = Assertions.assertThrows(MojoFailureException.class, mojo::extractPortableGit);
+
+        Assertions.assertEquals("Portable git installer failed with status 2", e.getMessage());
+        Assertions.assertFalse(Files.exists(location));
+        Assertions.assertNull(getField(mojo, "gitPath"));
+        try (Stream<Path> files = Files.list(location.getParent())) {
+            Assertions.assertTrue(files.noneMatch(file -> file.getFileName().toString().contains(".tmp-")));
+        }
+    }
+
+    /**
+     * Test an install without the marker, left by an interrupted install, is removed and installed again.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    void testExtractPortableGitReinstallsUnmarkedInstall() throws Exception {
+        final AtomicInteger installs = new AtomicInteger();
+        final GitMojo mojo = this.resolvedMojo(installs, true);
+        final PortableGit portableGit = new PortableGit(log);
+        final Path location = Files
+                .createDirectories(tempDir.resolve(portableGit.getName()).resolve(portableGit.getVersion()));
+        Files.writeString(location.resolve("partial"), "partial");
+
+        mojo.extractPortableGit();
+
+        Assertions.assertEquals(1, installs.get());
+        Assertions.assertTrue(Files.exists(location.resolve(AbstractGitMojo.INSTALL_MARKER)));
+        Assertions.assertTrue(Files.exists(location.resolve("usr/bin/bash")));
+        Assertions.assertFalse(Files.exists(location.resolve("partial")));
+    }
+
+    /**
+     * Test an install verified once is reused by later executions in the same session.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    void testCheckGitSetupReusedInSession() throws Exception {
+        final AtomicInteger installs = new AtomicInteger();
+        Mockito.when(repoSession.getData()).thenReturn(new DefaultSessionData());
+        final GitMojo first = this.resolvedMojo(installs, true);
+        first.checkGitSetup();
+
+        final GitMojo second = this.resolvedMojo(installs, true);
+        second.checkGitSetup();
+
+        Assertions.assertEquals(1, installs.get());
+        final String firstPath = getField(first, "gitPath");
+        final String secondPath = getField(second, "gitPath");
+        Assertions.assertEquals(firstPath, secondPath);
+        Mockito.verify(log).debug(Mockito.startsWith("Using 'PortableGit' verified in this session at "));
     }
 
 }
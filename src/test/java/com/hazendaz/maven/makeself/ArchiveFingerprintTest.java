@@ -0,0 +1,143 @@
+/*
+ *    Copyright 2011-2026 the original author or authors.
+ *
+ *    This program is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU General Public License
+ *    as published by the Free Software Foundation; either version 2
+ *    of the License, or (at your option) any later version.
+ *
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.gnu.org/licenses/old-licenses/gpl-2.0.en.html
+ *
+ *    This program is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ */
+package com.hazendaz.maven.makeself;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * The Class ArchiveFingerprintTest.
+ */
+class ArchiveFingerprintTest {
+
+    /** Temporary directory for test files. */
+    @TempDir
+    Path tempDir;
+
+    /** The archive directory. */
+    private Path archiveDir;
+
+    /** The archive file. */
+    private Path archiveFile;
+
+    /** The manifest. */
+    private Path manifest;
+
+    /**
+     * Create an archive directory and a built archive.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @BeforeEach
+    void setUp() throws Exception {
+        this.archiveDir = Files.createDirectories(this.tempDir.resolve("archive/sub"));
+        Files.writeString(this.archiveDir.resolve("a.txt"), "a");
+        this.archiveFile = Files.writeString(this.tempDir.resolve("test.run"), "archive");
+        this.manifest = this.tempDir.resolve("tmp/test.run.fingerprint");
+    }
+
+    /**
+     * Fingerprint the test inputs.
+     *
+     * @param option
+     *            an option value
+     * @param hashContent
+     *            hash file content
+     *
+     * @return the archive fingerprint
+     *
+     * @throws Exception
+     *             the exception
+     */
+    private ArchiveFingerprint fingerprint(final String option, final boolean hashContent) throws Exception {
+        final ArchiveFingerprint fingerprint = new ArchiveFingerprint(this.manifest, this.archiveFile);
+        fingerprint.addValues(List.of("--gzip", option));
+        fingerprint.addFile(null);
+        fingerprint.addDirectory(this.tempDir.resolve("archive"), false, hashContent);
+        return fingerprint;
+    }
+
+    /**
+     * Test an archive is up to date only after its fingerprint was saved.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    void testUpToDate() throws Exception {
+        Assertions.assertFalse(this.fingerprint("x", false).isUpToDate());
+
+        this.fingerprint("x", false).save();
+
+        Assertions.assertTrue(this.fingerprint("x", false).isUpToDate());
+        Assertions.assertEquals(this.fingerprint("x", false).getValue(), this.fingerprint("x", false).getValue());
+    }
+
+    /**
+     * Test changed options, content or archive all require a rebuild.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    void testChanges() throws Exception {
+        this.fingerprint("x", false).save();
+
+        Assertions.assertFalse(this.fingerprint("y", false).isUpToDate());
+
+        Files.writeString(this.archiveDir.resolve("b.txt"), "b");
+        Assertions.assertFalse(this.fingerprint("x", false).isUpToDate());
+        this.fingerprint("x", false).save();
+
+        Files.writeString(this.archiveFile, "changed archive");
+        Assertions.assertFalse(this.fingerprint("x", false).isUpToDate());
+        this.fingerprint("x", false).save();
+
+        this.fingerprint("x", false).invalidate();
+        Assertions.assertFalse(this.fingerprint("x", false).isUpToDate());
+    }
+
+    /**
+     * Test content hashing detects edits that keep size and modification time.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    void testHashContent() throws Exception {
+        final Path file = this.archiveDir.resolve("a.txt");
+        final FileTime modified = Files.getLastModifiedTime(file);
+        final String hashed = this.fingerprint("x", true).getValue();
+        this.fingerprint("x", false).save();
+
+        Files.writeString(file, "z");
+        Files.setLastModifiedTime(file, modified);
+
+        Assertions.assertTrue(this.fingerprint("x", false).isUpToDate());
+        Assertions.assertNotEquals(hashed, this.fingerprint("x", true).getValue());
+    }
+
+}
@@ -0,0 +1,237 @@
+/*
+ *    Copyright 2011-2026 the original author or authors.
+ *
+ *    This program is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU General Public License
+ *    as published by the Free Software Foundation; either version 2
+ *    of the License, or (at your option) any later version.
+ *
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.gnu.org/licenses/old-licenses/gpl-2.0.en.html
+ *
+ *    This program is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ */
+package com.hazendaz.maven.makeself;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * The Class ArchiveSplitterTest.
+ */
+class ArchiveSplitterTest {
+
+    /** Temporary directory for test files. */
+    @TempDir
+    Path tempDir;
+
+    /** The archive, a script padded to span several parts. */
+    private Path archive;
+
+    /** The launcher. */
+    private Path launcher;
+
+    /**
+     * Create the archive.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @BeforeEach
+    void setUp() throws Exception {
+        final StringBuilder script = new StringBuilder("#!/bin/sh\necho \"$@\" > args.txt\nexit 0\n");
+        for (int i = 0; i < 400; i++) {
+            script.append("# padding line ").append(i).append('\n');
+        }
+        this.archive = this.tempDir.resolve("test.run");
+        Files.writeString(this.archive, script, StandardCharsets.UTF_8);
+        this.launcher = this.tempDir.resolve("split/test.run");
+    }
+
+    /**
+     * Run the launcher.
+     *
+     * @param args
+     *            the arguments
+     *
+     * @return the exit value
+     *
+     * @throws Exception
+     *             the exception
+     */
+    private int runLauncher(final String... args) throws Exception {
+        return this.runLauncher(Map.of(), args);
+    }
+
+    /**
+     * Run the launcher with additional environment variables.
+     *
+     * @param environment
+     *            the environment variables
+     * @param args
+     *            the arguments
+     *
+     * @return the exit value
+     *
+     * @throws Exception
+     *             the exception
+     */
+    private int runLauncher(final Map<String, String> environment, final String... args) throws Exception {
+        final String[] command = new String[args.length + 2];
+        command[0] = "sh";
+        command[1] = this.launcher.toString();
+        System.arraycopy(args, 0, command, 2, args.length);
+        final ProcessBuilder builder = new ProcessBuilder(command).directory(this.tempDir.toFile())
+                .redirectErrorStream(true).redirectOutput(ProcessBuilder.Redirect.DISCARD);
+        builder.environment().put("TMPDIR", this.tempDir.toString());
+        builder.environment().putAll(environment);
+        final Process process = builder.start();
+        Assertions.assertTrue(process.waitFor(60, TimeUnit.SECONDS));
+        return process.exitValue();
+    }
+
+    /**
+     * Test the parts are named after the launcher and join to the archive.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    void testSplit() throws Exception {
+        final ArchiveSplitter splitter = new ArchiveSplitter("run", 4096);
+
+        final List<Path> parts = splitter.split(this.archive, this.launcher);
+
+        final long size = Files.size(this.archive);
+        Assertions.assertEquals((size + 4095) / 4096, parts.size());
+        Assertions.assertEquals(this.tempDir.resolve("split/test-part1.run"), parts.get(0));
+        final ByteArrayOutputStream joined = new ByteArrayOutputStream();
+        for (final Path part : parts) {
+            Assertions.assertTrue(Files.size(part) <= 4096);
+            joined.write(Files.readAllBytes(part));
+        }
+        Assertions.assertArrayEquals(Files.readAllBytes(this.archive), joined.toByteArray());
+        Assertions.assertEquals(parts, splitter.parts(this.launcher));
+        Assertions.assertTrue(Files.readString(this.launcher).startsWith("#!/bin/sh\n"));
+    }
+
+    /**
+     * Test a second split removes parts of the previous one that are no longer needed.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    void testSplitRemovesStaleParts() throws Exception {
+        new ArchiveSplitter("run", 1024).split(this.archive, this.launcher);
+
+        final List<Path> parts = new ArrayList<>(new ArchiveSplitter("run", 1024 * 1024).split(this.archive,
+                this.launcher));
+
+        Assertions.assertEquals(1, parts.size());
+        Assertions.assertFalse(Files.exists(this.tempDir.resolve("split/test-part2.run")));
+    }
+
+    /**
+     * Test the launcher joins the parts and runs the archive with its arguments.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    void testLauncherRuns() throws Exception {
+        Assumptions.assumeFalse(AbstractGitMojo.WINDOWS, "Test only applicable on non-Windows");
+        new ArchiveSplitter("run", 2048).split(this.archive, this.launcher);
+
+        Assertions.assertEquals(0, this.runLauncher("--quiet", "a b"));
+        Assertions.assertEquals("--quiet a b\n", Files.readString(this.tempDir.resolve("args.txt")));
+    }
+
+    /**
+     * Test the launcher refuses a corrupted part and does not run the archive.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    void testLauncherCorruptPart() throws Exception {
+        Assumptions.assumeFalse(AbstractGitMojo.WINDOWS, "Test only applicable on non-Windows");
+        final List<Path> parts = new ArchiveSplitter("run", 2048).split(this.archive, this.launcher);
+        final byte[] bytes = Files.readAllBytes(parts.get(1));
+        bytes[0] ^= 1;
+        Files.write(parts.get(1), bytes);
+
+        Assertions.assertEquals(1, this.runLauncher());
+        Assertions.assertFalse(Files.exists(this.tempDir.resolve("args.txt")));
+        try (Stream<Path> files = Files.list(this.tempDir)) {
+            Assertions.assertEquals(0, files.filter(file -> file.getFileName().toString().startsWith("makeself-split"))
+                    .count(), "the joined archive is removed");
+        }
+    }
+
+    /**
+     * Test part classifiers follow the classifier of the archive.
+     */
+    @Test
+    void testClassifier() {
+        Assertions.assertEquals("part1", ArchiveSplitter.classifier(null, 1));
+        Assertions.assertEquals("linux-part12", ArchiveSplitter.classifier("linux", 12));
+    }
+
+    /**
+     * Test sizes are parsed with and without a suffix.
+     */
+    @Test
+    void testParseSize() {
+        Assertions.assertEquals(1000, ArchiveSplitter.parseSize("1000"));
+        Assertions.assertEquals(512 * 1024, ArchiveSplitter.parseSize("512k"));
+        Assertions.assertEquals(2L * 1024 * 1024 * 1024, ArchiveSplitter.parseSize("2G"));
+        Assertions.assertThrows(NumberFormatException.class, () -> ArchiveSplitter.parseSize("0"));
+        Assertions.assertThrows(NumberFormatException.class, () -> ArchiveSplitter.parseSize("big"));
+        Assertions.assertThrows(NumberFormatException.class, () -> ArchiveSplitter.parseSize(""));
+    }
+
+    /**
+     * Test the launcher does not join the parts when TMPDIR has no room for the archive.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    void testLauncherNotEnoughSpace() throws Exception {
+        Assumptions.assumeFalse(AbstractGitMojo.WINDOWS, "Test only applicable on non-Windows");
+        new ArchiveSplitter("run", 2048).split(this.archive, this.launcher);
+        // A df reporting a full file system
+        final Path bin = Files.createDirectories(this.tempDir.resolve("bin"));
+        Files.writeString(bin.resolve("df"),
+                "#!/bin/sh\necho 'Filesystem 1024-blocks Used Available Capacity Mounted on'\n"
+                        + "echo 'tmpfs 100 100 0 100% /tmp'\n",
+                StandardCharsets.UTF_8);
+        Assertions.assertTrue(bin.resolve("df").toFile().setExecutable(true));
+
+        Assertions.assertEquals(1, this.runLauncher(Map.of("PATH", bin + ":" + System.getenv("PATH"))));
+        Assertions.assertFalse(Files.exists(this.tempDir.resolve("args.txt")));
+        try (Stream<Path> files = Files.list(this.tempDir)) {
+            Assertions.assertEquals(0, files.filter(file -> file.getFileName().toString().startsWith("makeself-split"))
+                    .count(), "the temporary directory is removed");
+        }
+    }
+
+}
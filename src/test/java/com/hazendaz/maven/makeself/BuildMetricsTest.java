@@ -0,0 +1,121 @@
+/*
+ *    Copyright 2011-2026 the original author or authors.
+ *
+ *    This program is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU General Public License
+ *    as published by the Free Software Foundation; either version 2
+ *    of the License, or (at your option) any later version.
+ *
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.gnu.org/licenses/old-licenses/gpl-2.0.en.html
+ *
+ *    This program is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ */
+package com.hazendaz.maven.makeself;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * The Class BuildMetricsTest.
+ */
+class BuildMetricsTest {
+
+    /** The temp dir. */
+    @TempDir
+    Path tempDir;
+
+    /**
+     * Test phases accumulate and the sizes give the ratio.
+     */
+    @Test
+    void testPhasesAndRatio() {
+        final BuildMetrics metrics = new BuildMetrics();
+        metrics.addPhase("build", 1_500_000_000L);
+        metrics.addPhase("build", 500_000_000L);
+        metrics.addPhase("setup", -1);
+        metrics.setBytesIn(4_000_000);
+        metrics.setBytesOut(1_000_000);
+        metrics.process();
+        metrics.process();
+
+        Assertions.assertEquals(2000, metrics.getPhaseMillis("build"));
+        Assertions.assertEquals(0, metrics.getPhaseMillis("setup"));
+        Assertions.assertEquals(0, metrics.getPhaseMillis("describe"));
+        Assertions.assertEquals(4.0, metrics.getCompressionRatio());
+        Assertions.assertEquals(2.0, metrics.getThroughput());
+        Assertions.assertEquals(2, metrics.getProcesses());
+        Assertions.assertTrue(metrics.summary().endsWith("ratio 4.00, 2.0 MB/s, 2 processes"));
+    }
+
+    /**
+     * Test nothing written reports no ratio or throughput rather than dividing by zero.
+     */
+    @Test
+    void testEmpty() {
+        final BuildMetrics metrics = new BuildMetrics();
+
+        Assertions.assertEquals(0.0, metrics.getCompressionRatio());
+        Assertions.assertEquals(0.0, metrics.getThroughput());
+        Assertions.assertTrue(metrics.toJson().contains("\"phases\": {},"));
+    }
+
+    /**
+     * Test the JSON report escapes values and lists phases in order.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    void testWriteJson() throws Exception {
+        final BuildMetrics metrics = new BuildMetrics();
+        metrics.set("archive", "my \"app\"\\1.sh");
+        metrics.set("level", 9);
+        metrics.set("upToDate", false);
+        metrics.set("classifier", null);
+        metrics.addPhase("setup", 2_000_000L);
+        metrics.addPhase("build", 3_000_000L);
+        metrics.setBytesIn(300);
+        metrics.setBytesOut(100);
+        metrics.setArchiveBytes(150);
+
+        final Path report = this.tempDir.resolve("metrics/app.json");
+        metrics.write(report);
+
+        final String json = Files.readString(report, StandardCharsets.UTF_8);
+        Assertions.assertTrue(json.startsWith("{\n  \"archive\": \"my \\\"app\\\"\\\\1.sh\",\n"));
+        Assertions.assertTrue(json.contains("  \"level\": 9,\n  \"upToDate\": false,\n  \"classifier\": null,\n"));
+        Assertions.assertTrue(json.contains("\"phases\": {\n    \"setupMillis\": 2,\n    \"buildMillis\": 3\n  },"));
+        Assertions.assertTrue(json.contains("\"archiveBytes\": 150,\n  \"compressionRatio\": 3.000,"));
+        Assertions.assertTrue(json.endsWith("\"processes\": 0\n}\n"));
+    }
+
+    /**
+     * Test the timed stream passes every write through.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    void testTimedOutputStream() throws Exception {
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+        try (TimedOutputStream timed = new TimedOutputStream(output)) {
+            timed.write('a');
+            timed.write("bcd".getBytes(StandardCharsets.US_ASCII), 1, 2);
+            timed.flush();
+            Assertions.assertTrue(timed.getNanos() >= 0);
+        }
+        Assertions.assertEquals("acd", output.toString(StandardCharsets.US_ASCII));
+    }
+
+}
@@ -0,0 +1,72 @@
+/*
+ *    Copyright 2011-2026 the original author or authors.
+ *
+ *    This program is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU General Public License
+ *    as published by the Free Software Foundation; either version 2
+ *    of the License, or (at your option) any later version.
+ *
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.gnu.org/licenses/old-licenses/gpl-2.0.en.html
+ *
+ *    This program is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ */
+package com.hazendaz.maven.makeself;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * The Class ChecksumOutputStreamTest.
+ */
+class ChecksumOutputStreamTest {
+
+    /**
+     * Test all checksums are computed in the same pass the data is written, matching cksum, md5sum and sha256sum.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    void testAllChecksums() throws Exception {
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+        try (ChecksumOutputStream checksums = new ChecksumOutputStream(output, true, true, true)) {
+            checksums.write('h');
+            checksums.write("ello\n".getBytes(StandardCharsets.US_ASCII));
+
+            Assertions.assertEquals(6, checksums.getCount());
+            Assertions.assertEquals("3015617425", checksums.getCrc());
+            Assertions.assertEquals("b1946ac92492d2347c6235b4d2611184", checksums.getMd5());
+            Assertions.assertEquals("5891b5b522d5df086d0ff0b110fbd9d21bb4fc7163af34d08286a2e846f6be03",
+                    checksums.getSha256());
+        }
+        Assertions.assertEquals("hello\n", output.toString(StandardCharsets.US_ASCII));
+    }
+
+    /**
+     * Test disabled checksums report the makeself.sh placeholders.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    void testDisabledChecksums() throws Exception {
+        try (ChecksumOutputStream checksums = new ChecksumOutputStream(new ByteArrayOutputStream(), false, false,
+                false)) {
+            checksums.write(new byte[] { 1, 2, 3 });
+
+            Assertions.assertEquals(3, checksums.getCount());
+            Assertions.assertEquals(ChecksumOutputStream.NO_CRC, checksums.getCrc());
+            Assertions.assertEquals(ChecksumOutputStream.NO_MD5, checksums.getMd5());
+            Assertions.assertEquals(ChecksumOutputStream.NO_SHA256, checksums.getSha256());
+        }
+    }
+
+}
@@ -0,0 +1,200 @@
+/*
+ *    Copyright 2011-2026 the original author or authors.
+ *
+ *    This program is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU General Public License
+ *    as published by the Free Software Foundation; either version 2
+ *    of the License, or (at your option) any later version.
+ *
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.gnu.org/licenses/old-licenses/gpl-2.0.en.html
+ *
+ *    This program is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ */
+package com.hazendaz.maven.makeself;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.tukaani.xz.LZMA2Options;
+
+/**
+ * The Class ChunkCacheOutputStreamTest.
+ */
+class ChunkCacheOutputStreamTest {
+
+    /** Temporary directory for the cache. */
+    @TempDir
+    Path tempDir;
+
+    /** The last stream written, to read its chunk counts. */
+    private ChunkCacheOutputStream stream;
+
+    /**
+     * Compress through the chunk cache with uneven writes.
+     *
+     * @param data
+     *            the data
+     *
+     * @return the compressed bytes
+     *
+     * @throws IOException
+     *             Signals that an I/O exception has occurred.
+     */
+    private byte[] compress(final byte[] data) throws IOException {
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+        try (ChunkCacheOutputStream chunks = new ChunkCacheOutputStream(output, Compression.GZIP, 1, 3,
+                this.tempDir.resolve("cache"))) {
+            this.stream = chunks;
+            int offset = 0;
+            int length = 1;
+            while (offset < data.length) {
+                final int count = Math.min(length, data.length - offset);
+                chunks.write(data, offset, count);
+                offset += count;
+                length = length * 3 + 1;
+            }
+        }
+        return output.toByteArray();
+    }
+
+    /**
+     * Decompress concatenated gzip members.
+     *
+     * @param gzip
+     *            the gzip bytes
+     *
+     * @return the data
+     *
+     * @throws IOException
+     *             Signals that an I/O exception has occurred.
+     */
+    private static byte[] decompress(final byte[] gzip) throws IOException {
+        try (InputStream input = Compression.GZIP.decompress(new ByteArrayInputStream(gzip))) {
+            return input.readAllBytes();
+        }
+    }
+
+    /**
+     * Create data of the given size.
+     *
+     * @param size
+     *            the size
+     *
+     * @return the data
+     */
+    private static byte[] data(final int size) {
+        final byte[] data = new byte[size];
+        new Random(3).nextBytes(data);
+        return data;
+    }
+
+    /**
+     * Test the chunks decompress as one stream and a second build copies every chunk from the cache.
+     *
+     * @throws IOException
+     *             Signals that an I/O exception has occurred.
+     */
+    @Test
+    void testReuse() throws IOException {
+        final byte[] data = ChunkCacheOutputStreamTest.data(8 * 1024 * 1024);
+        final byte[] first = this.compress(data);
+        Assertions.assertArrayEquals(data, ChunkCacheOutputStreamTest.decompress(first));
+        final int chunks = this.stream.getChunks();
+        Assertions.assertTrue(chunks > 2, "chunks " + chunks);
+        Assertions.assertEquals(0, this.stream.getReused());
+
+        Assertions.assertArrayEquals(first, this.compress(data));
+        Assertions.assertEquals(chunks, this.stream.getChunks());
+        Assertions.assertEquals(chunks, this.stream.getReused());
+    }
+
+    /**
+     * Test inserting bytes only changes the chunks around them.
+     *
+     * @throws IOException
+     *             Signals that an I/O exception has occurred.
+     */
+    @Test
+    void testInsert() throws IOException {
+        final byte[] data = ChunkCacheOutputStreamTest.data(8 * 1024 * 1024);
+        this.compress(data);
+
+        final byte[] changed = new byte[data.length + 100];
+        final int at = data.length / 2;
+        System.arraycopy(data, 0, changed, 0, at);
+        System.arraycopy(data, at, changed, at + 100, data.length - at);
+        Assertions.assertArrayEquals(changed, ChunkCacheOutputStreamTest.decompress(this.compress(changed)));
+        Assertions.assertTrue(this.stream.getReused() >= this.stream.getChunks() - 2,
+                this.stream.getReused() + " of " + this.stream.getChunks());
+    }
+
+    /**
+     * Test chunks are cut between the minimum and the maximum size.
+     *
+     * @throws IOException
+     *             Signals that an I/O exception has occurred.
+     */
+    @Test
+    void testCutBounds() throws IOException {
+        final byte[] block = ChunkCacheOutputStreamTest.data(ChunkCacheOutputStream.MAX_CHUNK_SIZE);
+        try (ChunkCacheOutputStream chunks = new ChunkCacheOutputStream(new ByteArrayOutputStream(),
+                Compression.GZIP, 1, 1, this.tempDir.resolve("cache"))) {
+            final int cut = chunks.cut(block, 0, block.length);
+            Assertions.assertTrue(cut < 0 || cut >= ChunkCacheOutputStream.MIN_CHUNK_SIZE, "cut " + cut);
+            Assertions.assertTrue(cut <= ChunkCacheOutputStream.MAX_CHUNK_SIZE, "cut " + cut);
+        }
+    }
+
+    /**
+     * Test an empty payload is still a valid compressed stream.
+     *
+     * @throws IOException
+     *             Signals that an I/O exception has occurred.
+     */
+    @Test
+    void testEmpty() throws IOException {
+        final byte[] gzip = this.compress(new byte[0]);
+        Assertions.assertTrue(gzip.length > 0);
+        Assertions.assertEquals(0, ChunkCacheOutputStreamTest.decompress(gzip).length);
+        Assertions.assertEquals(1, this.stream.getChunks());
+    }
+
+    /**
+     * Test cached chunks are keyed by the version of the compressor libraries.
+     *
+     * @throws IOException
+     *             Signals that an I/O exception has occurred.
+     */
+    @Test
+    void testLibraryVersionKey() throws IOException {
+        Assertions.assertTrue(ChunkCacheOutputStream.libraryVersion(Compression.XZ)
+                .endsWith("-xz" + LZMA2Options.class.getPackage().getImplementationVersion()));
+        Assertions.assertNotEquals(ChunkCacheOutputStream.libraryVersion(Compression.GZIP),
+                ChunkCacheOutputStream.libraryVersion(Compression.ZSTD));
+        Assertions.assertEquals(ChunkCacheOutputStream.libraryVersion(Compression.GZIP),
+                ChunkCacheOutputStream.libraryVersion(Compression.PIGZ));
+
+        this.compress(ChunkCacheOutputStreamTest.data(1024 * 1024));
+
+        final String suffix = ".gzip-1-" + ChunkCacheOutputStream.libraryVersion(Compression.GZIP);
+        try (Stream<Path> files = Files.walk(this.tempDir.resolve("cache"))) {
+            Assertions.assertTrue(files.filter(Files::isRegularFile)
+                    .allMatch(file -> file.getFileName().toString().endsWith(suffix)));
+        }
+    }
+
+}
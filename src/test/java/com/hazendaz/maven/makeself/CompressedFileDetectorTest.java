@@ -0,0 +1,75 @@
+/*
+ *    Copyright 2011-2026 the original author or authors.
+ *
+ *    This program is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU General Public License
+ *    as published by the Free Software Foundation; either version 2
+ *    of the License, or (at your option) any later version.
+ *
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.gnu.org/licenses/old-licenses/gpl-2.0.en.html
+ *
+ *    This program is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ */
+package com.hazendaz.maven.makeself;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * The Class CompressedFileDetectorTest.
+ */
+class CompressedFileDetectorTest {
+
+    /** Temporary directory for test files. */
+    @TempDir
+    Path tempDir;
+
+    /**
+     * Test compressed files are recognized by extension or magic bytes, and text is not.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    void testDefaults() throws Exception {
+        final CompressedFileDetector detector = new CompressedFileDetector(null);
+        final Path jar = Files.writeString(this.tempDir.resolve("App.JAR"), "not really a jar");
+        final Path gzip = Files.write(this.tempDir.resolve("data"), new byte[] { 0x1f, (byte) 0x8b, 8, 0 });
+        final Path text = Files.writeString(this.tempDir.resolve("app.properties"), "key=value\n");
+        final Path empty = Files.write(this.tempDir.resolve("empty"), new byte[0]);
+
+        Assertions.assertTrue(detector.isCompressed(jar));
+        Assertions.assertTrue(detector.isCompressed(gzip));
+        Assertions.assertFalse(detector.isCompressed(text));
+        Assertions.assertFalse(detector.isCompressed(empty));
+    }
+
+    /**
+     * Test configured extensions replace the defaults, with or without the dot.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    void testConfiguredExtensions() throws Exception {
+        final CompressedFileDetector detector = new CompressedFileDetector(List.of(".pack", "IDX"));
+        final Path pack = Files.writeString(this.tempDir.resolve("objects.pack"), "pack");
+        final Path idx = Files.writeString(this.tempDir.resolve("objects.idx"), "idx");
+        final Path jar = Files.writeString(this.tempDir.resolve("app.jar"), "not really a jar");
+
+        Assertions.assertTrue(detector.isCompressed(pack));
+        Assertions.assertTrue(detector.isCompressed(idx));
+        Assertions.assertFalse(detector.isCompressed(jar));
+    }
+
+}
@@ -0,0 +1,199 @@
+/*
+ *    Copyright 2011-2026 the original author or authors.
+ *
+ *    This program is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU General Public License
+ *    as published by the Free Software Foundation; either version 2
+ *    of the License, or (at your option) any later version.
+ *
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.gnu.org/licenses/old-licenses/gpl-2.0.en.html
+ *
+ *    This program is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ */
+package com.hazendaz.maven.makeself;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.apache.maven.plugin.logging.Log;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+/**
+ * The Class CompressionSelectorTest.
+ */
+@ExtendWith(MockitoExtension.class)
+class CompressionSelectorTest {
+
+    /** Temporary directory for test files. */
+    @TempDir
+    Path tempDir;
+
+    /** Mock Maven log. */
+    @Mock
+    private Log log;
+
+    /** Estimates to choose from: stored, fast and large, slow and small. */
+    private static final List<CompressionEstimate> ESTIMATES = Arrays.asList(
+            new CompressionEstimate(Compression.NONE, 0, 1, 0, 1000, 0),
+            new CompressionEstimate(Compression.GZIP, 1, 2, 100, 500, 10),
+            new CompressionEstimate(Compression.XZ, 6, 4, 10, 250, 100));
+
+    /**
+     * Test text compresses, so the size target picks a compression.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    void testSelectText() throws Exception {
+        final StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 20000; i++) {
+            text.append("line ").append(i % 100).append(" of the configuration\n");
+        }
+        Files.createDirectories(this.tempDir.resolve("conf"));
+        Files.writeString(this.tempDir.resolve("conf/app.properties"), text, StandardCharsets.UTF_8);
+
+        final CompressionEstimate chosen = new CompressionSelector(this.log).select(this.tempDir, false);
+
+        Assertions.assertNotEquals(Compression.NONE, chosen.getCompression());
+        Assertions.assertTrue(chosen.getRatio() > 10);
+        Mockito.verify(this.log).info(Mockito.startsWith("Auto compression chose "));
+    }
+
+    /**
+     * Test already compressed data is stored when speed is targeted.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    void testSelectCompressedSpeed() throws Exception {
+        final byte[] blob = new byte[256 * 1024];
+        new Random(1).nextBytes(blob);
+        Files.write(this.tempDir.resolve("lib.jar"), blob);
+
+        final CompressionSelector selector = new CompressionSelector(this.log);
+        selector.setTarget(CompressionSelector.TARGET_SPEED);
+        final CompressionEstimate chosen = selector.select(this.tempDir, false);
+
+        Assertions.assertEquals(Compression.NONE, chosen.getCompression());
+        Mockito.verify(this.log).info(Mockito.contains("no compression reaches ratio 1.50"));
+    }
+
+    /**
+     * Test already compressed data is stored when size is targeted, as no compression saves enough.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    void testSelectCompressedSize() throws Exception {
+        final byte[] blob = new byte[256 * 1024];
+        new Random(1).nextBytes(blob);
+        Files.write(this.tempDir.resolve("lib.jar"), blob);
+
+        final CompressionEstimate chosen = new CompressionSelector(this.log).select(this.tempDir, false);
+
+        Assertions.assertEquals(Compression.NONE, chosen.getCompression());
+        Mockito.verify(this.log).info(Mockito.contains("no compression within 30 s reaches ratio 1.05"));
+    }
+
+    /**
+     * Test only standard tools are candidates when asked.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    void testSelectStandardTools() throws Exception {
+        final StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 20000; i++) {
+            text.append("line ").append(i % 100).append(" of the configuration\n");
+        }
+        Files.writeString(this.tempDir.resolve("app.properties"), text, StandardCharsets.UTF_8);
+
+        final CompressionSelector selector = new CompressionSelector(this.log);
+        selector.setStandardTools(true);
+        selector.setMaxSeconds(1000);
+        final CompressionEstimate chosen = selector.select(this.tempDir, false);
+
+        Assertions.assertTrue(chosen.getCompression() == Compression.GZIP
+                || chosen.getCompression() == Compression.BZIP2, chosen.toString());
+        Mockito.verify(this.log, Mockito.never()).debug(Mockito.contains("xz"));
+        Mockito.verify(this.log, Mockito.never()).debug(Mockito.contains("zstd"));
+    }
+
+    /**
+     * Test an empty directory falls back to the makeself default.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    void testSelectEmpty() throws Exception {
+        final CompressionEstimate chosen = new CompressionSelector(this.log).select(this.tempDir, false);
+
+        Assertions.assertEquals(Compression.GZIP, chosen.getCompression());
+        Assertions.assertEquals(9, chosen.getLevel());
+    }
+
+    /**
+     * Test the size target keeps to the time budget and falls back to the fastest when nothing fits.
+     */
+    @Test
+    void testChooseSize() {
+        final CompressionSelector selector = new CompressionSelector(this.log);
+        selector.setMaxSeconds(200);
+        Assertions.assertEquals(Compression.XZ,
+                selector.choose(CompressionSelectorTest.ESTIMATES, 1, 1).getCompression());
+
+        selector.setMaxSeconds(20);
+        Assertions.assertEquals(Compression.GZIP,
+                selector.choose(CompressionSelectorTest.ESTIMATES, 1, 1).getCompression());
+
+        final List<CompressionEstimate> compressed = Arrays.asList(CompressionSelectorTest.ESTIMATES.get(0),
+                new CompressionEstimate(Compression.GZIP, 1, 1.01, 100, 990, 10));
+        Assertions.assertEquals(Compression.NONE, selector.choose(compressed, 1, 1).getCompression());
+
+        selector.setMaxSeconds(-1);
+        Assertions.assertEquals(Compression.NONE,
+                selector.choose(CompressionSelectorTest.ESTIMATES, 1, 1).getCompression());
+        Mockito.verify(this.log).info(Mockito.contains("nothing fits"));
+    }
+
+    /**
+     * Test the speed target picks the fastest reaching the ratio.
+     */
+    @Test
+    void testChooseSpeed() {
+        final CompressionSelector selector = new CompressionSelector(this.log);
+        selector.setTarget(CompressionSelector.TARGET_SPEED);
+        selector.setMinRatio(1.5);
+        Assertions.assertEquals(Compression.GZIP,
+                selector.choose(CompressionSelectorTest.ESTIMATES, 1, 1).getCompression());
+
+        selector.setMinRatio(3);
+        Assertions.assertEquals(Compression.XZ,
+                selector.choose(CompressionSelectorTest.ESTIMATES, 1, 1).getCompression());
+
+        selector.setMinRatio(1);
+        Assertions.assertEquals(Compression.NONE,
+                selector.choose(CompressionSelectorTest.ESTIMATES, 1, 1).getCompression());
+    }
+
+}
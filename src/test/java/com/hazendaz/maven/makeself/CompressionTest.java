@@ -0,0 +1,75 @@
+/*
+ *    Copyright 2011-2026 the original author or authors.
+ *
+ *    This program is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU General Public License
+ *    as published by the Free Software Foundation; either version 2
+ *    of the License, or (at your option) any later version.
+ *
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.gnu.org/licenses/old-licenses/gpl-2.0.en.html
+ *
+ *    This program is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ */
+package com.hazendaz.maven.makeself;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+import org.apache.commons.compress.compressors.CompressorStreamFactory;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * The Class CompressionTest.
+ */
+class CompressionTest {
+
+    /**
+     * Test every compression round trips with and without threads.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    void testRoundTrip() throws Exception {
+        final byte[] data = "makeself payload\n".repeat(10000).getBytes(StandardCharsets.US_ASCII);
+        for (final Compression compression : Compression.values()) {
+            for (final int threads : new int[] { 1, 2 }) {
+                final ByteArrayOutputStream output = new ByteArrayOutputStream();
+                try (OutputStream compressed = compression.compress(output, 6, threads)) {
+                    compressed.write(data);
+                }
+                final byte[] bytes = output.toByteArray();
+                if (compression == Compression.NONE) {
+                    Assertions.assertArrayEquals(data, bytes);
+                    continue;
+                }
+                try (InputStream input = new CompressorStreamFactory(true)
+                        .createCompressorInputStream(new ByteArrayInputStream(bytes))) {
+                    Assertions.assertArrayEquals(data, input.readAllBytes(), compression + " " + threads);
+                }
+            }
+        }
+    }
+
+    /**
+     * Test the names and decompress commands match what makeself.sh writes in the header.
+     */
+    @Test
+    void testHeaderValues() {
+        Assertions.assertEquals("xz", Compression.XZ.getId());
+        Assertions.assertEquals("xz -d", Compression.XZ.getGunzipCommand());
+        Assertions.assertEquals("zstd", Compression.ZSTD.getId());
+        Assertions.assertEquals("zstd -cd", Compression.ZSTD.getGunzipCommand());
+        Assertions.assertEquals("gzip -cd", Compression.PIGZ.getGunzipCommand());
+    }
+
+}
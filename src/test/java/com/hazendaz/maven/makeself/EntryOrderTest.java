@@ -0,0 +1,135 @@
+/*
+ *    Copyright 2011-2026 the original author or authors.
+ *
+ *    This program is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU General Public License
+ *    as published by the Free Software Foundation; either version 2
+ *    of the License, or (at your option) any later version.
+ *
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.gnu.org/licenses/old-licenses/gpl-2.0.en.html
+ *
+ *    This program is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ */
+package com.hazendaz.maven.makeself;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * The Class EntryOrderTest.
+ */
+class EntryOrderTest {
+
+    /** The entry names of the test files. */
+    private static final List<String> NAMES = Arrays.asList("./lib/b.jar", "./conf/app.xml", "./run.sh",
+            "./lib/a.jar", "./README", "./conf/log.xml", "./bin/start.sh");
+
+    /** The sizes of the test files. */
+    private static final Map<String, Long> SIZES = Map.of("./lib/b.jar", 900L, "./conf/app.xml", 40L, "./run.sh",
+            40L, "./lib/a.jar", 300L, "./README", 10L, "./conf/log.xml", 20L, "./bin/start.sh", 70L);
+
+    /**
+     * Sort the test files.
+     *
+     * @param order
+     *            the entry order
+     *
+     * @return the sorted entry names
+     */
+    private static List<String> sort(final EntryOrder order) {
+        final List<Path> files = new ArrayList<>();
+        for (final String name : EntryOrderTest.NAMES) {
+            files.add(Path.of(name));
+        }
+        order.sort(files, path -> path.toString().replace('\\', '/'),
+                path -> EntryOrderTest.SIZES.get(path.toString().replace('\\', '/')));
+        final List<String> names = new ArrayList<>();
+        for (final Path file : files) {
+            names.add(file.toString().replace('\\', '/'));
+        }
+        return names;
+    }
+
+    /**
+     * Test the default order is by name.
+     *
+     * @throws IOException
+     *             Signals that an I/O exception has occurred.
+     */
+    @Test
+    void testName() throws IOException {
+        Assertions.assertEquals(Arrays.asList("./README", "./bin/start.sh", "./conf/app.xml", "./conf/log.xml",
+                "./lib/a.jar", "./lib/b.jar", "./run.sh"), EntryOrderTest.sort(new EntryOrder(null, null)));
+    }
+
+    /**
+     * Test the type order groups entries by extension, then name.
+     *
+     * @throws IOException
+     *             Signals that an I/O exception has occurred.
+     */
+    @Test
+    void testType() throws IOException {
+        Assertions.assertEquals(Arrays.asList("./README", "./lib/a.jar", "./lib/b.jar", "./bin/start.sh", "./run.sh",
+                "./conf/app.xml", "./conf/log.xml"), EntryOrderTest.sort(new EntryOrder(EntryOrder.TYPE, null)));
+    }
+
+    /**
+     * Test the size order puts the smallest entries first, breaking ties by name.
+     *
+     * @throws IOException
+     *             Signals that an I/O exception has occurred.
+     */
+    @Test
+    void testSize() throws IOException {
+        Assertions.assertEquals(
+                Arrays.asList("./README", "./conf/log.xml", "./conf/app.xml", "./run.sh", "./bin/start.sh",
+                        "./lib/a.jar", "./lib/b.jar"),
+                EntryOrderTest.sort(new EntryOrder(EntryOrder.SIZE, null)));
+    }
+
+    /**
+     * Test entries matching the first patterns come first, in pattern order, before the strategy order.
+     *
+     * @throws IOException
+     *             Signals that an I/O exception has occurred.
+     */
+    @Test
+    void testFirst() throws IOException {
+        final EntryOrder order = new EntryOrder(EntryOrder.SIZE, Arrays.asList("./run.sh", "conf/**", "lib/b.jar"));
+        Assertions.assertEquals(Arrays.asList("./run.sh", "./conf/log.xml", "./conf/app.xml", "./lib/b.jar",
+                "./README", "./bin/start.sh", "./lib/a.jar"), EntryOrderTest.sort(order));
+    }
+
+    /**
+     * Test an unknown strategy is rejected.
+     */
+    @Test
+    void testUnknown() {
+        Assertions.assertThrows(IOException.class, () -> new EntryOrder("random", null));
+        Assertions.assertFalse(EntryOrder.isStrategy("random"));
+    }
+
+    /**
+     * Test the extension is lower case and ignores dots in directories and leading dots.
+     */
+    @Test
+    void testExtension() {
+        Assertions.assertEquals("jar", EntryOrder.extension("./lib/App.JAR"));
+        Assertions.assertEquals("", EntryOrder.extension("./conf.d/README"));
+        Assertions.assertEquals("", EntryOrder.extension("./.profile"));
+    }
+
+}
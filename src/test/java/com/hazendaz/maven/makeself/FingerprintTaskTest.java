@@ -0,0 +1,119 @@
+/*
+ *    Copyright 2011-2026 the original author or authors.
+ *
+ *    This program is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU General Public License
+ *    as published by the Free Software Foundation; either version 2
+ *    of the License, or (at your option) any later version.
+ *
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.gnu.org/licenses/old-licenses/gpl-2.0.en.html
+ *
+ *    This program is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ */
+package com.hazendaz.maven.makeself;
+
+import java.io.UncheckedIOException;
+import java.nio.file.FileSystemLoopException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * The Class FingerprintTaskTest.
+ */
+class FingerprintTaskTest {
+
+    /** Temporary directory for test files. */
+    @TempDir
+    Path tempDir;
+
+    /**
+     * Walk the temporary directory.
+     *
+     * @param follow
+     *            follow links
+     * @param hashContent
+     *            hash content
+     *
+     * @return the records
+     *
+     * @throws Exception
+     *             the exception
+     */
+    private List<List<String>> walk(final boolean follow, final boolean hashContent) throws Exception {
+        return new ForkJoinPool(4).invoke(new FingerprintTask(this.tempDir, follow, hashContent));
+    }
+
+    /**
+     * Test records come out depth first in name order, whatever the scheduling.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    void testOrder() throws Exception {
+        for (int i = 0; i < 20; i++) {
+            final Path directory = Files.createDirectories(this.tempDir.resolve("d" + i % 4 + "/e" + i));
+            Files.writeString(directory.resolve("f.txt"), "content " + i);
+        }
+
+        final List<List<String>> records = this.walk(false, true);
+
+        Assertions.assertEquals(1 + 4 + 20 * 2, records.size());
+        Assertions.assertEquals(List.of("directory", ""), records.get(0));
+        Assertions.assertEquals(List.of("directory", "d0"), records.get(1));
+        Assertions.assertEquals(List.of("directory", "d0/e0"), records.get(2));
+        Assertions.assertEquals("d0/e0/f.txt", records.get(3).get(1));
+        Assertions.assertEquals(ArchiveFingerprint.hash(this.tempDir.resolve("d0/e0/f.txt")), records.get(3).get(4));
+        Assertions.assertEquals(records, this.walk(false, true));
+    }
+
+    /**
+     * Test size and modification time are used without hashing.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    void testFastPath() throws Exception {
+        Files.writeString(this.tempDir.resolve("a.txt"), "abc");
+
+        final List<String> file = this.walk(false, false).get(1);
+
+        Assertions.assertEquals(List.of("file", "a.txt", "3",
+                String.valueOf(Files.getLastModifiedTime(this.tempDir.resolve("a.txt")).toMillis()), ""), file);
+    }
+
+    /**
+     * Test links are recorded as links, and link loops are detected when following.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    void testLinks() throws Exception {
+        Assumptions.assumeFalse(AbstractGitMojo.WINDOWS, "Test only applicable on non-Windows");
+        final Path sub = Files.createDirectories(this.tempDir.resolve("sub"));
+        Files.createSymbolicLink(sub.resolve("loop"), this.tempDir);
+
+        Assertions.assertEquals(List.of("link", "sub/loop", this.tempDir.toString()),
+                this.walk(false, false).stream().filter(r -> "link".equals(r.get(0))).collect(Collectors.toList())
+                        .get(0));
+        final UncheckedIOException e = Assertions.assertThrows(UncheckedIOException.class,
+                () -> this.walk(true, false));
+        Assertions.assertTrue(e.getCause() instanceof FileSystemLoopException);
+    }
+
+}
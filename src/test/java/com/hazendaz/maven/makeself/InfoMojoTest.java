@@ -0,0 +1,132 @@
+/*
+ *    Copyright 2011-2026 the original author or authors.
+ *
+ *    This program is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU General Public License
+ *    as published by the Free Software Foundation; either version 2
+ *    of the License, or (at your option) any later version.
+ *
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.gnu.org/licenses/old-licenses/gpl-2.0.en.html
+ *
+ *    This program is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ */
+package com.hazendaz.maven.makeself;
+
+import java.io.File;
+import java.lang.reflect.Field;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.logging.Log;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+/**
+ * The Class InfoMojoTest.
+ */
+@ExtendWith(MockitoExtension.class)
+class InfoMojoTest {
+
+    /** Temporary directory for test files. */
+    @TempDir
+    Path tempDir;
+
+    /** Mock Maven log. */
+    @Mock
+    private Log log;
+
+    /**
+     * Sets a private field value using reflection.
+     *
+     * @param target
+     *            the target object
+     * @param fieldName
+     *            the field name
+     * @param value
+     *            the value
+     *
+     * @throws Exception
+     *             the exception
+     */
+    private static void setField(final Object target, final String fieldName, final Object value) throws Exception {
+        final Field field = InfoMojo.class.getDeclaredField(fieldName);
+        field.setAccessible(true);
+        field.set(target, value);
+    }
+
+    /**
+     * Test skip execution.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    void testSkipExecution() throws Exception {
+        final InfoMojo mojo = new InfoMojo();
+        mojo.setLog(this.log);
+        InfoMojoTest.setField(mojo, "skip", true);
+
+        mojo.execute();
+
+        Mockito.verify(this.log).info("Makeself info is skipped");
+    }
+
+    /**
+     * Test a missing file fails.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    void testMissingFile() throws Exception {
+        final InfoMojo mojo = new InfoMojo();
+        mojo.setLog(this.log);
+        InfoMojoTest.setField(mojo, "file", this.tempDir.resolve("missing.run").toFile());
+
+        Assertions.assertThrows(MojoExecutionException.class, mojo::execute);
+    }
+
+    /**
+     * Test the info and entries of an archive are logged.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    void testInfoAndList() throws Exception {
+        final Path archiveDir = Files.createDirectory(this.tempDir.resolve("archive"));
+        Files.writeString(archiveDir.resolve("run.sh"), "#!/bin/sh\n");
+        final File archiveFile = this.tempDir.resolve("test.run").toFile();
+        final JavaArchiveEngine engine = new JavaArchiveEngine(this.log);
+        engine.setArchiveDir(archiveDir);
+        engine.setArchiveFile(archiveFile.toPath());
+        engine.setLabel("Info Label");
+        engine.setStartupScript("./run.sh");
+        engine.setHeaderFile(Path.of("src/assembly/makeself/makeself-header.sh"));
+        engine.setCommand(List.of("makeself.sh", "archive", "test.run", "Info Label", "./run.sh"));
+        engine.build();
+
+        final InfoMojo mojo = new InfoMojo();
+        mojo.setLog(this.log);
+        InfoMojoTest.setField(mojo, "file", archiveFile);
+        InfoMojoTest.setField(mojo, "list", true);
+
+        mojo.execute();
+
+        Mockito.verify(this.log).info("Identification: Info Label");
+        Mockito.verify(this.log).info(Mockito.endsWith(" ./run.sh"));
+    }
+
+}
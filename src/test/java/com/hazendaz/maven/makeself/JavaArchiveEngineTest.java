@@ -0,0 +1,565 @@
+/*
+ *    Copyright 2011-2026 the original author or authors.
+ *
+ *    This program is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU General Public License
+ *    as published by the Free Software Foundation; either version 2
+ *    of the License, or (at your option) any later version.
+ *
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.gnu.org/licenses/old-licenses/gpl-2.0.en.html
+ *
+ *    This program is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ */
+package com.hazendaz.maven.makeself;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
+import org.apache.maven.plugin.logging.Log;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+/**
+ * The Class JavaArchiveEngineTest.
+ */
+@ExtendWith(MockitoExtension.class)
+class JavaArchiveEngineTest {
+
+    /** The header shipped with the plugin; test resources only contain a stub. */
+    private static final Path HEADER = Path.of("src/assembly/makeself/makeself-header.sh");
+
+    /** The fast header shipped with the plugin. */
+    private static final Path HEADER_FAST = Path.of("src/assembly/makeself/makeself-header-fast.sh");
+
+    /** Temporary directory for test files. */
+    @TempDir
+    Path tempDir;
+
+    /** Mock Maven log. */
+    @Mock
+    private Log log;
+
+    /** The archive directory. */
+    private Path archiveDir;
+
+    /** The archive file. */
+    private Path archiveFile;
+
+    /**
+     * Create a small archive directory.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @BeforeEach
+    void setUp() throws Exception {
+        this.archiveDir = Files.createDirectory(this.tempDir.resolve("archive"));
+        Files.writeString(this.archiveDir.resolve("run.sh"), "#!/bin/sh\necho ran > ran.txt\n");
+        Files.createDirectories(this.archiveDir.resolve("sub"));
+        Files.writeString(this.archiveDir.resolve("sub/b.txt"), "b\n");
+        Files.writeString(this.archiveDir.resolve("sub/a.txt"), "a\n");
+        Files.createDirectories(this.archiveDir.resolve("empty"));
+        if (!AbstractGitMojo.WINDOWS) {
+            Files.setPosixFilePermissions(this.archiveDir.resolve("run.sh"),
+                    PosixFilePermissions.fromString("rwxr-xr-x"));
+        }
+        this.archiveFile = this.tempDir.resolve("out/test.run");
+    }
+
+    /**
+     * Create an engine for the test archive.
+     *
+     * @return the java archive engine
+     */
+    private JavaArchiveEngine newEngine() {
+        final JavaArchiveEngine engine = new JavaArchiveEngine(this.log);
+        engine.setArchiveDir(this.archiveDir);
+        engine.setArchiveFile(this.archiveFile);
+        engine.setLabel("Test Label");
+        engine.setStartupScript("./run.sh");
+        engine.setHeaderFile(JavaArchiveEngineTest.HEADER);
+        engine.setPackagingDate("Thu Jan  1 00:00:00 UTC 2026");
+        engine.setCommand(List.of("makeself.sh", "archive", "test.run", "Test Label", "./run.sh"));
+        return engine;
+    }
+
+    /**
+     * Run a shell command against the built archive.
+     *
+     * @param args
+     *            the arguments to the archive
+     *
+     * @return the exit value
+     *
+     * @throws Exception
+     *             the exception
+     */
+    private int runArchive(final String... args) throws Exception {
+        final String[] command = new String[args.length + 2];
+        command[0] = "sh";
+        command[1] = this.archiveFile.toString();
+        System.arraycopy(args, 0, command, 2, args.length);
+        final Process process = new ProcessBuilder(command).directory(this.tempDir.toFile()).redirectErrorStream(true)
+                .redirectOutput(ProcessBuilder.Redirect.DISCARD).start();
+        Assertions.assertTrue(process.waitFor(60, TimeUnit.SECONDS));
+        return process.exitValue();
+    }
+
+    /**
+     * Test entries are sorted and only leaf paths are written, as makeself.sh feeds them to tar.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    void testBuildEntries() throws Exception {
+        final List<String> entries = this.newEngine().build();
+
+        Assertions.assertEquals(Arrays.asList("./empty", "./run.sh", "./sub/a.txt", "./sub/b.txt"), entries);
+        Assertions.assertTrue(Files.isRegularFile(this.archiveFile));
+        try (var files = Files.list(this.archiveFile.getParent())) {
+            Assertions.assertEquals(1, files.count(), "temporary payload must be removed");
+        }
+    }
+
+    /**
+     * Test the configured entry order is written to the payload and read back the same.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    void testBuildEntryOrder() throws Exception {
+        final JavaArchiveEngine engine = this.newEngine();
+        engine.setEntryOrder(EntryOrder.TYPE);
+        engine.setEntryOrderFirst(List.of("sub/b.txt", "run.sh"));
+        final List<String> entries = engine.build();
+
+        Assertions.assertEquals(Arrays.asList("./sub/b.txt", "./run.sh", "./empty", "./sub/a.txt"), entries);
+        final List<String> names = new ArrayList<>();
+        for (final TarArchiveEntry entry : new MakeselfArchiveReader(this.archiveFile).list()) {
+            names.add(entry.getName());
+        }
+        Assertions.assertEquals(Arrays.asList("./sub/b.txt", "./run.sh", "./empty/", "./sub/a.txt"), names);
+    }
+
+    /**
+     * Test a reproducible build gives the same bytes when file times and thread counts differ, with normalized entries.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    void testBuildReproducible() throws Exception {
+        final Instant time = Instant.parse("2026-01-01T00:00:00Z");
+        final JavaArchiveEngine engine = this.newEngine();
+        engine.setPackagingDate(null);
+        engine.setReproducibleTime(time);
+        engine.setThreads(0);
+        engine.build();
+        final byte[] first = Files.readAllBytes(this.archiveFile);
+
+        Files.setLastModifiedTime(this.archiveDir.resolve("sub/a.txt"), FileTime.from(Instant.now()));
+        engine.setThreads(3);
+        engine.build();
+
+        Assertions.assertArrayEquals(first, Files.readAllBytes(this.archiveFile));
+        final MakeselfArchiveReader reader = new MakeselfArchiveReader(this.archiveFile);
+        Assertions.assertEquals("Thu Jan  1 00:00:00 UTC 2026", reader.getPackagingDate());
+        for (final TarArchiveEntry entry : reader.list()) {
+            Assertions.assertEquals(time, entry.getModTime().toInstant(), entry.getName());
+            Assertions.assertEquals(0, entry.getLongUserId(), entry.getName());
+            Assertions.assertEquals("", entry.getUserName(), entry.getName());
+        }
+    }
+
+    /**
+     * Test a payload compressed as cached chunks checks and extracts, and a rebuild reuses every chunk.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    void testBuildChunkCache() throws Exception {
+        Assumptions.assumeFalse(AbstractGitMojo.WINDOWS, "Test only applicable on non-Windows");
+        final byte[] blob = new byte[3 * 1024 * 1024];
+        new Random(11).nextBytes(blob);
+        Files.write(this.archiveDir.resolve("sub/data.bin"), blob);
+        final JavaArchiveEngine engine = this.newEngine();
+        engine.setNox11(true);
+        engine.setChunkCacheDirectory(this.tempDir.resolve("chunks"));
+        engine.build();
+        final byte[] first = Files.readAllBytes(this.archiveFile);
+        engine.build();
+
+        Assertions.assertArrayEquals(first, Files.readAllBytes(this.archiveFile));
+        Mockito.verify(this.log, Mockito.atLeastOnce()).info(Mockito.matches("Reused 0 of [2-9] compressed chunks .*"));
+        Mockito.verify(this.log).info(Mockito.matches("Reused ([2-9]) of \\1 compressed chunks .*"));
+        Assertions.assertEquals(0, this.runArchive("--check"));
+        final Path target = this.tempDir.resolve("extracted");
+        Assertions.assertEquals(0, this.runArchive("--quiet", "--target", target.toString()));
+        Assertions.assertArrayEquals(blob, Files.readAllBytes(target.resolve("sub/data.bin")));
+    }
+
+    /**
+     * Test the header records the payload size and the line count used to skip the header.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    void testBuildHeaderVariables() throws Exception {
+        final JavaArchiveEngine engine = this.newEngine();
+        engine.setSha256(true);
+        engine.build();
+
+        final byte[] bytes = Files.readAllBytes(this.archiveFile);
+        final String text = new String(bytes, StandardCharsets.ISO_8859_1);
+        final int skip = Integer.parseInt(text.replaceAll("(?s).*\nskip=\"(\\d+)\".*", "$1"));
+        final long filesizes = Long.parseLong(text.replaceAll("(?s).*\nfilesizes=\"(\\d+)\".*", "$1"));
+        int offset = 0;
+        for (int line = 0; line < skip; line++) {
+            offset = text.indexOf('\n', offset) + 1;
+        }
+        Assertions.assertEquals(bytes.length - offset, filesizes);
+        Assertions.assertEquals(0x1f, bytes[offset] & 0xff);
+        Assertions.assertEquals(0x8b, bytes[offset + 1] & 0xff);
+        Assertions.assertTrue(text.contains("label=\"Test Label\""));
+        Assertions.assertTrue(text.contains("COMPRESS=gzip"));
+        Assertions.assertFalse(text.contains("SHAsum=\"" + ChecksumOutputStream.NO_SHA256 + "\""));
+    }
+
+    /**
+     * Test disabled checksums are written as makeself.sh writes them.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    void testBuildNoChecksums() throws Exception {
+        final JavaArchiveEngine engine = this.newEngine();
+        engine.setNocrc(true);
+        engine.setNomd5(true);
+        engine.setCompression(Compression.NONE);
+        engine.build();
+
+        final String text = Files.readString(this.archiveFile, StandardCharsets.ISO_8859_1);
+        Assertions.assertTrue(text.contains("CRCsum=\"" + ChecksumOutputStream.NO_CRC + "\""));
+        Assertions.assertTrue(text.contains("MD5=\"" + ChecksumOutputStream.NO_MD5 + "\""));
+    }
+
+    /**
+     * Test the archive verifies and extracts with the makeself header.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    void testArchiveChecksAndRuns() throws Exception {
+        Assumptions.assumeFalse(AbstractGitMojo.WINDOWS, "Test only applicable on non-Windows");
+        final JavaArchiveEngine engine = this.newEngine();
+        engine.setSha256(true);
+        engine.setNox11(true);
+        engine.build();
+
+        Assertions.assertEquals(0, this.runArchive("--check"));
+        final Path target = this.tempDir.resolve("extracted");
+        Assertions.assertEquals(0, this.runArchive("--quiet", "--target", target.toString()));
+        Assertions.assertEquals("ran\n", Files.readString(target.resolve("ran.txt")));
+        Assertions.assertEquals("a\n", Files.readString(target.resolve("sub/a.txt")));
+        Assertions.assertTrue(Files.isDirectory(target.resolve("empty")));
+        Assertions.assertTrue(Files.isExecutable(target.resolve("run.sh")));
+    }
+
+    /**
+     * Test the archive verifies and extracts with the fast header, including a stored segment.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    void testFastHeaderChecksAndRuns() throws Exception {
+        Assumptions.assumeFalse(AbstractGitMojo.WINDOWS, "Test only applicable on non-Windows");
+        Files.write(this.archiveDir.resolve("app.jar"), new byte[] { 'P', 'K', 3, 4 });
+        final JavaArchiveEngine engine = this.newEngine();
+        engine.setHeaderFile(JavaArchiveEngineTest.HEADER_FAST);
+        engine.setStoreCompressed(true);
+        engine.setSha256(true);
+        engine.setNox11(true);
+        engine.build();
+
+        Assertions.assertEquals(2, new MakeselfArchiveReader(this.archiveFile).getFileSizes().size());
+        Assertions.assertEquals(0, this.runArchive("--check"));
+        final Path target = this.tempDir.resolve("extracted");
+        Assertions.assertEquals(0, this.runArchive("--quiet", "--target", target.toString()));
+        Assertions.assertEquals("ran\n", Files.readString(target.resolve("ran.txt")));
+        Assertions.assertEquals("a\n", Files.readString(target.resolve("sub/a.txt")));
+        Assertions.assertEquals(4, Files.size(target.resolve("app.jar")));
+        Assertions.assertTrue(Files.isExecutable(target.resolve("run.sh")));
+    }
+
+    /**
+     * Test the fast header verifies while extracting: a corrupted payload exits with status 2 before the startup script
+     * runs.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    void testFastHeaderCorruptPayload() throws Exception {
+        Assumptions.assumeFalse(AbstractGitMojo.WINDOWS, "Test only applicable on non-Windows");
+        final JavaArchiveEngine engine = this.newEngine();
+        engine.setHeaderFile(JavaArchiveEngineTest.HEADER_FAST);
+        engine.setCompression(Compression.NONE);
+        engine.setNox11(true);
+        engine.build();
+
+        // Change the startup script in place, tar still extracts it
+        final byte[] bytes = Files.readAllBytes(this.archiveFile);
+        final int header = (int) new MakeselfArchiveReader(this.archiveFile).getHeaderSize();
+        final int index = new String(bytes, StandardCharsets.ISO_8859_1).indexOf("echo ran", header);
+        Assertions.assertTrue(index > 0);
+        bytes[index] = 'E';
+        Files.write(this.archiveFile, bytes);
+
+        final Path target = this.tempDir.resolve("extracted");
+        Assertions.assertEquals(2, this.runArchive("--quiet", "--target", target.toString()));
+        Assertions.assertFalse(Files.exists(target.resolve("ran.txt")));
+    }
+
+    /**
+     * Test already compressed files are stored in a segment of their own that extracts with the gzip one.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    void testStoreCompressedGzip() throws Exception {
+        Assumptions.assumeFalse(AbstractGitMojo.WINDOWS, "Test only applicable on non-Windows");
+        this.assertStoreCompressed(Compression.GZIP);
+    }
+
+    /**
+     * Test already compressed files are stored in a segment of their own that extracts with the xz one.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    void testStoreCompressedXz() throws Exception {
+        Assumptions.assumeFalse(AbstractGitMojo.WINDOWS, "Test only applicable on non-Windows");
+        this.assertStoreCompressed(Compression.XZ);
+    }
+
+    /**
+     * Test a payload of only compressed files is a single stored segment that still extracts.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    void testStoreCompressedOnly() throws Exception {
+        Assumptions.assumeFalse(AbstractGitMojo.WINDOWS, "Test only applicable on non-Windows");
+        final byte[] blob = new byte[64 * 1024];
+        new Random(1).nextBytes(blob);
+        this.archiveDir = Files.createDirectory(this.tempDir.resolve("jars"));
+        Files.write(this.archiveDir.resolve("app.jar"), blob);
+        Files.write(this.archiveDir.resolve("lib.zip"), blob);
+        final JavaArchiveEngine engine = this.newEngine();
+        engine.setStartupScript("true");
+        engine.setStoreCompressed(true);
+        engine.setNox11(true);
+
+        Assertions.assertEquals(Arrays.asList("./app.jar", "./lib.zip"), engine.build());
+        Assertions.assertEquals(1, new MakeselfArchiveReader(this.archiveFile).getFileSizes().size());
+        Assertions.assertEquals(0, this.runArchive("--check"));
+        final Path target = this.tempDir.resolve("extracted");
+        Assertions.assertEquals(0, this.runArchive("--quiet", "--target", target.toString()));
+        Assertions.assertArrayEquals(blob, Files.readAllBytes(target.resolve("app.jar")));
+        Assertions.assertArrayEquals(blob, Files.readAllBytes(target.resolve("lib.zip")));
+    }
+
+    /**
+     * Build with stored files, then list, check and extract the archive.
+     *
+     * @param compression
+     *            the compression of the other files
+     *
+     * @throws Exception
+     *             the exception
+     */
+    private void assertStoreCompressed(final Compression compression) throws Exception {
+        final byte[] blob = new byte[64 * 1024];
+        new Random(1).nextBytes(blob);
+        Files.createDirectories(this.archiveDir.resolve("lib"));
+        Files.write(this.archiveDir.resolve("lib/app.jar"), blob);
+        blob[0] = 0x1f;
+        blob[1] = (byte) 0x8b;
+        Files.write(this.archiveDir.resolve("sub/data.bin"), blob);
+        final JavaArchiveEngine engine = this.newEngine();
+        engine.setCompression(compression);
+        engine.setStoreCompressed(true);
+        engine.setNox11(true);
+
+        final List<String> entries = engine.build();
+
+        Assertions.assertEquals(Arrays.asList("./empty", "./run.sh", "./sub/a.txt", "./sub/b.txt", "./lib/app.jar",
+                "./sub/data.bin"), entries);
+        final MakeselfArchiveReader reader = new MakeselfArchiveReader(this.archiveFile);
+        Assertions.assertEquals(2, reader.getFileSizes().size());
+        Assertions.assertEquals(6, reader.list().size());
+        Assertions.assertEquals(0, this.runArchive("--check"));
+        final Path target = this.tempDir.resolve("extracted");
+        Assertions.assertEquals(0, this.runArchive("--quiet", "--target", target.toString()));
+        Assertions.assertEquals("ran\n", Files.readString(target.resolve("ran.txt")));
+        Assertions.assertArrayEquals(blob, Files.readAllBytes(target.resolve("sub/data.bin")));
+        Assertions.assertEquals(64 * 1024, Files.size(target.resolve("lib/app.jar")));
+    }
+
+    /**
+     * Test archives from overlapping directories share one base segment and each write only their own files.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    void testSharedBase() throws Exception {
+        final Path variantDir = this.tempDir.resolve("variant");
+        try (Stream<Path> walk = Files.walk(this.archiveDir)) {
+            for (final Path path : walk.collect(Collectors.toList())) {
+                final Path target = variantDir.resolve(this.archiveDir.relativize(path).toString());
+                if (Files.isDirectory(path)) {
+                    Files.createDirectories(target);
+                } else {
+                    Files.copy(path, target, StandardCopyOption.COPY_ATTRIBUTES);
+                }
+            }
+        }
+        Files.writeString(variantDir.resolve("sub/b.txt"), "variant\n");
+        Files.writeString(variantDir.resolve("extra.txt"), "extra\n");
+        final SharedBaseSegment base = new SharedBaseSegment(Arrays.asList(this.archiveDir, variantDir),
+                Files.createDirectories(this.tempDir.resolve("base")));
+        final Path baseFile = this.archiveFile;
+        final JavaArchiveEngine baseEngine = this.newEngine();
+        baseEngine.setSharedBase(base);
+        baseEngine.setNox11(true);
+        baseEngine.build();
+        this.archiveFile = this.tempDir.resolve("out/variant.run");
+        final JavaArchiveEngine variantEngine = this.newEngine();
+        variantEngine.setArchiveDir(variantDir);
+        variantEngine.setSharedBase(base);
+        variantEngine.setNox11(true);
+
+        final List<String> entries = variantEngine.build();
+
+        Assertions.assertEquals(Arrays.asList("./run.sh", "./sub/a.txt"), base.getEntries());
+        Assertions.assertEquals(Arrays.asList("./run.sh", "./sub/a.txt", "./empty", "./extra.txt", "./sub/b.txt"),
+                entries);
+        Assertions.assertEquals(2, new MakeselfArchiveReader(baseFile).getFileSizes().size());
+        Assertions.assertEquals(2, new MakeselfArchiveReader(this.archiveFile).getFileSizes().size());
+        base.delete();
+        Assertions.assertFalse(Files.exists(base.getSegment().getFile()));
+        if (!AbstractGitMojo.WINDOWS) {
+            Assertions.assertEquals(0, this.runArchive("--check"));
+            final Path target = this.tempDir.resolve("extracted");
+            Assertions.assertEquals(0, this.runArchive("--quiet", "--target", target.toString()));
+            Assertions.assertEquals("ran\n", Files.readString(target.resolve("ran.txt")));
+            Assertions.assertEquals("a\n", Files.readString(target.resolve("sub/a.txt")));
+            Assertions.assertEquals("variant\n", Files.readString(target.resolve("sub/b.txt")));
+            Assertions.assertEquals("extra\n", Files.readString(target.resolve("extra.txt")));
+        }
+    }
+
+    /**
+     * Test a compression without a pass through decompressor compresses every file.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    void testStoreCompressedUnsupported() throws Exception {
+        Files.write(this.archiveDir.resolve("app.jar"), new byte[] { 'P', 'K', 3, 4 });
+        final JavaArchiveEngine engine = this.newEngine();
+        engine.setCompression(Compression.BZIP2);
+        engine.setStoreCompressed(true);
+
+        engine.build();
+
+        Assertions.assertEquals(1, new MakeselfArchiveReader(this.archiveFile).getFileSizes().size());
+        Mockito.verify(this.log).warn(Mockito.startsWith("Compression 'bzip2' cannot extract stored files"));
+    }
+
+    /**
+     * Test an unknown tar format is rejected.
+     */
+    @Test
+    void testUnknownTarFormat() {
+        final JavaArchiveEngine engine = this.newEngine();
+        engine.setTarFormat("v7");
+        Assertions.assertThrows(IOException.class, engine::build);
+    }
+
+    /**
+     * Test files are appended after the bytes already in the channel.
+     *
+     * @throws IOException
+     *             Signals that an I/O exception has occurred.
+     */
+    @Test
+    void testAppend() throws IOException {
+        final byte[] payload = new byte[300000];
+        new Random(7).nextBytes(payload);
+        final Path source = Files.write(this.tempDir.resolve("payload.bin"), payload);
+        final Path target = this.tempDir.resolve("joined.run");
+        try (FileChannel output = FileChannel.open(target, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            output.write(ByteBuffer.wrap("stub\n".getBytes(StandardCharsets.US_ASCII)));
+            Assertions.assertEquals(payload.length, JavaArchiveEngine.append(source, output));
+            final Path empty = Files.createFile(this.tempDir.resolve("empty"));
+            Assertions.assertEquals(0, JavaArchiveEngine.append(empty, output));
+            JavaArchiveEngine.append(source, output);
+        }
+        final byte[] joined = Files.readAllBytes(target);
+        Assertions.assertEquals(5 + 2 * payload.length, joined.length);
+        Assertions.assertArrayEquals(payload, Arrays.copyOfRange(joined, 5, 5 + payload.length));
+        Assertions.assertArrayEquals(payload, Arrays.copyOfRange(joined, 5 + payload.length, joined.length));
+    }
+
+    /**
+     * Test the recorded command is quoted as makeself.sh records it, with the passphrase masked.
+     */
+    @Test
+    void testMsCommand() {
+        Assertions.assertEquals("makeself.sh \\\\\n    \\\"--sign\\\" \\\\\n    \\\"XXXX\\\"",
+                JavaArchiveEngine.msCommand(List.of("makeself.sh", "--sign", "secret")));
+    }
+
+}
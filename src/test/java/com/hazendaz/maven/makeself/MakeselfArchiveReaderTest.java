@@ -0,0 +1,217 @@
+/*
+ *    Copyright 2011-2026 the original author or authors.
+ *
+ *    This program is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU General Public License
+ *    as published by the Free Software Foundation; either version 2
+ *    of the License, or (at your option) any later version.
+ *
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.gnu.org/licenses/old-licenses/gpl-2.0.en.html
+ *
+ *    This program is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ */
+package com.hazendaz.maven.makeself;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
+import org.apache.maven.plugin.logging.Log;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+/**
+ * The Class MakeselfArchiveReaderTest.
+ */
+@ExtendWith(MockitoExtension.class)
+class MakeselfArchiveReaderTest {
+
+    /** The header shipped with the plugin; test resources only contain a stub. */
+    private static final Path HEADER = Path.of("src/assembly/makeself/makeself-header.sh");
+
+    /** Temporary directory for test files. */
+    @TempDir
+    Path tempDir;
+
+    /** Mock Maven log. */
+    @Mock
+    private Log log;
+
+    /** The archive directory. */
+    private Path archiveDir;
+
+    /** The archive file. */
+    private Path archiveFile;
+
+    /**
+     * Create a small archive directory.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @BeforeEach
+    void setUp() throws Exception {
+        this.archiveDir = Files.createDirectory(this.tempDir.resolve("archive"));
+        Files.writeString(this.archiveDir.resolve("run.sh"), "#!/bin/sh\n");
+        Files.createDirectories(this.archiveDir.resolve("sub"));
+        Files.write(this.archiveDir.resolve("sub/data.bin"), new byte[100000]);
+        this.archiveFile = this.tempDir.resolve("test.run");
+    }
+
+    /**
+     * Build the test archive with the java engine.
+     *
+     * @param compression
+     *            the compression
+     *
+     * @throws IOException
+     *             Signals that an I/O exception has occurred.
+     */
+    private void build(final Compression compression) throws IOException {
+        final JavaArchiveEngine engine = new JavaArchiveEngine(this.log);
+        engine.setArchiveDir(this.archiveDir);
+        engine.setArchiveFile(this.archiveFile);
+        engine.setLabel("Reader \"Label\"");
+        engine.setStartupScript("./run.sh");
+        engine.setScriptArgs(List.of("a", "b"));
+        engine.setCompression(compression);
+        engine.setCompressionLevel(compression == Compression.XZ ? 0 : 6);
+        engine.setSha256(true);
+        engine.setHeaderFile(MakeselfArchiveReaderTest.HEADER);
+        engine.setPackagingDate("Thu Jan  1 00:00:00 UTC 2026");
+        engine.setCommand(List.of("makeself.sh", "archive", "test.run", "Reader Label", "./run.sh"));
+        engine.build();
+    }
+
+    /**
+     * List the entry names.
+     *
+     * @param reader
+     *            the reader
+     *
+     * @return the names
+     *
+     * @throws IOException
+     *             Signals that an I/O exception has occurred.
+     */
+    private static List<String> names(final MakeselfArchiveReader reader) throws IOException {
+        final List<String> names = new ArrayList<>();
+        for (final TarArchiveEntry entry : reader.list()) {
+            names.add(entry.getName());
+        }
+        return names;
+    }
+
+    /**
+     * Test the header values are read back.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    void testHeader() throws Exception {
+        this.build(Compression.GZIP);
+
+        final MakeselfArchiveReader reader = new MakeselfArchiveReader(this.archiveFile);
+
+        Assertions.assertEquals("Reader \"Label\"", reader.getLabel());
+        Assertions.assertEquals("archive", reader.getTargetDirectory());
+        Assertions.assertEquals("./run.sh", reader.getScript());
+        Assertions.assertEquals("gzip", reader.getCompression());
+        Assertions.assertEquals("Thu Jan  1 00:00:00 UTC 2026", reader.getPackagingDate());
+        Assertions.assertFalse(reader.isKeep());
+        Assertions.assertFalse(reader.isEncrypted());
+        Assertions.assertTrue(reader.getUncompressedSize() > 0);
+        Assertions.assertEquals(Files.size(this.archiveFile) - reader.getHeaderSize(),
+                (long) reader.getFileSizes().get(0));
+        Assertions.assertEquals(1, reader.getSha256().size());
+        Assertions.assertEquals(64, reader.getSha256().get(0).length());
+        Assertions.assertTrue(reader.info().contains("Identification: Reader \"Label\""));
+    }
+
+    /**
+     * Test the entries are listed for each supported compression.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    void testList() throws Exception {
+        for (final Compression compression : Arrays.asList(Compression.GZIP, Compression.BZIP2, Compression.XZ,
+                Compression.ZSTD, Compression.NONE)) {
+            this.build(compression);
+
+            final MakeselfArchiveReader reader = new MakeselfArchiveReader(this.archiveFile);
+
+            Assertions.assertEquals(compression.getId(), reader.getCompression());
+            Assertions.assertEquals(Arrays.asList("./run.sh", "./sub/data.bin"),
+                    MakeselfArchiveReaderTest.names(reader), compression.getId());
+        }
+    }
+
+    /**
+     * Test an entry is described like tar tv.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    void testDescribe() throws Exception {
+        this.build(Compression.NONE);
+
+        final TarArchiveEntry entry = new MakeselfArchiveReader(this.archiveFile).list().get(1);
+
+        final String description = MakeselfArchiveReader.describe(entry);
+        Assertions.assertTrue(description.startsWith("-rw"), description);
+        Assertions.assertTrue(description.contains("    100000 "), description);
+        Assertions.assertTrue(description.endsWith(" ./sub/data.bin"), description);
+    }
+
+    /**
+     * Test a file without a makeself header is rejected.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    void testNotAnArchive() throws Exception {
+        final Path file = Files.writeString(this.tempDir.resolve("plain.txt"), "hello\n", StandardCharsets.UTF_8);
+
+        Assertions.assertThrows(IOException.class, () -> new MakeselfArchiveReader(file));
+    }
+
+    /**
+     * Test compressors the java engine cannot read are described but not listed.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    void testUnsupportedCompression() throws Exception {
+        this.build(Compression.GZIP);
+        final String text = Files.readString(this.archiveFile, StandardCharsets.ISO_8859_1);
+        Files.writeString(this.archiveFile, text.replace("echo Compression: gzip", "echo Compression: lz4"),
+                StandardCharsets.ISO_8859_1);
+
+        final MakeselfArchiveReader reader = new MakeselfArchiveReader(this.archiveFile);
+
+        Assertions.assertEquals("lz4", reader.getCompression());
+        Assertions.assertThrows(IOException.class, reader::list);
+    }
+
+}
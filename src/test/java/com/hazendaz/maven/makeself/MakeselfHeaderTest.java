@@ -0,0 +1,130 @@
+/*
+ *    Copyright 2011-2026 the original author or authors.
+ *
+ *    This program is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU General Public License
+ *    as published by the Free Software Foundation; either version 2
+ *    of the License, or (at your option) any later version.
+ *
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.gnu.org/licenses/old-licenses/gpl-2.0.en.html
+ *
+ *    This program is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ */
+package com.hazendaz.maven.makeself;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Map;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * The Class MakeselfHeaderTest.
+ */
+class MakeselfHeaderTest {
+
+    /**
+     * Test variables and escapes are expanded as the shell would in an unquoted here-document.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    void testRender() throws Exception {
+        final MakeselfHeader header = new MakeselfHeader("#!/bin/sh\n"
+                + "cat << EOF  > \"$archname\"\n"
+                + "label=\"$LABEL\" skip=${SKIP} unset=\"$NOPE\"\n"
+                + "echo \\$0 \\`x\\` a\\\\b \\n join\\\n"
+                + "ed $\n"
+                + "EOF\n"
+                + "eval \"$LSM_CMD\"\n"
+                + "cat << EOF  >> \"$archname\"\n"
+                + "tail\n"
+                + "EOF\n");
+
+        final String rendered = header.render(Map.of("LABEL", "My Label", "SKIP", "42"), "lsm\n");
+
+        Assertions.assertEquals("label=\"My Label\" skip=42 unset=\"\"\n" + "echo $0 `x` a\\b \\n joined $\n"
+                + "lsm\n" + "tail\n", rendered);
+        Assertions.assertEquals(4, MakeselfHeader.countLines(rendered));
+    }
+
+    /**
+     * Test command substitution is rejected.
+     */
+    @Test
+    void testCommandSubstitutionRejected() {
+        Assertions.assertThrows(IOException.class,
+                () -> new MakeselfHeader("cat << EOF > \"$archname\"\nx=`date`\nEOF\n").render(Map.of(), ""));
+        Assertions.assertThrows(IOException.class,
+                () -> new MakeselfHeader("cat << EOF > \"$archname\"\nx=$(date)\nEOF\n").render(Map.of(), ""));
+    }
+
+    /**
+     * Test parameter operators and special parameters are rejected.
+     */
+    @Test
+    void testUnsupportedExpansionRejected() {
+        Assertions.assertThrows(IOException.class,
+                () -> new MakeselfHeader("cat << EOF > \"$archname\"\n${X:-y}\nEOF\n").render(Map.of(), ""));
+        Assertions.assertThrows(IOException.class,
+                () -> new MakeselfHeader("cat << EOF > \"$archname\"\n$1\nEOF\n").render(Map.of(), ""));
+    }
+
+    /**
+     * Test statements other than here-documents are rejected.
+     */
+    @Test
+    void testUnsupportedStatementRejected() {
+        Assertions.assertThrows(IOException.class, () -> new MakeselfHeader("echo hi\n"));
+        Assertions.assertThrows(IOException.class, () -> new MakeselfHeader("cat << EOF > \"$archname\"\nx\n"));
+        Assertions.assertThrows(IOException.class, () -> new MakeselfHeader("# only a comment\n"));
+    }
+
+    /**
+     * Test the makeself header shipped with the plugin can be rendered as is, and with the header skip corrected.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    void testBundledHeader() throws Exception {
+        final MakeselfHeader header = MakeselfHeader.load(Path.of("src/assembly/makeself/makeself-header.sh"));
+
+        final String rendered = header.render(Map.of("LABEL", "Test Label"), "");
+
+        Assertions.assertTrue(rendered.startsWith("#!/bin/sh\n"));
+        Assertions.assertTrue(rendered.contains("label=\"Test Label\""));
+        Assertions.assertTrue(rendered.contains("dd ibs=$offset skip=1 count=1 "));
+
+        // The header skip must copy nothing, or a payload segment other than the last reads the wrong bytes
+        final String exact = header.exactSkip().render(Map.of("LABEL", "Test Label"), "");
+        Assertions.assertTrue(exact.contains("dd ibs=$offset skip=1 count=0 "));
+        Assertions.assertFalse(exact.contains("dd ibs=$offset skip=1 count=1 "));
+        Assertions.assertEquals(rendered.length(), exact.length());
+    }
+
+    /**
+     * Test the fast makeself header shipped with the plugin can be rendered.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    void testBundledFastHeader() throws Exception {
+        final MakeselfHeader header = MakeselfHeader.load(Path.of("src/assembly/makeself/makeself-header-fast.sh"));
+
+        final String rendered = header.render(Map.of("GUNZIP_CMD", "gzip -cd"), "");
+
+        Assertions.assertTrue(rendered.startsWith("#!/bin/sh\n"));
+        Assertions.assertTrue(rendered.contains("gunzip_cmd=\"gzip -cd\""));
+        Assertions.assertTrue(rendered.contains("MS_Verify_Start"));
+    }
+
+}
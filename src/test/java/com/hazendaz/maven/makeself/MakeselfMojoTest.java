@@ -18,12 +18,21 @@
 package com.hazendaz.maven.makeself;
 
 import java.io.File;
+import java.io.InputStream;
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
 
 import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.plugin.logging.Log;
@@ -102,7 +111,8 @@ class MakeselfMojoTest {
     }
 
     /**
-     * Invokes the private {@code loadArgs} method on the given mojo via reflection.
+     * Invokes the private {@code loadArgs} method on the given mojo via reflection, for an archive build with the
+     * threads configured on the mojo.
      *
      * @param mojo
      *            the mojo instance
@@ -114,9 +124,12 @@ class MakeselfMojoTest {
      */
     @SuppressWarnings("unchecked")
     private static List<String> callLoadArgs(final MakeselfMojo mojo) throws Exception {
-        final Method method = MakeselfMojo.class.getDeclaredMethod("loadArgs");
+        final Field threads = findField(MakeselfMojo.class, "threads");
+        threads.setAccessible(true);
+        final ArchiveBuild build = new ArchiveBuild("", new ArchiveDefinition(), (Integer) threads.get(mojo));
+        final Method method = MakeselfMojo.class.getDeclaredMethod("loadArgs", ArchiveBuild.class);
         method.setAccessible(true);
-        return (List<String>) method.invoke(mojo);
+        return (List<String>) method.invoke(mojo, build);
     }
 
     /**
@@ -384,6 +397,8 @@ class MakeselfMojoTest {
                 "makeself.sh should be extracted to temp directory");
         Assertions.assertTrue(Files.exists(tempDir.resolve("makeself-header.sh")),
                 "makeself-header.sh should be extracted to temp directory");
+        Assertions.assertTrue(Files.exists(tempDir.resolve("makeself-header-fast.sh")),
+                "makeself-header-fast.sh should be extracted to temp directory");
     }
 
     /**
@@ -412,6 +427,46 @@ class MakeselfMojoTest {
         Assertions.assertEquals(modifiedFirst, modifiedSecond, "makeself.sh should not be overwritten on second call");
     }
 
+    /**
+     * Test executions extracting into a shared temp directory at the same time all see complete scripts and leave no
+     * temporary files behind.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    void testExtractMakeselfConcurrent() throws Exception {
+        final byte[] expected;
+        try (InputStream input = MakeselfMojo.class.getClassLoader()
+                .getResourceAsStream("META-INF/makeself/makeself.sh")) {
+            expected = input.readAllBytes();
+        }
+        final Method method = MakeselfMojo.class.getDeclaredMethod("extractMakeself");
+        method.setAccessible(true);
+        final ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            final List<Future<byte[]>> results = new ArrayList<>();
+            for (int i = 0; i < 16; i++) {
+                final MakeselfMojo mojo = new MakeselfMojo();
+                mojo.setLog(log);
+                setField(mojo, "makeselfTempDirectory", tempDir.resolve("shared").toFile());
+                results.add(executor.submit(() -> {
+                    method.invoke(mojo);
+                    return Files.readAllBytes(tempDir.resolve("shared/makeself.sh"));
+                }));
+            }
+            for (final Future<byte[]> result : results) {
+                Assertions.assertArrayEquals(expected, result.get(30, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        try (Stream<Path> files = Files.list(tempDir.resolve("shared"))) {
+            Assertions.assertEquals(3, files.count(), "only the three scripts are left");
+        }
+        Mockito.verify(log, Mockito.never()).error(Mockito.anyString());
+    }
+
     /**
      * Test setFilePermissions makes the file executable and logs the outcome.
      *
@@ -504,6 +559,474 @@ class MakeselfMojoTest {
         mojo.execute();
 
         Mockito.verify(log).info("Running makeself build");
+        Mockito.verify(log, Mockito.never()).debug("Execute Bash Version");
+        Mockito.verify(log, Mockito.never()).debug("Read Makeself Info on Resulting Shell Script");
+    }
+
+    /**
+     * Test diagnostics fork the bash and makeself version runs before the build.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    void testExecuteWithDiagnostics() throws Exception {
+        Assumptions.assumeFalse(AbstractGitMojo.WINDOWS, "Test only applicable on non-Windows");
+
+        final MakeselfMojo mojo = buildFullFlowMojo("makeself", "makeself.sh");
+        setField(mojo, "diagnostics", true);
+
+        mojo.execute();
+
+        Mockito.verify(log).debug("Execute Bash Version");
+        Mockito.verify(log).debug("Execute Makeself Version");
+    }
+
+    /**
+     * Test diagnostics log the info and list of the created archive without running it.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    void testExecuteJavaEngineWithDiagnostics() throws Exception {
+        final MakeselfMojo mojo = buildFullFlowMojo("makeself", "makeself.sh");
+        setField(mojo, "engine", MakeselfMojo.ENGINE_JAVA);
+        setField(mojo, "headerFile", Path.of("src/assembly/makeself/makeself-header.sh").toAbsolutePath().toString());
+        setField(mojo, "diagnostics", true);
+
+        mojo.execute();
+
+        Mockito.verify(log).debug("Read Makeself Info on Resulting Shell Script");
+        Mockito.verify(log).info("Identification: Test Archive");
+        Mockito.verify(log).info("Compression: gzip");
+        Mockito.verify(log).info(Mockito.endsWith(" ./makeself.sh"));
+        Mockito.verify(log, Mockito.never()).error(Mockito.anyString(), Mockito.any(Throwable.class));
+    }
+
+    /**
+     * Test the version flag reports the bundled version without starting a process.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    void testExecuteVersionWithoutDiagnostics() throws Exception {
+        final MakeselfMojo mojo = buildFullFlowMojo("makeself", "makeself.sh");
+        setField(mojo, "version", Boolean.TRUE);
+
+        mojo.execute();
+
+        Mockito.verify(log).info(Mockito.startsWith("Makeself version "));
+        Mockito.verify(log, Mockito.never()).debug("Execute Bash Version");
+    }
+
+    /**
+     * Test the java engine builds and attaches the archive in process.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    void testExecuteJavaEngine() throws Exception {
+        final MakeselfMojo mojo = buildFullFlowMojo("makeself", "makeself.sh");
+        setField(mojo, "engine", MakeselfMojo.ENGINE_JAVA);
+        setField(mojo, "headerFile", Path.of("src/assembly/makeself/makeself-header.sh").toAbsolutePath().toString());
+
+        mojo.execute();
+
+        Mockito.verify(log).info("Running makeself build");
+        Assertions.assertTrue(Files.isRegularFile(tempDir.resolve("output.sh")));
+    }
+
+    /**
+     * Test metrics report the phases and sizes of a java engine build.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    void testExecuteJavaEngineWithMetrics() throws Exception {
+        final MakeselfMojo mojo = buildFullFlowMojo("makeself", "makeself.sh");
+        setField(mojo, "engine", MakeselfMojo.ENGINE_JAVA);
+        setField(mojo, "headerFile", Path.of("src/assembly/makeself/makeself-header.sh").toAbsolutePath().toString());
+        setField(mojo, "metrics", true);
+
+        mojo.execute();
+
+        Mockito.verify(log).info(Mockito.startsWith("Makeself metrics: "));
+        final String json = Files.readString(tempDir.resolve("makeself-metrics/output.sh.json"));
+        Assertions.assertTrue(json.contains("\"engine\": \"java\""));
+        Assertions.assertTrue(json.contains("\"compression\": \"gzip\""));
+        Assertions.assertTrue(json.contains("\"build.tarMillis\""));
+        Assertions.assertTrue(json.contains("\"processes\": 0"));
+        Assertions.assertFalse(json.contains("\"bytesIn\": 0,"));
+    }
+
+    /**
+     * Test auto compression stores an already compressed payload when speed is targeted.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    void testExecuteJavaEngineAutoCompress() throws Exception {
+        final MakeselfMojo mojo = buildFullFlowMojo("makeself", "makeself.sh");
+        setField(mojo, "engine", MakeselfMojo.ENGINE_JAVA);
+        setField(mojo, "headerFile", Path.of("src/assembly/makeself/makeself-header.sh").toAbsolutePath().toString());
+        setField(mojo, "xz", Boolean.TRUE);
+        setField(mojo, "autoCompress", true);
+        setField(mojo, "autoCompressTarget", "speed");
+        setField(mojo, "autoCompressMinRatio", 1.5);
+        final byte[] blob = new byte[128 * 1024];
+        new Random(1).nextBytes(blob);
+        Files.write(tempDir.resolve("makeself/app.jar"), blob);
+
+        mojo.execute();
+
+        Mockito.verify(log).info(Mockito.startsWith("Auto compression chose none"));
+        Assertions.assertEquals("none", new MakeselfArchiveReader(tempDir.resolve("output.sh")).getCompression());
+    }
+
+    /**
+     * Test an unknown auto compression target throws MojoExecutionException.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    void testExecuteUnknownAutoCompressTarget() throws Exception {
+        final MakeselfMojo mojo = buildFullFlowMojo("makeself", "makeself.sh");
+        setField(mojo, "autoCompress", true);
+        setField(mojo, "autoCompressTarget", "cost");
+
+        final MojoExecutionException exception = Assertions.assertThrows(MojoExecutionException.class, mojo::execute);
+        Assertions.assertEquals("AutoCompressTarget: unknown 'cost', expected 'size' or 'speed'",
+                exception.getMessage());
+    }
+
+    /**
+     * Test an unknown entry order throws MojoExecutionException.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    void testExecuteUnknownEntryOrder() throws Exception {
+        final MakeselfMojo mojo = buildFullFlowMojo("makeself", "makeself.sh");
+        setField(mojo, "entryOrder", "random");
+
+        final MojoExecutionException exception = Assertions.assertThrows(MojoExecutionException.class, mojo::execute);
+        Assertions.assertEquals("EntryOrder: unknown 'random', expected 'name', 'type' or 'size'",
+                exception.getMessage());
+    }
+
+    /**
+     * Test an unknown header template throws MojoExecutionException.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    void testExecuteUnknownHeaderTemplate() throws Exception {
+        final MakeselfMojo mojo = buildFullFlowMojo("makeself", "makeself.sh");
+        setField(mojo, "headerTemplate", "slow");
+
+        final MojoExecutionException exception = Assertions.assertThrows(MojoExecutionException.class, mojo::execute);
+        Assertions.assertEquals("HeaderTemplate: unknown 'slow', expected 'standard' or 'fast'",
+                exception.getMessage());
+    }
+
+    /**
+     * Test the java engine builds with the fast header and validates the result before attaching it.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    void testExecuteJavaEngineFastHeader() throws Exception {
+        Assumptions.assumeFalse(AbstractGitMojo.WINDOWS, "Test only applicable on non-Windows");
+        final MakeselfMojo mojo = buildFullFlowMojo("makeself", "makeself.sh");
+        // Test resources only contain a stub, put the shipped header where it is extracted
+        Files.copy(Path.of("src/assembly/makeself/makeself-header-fast.sh"),
+                tempDir.resolve("makeself-tmp/makeself-header-fast.sh"));
+        setField(mojo, "engine", MakeselfMojo.ENGINE_JAVA);
+        setField(mojo, "headerTemplate", MakeselfMojo.HEADER_FAST);
+
+        mojo.execute();
+
+        Assertions.assertEquals("Test Archive", new MakeselfArchiveReader(tempDir.resolve("output.sh")).getLabel());
+        Mockito.verify(log).debug(Mockito.startsWith("Execution commands: [bash, -n, "));
+    }
+
+    /**
+     * Create an archive definition.
+     *
+     * @param archiveDir
+     *            the archive directory, may be null
+     * @param fileName
+     *            the file name
+     * @param label
+     *            the label, may be null
+     * @param classifier
+     *            the classifier
+     *
+     * @return the archive definition
+     */
+    private static ArchiveDefinition archive(final String archiveDir, final String fileName, final String label,
+            final String classifier) {
+        final ArchiveDefinition definition = new ArchiveDefinition();
+        definition.setArchiveDir(archiveDir);
+        definition.setFileName(fileName);
+        definition.setLabel(label);
+        definition.setClassifier(classifier);
+        return definition;
+    }
+
+    /**
+     * Test archive definitions are built with the shared configuration and attached under their own classifiers.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    void testExecuteArchives() throws Exception {
+        final MakeselfMojo mojo = buildFullFlowMojo("makeself", "makeself.sh");
+        Files.createFile(Files.createDirectories(tempDir.resolve("other")).resolve("makeself.sh"));
+        final MavenProjectHelper projectHelper = Mockito.mock(MavenProjectHelper.class);
+        setField(mojo, "projectHelper", projectHelper);
+        setField(mojo, "engine", MakeselfMojo.ENGINE_JAVA);
+        setField(mojo, "headerFile", Path.of("src/assembly/makeself/makeself-header.sh").toAbsolutePath().toString());
+        setField(mojo, "extension", "sh");
+        setField(mojo, "archives", Arrays.asList(archive(null, "first.sh", null, "first"),
+                archive("other", "second.sh", "Second Archive", "second")));
+
+        mojo.execute();
+
+        Assertions.assertEquals("Test Archive", new MakeselfArchiveReader(tempDir.resolve("first.sh")).getLabel());
+        Assertions.assertEquals("Second Archive",
+                new MakeselfArchiveReader(tempDir.resolve("second.sh")).getLabel());
+        Assertions.assertFalse(Files.exists(tempDir.resolve("output.sh")));
+        Mockito.verify(projectHelper).attachArtifact(Mockito.any(), Mockito.eq("sh"), Mockito.eq("first"),
+                Mockito.eq(tempDir.resolve("first.sh").toFile()));
+        Mockito.verify(projectHelper).attachArtifact(Mockito.any(), Mockito.eq("sh"), Mockito.eq("second"),
+                Mockito.eq(tempDir.resolve("second.sh").toFile()));
+        Mockito.verify(log).info("Building 2 archives, " + Math.min(2, Runtime.getRuntime().availableProcessors())
+                + " at a time");
+    }
+
+    /**
+     * Test archive definitions with a shared base write their common files once and remove the base afterwards.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    void testExecuteArchivesSharedBase() throws Exception {
+        final MakeselfMojo mojo = buildFullFlowMojo("makeself", "makeself.sh");
+        final Path otherDir = Files.createDirectories(tempDir.resolve("other"));
+        Files.copy(tempDir.resolve("makeself/makeself.sh"), otherDir.resolve("makeself.sh"),
+                StandardCopyOption.COPY_ATTRIBUTES);
+        Files.writeString(otherDir.resolve("other.txt"), "other");
+        setField(mojo, "engine", MakeselfMojo.ENGINE_JAVA);
+        setField(mojo, "headerFile", Path.of("src/assembly/makeself/makeself-header.sh").toAbsolutePath().toString());
+        setField(mojo, "sharedBase", true);
+        setField(mojo, "archives", Arrays.asList(archive(null, "first.sh", null, "first"),
+                archive("other", "second.sh", null, "second")));
+
+        mojo.execute();
+
+        final MakeselfArchiveReader first = new MakeselfArchiveReader(tempDir.resolve("first.sh"));
+        final MakeselfArchiveReader second = new MakeselfArchiveReader(tempDir.resolve("second.sh"));
+        Assertions.assertEquals(1, first.getFileSizes().size());
+        Assertions.assertEquals(2, second.getFileSizes().size());
+        Assertions.assertEquals(first.getFileSizes().get(0), second.getFileSizes().get(0));
+        Assertions.assertEquals(first.getCrc().get(0), second.getCrc().get(0));
+        Mockito.verify(log).info("Writing 1 files shared by 2 archives");
+        try (Stream<Path> files = Files.list(tempDir.resolve("makeself-tmp"))) {
+            Assertions.assertTrue(files.noneMatch(file -> file.getFileName().toString().endsWith(".tmp")),
+                    "the shared base segment is removed");
+        }
+    }
+
+    /**
+     * Test a failed archive fails the execution after the other archives are built.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    void testExecuteArchivesFailure() throws Exception {
+        final MakeselfMojo mojo = buildFullFlowMojo("makeself", "makeself.sh");
+        setField(mojo, "engine", MakeselfMojo.ENGINE_JAVA);
+        setField(mojo, "headerFile", Path.of("src/assembly/makeself/makeself-header.sh").toAbsolutePath().toString());
+        setField(mojo, "archives", Arrays.asList(archive("missing", "first.sh", null, "first"),
+                archive(null, "second.sh", null, "second")));
+
+        final MojoExecutionException exception = Assertions.assertThrows(MojoExecutionException.class, mojo::execute);
+
+        Assertions.assertTrue(exception.getMessage().startsWith("ArchiveDir: missing"));
+        Assertions.assertTrue(Files.exists(tempDir.resolve("second.sh")));
+        Mockito.verify(log).error(Mockito.startsWith("Archive 'first.sh' failed: "));
+    }
+
+    /**
+     * Test archive definitions attached under the same classifier throw MojoExecutionException.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    void testExecuteArchivesDuplicateClassifier() throws Exception {
+        final MakeselfMojo mojo = buildFullFlowMojo("makeself", "makeself.sh");
+        setField(mojo, "archives",
+                Arrays.asList(archive(null, "first.sh", null, null), archive(null, "second.sh", null, null)));
+
+        final MojoExecutionException exception = Assertions.assertThrows(MojoExecutionException.class, mojo::execute);
+        Assertions.assertEquals("Archives: duplicate classifier 'null'", exception.getMessage());
+    }
+
+    /**
+     * Test an invalid split size throws MojoExecutionException.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    void testExecuteInvalidSplitSize() throws Exception {
+        final MakeselfMojo mojo = buildFullFlowMojo("makeself", "makeself.sh");
+        setField(mojo, "splitSize", "2x");
+
+        final MojoExecutionException exception = Assertions.assertThrows(MojoExecutionException.class, mojo::execute);
+        Assertions.assertEquals("SplitSize: invalid '2x', expected bytes or a size with suffix k, m or g",
+                exception.getMessage());
+    }
+
+    /**
+     * Test a split archive attaches the launcher with the classifier and each part with an indexed classifier.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    void testExecuteJavaEngineSplit() throws Exception {
+        final MakeselfMojo mojo = buildFullFlowMojo("makeself", "makeself.sh");
+        final MavenProjectHelper projectHelper = Mockito.mock(MavenProjectHelper.class);
+        setField(mojo, "projectHelper", projectHelper);
+        setField(mojo, "engine", MakeselfMojo.ENGINE_JAVA);
+        setField(mojo, "headerFile", Path.of("src/assembly/makeself/makeself-header.sh").toAbsolutePath().toString());
+        setField(mojo, "classifier", "linux");
+        setField(mojo, "extension", "sh");
+        setField(mojo, "splitSize", "4k");
+
+        mojo.execute();
+
+        final Path launcher = tempDir.resolve(MakeselfMojo.SPLIT_DIRECTORY).resolve("output.sh");
+        final long size = Files.size(tempDir.resolve("output.sh"));
+        final long parts = (size + 4095) / 4096;
+        Assertions.assertTrue(parts > 1);
+        Mockito.verify(projectHelper).attachArtifact(Mockito.any(), Mockito.eq("sh"), Mockito.eq("linux"),
+                Mockito.eq(launcher.toFile()));
+        Mockito.verify(projectHelper).attachArtifact(Mockito.any(), Mockito.eq("sh"), Mockito.eq("linux-part1"),
+                Mockito.eq(launcher.resolveSibling("output-part1.sh").toFile()));
+        Mockito.verify(projectHelper).attachArtifact(Mockito.any(), Mockito.eq("sh"),
+                Mockito.eq("linux-part" + parts), Mockito.eq(launcher.resolveSibling("output-part" + parts + ".sh")
+                        .toFile()));
+        Mockito.verify(projectHelper, Mockito.times((int) parts + 1)).attachArtifact(Mockito.any(), Mockito.any(),
+                Mockito.any(), Mockito.any(File.class));
+    }
+
+    /**
+     * Test a split that cannot be written fails the build rather than attaching nothing.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    void testExecuteSplitFailure() throws Exception {
+        final MakeselfMojo mojo = buildFullFlowMojo("makeself", "makeself.sh");
+        final MavenProjectHelper projectHelper = Mockito.mock(MavenProjectHelper.class);
+        setField(mojo, "projectHelper", projectHelper);
+        setField(mojo, "engine", MakeselfMojo.ENGINE_JAVA);
+        setField(mojo, "headerFile", Path.of("src/assembly/makeself/makeself-header.sh").toAbsolutePath().toString());
+        setField(mojo, "splitSize", "4k");
+        // A file where the split directory goes
+        Files.writeString(tempDir.resolve(MakeselfMojo.SPLIT_DIRECTORY), "in the way");
+
+        final MojoExecutionException exception = Assertions.assertThrows(MojoExecutionException.class, mojo::execute);
+        Assertions.assertEquals("Unable to split archive 'output.sh'", exception.getMessage());
+        Mockito.verifyNoInteractions(projectHelper);
+    }
+
+    /**
+     * Test an invalid output timestamp of a reproducible build throws MojoExecutionException.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    void testExecuteInvalidOutputTimestamp() throws Exception {
+        final MakeselfMojo mojo = buildFullFlowMojo("makeself", "makeself.sh");
+        setField(mojo, "reproducible", true);
+        setField(mojo, "outputTimestamp", "yesterday");
+
+        final MojoExecutionException exception = Assertions.assertThrows(MojoExecutionException.class, mojo::execute);
+        Assertions.assertTrue(exception.getMessage().startsWith("OutputTimestamp: invalid 'yesterday'"));
+    }
+
+    /**
+     * Test an incremental build skips an unchanged archive and still attaches it.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    void testExecuteIncrementalSkipsUnchanged() throws Exception {
+        final MakeselfMojo mojo = buildFullFlowMojo("makeself", "makeself.sh");
+        setField(mojo, "engine", MakeselfMojo.ENGINE_JAVA);
+        setField(mojo, "headerFile", Path.of("src/assembly/makeself/makeself-header.sh").toAbsolutePath().toString());
+        setField(mojo, "incremental", true);
+
+        mojo.execute();
+        mojo.execute();
+
+        Mockito.verify(log).info("Running makeself build");
+        Mockito.verify(log).info("Archive 'output.sh' is up to date, skipping makeself build");
+
+        Files.writeString(tempDir.resolve("makeself/added.txt"), "added");
+        mojo.execute();
+
+        Mockito.verify(log, Mockito.times(2)).info("Running makeself build");
+    }
+
+    /**
+     * Test an unknown engine throws MojoExecutionException.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    void testExecuteUnknownEngine() throws Exception {
+        final MakeselfMojo mojo = buildFullFlowMojo("makeself", "makeself.sh");
+        setField(mojo, "engine", "python");
+
+        Assertions.assertThrows(MojoExecutionException.class, mojo::execute);
+    }
+
+    /**
+     * Test the java engine rejects options that need external tools.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    void testExecuteJavaEngineUnsupportedOption() throws Exception {
+        final MakeselfMojo mojo = buildFullFlowMojo("makeself", "makeself.sh");
+        setField(mojo, "engine", MakeselfMojo.ENGINE_JAVA);
+        setField(mojo, "gpgEncrypt", Boolean.TRUE);
+
+        final MojoExecutionException e = Assertions.assertThrows(MojoExecutionException.class, mojo::execute);
+        Assertions.assertTrue(e.getMessage().contains("gpg"));
     }
 
     /**
@@ -740,10 +1263,11 @@ class MakeselfMojoTest {
         Mockito.when(repoSession.getLocalRepository()).thenReturn(localRepository);
         setField(mojo, "repoSession", repoSession);
 
-        // Invoke the private execute(List, boolean) method directly
-        final Method executeMethod = MakeselfMojo.class.getDeclaredMethod("execute", List.class, boolean.class);
+        // Invoke the private execute(ArchiveBuild, List) method directly
+        final Method executeMethod = MakeselfMojo.class.getDeclaredMethod("execute", ArchiveBuild.class, List.class);
         executeMethod.setAccessible(true);
-        executeMethod.invoke(mojo, Arrays.asList("bash", "--version"), false);
+        executeMethod.invoke(mojo, new ArchiveBuild("", new ArchiveDefinition(), null),
+                Arrays.asList("bash", "--version"));
 
         // No exception means the portableGit != null PATH manipulation ran without error
         Mockito.verify(log, Mockito.atLeastOnce()).debug(Mockito.anyString());
@@ -857,9 +1381,10 @@ class MakeselfMojoTest {
         final MakeselfMojo mojo = new MakeselfMojo();
         mojo.setLog(log);
 
-        final Method executeMethod = MakeselfMojo.class.getDeclaredMethod("execute", List.class, boolean.class);
+        final Method executeMethod = MakeselfMojo.class.getDeclaredMethod("execute", ArchiveBuild.class, List.class);
         executeMethod.setAccessible(true);
-        executeMethod.invoke(mojo, Arrays.asList("bash", "-c", "exit 1"), false);
+        executeMethod.invoke(mojo, new ArchiveBuild("", new ArchiveDefinition(), null),
+                Arrays.asList("bash", "-c", "exit 1"));
 
         Mockito.verify(log).error(Mockito.contains("makeself failed with error status:"));
     }
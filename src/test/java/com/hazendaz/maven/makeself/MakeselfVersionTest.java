@@ -0,0 +1,41 @@
+/*
+ *    Copyright 2011-2026 the original author or authors.
+ *
+ *    This program is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU General Public License
+ *    as published by the Free Software Foundation; either version 2
+ *    of the License, or (at your option) any later version.
+ *
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.gnu.org/licenses/old-licenses/gpl-2.0.en.html
+ *
+ *    This program is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ */
+package com.hazendaz.maven.makeself;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * The Class MakeselfVersionTest.
+ */
+class MakeselfVersionTest {
+
+    /**
+     * Test versions are never null, even when the script does not define them.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    void testVersionsNotNull() throws Exception {
+        final MakeselfVersion version = new MakeselfVersion();
+        Assertions.assertNotNull(version.getVersion());
+        Assertions.assertNotNull(version.getPluginVersion());
+    }
+
+}
@@ -0,0 +1,156 @@
+/*
+ *    Copyright 2011-2026 the original author or authors.
+ *
+ *    This program is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU General Public License
+ *    as published by the Free Software Foundation; either version 2
+ *    of the License, or (at your option) any later version.
+ *
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.gnu.org/licenses/old-licenses/gpl-2.0.en.html
+ *
+ *    This program is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ */
+package com.hazendaz.maven.makeself;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Random;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * The Class ParallelGzipOutputStreamTest.
+ */
+class ParallelGzipOutputStreamTest {
+
+    /**
+     * Compress with the parallel stream.
+     *
+     * @param data
+     *            the data
+     * @param threads
+     *            the threads
+     * @param blockSize
+     *            the block size
+     *
+     * @return the gzip bytes
+     *
+     * @throws IOException
+     *             Signals that an I/O exception has occurred.
+     */
+    private static byte[] compress(final byte[] data, final int threads, final int blockSize) throws IOException {
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+        try (ParallelGzipOutputStream gzip = new ParallelGzipOutputStream(output, 9, threads, blockSize)) {
+            // Uneven writes so blocks are filled across calls
+            int offset = 0;
+            int chunk = 1;
+            while (offset < data.length) {
+                final int length = Math.min(chunk, data.length - offset);
+                gzip.write(data, offset, length);
+                offset += length;
+                chunk = chunk * 3 + 1;
+            }
+        }
+        return output.toByteArray();
+    }
+
+    /**
+     * Decompress a single gzip member.
+     *
+     * @param gzip
+     *            the gzip bytes
+     *
+     * @return the data
+     *
+     * @throws IOException
+     *             Signals that an I/O exception has occurred.
+     */
+    private static byte[] decompress(final byte[] gzip) throws IOException {
+        try (InputStream input = new GZIPInputStream(new ByteArrayInputStream(gzip))) {
+            return input.readAllBytes();
+        }
+    }
+
+    /**
+     * Test data spanning many blocks round trips as one gzip member.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    void testRoundTrip() throws Exception {
+        final byte[] data = new byte[300_000];
+        final Random random = new Random(42);
+        for (int i = 0; i < data.length; i++) {
+            data[i] = (byte) ('a' + random.nextInt(8));
+        }
+
+        Assertions.assertArrayEquals(data, decompress(compress(data, 4, 4096)));
+        Assertions.assertArrayEquals(data, decompress(compress(data, 1, 4096)));
+        Assertions.assertArrayEquals(data, decompress(compress(data, 3, ParallelGzipOutputStream.DEFAULT_BLOCK_SIZE)));
+    }
+
+    /**
+     * Test empty input and input of exactly one block.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    void testBoundaries() throws Exception {
+        Assertions.assertArrayEquals(new byte[0], decompress(compress(new byte[0], 2, 1024)));
+        final byte[] block = new byte[1024];
+        for (int i = 0; i < block.length; i++) {
+            block[i] = (byte) (i % 251);
+        }
+        Assertions.assertArrayEquals(block, decompress(compress(block, 2, 1024)));
+    }
+
+    /**
+     * Test each block is primed with the previous one, so data repeated across blocks still compresses.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    void testDictionaryPriming() throws Exception {
+        final byte[] chunk = new byte[8192];
+        new Random(7).nextBytes(chunk);
+        final byte[] data = new byte[chunk.length * 16];
+        for (int i = 0; i < 16; i++) {
+            System.arraycopy(chunk, 0, data, i * chunk.length, chunk.length);
+        }
+
+        final byte[] gzip = compress(data, 4, chunk.length);
+
+        Assertions.assertArrayEquals(data, decompress(gzip));
+        Assertions.assertTrue(gzip.length < chunk.length * 2, "blocks after the first should reference the previous");
+    }
+
+    /**
+     * Test the gzip compression uses the parallel stream unless a single thread is requested.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    void testCompressionSelection() throws Exception {
+        try (OutputStream gzip = Compression.GZIP.compress(new ByteArrayOutputStream(), 9, 2)) {
+            Assertions.assertTrue(gzip instanceof ParallelGzipOutputStream);
+        }
+        try (OutputStream gzip = Compression.GZIP.compress(new ByteArrayOutputStream(), 9, 1)) {
+            Assertions.assertFalse(gzip instanceof ParallelGzipOutputStream);
+        }
+    }
+
+}
@@ -0,0 +1,90 @@
+/*
+ *    Copyright 2011-2026 the original author or authors.
+ *
+ *    This program is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU General Public License
+ *    as published by the Free Software Foundation; either version 2
+ *    of the License, or (at your option) any later version.
+ *
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.gnu.org/licenses/old-licenses/gpl-2.0.en.html
+ *
+ *    This program is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ */
+package com.hazendaz.maven.makeself;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.util.Random;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.tukaani.xz.LZMA2Options;
+import org.tukaani.xz.XZInputStream;
+
+/**
+ * The Class ParallelXzOutputStreamTest.
+ */
+class ParallelXzOutputStreamTest {
+
+    /**
+     * Test data spanning several blocks round trips as concatenated xz streams.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    void testRoundTrip() throws Exception {
+        final LZMA2Options options = new LZMA2Options(0);
+        final byte[] data = new byte[ParallelXzOutputStream.blockSize(options) * 2 + 12345];
+        final Random random = new Random(3);
+        for (int i = 0; i < data.length; i++) {
+            data[i] = (byte) ('a' + random.nextInt(16));
+        }
+
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+        try (ParallelXzOutputStream xz = new ParallelXzOutputStream(output, options, 3)) {
+            xz.write(data);
+        }
+
+        try (InputStream input = new XZInputStream(new ByteArrayInputStream(output.toByteArray()))) {
+            Assertions.assertArrayEquals(data, input.readAllBytes());
+        }
+    }
+
+    /**
+     * Test empty input still produces a valid xz stream.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    void testEmpty() throws Exception {
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+        // Closed without writing anything
+        new ParallelXzOutputStream(output, new LZMA2Options(1), 2).close();
+
+        try (InputStream input = new XZInputStream(new ByteArrayInputStream(output.toByteArray()))) {
+            Assertions.assertEquals(0, input.readAllBytes().length);
+        }
+    }
+
+    /**
+     * Test blocks are three times the dictionary size, as xz uses for threaded compression.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    void testBlockSize() throws Exception {
+        final LZMA2Options options = new LZMA2Options(6);
+        Assertions.assertEquals(3 * options.getDictSize(), ParallelXzOutputStream.blockSize(options));
+        Assertions.assertTrue(ParallelXzOutputStream.memoryPerThread(options) > options.getDictSize());
+    }
+
+}
@@ -0,0 +1,63 @@
+/*
+ *    Copyright 2011-2026 the original author or authors.
+ *
+ *    This program is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU General Public License
+ *    as published by the Free Software Foundation; either version 2
+ *    of the License, or (at your option) any later version.
+ *
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.gnu.org/licenses/old-licenses/gpl-2.0.en.html
+ *
+ *    This program is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ */
+package com.hazendaz.maven.makeself;
+
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * The Class PosixChecksumTest.
+ */
+class PosixChecksumTest {
+
+    /**
+     * Test checksum of empty input matches cksum.
+     */
+    @Test
+    void testEmpty() {
+        Assertions.assertEquals(4294967295L, new PosixChecksum().getValue());
+    }
+
+    /**
+     * Test checksum matches cksum output.
+     */
+    @Test
+    void testKnownValue() {
+        final PosixChecksum checksum = new PosixChecksum();
+        final byte[] data = "hello\n".getBytes(StandardCharsets.US_ASCII);
+        checksum.update(data, 0, data.length);
+        Assertions.assertEquals(3015617425L, checksum.getValue());
+    }
+
+    /**
+     * Test single byte updates give the same result as block updates, and reset starts over.
+     */
+    @Test
+    void testByteUpdatesAndReset() {
+        final PosixChecksum checksum = new PosixChecksum();
+        for (final byte b : "hello\n".getBytes(StandardCharsets.US_ASCII)) {
+            checksum.update(b);
+        }
+        Assertions.assertEquals(3015617425L, checksum.getValue());
+        checksum.reset();
+        Assertions.assertEquals(4294967295L, checksum.getValue());
+    }
+
+}
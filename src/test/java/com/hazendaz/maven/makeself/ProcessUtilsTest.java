@@ -17,14 +17,27 @@
  */
 package com.hazendaz.maven.makeself;
 
+import java.util.Arrays;
+
+import org.apache.maven.plugin.logging.Log;
 import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Assumptions;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
 
 /**
  * The Class ProcessUtilsTest.
  */
+@ExtendWith(MockitoExtension.class)
 class ProcessUtilsTest {
 
+    /** Mock Maven log. */
+    @Mock
+    private Log log;
+
     /**
      * Test instantiation.
      */
@@ -33,4 +46,42 @@ class ProcessUtilsTest {
         Assertions.assertNotNull(new ProcessUtils());
     }
 
+    /**
+     * Test the output of a successful process is logged.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    void testRunSuccess() throws Exception {
+        final ProcessBuilder processBuilder = new ProcessBuilder(AbstractGitMojo.WINDOWS
+                ? Arrays.asList("cmd", "/c", "echo", "hello") : Arrays.asList("echo", "hello"));
+
+        Assertions.assertEquals(0, ProcessUtils.run(processBuilder, this.log, "failed:"));
+
+        Mockito.verify(this.log).info(Mockito.contains("hello"));
+        Mockito.verify(this.log).info("");
+        Mockito.verify(this.log, Mockito.never()).error(Mockito.anyString());
+    }
+
+    /**
+     * Test a failed process logs its status and the last lines of its output, however much output it wrote.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    void testRunFailureShowsTail() throws Exception {
+        Assumptions.assumeFalse(AbstractGitMojo.WINDOWS, "Uses bash which is only available on Unix");
+
+        final ProcessBuilder processBuilder = new ProcessBuilder("bash", "-c",
+                "i=0; while [ $i -lt 20000 ]; do i=$((i+1)); echo line$i; done; echo oops >&2; exit 3");
+
+        Assertions.assertEquals(3, ProcessUtils.run(processBuilder, this.log, "failed:"));
+
+        Mockito.verify(this.log).error("failed: 3");
+        Mockito.verify(this.log).error(Mockito.startsWith("Last " + ProcessUtils.TAIL_LINES + " lines of output:"));
+        Mockito.verify(this.log).error(Mockito.endsWith("line20000" + System.lineSeparator() + "oops"));
+    }
+
 }
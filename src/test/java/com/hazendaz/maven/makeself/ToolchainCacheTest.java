@@ -0,0 +1,111 @@
+/*
+ *    Copyright 2011-2026 the original author or authors.
+ *
+ *    This program is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU General Public License
+ *    as published by the Free Software Foundation; either version 2
+ *    of the License, or (at your option) any later version.
+ *
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.gnu.org/licenses/old-licenses/gpl-2.0.en.html
+ *
+ *    This program is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ */
+package com.hazendaz.maven.makeself;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.maven.plugin.logging.Log;
+import org.eclipse.aether.DefaultRepositorySystemSession;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+/**
+ * The Class ToolchainCacheTest.
+ */
+@ExtendWith(MockitoExtension.class)
+class ToolchainCacheTest {
+
+    /** Mock Maven log. */
+    @Mock
+    private Log log;
+
+    /**
+     * Test the cache is shared within a session and not without one.
+     */
+    @Test
+    void testGet() {
+        final DefaultRepositorySystemSession session = new DefaultRepositorySystemSession();
+
+        Assertions.assertSame(ToolchainCache.get(session), ToolchainCache.get(session));
+        Assertions.assertNotSame(ToolchainCache.get(session), ToolchainCache.get(new DefaultRepositorySystemSession()));
+        Assertions.assertNotSame(ToolchainCache.get(null), ToolchainCache.get(null));
+    }
+
+    /**
+     * Test builder threads starting together all get the same cache.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    void testGetConcurrent() throws Exception {
+        final DefaultRepositorySystemSession session = new DefaultRepositorySystemSession();
+        final ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            final List<Future<ToolchainCache>> caches = new ArrayList<>();
+            for (int i = 0; i < 32; i++) {
+                caches.add(executor.submit(() -> ToolchainCache.get(session)));
+            }
+            for (final Future<ToolchainCache> cache : caches) {
+                Assertions.assertSame(ToolchainCache.get(session), cache.get(10, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Test the portable git coordinates and makeself version are read once.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    void testReadOnce() throws Exception {
+        final ToolchainCache cache = new ToolchainCache();
+
+        Assertions.assertSame(cache.getPortableGit(this.log), cache.getPortableGit(this.log));
+        Assertions.assertSame(cache.getMakeselfVersion(), cache.getMakeselfVersion());
+    }
+
+    /**
+     * Test installs and extractions are remembered.
+     */
+    @Test
+    void testRemember() {
+        final ToolchainCache cache = new ToolchainCache();
+        final Path directory = Path.of("target", "makeself-tmp");
+
+        Assertions.assertFalse(cache.isGitInstalled("git"));
+        Assertions.assertFalse(cache.isMakeselfExtracted(directory));
+        cache.gitInstalled("git");
+        cache.makeselfExtracted(directory);
+        Assertions.assertTrue(cache.isGitInstalled("git"));
+        Assertions.assertTrue(cache.isMakeselfExtracted(directory));
+    }
+
+}
@@ -0,0 +1,3 @@
+#!/bin/sh
+# Stub makeself-header-fast.sh for unit testing only
+echo "stub"